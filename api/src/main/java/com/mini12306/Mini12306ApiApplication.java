@@ -3,6 +3,7 @@ package com.mini12306;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.lang.NonNull;
@@ -11,6 +12,7 @@ import org.springframework.lang.NonNull;
  * Mini12306 API应用程序入口
  */
 @SpringBootApplication
+@EnableScheduling
 public class Mini12306ApiApplication {
     public static void main(String[] args) {
         SpringApplication.run(Mini12306ApiApplication.class, args);
@@ -0,0 +1,21 @@
+package com.mini12306.config;
+
+import com.mini12306.util.CodeGenerator;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 编号生成器配置，为当前实例设置雪花算法节点号
+ */
+@Configuration
+public class CodeGeneratorConfig {
+
+    @Value("${mini12306.node-id:0}")
+    private long nodeId;
+
+    @PostConstruct
+    public void init() {
+        CodeGenerator.setNodeId(nodeId);
+    }
+}
@@ -9,6 +9,8 @@ import com.mini12306.repository.StationRepository;
 import com.mini12306.repository.AccountRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 import java.text.SimpleDateFormat;
@@ -16,8 +18,10 @@ import java.util.Date;
 
 /**
  * 数据初始化
+ * 先于站点字典、时刻表索引等内存数据的加载执行
  */
 @Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
 public class DataInitializer implements CommandLineRunner {
     
     @Autowired
@@ -78,6 +82,7 @@ public class DataInitializer implements CommandLineRunner {
             // 初始化北京站
             Station station1 = new Station();
             station1.setName("北京站");
+            station1.setPinyin("bei jing zhan");
             station1.setCode("100000");
             station1.setCity("北京");
             station1.setCreateTime(parseDate("2025-06-05 13:07:20"));
@@ -87,6 +92,7 @@ public class DataInitializer implements CommandLineRunner {
             // 初始化广州站
             Station station2 = new Station();
             station2.setName("广州站");
+            station2.setPinyin("guang zhou zhan");
             station2.setCode("510000");
             station2.setCity("广州");
             station2.setCreateTime(parseDate("2025-06-05 13:07:53"));
@@ -96,6 +102,7 @@ public class DataInitializer implements CommandLineRunner {
             // 初始化上海站
             Station station3 = new Station();
             station3.setName("上海站");
+            station3.setPinyin("shang hai zhan");
             station3.setCode("200000");
             station3.setCity("上海");
             station3.setCreateTime(parseDate("2025-06-05 13:08:17"));
@@ -105,6 +112,7 @@ public class DataInitializer implements CommandLineRunner {
             // 初始化武昌站
             Station station4 = new Station();
             station4.setName("武昌站");
+            station4.setPinyin("wu chang zhan");
             station4.setCode("430061");
             station4.setCity("武汉");
             station4.setCreateTime(parseDate("2025-06-05 13:09:04"));
@@ -114,6 +122,7 @@ public class DataInitializer implements CommandLineRunner {
             // 初始化沈阳北站
             Station station5 = new Station();
             station5.setName("沈阳北站");
+            station5.setPinyin("shen yang bei zhan");
             station5.setCode("110000");
             station5.setCity("沈阳");
             station5.setCreateTime(parseDate("2025-06-05 13:10:08"));
@@ -123,6 +132,7 @@ public class DataInitializer implements CommandLineRunner {
             // 初始化广州白云站
             Station station6 = new Station();
             station6.setName("广州白云站");
+            station6.setPinyin("guang zhou bai yun zhan");
             station6.setCode("510400");
             station6.setCity("广州");
             station6.setCreateTime(parseDate("2025-06-05 13:11:04"));
@@ -0,0 +1,48 @@
+package com.mini12306.config;
+
+import com.mini12306.service.OrderService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * 定时取消超过保留时长仍未支付的订单，释放其占用的座位
+ */
+@Component
+public class OrderExpiryScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderExpiryScheduler.class);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Value("${mini12306.order.hold-ttl-minutes:15}")
+    private int holdTtlMinutes;
+
+    @Value("${mini12306.order.sweep-batch-size:100}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${mini12306.order.sweep-interval-ms:60000}")
+    public void sweep() {
+        Date deadline = new Date(System.currentTimeMillis() - holdTtlMinutes * 60 * 1000L);
+
+        // 分批处理，每批单独提交事务，避免长事务锁住大量订单
+        int total = 0;
+        while (true) {
+            int expired = orderService.expireUnpaidOrders(deadline, batchSize);
+            total += expired;
+            if (expired < batchSize) {
+                break;
+            }
+        }
+
+        if (total > 0) {
+            log.info("超时订单清理完成，取消订单数: {}", total);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.mini12306.config;
+
+import com.mini12306.service.OrderStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 定时把已结束的日期汇总到订单日汇总表，启动后立即执行一次以补齐缺失的日期
+ */
+@Component
+public class OrderStatsScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatsScheduler.class);
+
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    @Scheduled(fixedDelayString = "${mini12306.stats.rollup-interval-ms:600000}")
+    public void rollup() {
+        int days = orderStatsService.rollup();
+        if (days > 0) {
+            log.info("订单日汇总完成，汇总天数: {}", days);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.mini12306.config;
+
+import com.mini12306.service.SeatAllocationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * 启动时根据已售车票重建座位图
+ */
+@Component
+public class SeatMapInitializer implements CommandLineRunner {
+
+    @Autowired
+    private SeatAllocationService seatAllocationService;
+
+    @Override
+    public void run(String... args) {
+        seatAllocationService.rebuild();
+    }
+}
@@ -148,7 +148,7 @@ public class SecurityConfig implements WebMvcConfigurer {
     public void addInterceptors(@NonNull InterceptorRegistry registry) {
         // 添加用户令牌拦截器
         registry.addInterceptor(new TokenInterceptor())
-                .addPathPatterns("/api/auth/**", "/api/user/**", "/api/train/**", "/api/ticket/**", "/api/order/**", "/api/passenger/**")
+                .addPathPatterns("/api/auth/**", "/api/user/**", "/api/train/**", "/api/ticket/**", "/api/order/**", "/api/passenger/**", "/api/waitlist/**")
                 .excludePathPatterns("/api/auth/login", "/api/auth/register");
                 
         // 添加管理员令牌拦截器
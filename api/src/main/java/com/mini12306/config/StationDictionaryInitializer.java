@@ -0,0 +1,21 @@
+package com.mini12306.config;
+
+import com.mini12306.service.StationDictionaryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * 启动时加载站点字典
+ */
+@Component
+public class StationDictionaryInitializer implements CommandLineRunner {
+
+    @Autowired
+    private StationDictionaryService stationDictionaryService;
+
+    @Override
+    public void run(String... args) {
+        stationDictionaryService.reload();
+    }
+}
@@ -0,0 +1,21 @@
+package com.mini12306.config;
+
+import com.mini12306.service.TimetableService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * 启动时根据列车和路线构建时刻表索引
+ */
+@Component
+public class TimetableInitializer implements CommandLineRunner {
+
+    @Autowired
+    private TimetableService timetableService;
+
+    @Override
+    public void run(String... args) {
+        timetableService.rebuild();
+    }
+}
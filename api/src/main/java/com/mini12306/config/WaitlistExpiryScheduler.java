@@ -0,0 +1,29 @@
+package com.mini12306.config;
+
+import com.mini12306.service.WaitlistService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 定时把发车日期已过仍在候补中的订单标记为已过期
+ * 没有座位释放事件的车次不会触发匹配，候补订单需要由这里清理
+ */
+@Component
+public class WaitlistExpiryScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitlistExpiryScheduler.class);
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Scheduled(fixedDelayString = "${mini12306.waitlist.expire-interval-ms:3600000}")
+    public void sweep() {
+        int expired = waitlistService.expireDeparted();
+        if (expired > 0) {
+            log.info("过期候补清理完成，过期候补数: {}", expired);
+        }
+    }
+}
@@ -45,6 +45,9 @@ public class AdminController {
     @Autowired
     private TrainScheduleService trainScheduleService;
 
+    @Autowired
+    private RetryService retryService;
+
     /**
      * 管理员登录
      */
@@ -89,6 +92,22 @@ public class AdminController {
         return Result.success(statsService.getOrderStats());
     }
 
+    /**
+     * 获取并发冲突统计数据
+     */
+    @GetMapping("/stats/concurrency")
+    public Result<?> getConcurrencyStats() {
+        return Result.success(statsService.getConcurrencyStats());
+    }
+
+    /**
+     * 获取列车查询缓存统计数据
+     */
+    @GetMapping("/stats/search-cache")
+    public Result<?> getSearchCacheStats() {
+        return Result.success(statsService.getSearchCacheStats());
+    }
+
     /**
      * 获取热门车次统计数据
      */
@@ -344,7 +363,7 @@ public class AdminController {
      */
     @PostMapping("/ticket/{id}/cancel")
     public Result<?> cancelTicket(@PathVariable Long id) {
-        return ticketService.cancelTicket(id);
+        return retryService.execute("adminCancelTicket", () -> ticketService.cancelTicket(id));
     }
     
     /**
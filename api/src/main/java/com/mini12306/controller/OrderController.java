@@ -1,9 +1,14 @@
 package com.mini12306.controller;
 
 import com.mini12306.dto.BuyTicketRequest;
+import com.mini12306.dto.OrderSearchRequest;
 import com.mini12306.model.Result;
 import com.mini12306.service.OrderService;
+import com.mini12306.service.PurchaseQueueService;
+import com.mini12306.service.RetryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,6 +22,12 @@ public class OrderController {
     
     @Autowired
     private OrderService orderService;
+
+    @Autowired
+    private PurchaseQueueService purchaseQueueService;
+
+    @Autowired
+    private RetryService retryService;
     
     /**
      * 创建订单并购票
@@ -24,7 +35,33 @@ public class OrderController {
     @PostMapping
     public Result<?> createOrder(HttpServletRequest request, @RequestBody BuyTicketRequest buyTicketRequest) {
         Long userId = (Long) request.getAttribute("userId");
-        return orderService.createOrder(userId, buyTicketRequest);
+        return retryService.execute("createOrder", () -> orderService.createOrder(userId, buyTicketRequest));
+    }
+    
+    /**
+     * 排队购票，立即返回排队号，队列已满时返回429
+     */
+    @PostMapping("/queue")
+    public ResponseEntity<Result<?>> queueOrder(HttpServletRequest request, @RequestBody BuyTicketRequest buyTicketRequest) {
+        Long userId = (Long) request.getAttribute("userId");
+        if (buyTicketRequest.getTrainId() == null || buyTicketRequest.getPassengerIds() == null
+                || buyTicketRequest.getPassengerIds().isEmpty()) {
+            return ResponseEntity.ok(Result.fail("参数错误"));
+        }
+        Result<String> submitResult = purchaseQueueService.submit(userId, buyTicketRequest);
+        if (PurchaseQueueService.QUEUE_FULL.equals(submitResult.getCode())) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(submitResult);
+        }
+        return ResponseEntity.ok(submitResult);
+    }
+
+    /**
+     * 查询排队购票结果
+     */
+    @GetMapping("/queue/{queueId}")
+    public Result<?> getQueueResult(HttpServletRequest request, @PathVariable String queueId) {
+        Long userId = (Long) request.getAttribute("userId");
+        return purchaseQueueService.getResult(userId, queueId);
     }
     
     /**
@@ -35,6 +72,17 @@ public class OrderController {
         Long userId = (Long) request.getAttribute("userId");
         return orderService.listUserOrders(userId);
     }
+
+    /**
+     * 分页查询用户的订单
+     */
+    @GetMapping("/page")
+    public Result<?> listUserOrdersPage(HttpServletRequest request,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(required = false) Integer size) {
+        Long userId = (Long) request.getAttribute("userId");
+        return orderService.listUserOrders(userId, cursor, size);
+    }
     
     /**
      * 取消订单
@@ -42,7 +90,7 @@ public class OrderController {
     @PostMapping("/cancel")
     public Result<?> cancelOrder(HttpServletRequest request, @RequestParam String orderNo) {
         Long userId = (Long) request.getAttribute("userId");
-        return orderService.cancelOrder(userId, orderNo);
+        return retryService.execute("cancelOrder", () -> orderService.cancelOrder(userId, orderNo));
     }
     
     /**
@@ -71,7 +119,7 @@ public class OrderController {
                                   @PathVariable String orderNo,
                                   @RequestParam Integer paymentMethod) {
         Long userId = (Long) request.getAttribute("userId");
-        return orderService.confirmPayment(userId, orderNo, paymentMethod);
+        return retryService.execute("confirmPayment", () -> orderService.confirmPayment(userId, orderNo, paymentMethod));
     }
     
     /**
@@ -82,4 +130,13 @@ public class OrderController {
         Long userId = (Long) request.getAttribute("userId");
         return orderService.searchOrdersByStartStation(userId, startStation);
     }
+
+    /**
+     * 按条件分页搜索订单
+     */
+    @GetMapping("/search/page")
+    public Result<?> searchOrders(HttpServletRequest request, OrderSearchRequest searchRequest) {
+        Long userId = (Long) request.getAttribute("userId");
+        return orderService.searchOrders(userId, searchRequest);
+    }
 }
@@ -1,7 +1,10 @@
 package com.mini12306.controller;
 
+import com.mini12306.dto.StationBoardDTO;
+import com.mini12306.dto.StationSuggestionDTO;
 import com.mini12306.model.Result;
 import com.mini12306.model.Station;
+import com.mini12306.service.StationBoardService;
 import com.mini12306.service.StationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -17,6 +20,9 @@ public class StationController {
     
     @Autowired
     private StationService stationService;
+
+    @Autowired
+    private StationBoardService stationBoardService;
     
     /**
      * 获取所有站点
@@ -74,4 +80,26 @@ public class StationController {
             return Result.fail("请提供搜索条件");
         }
     }
+
+    /**
+     * 站点联想输入
+     */
+    @GetMapping("/suggest")
+    public Result<List<StationSuggestionDTO>> suggest(@RequestParam String keyword,
+                                                      @RequestParam(required = false) Integer limit) {
+        return stationService.suggest(keyword, limit);
+    }
+
+    /**
+     * 车站大屏：指定时间段内出发或到达的车次
+     */
+    @GetMapping("/board")
+    public Result<StationBoardDTO> getBoard(@RequestParam String station,
+                                            @RequestParam(defaultValue = "departure") String type,
+                                            @RequestParam(required = false) String travelDate,
+                                            @RequestParam(required = false) String startTime,
+                                            @RequestParam(required = false) String endTime,
+                                            @RequestParam(required = false) Integer limit) {
+        return stationBoardService.getBoard(station, type, travelDate, startTime, endTime, limit);
+    }
 }
@@ -6,6 +6,7 @@ import com.mini12306.dto.RefundRuleDTO;
 import com.mini12306.dto.TicketDetailDTO;
 // import com.mini12306.model.Account;
 import com.mini12306.model.Result;
+import com.mini12306.service.RetryService;
 import com.mini12306.service.TicketService;
 import com.mini12306.config.SecurityConfig;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +21,9 @@ public class TicketController {
 
     @Autowired
     private TicketService ticketService;
+
+    @Autowired
+    private RetryService retryService;
     
     /**
      * 获取用户购买的所有票
@@ -52,7 +56,7 @@ public class TicketController {
         if (userId == null) {
             return Result.fail("未登录");
         }
-        return ticketService.cancelTicket(userId, ticketNo);
+        return retryService.execute("cancelTicket", () -> ticketService.cancelTicket(userId, ticketNo));
     }
     
     /**
@@ -90,7 +94,7 @@ public class TicketController {
         if (userId == null) {
             return Result.fail("未登录");
         }
-        return ticketService.changeTicket(userId, request);
+        return retryService.execute("changeTicket", () -> ticketService.changeTicket(userId, request));
     }
     
     /**
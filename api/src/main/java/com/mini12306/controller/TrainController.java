@@ -1,7 +1,12 @@
 package com.mini12306.controller;
 
+import com.mini12306.dto.FareCalendarDTO;
+import com.mini12306.dto.JourneyDTO;
+import com.mini12306.dto.SeatAvailabilityDTO;
 import com.mini12306.dto.TrainDetailDTO;
 import com.mini12306.model.Result;
+import com.mini12306.service.FareCalendarService;
+import com.mini12306.service.JourneyService;
 import com.mini12306.service.TrainService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -17,6 +22,12 @@ public class TrainController {
     
     @Autowired
     private TrainService trainService;
+
+    @Autowired
+    private JourneyService journeyService;
+
+    @Autowired
+    private FareCalendarService fareCalendarService;
     
     /**
      * 查询所有列车
@@ -30,8 +41,41 @@ public class TrainController {
      * 根据起始站和终点站查询列车
      */
     @GetMapping("/search")
-    public Result<List<TrainDetailDTO>> searchTrains(@RequestParam String startStation, @RequestParam String endStation) {
-        return trainService.searchTrains(startStation, endStation);
+    public Result<List<TrainDetailDTO>> searchTrains(@RequestParam String startStation, @RequestParam String endStation,
+                                                     @RequestParam(required = false) String travelDate) {
+        return trainService.searchTrains(startStation, endStation, travelDate);
+    }
+    
+    /**
+     * 查询出行方案（含直达及最多两次换乘）
+     */
+    @GetMapping("/journeys")
+    public Result<List<JourneyDTO>> planJourneys(@RequestParam String startStation,
+                                                 @RequestParam String endStation,
+                                                 @RequestParam(required = false) String travelDate,
+                                                 @RequestParam(defaultValue = "2") Integer maxTransfers) {
+        return journeyService.planJourneys(startStation, endStation, travelDate, maxTransfers);
+    }
+    
+    /**
+     * 批量查询余票
+     */
+    @GetMapping("/availability")
+    public Result<SeatAvailabilityDTO> getAvailability(@RequestParam List<Long> trainIds,
+                                                       @RequestParam(required = false) String date,
+                                                       @RequestParam(required = false) String startStation,
+                                                       @RequestParam(required = false) String endStation) {
+        return trainService.getAvailability(trainIds, date, startStation, endStation);
+    }
+    
+    /**
+     * 查询低价日历（从今天起每天有余票的最低票价）
+     */
+    @GetMapping("/fare-calendar")
+    public Result<FareCalendarDTO> getFareCalendar(@RequestParam String startStation,
+                                                   @RequestParam String endStation,
+                                                   @RequestParam(defaultValue = "30") Integer days) {
+        return fareCalendarService.getFareCalendar(startStation, endStation, days);
     }
     
     /**
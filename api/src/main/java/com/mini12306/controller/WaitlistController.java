@@ -0,0 +1,47 @@
+package com.mini12306.controller;
+
+import com.mini12306.dto.BuyTicketRequest;
+import com.mini12306.model.Result;
+import com.mini12306.service.WaitlistService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * 候补购票控制器
+ */
+@RestController
+@RequestMapping("/api/waitlist")
+public class WaitlistController {
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    /**
+     * 登记候补
+     */
+    @PostMapping
+    public Result<?> join(HttpServletRequest request, @RequestBody BuyTicketRequest buyTicketRequest) {
+        Long userId = (Long) request.getAttribute("userId");
+        return waitlistService.join(userId, buyTicketRequest);
+    }
+
+    /**
+     * 查询用户的候补订单
+     */
+    @GetMapping
+    public Result<?> listUserWaitlist(HttpServletRequest request) {
+        Long userId = (Long) request.getAttribute("userId");
+        return waitlistService.listUserWaitlist(userId);
+    }
+
+    /**
+     * 取消候补
+     */
+    @PostMapping("/{id}/cancel")
+    public Result<?> cancel(HttpServletRequest request, @PathVariable Long id) {
+        Long userId = (Long) request.getAttribute("userId");
+        return waitlistService.cancel(userId, id);
+    }
+}
@@ -17,4 +17,6 @@ public class BuyTicketRequest {
     private String endCity;
     private List<Long> passengerIds;
     private String seatType;
+    // 发车日期，格式yyyy-MM-dd，为空时默认当天
+    private String travelDate;
 }
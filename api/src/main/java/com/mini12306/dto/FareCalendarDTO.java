@@ -0,0 +1,39 @@
+package com.mini12306.dto;
+
+import com.mini12306.model.Money;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 低价日历
+ * 未来若干天中每天有余票的最低票价
+ */
+@Data
+public class FareCalendarDTO {
+    private String startStation;
+
+    private String endStation;
+
+    private List<DayFare> days;
+
+    /**
+     * 单日最低票价，当天没有有余票的车次时minPrice为null
+     */
+    @Data
+    public static class DayFare {
+        // 乘车日期，格式yyyy-MM-dd
+        private String travelDate;
+
+        private Money minPrice;
+
+        private Long trainId;
+
+        private String trainNumber;
+
+        private String seatType;
+
+        // 当天开行且有余票的车次数
+        private Integer availableTrains;
+    }
+}
@@ -0,0 +1,25 @@
+package com.mini12306.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 换乘出行方案
+ */
+@Data
+public class JourneyDTO {
+    // 换乘次数
+    private Integer transfers;
+
+    private String departureTime;
+    private String arrivalTime;
+
+    // 全程历时
+    private String duration;
+
+    // 到达日期与出发日期相差的天数
+    private Integer arrivalDayOffset;
+
+    private List<JourneyLegDTO> legs;
+}
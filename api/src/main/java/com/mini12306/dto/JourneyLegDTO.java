@@ -0,0 +1,32 @@
+package com.mini12306.dto;
+
+import lombok.Data;
+
+/**
+ * 换乘方案中的一段乘车
+ */
+@Data
+public class JourneyLegDTO {
+    private Long trainId;
+
+    // 车次编号
+    private String trainNumber;
+
+    private String trainType;
+
+    private Long startStationId;
+    private String startStation;
+
+    private Long endStationId;
+    private String endStation;
+
+    // 列车始发日期（购票时使用），格式yyyy-MM-dd
+    private String travelDate;
+
+    private String departureTime;
+    private String arrivalTime;
+    private String duration;
+
+    // 与上一段之间的换乘等待时间（分钟），第一段为0
+    private Integer transferMinutes;
+}
@@ -0,0 +1,15 @@
+package com.mini12306.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * 订单汇总投影
+ * 某时间段内的订单数、已支付订单数及已支付金额
+ */
+public interface OrderAggregateView {
+    Long getOrderCount();
+
+    Long getPaidCount();
+
+    BigDecimal getPaidAmount();
+}
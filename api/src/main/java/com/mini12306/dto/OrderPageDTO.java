@@ -0,0 +1,17 @@
+package com.mini12306.dto;
+
+import com.mini12306.model.Order;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 订单分页结果
+ * 按创建时间倒序，nextCursor为下一页的游标，没有更多订单时为null
+ */
+@Data
+public class OrderPageDTO {
+    private List<Order> orders;
+
+    private String nextCursor;
+}
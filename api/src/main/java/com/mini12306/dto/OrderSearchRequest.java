@@ -0,0 +1,28 @@
+package com.mini12306.dto;
+
+import lombok.Data;
+
+/**
+ * 订单搜索条件，未填写的条件不限制
+ */
+@Data
+public class OrderSearchRequest {
+    // 发站名称，匹配不到站点时按城市匹配
+    private String startStation;
+
+    // 到站名称，匹配不到站点时按城市匹配
+    private String endStation;
+
+    // 订单状态：UNPAID、PAID、CANCELED、COMPLETED
+    private String status;
+
+    // 乘车日期范围，格式yyyy-MM-dd
+    private String startDate;
+
+    private String endDate;
+
+    // 上一页返回的游标，为空时查询第一页
+    private String cursor;
+
+    private Integer size;
+}
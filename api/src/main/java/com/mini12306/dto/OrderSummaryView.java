@@ -0,0 +1,42 @@
+package com.mini12306.dto;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * 订单列表投影
+ * 订单字段、车票数以及第一张车票的车次和站点信息，由一次分组查询得到
+ */
+public interface OrderSummaryView {
+    Long getId();
+
+    String getOrderNo();
+
+    Long getUserId();
+
+    BigDecimal getTotalAmount();
+
+    String getStatus();
+
+    Date getCreateTime();
+
+    Date getPayTime();
+
+    Date getCancelTime();
+
+    Long getVersion();
+
+    Integer getTicketCount();
+
+    String getTrainNumber();
+
+    String getTrainType();
+
+    String getStartStation();
+
+    String getEndStation();
+
+    String getDepartureTime();
+
+    String getArrivalTime();
+}
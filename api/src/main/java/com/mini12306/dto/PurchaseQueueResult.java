@@ -0,0 +1,31 @@
+package com.mini12306.dto;
+
+import com.mini12306.model.Order;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 排队购票结果
+ */
+@Data
+public class PurchaseQueueResult {
+    // 排队号
+    private String queueId;
+
+    private Long userId;
+
+    private Long trainId;
+
+    // 状态：QUEUED-排队中、PROCESSING-处理中、SUCCESS-购票成功、FAILED-购票失败
+    private String status;
+
+    private String message;
+
+    // 购票成功后生成的订单
+    private Order order;
+
+    private Date createTime;
+
+    private Date finishTime;
+}
@@ -0,0 +1,21 @@
+package com.mini12306.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量余票查询结果
+ * 按列存放以减小响应体积：trainIds[i]的座位类型为seatTypes[i]，对应余票为remaining[i]
+ */
+@Data
+public class SeatAvailabilityDTO {
+    // 乘车日期，格式yyyy-MM-dd
+    private String travelDate;
+
+    private List<Long> trainIds;
+
+    private List<List<String>> seatTypes;
+
+    private List<int[]> remaining;
+}
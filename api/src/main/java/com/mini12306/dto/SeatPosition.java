@@ -0,0 +1,27 @@
+package com.mini12306.dto;
+
+import lombok.Data;
+
+/**
+ * 座位位置（车厢号 + 座位号）
+ */
+@Data
+public class SeatPosition {
+    // 车厢号
+    private int coach;
+
+    // 座位号（车厢内从1开始）
+    private int seat;
+
+    public SeatPosition(int coach, int seat) {
+        this.coach = coach;
+        this.seat = seat;
+    }
+
+    /**
+     * 完整座位信息，如"3车15号座"
+     */
+    public String getSeatInfo() {
+        return coach + "车" + seat + "号座";
+    }
+}
@@ -0,0 +1,40 @@
+package com.mini12306.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 车站大屏（出发或到达车次列表）
+ */
+@Data
+public class StationBoardDTO {
+    private String station;
+
+    // departure出发，arrival到达
+    private String type;
+
+    // 日期，格式yyyy-MM-dd
+    private String travelDate;
+
+    private List<Item> trains;
+
+    @Data
+    public static class Item {
+        private Long trainId;
+
+        private String trainNumber;
+
+        private String trainType;
+
+        // 在本站的出发或到达时刻，格式HH:mm
+        private String time;
+
+        private String originStation;
+
+        private String terminalStation;
+
+        // 始发日期，跨天车次早于查询日期
+        private String originDate;
+    }
+}
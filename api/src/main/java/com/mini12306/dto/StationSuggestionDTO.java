@@ -0,0 +1,20 @@
+package com.mini12306.dto;
+
+import lombok.Data;
+
+/**
+ * 站点联想结果
+ */
+@Data
+public class StationSuggestionDTO {
+    private Long id;
+
+    private String name;
+
+    // 站点名称拼音
+    private String pinyin;
+
+    private String code;
+
+    private String city;
+}
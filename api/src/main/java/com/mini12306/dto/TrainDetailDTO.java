@@ -66,12 +66,7 @@ public class TrainDetailDTO {
         
         // 计算并设置行程时长
         if (train.getDuration() != null) {
-            int hours = train.getDuration() / 60;
-            int minutes = train.getDuration() % 60;
-            String duration = hours > 0 ? 
-                String.format("%d小时%d分钟", hours, minutes) : 
-                String.format("%d分钟", minutes);
-            dto.setDuration(duration);
+            dto.setDuration(formatDuration(train.getDuration()));
         }
         
         // 设置状态为"正常"，因为Train实体中可能没有这个字段
@@ -81,4 +76,13 @@ public class TrainDetailDTO {
         
         return dto;
     }
+
+    // 格式化行程时长，如"4小时28分钟"
+    public static String formatDuration(int totalMinutes) {
+        int hours = totalMinutes / 60;
+        int minutes = totalMinutes % 60;
+        return hours > 0 ?
+            String.format("%d小时%d分钟", hours, minutes) :
+            String.format("%d分钟", minutes);
+    }
 }
@@ -0,0 +1,34 @@
+package com.mini12306.event;
+
+import java.util.Date;
+
+/**
+ * 座位分配事件
+ * 下单、改签等占用座位的事务提交后发布
+ */
+public class SeatAllocatedEvent {
+
+    private final Long trainId;
+
+    private final Date travelDate;
+
+    private final String seatType;
+
+    public SeatAllocatedEvent(Long trainId, Date travelDate, String seatType) {
+        this.trainId = trainId;
+        this.travelDate = travelDate;
+        this.seatType = seatType;
+    }
+
+    public Long getTrainId() {
+        return trainId;
+    }
+
+    public Date getTravelDate() {
+        return travelDate;
+    }
+
+    public String getSeatType() {
+        return seatType;
+    }
+}
@@ -0,0 +1,34 @@
+package com.mini12306.event;
+
+import java.util.Date;
+
+/**
+ * 座位释放事件
+ * 退票、取消订单、改签或超时取消释放座位的事务提交后发布
+ */
+public class SeatReleasedEvent {
+
+    private final Long trainId;
+
+    private final Date travelDate;
+
+    private final String seatType;
+
+    public SeatReleasedEvent(Long trainId, Date travelDate, String seatType) {
+        this.trainId = trainId;
+        this.travelDate = travelDate;
+        this.seatType = seatType;
+    }
+
+    public Long getTrainId() {
+        return trainId;
+    }
+
+    public Date getTravelDate() {
+        return travelDate;
+    }
+
+    public String getSeatType() {
+        return seatType;
+    }
+}
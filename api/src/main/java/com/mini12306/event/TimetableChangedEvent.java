@@ -0,0 +1,28 @@
+package com.mini12306.event;
+
+import java.util.Set;
+
+/**
+ * 时刻表变更事件
+ * 列车或路线修改后重新加载车次时发布，全量重建时车次ID为null
+ */
+public class TimetableChangedEvent {
+
+    private final Long trainId;
+
+    // 变更前后经停的所有站点
+    private final Set<Long> stationIds;
+
+    public TimetableChangedEvent(Long trainId, Set<Long> stationIds) {
+        this.trainId = trainId;
+        this.stationIds = stationIds;
+    }
+
+    public Long getTrainId() {
+        return trainId;
+    }
+
+    public Set<Long> getStationIds() {
+        return stationIds;
+    }
+}
@@ -0,0 +1,18 @@
+package com.mini12306.event;
+
+/**
+ * 车次日程变更事件
+ * 开行日历重新加载某车次的日程后发布
+ */
+public class TrainScheduleChangedEvent {
+
+    private final Long trainId;
+
+    public TrainScheduleChangedEvent(Long trainId) {
+        this.trainId = trainId;
+    }
+
+    public Long getTrainId() {
+        return trainId;
+    }
+}
@@ -42,4 +42,8 @@ public class Order {
     @Column(name = "cancel_time")
     @Temporal(TemporalType.TIMESTAMP)
     private Date cancelTime;
+
+    // 乐观锁版本号，并发修改同一行时后提交的事务失败
+    @Version
+    private Long version;
 }
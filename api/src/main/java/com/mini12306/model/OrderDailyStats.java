@@ -0,0 +1,36 @@
+package com.mini12306.model;
+
+import lombok.Data;
+import jakarta.persistence.*;
+import java.util.Date;
+
+/**
+ * 订单日汇总
+ * 按下单日期汇总订单数、已支付订单数及已支付金额，由定时任务从订单表计算
+ */
+@Data
+@Entity
+@Table(name = "order_daily_stats")
+public class OrderDailyStats {
+    // 下单日期
+    @Id
+    @Column(name = "stat_date")
+    @Temporal(TemporalType.DATE)
+    private Date statDate;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+
+    // 已支付（含已完成）的订单数
+    @Column(name = "paid_count", nullable = false)
+    private Long paidCount;
+
+    // 已支付（含已完成）订单的金额合计
+    @Column(name = "paid_amount", nullable = false)
+    @Convert(converter = Money.MoneyConverter.class)
+    private Money paidAmount;
+
+    @Column(name = "update_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updateTime;
+}
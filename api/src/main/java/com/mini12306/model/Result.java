@@ -1,5 +1,6 @@
 package com.mini12306.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 /**
@@ -10,6 +11,9 @@ public class Result<T> {
     private boolean success;
     private String message;
     private T data;
+    // 错误码，供调用方按失败原因分别处理，未设置时不输出
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String code;
     
     public static <T> Result<T> success(T data) {
         Result<T> result = new Result<>();
@@ -36,4 +40,10 @@ public class Result<T> {
         result.setMessage(message);
         return result;
     }
+    
+    public static <T> Result<T> fail(String code, String message) {
+        Result<T> result = fail(message);
+        result.setCode(code);
+        return result;
+    }
 }
@@ -0,0 +1,47 @@
+package com.mini12306.model;
+
+import lombok.Data;
+import jakarta.persistence.*;
+import java.util.Date;
+
+/**
+ * 座位库存
+ * 按（列车, 发车日期, 座位类型）维护余票，由车次日程生成
+ */
+@Data
+@Entity
+@Table(name = "seat_inventory",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"train_id", "travel_date", "seat_type"}))
+public class SeatInventory {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "train_id", nullable = false)
+    private Long trainId;
+    
+    // 发车日期
+    @Column(name = "travel_date", nullable = false)
+    @Temporal(TemporalType.DATE)
+    private Date travelDate;
+    
+    // 座位类型：商务座、一等座、二等座、软卧、硬卧、硬座
+    @Column(name = "seat_type", nullable = false)
+    private String seatType;
+    
+    // 该座位类型的总座位数
+    @Column(name = "total_count", nullable = false)
+    private Integer totalCount;
+    
+    // 余票数
+    @Column(name = "remaining_count", nullable = false)
+    private Integer remainingCount;
+    
+    @Column(name = "create_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createTime;
+    
+    @Column(name = "update_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updateTime;
+}
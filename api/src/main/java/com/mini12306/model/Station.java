@@ -18,6 +18,9 @@ public class Station {
     @Column(nullable = false, unique = true)
     private String name;
     
+    // 站点名称拼音，音节之间以空格分隔，如"bei jing zhan"
+    private String pinyin;
+    
     // 站点代码，如"BJP"代表北京
     private String code;
     
@@ -0,0 +1,26 @@
+package com.mini12306.model;
+
+import lombok.Data;
+import jakarta.persistence.*;
+import java.util.Date;
+
+/**
+ * 站点热度
+ * 站点作为发站或到站的车票数，新建车票后累加，用于联想输入排序
+ */
+@Data
+@Entity
+@Table(name = "station_usage")
+public class StationUsage {
+    @Id
+    @Column(name = "station_id")
+    private Long stationId;
+
+    // 作为发站或到站的车票数
+    @Column(name = "usage_count", nullable = false)
+    private Long usageCount;
+
+    @Column(name = "update_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updateTime;
+}
@@ -69,4 +69,8 @@ public class Train {
     @Column(name = "update_time")
     @Temporal(TemporalType.TIMESTAMP)
     private Date updateTime;
+
+    // 乐观锁版本号，并发修改同一行时后提交的事务失败
+    @Version
+    private Long version;
 }
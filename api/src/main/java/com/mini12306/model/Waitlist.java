@@ -0,0 +1,66 @@
+package com.mini12306.model;
+
+import lombok.Data;
+import jakarta.persistence.*;
+import java.util.Date;
+
+/**
+ * 候补订单
+ * 余票不足时登记购票需求，有座位释放时按登记顺序自动下单
+ */
+@Data
+@Entity
+@Table(name = "waitlist")
+public class Waitlist {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "train_id", nullable = false)
+    private Long trainId;
+
+    // 发车日期
+    @Column(name = "travel_date", nullable = false)
+    @Temporal(TemporalType.DATE)
+    private Date travelDate;
+
+    @Column(name = "seat_type", nullable = false)
+    private String seatType;
+
+    @Column(name = "start_station_id")
+    private Long startStationId;
+
+    @Column(name = "end_station_id")
+    private Long endStationId;
+
+    @Column(name = "start_station")
+    private String startStation;
+
+    @Column(name = "end_station")
+    private String endStation;
+
+    // 乘车人ID，逗号分隔
+    @Column(name = "passenger_ids", nullable = false)
+    private String passengerIds;
+
+    // 状态：WAITING-候补中、FULFILLED-已兑现、CANCELED-已取消、FAILED-兑现失败、EXPIRED-已过期
+    private String status;
+
+    // 兑现后生成的订单号
+    @Column(name = "order_no")
+    private String orderNo;
+
+    // 兑现失败原因
+    private String message;
+
+    @Column(name = "create_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createTime;
+
+    @Column(name = "update_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updateTime;
+}
@@ -0,0 +1,69 @@
+package com.mini12306.repository;
+
+import com.mini12306.model.OrderDailyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 订单日汇总数据访问接口
+ */
+public interface OrderDailyStatsRepository extends JpaRepository<OrderDailyStats, Date> {
+
+    /**
+     * 按日期查询汇总，包含两端
+     */
+    List<OrderDailyStats> findByStatDateBetweenOrderByStatDateAsc(Date startDate, Date endDate);
+
+    /**
+     * 最近一个已汇总的日期，尚未汇总时返回null
+     */
+    @Query("SELECT MAX(s.statDate) FROM OrderDailyStats s")
+    Date findLatestStatDate();
+
+    /**
+     * 写入某天的汇总，已存在时覆盖
+     * @return 受影响行数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO order_daily_stats (stat_date, order_count, paid_count, paid_amount, update_time) " +
+                   "VALUES (:statDate, :orderCount, :paidCount, :paidAmount, NOW()) " +
+                   "ON DUPLICATE KEY UPDATE order_count = VALUES(order_count), paid_count = VALUES(paid_count), " +
+                   "paid_amount = VALUES(paid_amount), update_time = NOW()",
+           nativeQuery = true)
+    int upsert(@Param("statDate") Date statDate,
+               @Param("orderCount") Long orderCount,
+               @Param("paidCount") Long paidCount,
+               @Param("paidAmount") BigDecimal paidAmount);
+
+    /**
+     * 标记某天需要重新汇总，在修改订单状态的事务中调用；该天尚未汇总时不更新任何行
+     * @return 受影响行数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE order_daily_stats SET stale = 1 WHERE stat_date = :statDate", nativeQuery = true)
+    int markStale(@Param("statDate") Date statDate);
+
+    /**
+     * 需要重新汇总的日期
+     */
+    @Query(value = "SELECT stat_date FROM order_daily_stats WHERE stale = 1 ORDER BY stat_date", nativeQuery = true)
+    List<Date> findStaleDates();
+
+    /**
+     * 清除重新汇总标记
+     * @return 受影响行数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE order_daily_stats SET stale = 0 WHERE stat_date = :statDate", nativeQuery = true)
+    int clearStale(@Param("statDate") Date statDate);
+}
@@ -1,17 +1,23 @@
 package com.mini12306.repository;
 
+import com.mini12306.dto.OrderAggregateView;
+import com.mini12306.dto.OrderSummaryView;
 import com.mini12306.model.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * 订单数据访问接口
  */
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderSearchRepository {
     
     /**
      * 按用户ID查询
@@ -29,22 +35,21 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     Optional<Order> findByOrderNo(String orderNo);
 
     /**
-     * 查询今日订单数
+     * 统计下单时间在[from, to)内的订单数、已支付订单数及已支付金额
+     * 使用半开区间直接比较create_time，可走create_time索引的范围扫描
      */
-    @Query(value = "SELECT COUNT(*) FROM orders WHERE DATE(create_time) = CURDATE()", nativeQuery = true)
-    long countTodayOrders();
+    @Query(value = "SELECT COUNT(*) AS orderCount, " +
+            "CAST(COALESCE(SUM(status IN ('PAID', 'COMPLETED')), 0) AS SIGNED) AS paidCount, " +
+            "COALESCE(SUM(CASE WHEN status IN ('PAID', 'COMPLETED') THEN total_amount ELSE 0 END), 0) AS paidAmount " +
+            "FROM orders WHERE create_time >= :from AND create_time < :to",
+            nativeQuery = true)
+    OrderAggregateView aggregateByCreateTime(@Param("from") Date from, @Param("to") Date to);
 
     /**
-     * 查询昨日订单数
+     * 最早的下单时间，没有订单时返回null
      */
-    @Query(value = "SELECT COUNT(*) FROM orders WHERE DATE(create_time) = DATE_SUB(CURDATE(), INTERVAL 1 DAY)", nativeQuery = true)
-    long countYesterdayOrders();
-
-    /**
-     * 查询本月订单数
-     */
-    @Query(value = "SELECT COUNT(*) FROM orders WHERE YEAR(create_time) = YEAR(CURDATE()) AND MONTH(create_time) = MONTH(CURDATE())", nativeQuery = true)
-    long countMonthOrders();
+    @Query("SELECT MIN(o.createTime) FROM Order o")
+    Date findEarliestCreateTime();
 
     /**
      * 查询最新订单列表
@@ -57,4 +62,70 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      */
     @Query("SELECT o FROM Order o WHERE o.userId = :userId ORDER BY o.createTime DESC")
     List<Order> findByUserIdOrderByCreateTimeDesc(@Param("userId") Long userId);
+
+    /**
+     * 订单列表投影的查询列，后接只取订单ID和创建时间的分页子查询，子查询在ORDER_SUMMARY_JOIN前结束。
+     * 分页子查询在(user_id, create_time)索引上按顺序取出一页订单，不对用户的全部订单分组排序；
+     * 车票数和第一张车票只对这一页的订单按order_id索引查询
+     */
+    String ORDER_SUMMARY_SELECT = "SELECT o.id AS id, o.order_no AS orderNo, o.user_id AS userId, o.total_amount AS totalAmount, " +
+            "o.status AS status, o.create_time AS createTime, o.pay_time AS payTime, o.cancel_time AS cancelTime, " +
+            "o.version AS version, s.ticket_count AS ticketCount, ft.train_code AS trainNumber, ft.train_type AS trainType, " +
+            "ft.start_station AS startStation, ft.end_station AS endStation, " +
+            "ft.start_time AS departureTime, ft.end_time AS arrivalTime " +
+            "FROM (SELECT p.id AS id, p.create_time AS create_time, " +
+            "(SELECT COUNT(*) FROM ticket t WHERE t.order_id = p.id) AS ticket_count, " +
+            "(SELECT MIN(t.id) FROM ticket t WHERE t.order_id = p.id) AS first_ticket_id FROM (";
+
+    /**
+     * 关联分页子查询取出的订单和第一张车票，只对这一页的订单排序
+     */
+    String ORDER_SUMMARY_JOIN = ") p) s JOIN orders o ON o.id = s.id LEFT JOIN ticket ft ON ft.id = s.first_ticket_id " +
+            "ORDER BY s.create_time DESC, s.id DESC";
+
+    /**
+     * 订单列表第一页（按创建时间倒序），一次查询返回订单、车票数和第一张车票信息
+     */
+    @Query(value = ORDER_SUMMARY_SELECT + "SELECT id, create_time FROM orders WHERE user_id = :userId " +
+            "ORDER BY create_time DESC, id DESC LIMIT :limit" + ORDER_SUMMARY_JOIN,
+            nativeQuery = true)
+    List<OrderSummaryView> findOrderSummaries(@Param("userId") Long userId, @Param("limit") int limit);
+
+    /**
+     * 订单列表后续页：创建时间和ID在游标之前的订单（键集分页，代价与翻页深度无关）
+     */
+    @Query(value = ORDER_SUMMARY_SELECT + "SELECT id, create_time FROM orders WHERE user_id = :userId " +
+            "AND (create_time < :cursorTime OR (create_time = :cursorTime AND id < :cursorId)) " +
+            "ORDER BY create_time DESC, id DESC LIMIT :limit" + ORDER_SUMMARY_JOIN,
+            nativeQuery = true)
+    List<OrderSummaryView> findOrderSummariesBefore(@Param("userId") Long userId, @Param("cursorTime") Date cursorTime,
+                                                    @Param("cursorId") Long cursorId, @Param("limit") int limit);
+
+    /**
+     * 按订单ID查询订单列表投影（按创建时间倒序），与条件搜索配合使用
+     */
+    @Query(value = ORDER_SUMMARY_SELECT + "SELECT id, create_time FROM orders WHERE id IN (:ids)" + ORDER_SUMMARY_JOIN,
+            nativeQuery = true)
+    List<OrderSummaryView> findOrderSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 按创建时间顺序查询指定状态且在截止时间之前创建的订单，走(status, create_time)索引
+     */
+    List<Order> findByStatusAndCreateTimeBeforeOrderByCreateTimeAsc(String status, Date deadline, Pageable pageable);
+
+    /**
+     * 仅当订单仍为待支付时更新为已取消，同时递增版本号使其他事务中读到的旧订单无法再保存
+     * @return 受影响行数，0表示订单已被支付或取消
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = 'CANCELED', o.cancelTime = :cancelTime, o.version = o.version + 1 WHERE o.id = :id AND o.status = 'UNPAID'")
+    int cancelIfUnpaid(@Param("id") Long id, @Param("cancelTime") Date cancelTime);
+
+    /**
+     * 仅当订单仍为待支付时更新为已支付
+     * @return 受影响行数，0表示订单已被支付或取消
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = 'PAID', o.payTime = :payTime, o.version = o.version + 1 WHERE o.id = :id AND o.status = 'UNPAID'")
+    int payIfUnpaid(@Param("id") Long id, @Param("payTime") Date payTime);
 }
@@ -0,0 +1,21 @@
+package com.mini12306.repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 订单条件搜索接口
+ * 按实际填写的条件拼接SQL，未填写的条件不出现在语句中
+ */
+public interface OrderSearchRepository {
+
+    /**
+     * 按条件搜索订单ID（按创建时间和ID倒序，键集分页）
+     * 除userId和limit外的参数为null时表示不限该条件；站点ID集合不能为空集合
+     * @param cursorTime 与cursorId同时为null时查询第一页
+     */
+    List<Long> searchOrderIds(Long userId, String status,
+                              Collection<Long> startStationIds, Collection<Long> endStationIds,
+                              Date fromDate, Date toDate, Date cursorTime, Long cursorId, int limit);
+}
@@ -0,0 +1,85 @@
+package com.mini12306.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 订单条件搜索实现
+ * 订单条件在(user_id, create_time)索引上按倒序扫描，车票条件通过EXISTS子查询在
+ * (order_id, start_station_id, end_station_id, travel_date)索引上判断，没有车票条件时不做子查询
+ */
+public class OrderSearchRepositoryImpl implements OrderSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> searchOrderIds(Long userId, String status,
+                                     Collection<Long> startStationIds, Collection<Long> endStationIds,
+                                     Date fromDate, Date toDate, Date cursorTime, Long cursorId, int limit) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        String sql = buildSearchSql(userId, status, startStationIds, endStationIds, fromDate, toDate,
+                cursorTime, cursorId, limit, params);
+        Query query = entityManager.createNativeQuery(sql);
+        params.forEach(query::setParameter);
+
+        List<Long> ids = new ArrayList<>();
+        for (Object id : query.getResultList()) {
+            ids.add(((Number) id).longValue());
+        }
+        return ids;
+    }
+
+    /**
+     * 拼接搜索语句，参数写入params
+     */
+    static String buildSearchSql(Long userId, String status,
+                                 Collection<Long> startStationIds, Collection<Long> endStationIds,
+                                 Date fromDate, Date toDate, Date cursorTime, Long cursorId, int limit,
+                                 Map<String, Object> params) {
+        StringBuilder sql = new StringBuilder("SELECT o.id FROM orders o WHERE o.user_id = :userId");
+        params.put("userId", userId);
+        if (status != null) {
+            sql.append(" AND o.status = :status");
+            params.put("status", status);
+        }
+        if (cursorTime != null && cursorId != null) {
+            sql.append(" AND (o.create_time < :cursorTime OR (o.create_time = :cursorTime AND o.id < :cursorId))");
+            params.put("cursorTime", cursorTime);
+            params.put("cursorId", cursorId);
+        }
+
+        StringBuilder ticket = new StringBuilder();
+        if (startStationIds != null) {
+            ticket.append(" AND m.start_station_id IN (:startStationIds)");
+            params.put("startStationIds", startStationIds);
+        }
+        if (endStationIds != null) {
+            ticket.append(" AND m.end_station_id IN (:endStationIds)");
+            params.put("endStationIds", endStationIds);
+        }
+        if (fromDate != null) {
+            ticket.append(" AND m.travel_date >= :fromDate");
+            params.put("fromDate", fromDate);
+        }
+        if (toDate != null) {
+            ticket.append(" AND m.travel_date <= :toDate");
+            params.put("toDate", toDate);
+        }
+        if (ticket.length() > 0) {
+            sql.append(" AND EXISTS (SELECT 1 FROM ticket m WHERE m.order_id = o.id").append(ticket).append(")");
+        }
+
+        sql.append(" ORDER BY o.create_time DESC, o.id DESC LIMIT :limit");
+        params.put("limit", limit);
+        return sql.toString();
+    }
+}
@@ -0,0 +1,88 @@
+package com.mini12306.repository;
+
+import com.mini12306.model.SeatInventory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 座位库存数据访问接口
+ */
+public interface SeatInventoryRepository extends JpaRepository<SeatInventory, Long> {
+
+    /**
+     * 查询指定列车、日期、座位类型的库存
+     */
+    Optional<SeatInventory> findByTrainIdAndTravelDateAndSeatType(Long trainId, Date travelDate, String seatType);
+
+    /**
+     * 查询指定列车某日所有座位类型的库存
+     */
+    List<SeatInventory> findByTrainIdAndTravelDate(Long trainId, Date travelDate);
+
+    /**
+     * 初始化库存行，已存在时忽略（并发初始化时依赖唯一键去重）
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO seat_inventory " +
+                   "(train_id, travel_date, seat_type, total_count, remaining_count, create_time, update_time) " +
+                   "VALUES (:trainId, :travelDate, :seatType, :totalCount, :totalCount, NOW(), NOW())",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("trainId") Long trainId,
+                       @Param("travelDate") Date travelDate,
+                       @Param("seatType") String seatType,
+                       @Param("totalCount") Integer totalCount);
+
+    /**
+     * 查询当前余票数，不经过持久化上下文
+     * 在本事务更新过该行之后调用时读到的是包含本次更新的最新值
+     */
+    @Query(value = "SELECT remaining_count FROM seat_inventory " +
+                   "WHERE train_id = :trainId AND travel_date = :travelDate AND seat_type = :seatType",
+           nativeQuery = true)
+    Integer findRemainingCount(@Param("trainId") Long trainId,
+                               @Param("travelDate") Date travelDate,
+                               @Param("seatType") String seatType);
+
+    /**
+     * 余票充足时扣减，检查与扣减在同一条UPDATE中完成
+     * @return 受影响行数，0表示余票不足或库存行不存在
+     */
+    @Modifying
+    @Query("UPDATE SeatInventory s SET s.remainingCount = s.remainingCount - :count, s.updateTime = CURRENT_TIMESTAMP " +
+           "WHERE s.trainId = :trainId AND s.travelDate = :travelDate AND s.seatType = :seatType " +
+           "AND s.remainingCount >= :count")
+    int decrementIfAvailable(@Param("trainId") Long trainId,
+                             @Param("travelDate") Date travelDate,
+                             @Param("seatType") String seatType,
+                             @Param("count") Integer count);
+
+    /**
+     * 恢复余票，恢复后不超过总座位数
+     * @return 受影响行数，0表示恢复后会超过总座位数或库存行不存在
+     */
+    @Modifying
+    @Query("UPDATE SeatInventory s SET s.remainingCount = s.remainingCount + :count, s.updateTime = CURRENT_TIMESTAMP " +
+           "WHERE s.trainId = :trainId AND s.travelDate = :travelDate AND s.seatType = :seatType " +
+           "AND s.remainingCount + :count <= s.totalCount")
+    int increment(@Param("trainId") Long trainId,
+                  @Param("travelDate") Date travelDate,
+                  @Param("seatType") String seatType,
+                  @Param("count") Integer count);
+
+    /**
+     * 把余票补满到总座位数，用于恢复数量超出总座位数时封顶
+     * @return 受影响行数，0表示库存行不存在
+     */
+    @Modifying
+    @Query("UPDATE SeatInventory s SET s.remainingCount = s.totalCount, s.updateTime = CURRENT_TIMESTAMP " +
+           "WHERE s.trainId = :trainId AND s.travelDate = :travelDate AND s.seatType = :seatType")
+    int fillToTotal(@Param("trainId") Long trainId,
+                    @Param("travelDate") Date travelDate,
+                    @Param("seatType") String seatType);
+}
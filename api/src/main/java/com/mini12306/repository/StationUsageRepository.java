@@ -0,0 +1,26 @@
+package com.mini12306.repository;
+
+import com.mini12306.model.StationUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 站点热度数据访问接口
+ */
+public interface StationUsageRepository extends JpaRepository<StationUsage, Long> {
+
+    /**
+     * 累加站点热度，站点尚无记录时插入
+     * @return 受影响行数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO station_usage (station_id, usage_count, update_time) " +
+                   "VALUES (:stationId, :delta, NOW()) " +
+                   "ON DUPLICATE KEY UPDATE usage_count = usage_count + VALUES(usage_count), update_time = NOW()",
+           nativeQuery = true)
+    int addUsage(@Param("stationId") Long stationId, @Param("delta") Long delta);
+}
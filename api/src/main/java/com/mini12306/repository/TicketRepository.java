@@ -83,7 +83,7 @@ public interface TicketRepository extends JpaRepository<Ticket, Long>, JpaSpecif
         @Param("seatType") String seatType);
     
     /**
-     * 查询列车的指定座位类型的所有有效车票
+     * 查询指定日期及以后发车的车票，用于启动时重建座位图
      */
-    List<Ticket> findByTrainIdAndSeatTypeAndStatus(Long trainId, String seatType, Integer status);
+    List<Ticket> findByStatusAndTravelDateGreaterThanEqual(Integer status, Date travelDate);
 }
@@ -3,6 +3,7 @@ package com.mini12306.repository;
 import com.mini12306.model.TrainSchedule;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.sql.Date;
@@ -19,6 +20,11 @@ public interface TrainScheduleRepository extends JpaRepository<TrainSchedule, Lo
      */
     List<TrainSchedule> findByTrainId(Long trainId);
 
+    /**
+     * 统计列车的日程数量
+     */
+    long countByTrainId(Long trainId);
+
     /**
      * 根据列车ID和日期查询
      */
@@ -34,6 +40,17 @@ public interface TrainScheduleRepository extends JpaRepository<TrainSchedule, Lo
      */
     List<TrainSchedule> findByTravelDateAndStatus(Date travelDate, Integer status);
 
+    /**
+     * 查询日期范围内的所有日程
+     */
+    List<TrainSchedule> findByTravelDateBetween(Date startDate, Date endDate);
+
+    /**
+     * 查询配置过日程的列车ID（未配置日程的列车每日运行）
+     */
+    @Query("SELECT DISTINCT s.trainId FROM TrainSchedule s")
+    List<Long> findScheduledTrainIds();
+
     /**
      * 根据列车ID删除所有日程
      */
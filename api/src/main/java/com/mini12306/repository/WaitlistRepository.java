@@ -0,0 +1,56 @@
+package com.mini12306.repository;
+
+import com.mini12306.model.Waitlist;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 候补订单数据访问接口
+ */
+public interface WaitlistRepository extends JpaRepository<Waitlist, Long> {
+
+    /**
+     * 按登记顺序查询指定列车、日期、座位类型的候补订单
+     */
+    List<Waitlist> findByTrainIdAndTravelDateAndSeatTypeAndStatusOrderByIdAsc(Long trainId, Date travelDate,
+                                                                              String seatType, String status,
+                                                                              Pageable pageable);
+
+    /**
+     * 查询用户的候补订单
+     */
+    List<Waitlist> findByUserIdOrderByCreateTimeDesc(Long userId);
+
+    /**
+     * 判断用户是否已有相同车次、日期、座位类型的候补订单
+     */
+    boolean existsByUserIdAndTrainIdAndTravelDateAndSeatTypeAndStatus(Long userId, Long trainId, Date travelDate,
+                                                                      String seatType, String status);
+
+    /**
+     * 仅当候补订单仍在候补中时更新状态，避免与用户取消冲突
+     * @return 受影响行数，0表示已被取消或处理
+     */
+    @Modifying
+    @Query("UPDATE Waitlist w SET w.status = :status, w.orderNo = :orderNo, w.message = :message, " +
+           "w.updateTime = CURRENT_TIMESTAMP WHERE w.id = :id AND w.status = 'WAITING'")
+    int updateIfWaiting(@Param("id") Long id,
+                        @Param("status") String status,
+                        @Param("orderNo") String orderNo,
+                        @Param("message") String message);
+
+    /**
+     * 把发车日期在指定日期之前仍在候补中的订单标记为已过期，走(status, travel_date)索引
+     * @return 过期的候补订单数
+     */
+    @Modifying
+    @Query("UPDATE Waitlist w SET w.status = 'EXPIRED', w.message = :message, w.updateTime = CURRENT_TIMESTAMP " +
+           "WHERE w.status = 'WAITING' AND w.travelDate < :date")
+    int expireBefore(@Param("date") Date date, @Param("message") String message);
+}
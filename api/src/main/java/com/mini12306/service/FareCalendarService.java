@@ -0,0 +1,17 @@
+package com.mini12306.service;
+
+import com.mini12306.dto.FareCalendarDTO;
+import com.mini12306.model.Result;
+
+/**
+ * 低价日历服务接口
+ * 按天计算两站之间有余票的最低票价，结果按线路和日期缓存，余票或日程变化后只重新计算受影响的日期
+ */
+public interface FareCalendarService {
+
+    /**
+     * 查询从今天起若干天的低价日历
+     * @param days 天数
+     */
+    Result<FareCalendarDTO> getFareCalendar(String startStation, String endStation, Integer days);
+}
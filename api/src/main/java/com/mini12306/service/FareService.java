@@ -0,0 +1,22 @@
+package com.mini12306.service;
+
+import com.mini12306.model.Money;
+import com.mini12306.model.Train;
+import com.mini12306.util.FareTable;
+
+/**
+ * 票价服务接口
+ * 按车次预先计算各区间、各座位等级的票价表，查询和下单时直接读取
+ */
+public interface FareService {
+
+    /**
+     * 获取车次的票价表，经停信息或全程票价变化后重新计算
+     */
+    FareTable getFareTable(Train train);
+
+    /**
+     * 查询区间票价，站点不在线路上、座位类型不支持或无法计价时返回null
+     */
+    Money getFare(Train train, Long fromStationId, Long toStationId, String seatType);
+}
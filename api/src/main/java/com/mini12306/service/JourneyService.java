@@ -0,0 +1,19 @@
+package com.mini12306.service;
+
+import com.mini12306.dto.JourneyDTO;
+import com.mini12306.model.Result;
+
+import java.util.List;
+
+/**
+ * 换乘方案规划服务接口
+ */
+public interface JourneyService {
+
+    /**
+     * 查询出发站到到达站的出行方案（含直达及换乘），站点名称匹配不到时按城市匹配
+     * @param travelDate 出发日期，格式yyyy-MM-dd，为空时默认当天
+     * @param maxTransfers 最多换乘次数（0-2）
+     */
+    Result<List<JourneyDTO>> planJourneys(String startStation, String endStation, String travelDate, Integer maxTransfers);
+}
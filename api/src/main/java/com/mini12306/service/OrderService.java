@@ -1,10 +1,13 @@
 package com.mini12306.service;
 
 import com.mini12306.dto.BuyTicketRequest;
+import com.mini12306.dto.OrderPageDTO;
+import com.mini12306.dto.OrderSearchRequest;
 import com.mini12306.model.Order;
 import com.mini12306.model.Result;
 import com.mini12306.model.Ticket;
 
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -12,7 +15,12 @@ import java.util.List;
  */
 public interface OrderService {
     /**
-     * 创建订单并购票
+     * 错误码：该座位类型余票不足
+     */
+    String NO_SEAT = "NO_SEAT";
+
+    /**
+     * 创建订单并购票，余票不足时返回错误码NO_SEAT
      */
     Result<Order> createOrder(Long userId, BuyTicketRequest request);
     
@@ -20,6 +28,13 @@ public interface OrderService {
      * 查询用户的所有订单
      */
     Result<List<Order>> listUserOrders(Long userId);
+
+    /**
+     * 分页查询用户的订单（按创建时间倒序）
+     * @param cursor 上一页返回的游标，为空时查询第一页
+     * @param size 每页订单数
+     */
+    Result<OrderPageDTO> listUserOrders(Long userId, String cursor, Integer size);
     
     /**
      * 取消订单
@@ -45,4 +60,15 @@ public interface OrderService {
      * 按起始站控知查询订单
      */
     Result<List<Order>> searchOrdersByStartStation(Long userId, String startStation);
+
+    /**
+     * 按发站、到站、乘车日期范围和订单状态分页搜索订单（按创建时间倒序）
+     */
+    Result<OrderPageDTO> searchOrders(Long userId, OrderSearchRequest request);
+
+    /**
+     * 取消一批在截止时间之前创建且仍未支付的订单，并释放其保留的座位
+     * @return 本批取消的订单数
+     */
+    int expireUnpaidOrders(Date deadline, int batchSize);
 }
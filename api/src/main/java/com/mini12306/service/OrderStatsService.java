@@ -0,0 +1,36 @@
+package com.mini12306.service;
+
+import com.mini12306.model.OrderDailyStats;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 订单日汇总服务接口
+ * 已结束的日期汇总到order_daily_stats，统计页面按天读取汇总行，不再扫描订单表。
+ * 已汇总日期的订单状态变化时标记该天，由下一次汇总重新计算
+ */
+public interface OrderStatsService {
+
+    /**
+     * 汇总截至昨天尚未汇总的日期，重新汇总最近几天以及被标记的日期
+     * @return 本次汇总的天数
+     */
+    int rollup();
+
+    /**
+     * 订单状态或金额变化时在同一事务中调用，下单日期已汇总时标记该天需要重新汇总
+     */
+    void markChanged(Date createTime);
+
+    /**
+     * 按天返回[startDate, endDate]内的订单汇总，汇总表中缺少的日期按订单表实时统计
+     */
+    List<OrderDailyStats> getDailyStats(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * 实时统计某天的订单汇总，走下单时间索引的范围查询
+     */
+    OrderDailyStats aggregateDay(LocalDate day);
+}
@@ -0,0 +1,27 @@
+package com.mini12306.service;
+
+import com.mini12306.dto.BuyTicketRequest;
+import com.mini12306.dto.PurchaseQueueResult;
+import com.mini12306.model.Result;
+
+/**
+ * 排队购票服务接口
+ * 购票请求按车次进入有界队列，由后台工作线程分批下单，客户端轮询结果
+ */
+public interface PurchaseQueueService {
+    /**
+     * 错误码：该车次排队人数已满
+     */
+    String QUEUE_FULL = "QUEUE_FULL";
+
+    /**
+     * 提交购票请求
+     * @return 排队号，列车不存在时返回失败；该车次队列已满时返回错误码QUEUE_FULL
+     */
+    Result<String> submit(Long userId, BuyTicketRequest request);
+
+    /**
+     * 查询排队结果
+     */
+    Result<PurchaseQueueResult> getResult(Long userId, String queueId);
+}
@@ -0,0 +1,25 @@
+package com.mini12306.service;
+
+import com.mini12306.model.Result;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 并发冲突重试服务接口
+ * 购票、退票、改签等事务遇到乐观锁冲突或死锁时整体重试，并统计冲突与重试次数
+ */
+public interface RetryService {
+
+    /**
+     * 执行操作，发生并发冲突时按随机退避重试，超过最大次数后返回失败
+     * @param operation 操作名称，用于分类统计
+     * @param action 需要重试的完整事务（调用事务代理方法）
+     */
+    <T> Result<T> execute(String operation, Supplier<Result<T>> action);
+
+    /**
+     * 按操作名称获取调用次数、冲突次数、重试次数、最终失败次数及冲突率
+     */
+    Map<String, Object> getMetrics();
+}
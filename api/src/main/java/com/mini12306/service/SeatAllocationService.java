@@ -0,0 +1,51 @@
+package com.mini12306.service;
+
+import com.mini12306.dto.SeatPosition;
+import com.mini12306.model.Ticket;
+import com.mini12306.model.Train;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 座位分配服务接口
+ * 按（列车, 发车日期, 座位类型）维护内存座位图，分配具体车厢和座位号。
+ * 座位按线路区段占用，同一座位可以卖给多个不重叠的乘车区间。
+ */
+public interface SeatAllocationService {
+
+    /**
+     * 计算乘车区间在该车次线路上的区段掩码，站点不在线路上或方向相反时返回0
+     */
+    long getSegmentMask(Train train, Long fromStationId, Long toStationId);
+
+    /**
+     * 分配区段不冲突的座位，空座不足时返回null
+     * 所在事务回滚时自动释放
+     */
+    List<SeatPosition> allocate(Train train, Date travelDate, String seatType, long segmentMask, int count);
+
+    /**
+     * 查询指定区段的可售座位数
+     */
+    int countAvailable(Train train, Date travelDate, String seatType, long segmentMask);
+
+    /**
+     * 支付成功后标记车票区段为已售，在所在事务提交后生效
+     * 提交时按座位实际是否首次售出修正库存，与返回值不一致的部分逐张车票补扣或归还
+     * @return 当前没有任何已售区段的座位数，用于在事务中扣减整座库存
+     */
+    int markSold(List<Ticket> tickets);
+
+    /**
+     * 释放车票占用的座位区段，在所在事务提交后生效
+     * 提交时按座位实际是否不再有已售区段修正库存
+     * @return 释放后该座位不再有已售区段时返回true，用于在事务中恢复整座库存
+     */
+    boolean release(Ticket ticket);
+
+    /**
+     * 根据车票表中的有效车票重建座位图
+     */
+    void rebuild();
+}
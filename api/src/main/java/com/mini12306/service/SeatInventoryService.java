@@ -0,0 +1,40 @@
+package com.mini12306.service;
+
+import com.mini12306.model.Train;
+import com.mini12306.model.TrainSchedule;
+
+import java.util.Date;
+
+/**
+ * 座位库存服务接口
+ * 按（列车, 发车日期, 座位类型）维护余票，不同日期的售票互不影响。
+ * 余票指没有任何已售区段的整座数量，区间票的可售座位由座位图判断
+ */
+public interface SeatInventoryService {
+
+    /**
+     * 判断列车在指定日期是否运行
+     * 未配置任何日程的列车视为每日运行
+     */
+    boolean isRunning(Long trainId, Date travelDate);
+
+    /**
+     * 根据车次日程初始化当日各座位类型的库存
+     */
+    void initInventory(TrainSchedule schedule);
+
+    /**
+     * 查询余票数
+     */
+    int getRemaining(Train train, Date travelDate, String seatType);
+
+    /**
+     * 扣减余票，余票不足时返回false
+     */
+    boolean deduct(Train train, Date travelDate, String seatType, int count);
+
+    /**
+     * 恢复余票（退票/取消/改签时）
+     */
+    void restore(Long trainId, Date travelDate, String seatType, int count);
+}
@@ -0,0 +1,31 @@
+package com.mini12306.service;
+
+import java.util.Date;
+import java.util.function.Predicate;
+
+/**
+ * 列车开行日历服务接口
+ * 在内存中为每个车次维护未来一段时间的开行日位图，查询某日是否开行无需关联日程表
+ */
+public interface ServiceCalendarService {
+
+    /**
+     * 车次在指定日期是否开行，未配置任何日程的车次视为每日开行
+     */
+    boolean isRunning(Long trainId, Date travelDate);
+
+    /**
+     * 获取指定日期的开行判断（参数为车次ID），超出日历范围的日期从数据库加载当日日程
+     */
+    Predicate<Long> runningOn(Date travelDate);
+
+    /**
+     * 重新加载单个车次的日程（日程变更后调用，在当前事务提交后执行）
+     */
+    void refreshTrain(Long trainId);
+
+    /**
+     * 从数据库重建整个日历
+     */
+    void rebuild();
+}
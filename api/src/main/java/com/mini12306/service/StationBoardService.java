@@ -0,0 +1,22 @@
+package com.mini12306.service;
+
+import com.mini12306.dto.StationBoardDTO;
+import com.mini12306.model.Result;
+
+/**
+ * 车站大屏服务接口
+ * 查询某站在指定日期、时间段内出发或到达的车次
+ */
+public interface StationBoardService {
+
+    /**
+     * 查询车站大屏
+     * @param type departure出发（默认），arrival到达
+     * @param travelDate 日期（yyyy-MM-dd），为空时为今天
+     * @param startTime 起始时刻（HH:mm），为空时查询今天则从当前时刻开始，否则从0点开始
+     * @param endTime 截止时刻（HH:mm），为空时到当天结束
+     * @param limit 最多返回的车次数
+     */
+    Result<StationBoardDTO> getBoard(String station, String type, String travelDate,
+                                     String startTime, String endTime, Integer limit);
+}
@@ -0,0 +1,20 @@
+package com.mini12306.service;
+
+import com.mini12306.util.StationDictionary;
+
+/**
+ * 站点字典服务接口
+ * 在内存中保存站点字典，供列表接口组装DTO时按ID查询站点名称，避免逐条查询数据库
+ */
+public interface StationDictionaryService {
+
+    /**
+     * 获取当前站点字典快照
+     */
+    StationDictionary getDictionary();
+
+    /**
+     * 重新加载站点字典（站点变更后调用，在当前事务提交后执行）
+     */
+    void reload();
+}
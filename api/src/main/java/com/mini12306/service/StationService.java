@@ -1,5 +1,6 @@
 package com.mini12306.service;
 
+import com.mini12306.dto.StationSuggestionDTO;
 import com.mini12306.model.Result;
 import com.mini12306.model.Station;
 
@@ -44,4 +45,15 @@ public interface StationService {
      * 根据城市模糊搜索站点
      */
     Result<List<Station>> searchStationsByCity(String keyword);
+
+    /**
+     * 站点联想输入：按站名、城市、全拼、拼音首字母或站点代码前缀匹配，按热度排序
+     * @param limit 最多返回的站点数，为空时使用默认值
+     */
+    Result<List<StationSuggestionDTO>> suggest(String keyword, Integer limit);
+
+    /**
+     * 记录新建车票的发站和到站热度，事务提交后计入，由定时任务累加到站点热度表
+     */
+    void recordUsage(Long startStationId, Long endStationId);
 }
@@ -15,7 +15,7 @@ public interface StatsService {
 
     /**
      * 获取订单统计数据
-     * 包含:今日订单数、昨日订单数、本月订单数、订单总数等
+     * 包含:今日、昨日、本月的订单数及已支付金额，本月每日汇总，订单总数等
      */
     Map<String, Object> getOrderStats();
 
@@ -24,4 +24,16 @@ public interface StatsService {
      * 包含:最热门列车Top5、最热门车站Top5等
      */
     Map<String, Object> getPopularTrainStats();
+
+    /**
+     * 获取并发冲突统计数据
+     * 包含:各类购票操作的调用次数、冲突次数、重试次数、冲突率
+     */
+    Map<String, Object> getConcurrencyStats();
+
+    /**
+     * 获取列车查询缓存统计数据
+     * 包含:命中次数、未命中次数、命中率、淘汰及失效次数
+     */
+    Map<String, Object> getSearchCacheStats();
 }
@@ -0,0 +1,37 @@
+package com.mini12306.service;
+
+import com.mini12306.util.TimetableIndex;
+
+import java.util.List;
+
+/**
+ * 时刻表服务接口
+ * 在内存中维护由列车路线构建的时刻表索引，支持途经站之间的查询
+ */
+public interface TimetableService {
+
+    /**
+     * 查询先经过出发站、后经过到达站的车次
+     */
+    List<TimetableIndex.StopMatch> findDirectTrains(Long fromStationId, Long toStationId);
+
+    /**
+     * 获取车次的经停信息，车次不存在时返回null
+     */
+    TimetableIndex.TrainStops getTrainStops(Long trainId);
+
+    /**
+     * 获取时刻表索引
+     */
+    TimetableIndex getIndex();
+
+    /**
+     * 重新加载单个车次（列车或路线变更后调用，在当前事务提交后执行）
+     */
+    void refreshTrain(Long trainId);
+
+    /**
+     * 从数据库重建整个索引
+     */
+    void rebuild();
+}
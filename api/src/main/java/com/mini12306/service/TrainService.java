@@ -2,6 +2,7 @@ package com.mini12306.service;
 
 import com.mini12306.model.Result;
 // import com.mini12306.model.Train;
+import com.mini12306.dto.SeatAvailabilityDTO;
 import com.mini12306.dto.TrainDetailDTO;
 import org.springframework.data.domain.PageRequest;
 
@@ -19,14 +20,21 @@ public interface TrainService {
     
     /**
      * 根据起始站和终点站查询列车
+     * @param travelDate 乘车日期（yyyy-MM-dd），为空时不按开行日期过滤，余票按当天计算
      */
-    Result<List<TrainDetailDTO>> searchTrains(String startStation, String endStation);
+    Result<List<TrainDetailDTO>> searchTrains(String startStation, String endStation, String travelDate);
     
     /**
      * 获取列车详情
      */
     Result<TrainDetailDTO> getTrainDetail(Long trainId);
 
+    /**
+     * 批量查询多个车次某日的余票，指定出发站和到达站时按乘车区间计算
+     * @param travelDate 乘车日期，格式yyyy-MM-dd，为空时默认当天
+     */
+    Result<SeatAvailabilityDTO> getAvailability(List<Long> trainIds, String travelDate, String startStation, String endStation);
+
     /**
      * 分页查询站点列表（支持按名称和城市搜索）
      */
@@ -66,4 +74,9 @@ public interface TrainService {
      * 删除列车
      */
     Result<?> deleteTrain(Long id);
+
+    /**
+     * 获取查询缓存统计数据（命中、未命中、淘汰等）
+     */
+    Map<String, Object> getSearchCacheStats();
 }
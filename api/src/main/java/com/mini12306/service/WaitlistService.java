@@ -0,0 +1,35 @@
+package com.mini12306.service;
+
+import com.mini12306.dto.BuyTicketRequest;
+import com.mini12306.model.Result;
+import com.mini12306.model.Waitlist;
+
+import java.util.List;
+
+/**
+ * 候补购票服务接口
+ * 余票不足时登记候补，座位释放后按登记顺序自动下单，代替用户反复重试
+ */
+public interface WaitlistService {
+
+    /**
+     * 登记候补，同一用户对同一车次、日期、座位类型只能有一个候补订单
+     */
+    Result<Waitlist> join(Long userId, BuyTicketRequest request);
+
+    /**
+     * 查询用户的候补订单
+     */
+    Result<List<Waitlist>> listUserWaitlist(Long userId);
+
+    /**
+     * 取消候补
+     */
+    Result<Waitlist> cancel(Long userId, Long id);
+
+    /**
+     * 把发车日期已过仍在候补中的订单标记为已过期
+     * @return 过期的候补订单数
+     */
+    int expireDeparted();
+}
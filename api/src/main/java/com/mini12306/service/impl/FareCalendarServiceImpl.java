@@ -0,0 +1,246 @@
+package com.mini12306.service.impl;
+
+import com.mini12306.dto.FareCalendarDTO;
+import com.mini12306.event.SeatAllocatedEvent;
+import com.mini12306.event.SeatReleasedEvent;
+import com.mini12306.event.TimetableChangedEvent;
+import com.mini12306.event.TrainScheduleChangedEvent;
+import com.mini12306.model.Money;
+import com.mini12306.model.Result;
+import com.mini12306.model.Train;
+import com.mini12306.repository.TrainRepository;
+import com.mini12306.service.FareCalendarService;
+import com.mini12306.service.FareService;
+import com.mini12306.service.SeatAllocationService;
+import com.mini12306.service.ServiceCalendarService;
+import com.mini12306.service.StationDictionaryService;
+import com.mini12306.service.TimetableService;
+import com.mini12306.util.DateUtils;
+import com.mini12306.util.FareTable;
+import com.mini12306.util.SearchCache;
+import com.mini12306.util.SeatTypeUtils;
+import com.mini12306.util.SegmentUtils;
+import com.mini12306.util.StationDictionary;
+import com.mini12306.util.TimetableIndex;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+/**
+ * 低价日历服务实现
+ * 候选车次、开行日历、票价表和余票都在内存中，缓存未命中的日期由虚拟线程并行计算。
+ * 每个（线路, 日期）单独缓存并带有车次余票标签，余票变化只失效对应日期
+ */
+@Service
+public class FareCalendarServiceImpl implements FareCalendarService {
+
+    private static final int MAX_DAYS = 60;
+
+    @Autowired
+    private TimetableService timetableService;
+
+    @Autowired
+    private StationDictionaryService stationDictionaryService;
+
+    @Autowired
+    private ServiceCalendarService serviceCalendarService;
+
+    @Autowired
+    private FareService fareService;
+
+    @Autowired
+    private SeatAllocationService seatAllocationService;
+
+    @Autowired
+    private TrainRepository trainRepository;
+
+    @Value("${mini12306.fare-calendar.max-size:5000}")
+    private int cacheMaxSize;
+
+    @Value("${mini12306.fare-calendar.ttl-seconds:300}")
+    private long cacheTtlSeconds;
+
+    private SearchCache<String, FareCalendarDTO.DayFare> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = new SearchCache<>(cacheMaxSize, cacheTtlSeconds * 1000L);
+    }
+
+    @Override
+    public Result<FareCalendarDTO> getFareCalendar(String startStation, String endStation, Integer days) {
+        int dayCount = days == null ? 30 : days;
+        if (dayCount <= 0 || dayCount > MAX_DAYS) {
+            return Result.fail("天数应在1到" + MAX_DAYS + "之间");
+        }
+        StationDictionary dictionary = stationDictionaryService.getDictionary();
+        StationDictionary.StationInfo start = dictionary.getByName(startStation);
+        StationDictionary.StationInfo end = dictionary.getByName(endStation);
+        if (start == null || end == null) {
+            return Result.fail("站点不存在");
+        }
+
+        LocalDate today = DateUtils.today().toLocalDate();
+        String route = start.getId() + "|" + end.getId() + "|";
+        FareCalendarDTO.DayFare[] result = new FareCalendarDTO.DayFare[dayCount];
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < dayCount; i++) {
+            result[i] = cache.get(route + today.plusDays(i));
+            if (result[i] == null) {
+                missing.add(i);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long sequence = cache.begin();
+            List<TimetableIndex.StopMatch> matches = timetableService.findDirectTrains(start.getId(), end.getId());
+            List<Long> trainIds = new ArrayList<>();
+            for (TimetableIndex.StopMatch match : matches) {
+                trainIds.add(match.getTrainId());
+            }
+            Map<Long, Train> trains = new HashMap<>();
+            for (Train train : trainRepository.findAllById(trainIds)) {
+                trains.put(train.getId(), train);
+            }
+
+            // 各日期互不依赖，每天一个虚拟线程
+            Map<Integer, Future<FareCalendarDTO.DayFare>> futures = new HashMap<>();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (Integer i : missing) {
+                    LocalDate date = today.plusDays(i);
+                    futures.put(i, executor.submit(() -> computeDay(date, matches, trains)));
+                }
+                for (Integer i : missing) {
+                    result[i] = futures.get(i).get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Result.fail("查询被中断");
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("计算低价日历失败", e.getCause());
+            }
+
+            for (Integer i : missing) {
+                Set<Object> tags = new HashSet<>();
+                tags.add(stationTag(start.getId()));
+                tags.add(stationTag(end.getId()));
+                for (TimetableIndex.StopMatch match : matches) {
+                    tags.add(trainTag(match.getTrainId()));
+                    tags.add(seatTag(match.getTrainId(), java.sql.Date.valueOf(today.plusDays(i))));
+                }
+                cache.put(route + result[i].getTravelDate(), result[i], tags, sequence);
+            }
+        }
+
+        FareCalendarDTO dto = new FareCalendarDTO();
+        dto.setStartStation(start.getName());
+        dto.setEndStation(end.getName());
+        dto.setDays(List.of(result));
+        return Result.success(dto);
+    }
+
+    /**
+     * 计算单日有余票的最低票价
+     */
+    private FareCalendarDTO.DayFare computeDay(LocalDate date, List<TimetableIndex.StopMatch> matches, Map<Long, Train> trains) {
+        java.sql.Date travelDate = java.sql.Date.valueOf(date);
+        Predicate<Long> running = serviceCalendarService.runningOn(travelDate);
+
+        FareCalendarDTO.DayFare dayFare = new FareCalendarDTO.DayFare();
+        dayFare.setTravelDate(date.toString());
+        long minFare = -1;
+        int availableTrains = 0;
+        for (TimetableIndex.StopMatch match : matches) {
+            Train train = trains.get(match.getTrainId());
+            if (train == null || !running.test(train.getId())) {
+                continue;
+            }
+            FareTable fares = fareService.getFareTable(train);
+            long segmentMask = SegmentUtils.mask(match.getFromIndex(), match.getToIndex());
+            List<String> seatTypes = SeatTypeUtils.getSeatTypes(train.getType());
+            boolean available = false;
+            for (int seatClass = 0; seatClass < seatTypes.size(); seatClass++) {
+                String seatType = seatTypes.get(seatClass);
+                long fare = fares.getFare(match.getFromIndex(), match.getToIndex(), seatClass);
+                if (fare < 0 || SeatTypeUtils.getCapacity(train, seatType) <= 0
+                        || seatAllocationService.countAvailable(train, travelDate, seatType, segmentMask) <= 0) {
+                    continue;
+                }
+                available = true;
+                if (minFare < 0 || fare < minFare) {
+                    minFare = fare;
+                    dayFare.setTrainId(train.getId());
+                    dayFare.setTrainNumber(train.getCode());
+                    dayFare.setSeatType(seatType);
+                }
+            }
+            if (available) {
+                availableTrains++;
+            }
+        }
+        dayFare.setMinPrice(minFare >= 0 ? Money.fromFen(minFare) : null);
+        dayFare.setAvailableTrains(availableTrains);
+        return dayFare;
+    }
+
+    /**
+     * 车次或路线变更：失效包含该车次的日期，以及经过其经停站的线路（可能新增该车次）
+     */
+    @EventListener
+    public void onTimetableChanged(TimetableChangedEvent event) {
+        if (event.getTrainId() == null) {
+            cache.invalidateAll();
+            return;
+        }
+        cache.invalidate(trainTag(event.getTrainId()));
+        for (Long stationId : event.getStationIds()) {
+            cache.invalidate(stationTag(stationId));
+        }
+    }
+
+    @EventListener
+    public void onTrainScheduleChanged(TrainScheduleChangedEvent event) {
+        cache.invalidate(trainTag(event.getTrainId()));
+    }
+
+    /**
+     * 余票变化：只失效该车次该日期所在的线路日期
+     */
+    @EventListener
+    public void onSeatAllocated(SeatAllocatedEvent event) {
+        cache.invalidate(seatTag(event.getTrainId(), DateUtils.toSqlDate(event.getTravelDate())));
+    }
+
+    @EventListener
+    public void onSeatReleased(SeatReleasedEvent event) {
+        cache.invalidate(seatTag(event.getTrainId(), DateUtils.toSqlDate(event.getTravelDate())));
+    }
+
+    private static String trainTag(Long trainId) {
+        return "train:" + trainId;
+    }
+
+    private static String seatTag(Long trainId, Date travelDate) {
+        return "seat:" + trainId + "|" + travelDate;
+    }
+
+    private static String stationTag(Long stationId) {
+        return "station:" + stationId;
+    }
+}
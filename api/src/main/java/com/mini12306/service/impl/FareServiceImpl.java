@@ -0,0 +1,114 @@
+package com.mini12306.service.impl;
+
+import com.mini12306.event.TimetableChangedEvent;
+import com.mini12306.model.Money;
+import com.mini12306.model.Train;
+import com.mini12306.service.FareService;
+import com.mini12306.service.TimetableService;
+import com.mini12306.util.FareTable;
+import com.mini12306.util.TimetableIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 票价服务实现
+ * 票价表由时刻表索引中的经停里程和按列车类型配置的费率计算，首次使用时构建，
+ * 经停信息快照或全程票价变化后重新构建
+ */
+@Service
+public class FareServiceImpl implements FareService {
+
+    @Autowired
+    private TimetableService timetableService;
+
+    // 各座位等级费率（万分比），按高级到次级排列
+    @Value("${mini12306.fare.class-rates.high-speed:15000,12000,10000}")
+    private int[] highSpeedClassRates;
+
+    @Value("${mini12306.fare.class-rates.emu:12000,10000}")
+    private int[] emuClassRates;
+
+    @Value("${mini12306.fare.class-rates.normal:15000,12000,10000}")
+    private int[] normalClassRates;
+
+    // 未设置全程票价时使用的每公里票价（分）
+    @Value("${mini12306.fare.cents-per-km.high-speed:46}")
+    private long highSpeedCentsPerKm;
+
+    @Value("${mini12306.fare.cents-per-km.emu:31}")
+    private long emuCentsPerKm;
+
+    @Value("${mini12306.fare.cents-per-km.normal:15}")
+    private long normalCentsPerKm;
+
+    private final Map<Long, FareTable> tables = new ConcurrentHashMap<>();
+
+    @Override
+    public FareTable getFareTable(Train train) {
+        TimetableIndex.TrainStops stops = timetableService.getTrainStops(train.getId());
+        long baseFare = train.getPrice() != null ? train.getPrice().toFen() : -1;
+        FareTable table = tables.get(train.getId());
+        if (table != null && table.getStops() == stops && table.getBaseFare() == baseFare) {
+            return table;
+        }
+        table = FareTable.build(train, stops, getClassRates(train.getType()), getCentsPerKm(train.getType()));
+        tables.put(train.getId(), table);
+        return table;
+    }
+
+    @Override
+    public Money getFare(Train train, Long fromStationId, Long toStationId, String seatType) {
+        if (fromStationId == null || toStationId == null) {
+            return null;
+        }
+        FareTable table = getFareTable(train);
+        TimetableIndex.TrainStops stops = table.getStops();
+        int from;
+        int to;
+        if (stops != null) {
+            from = stops.indexOf(fromStationId);
+            to = stops.lastIndexOf(toStationId);
+        } else {
+            // 不在时刻表索引中的车次只能按全程计价
+            from = fromStationId.equals(train.getStartStationId()) ? 0 : -1;
+            to = toStationId.equals(train.getEndStationId()) ? 1 : -1;
+        }
+        long fare = table.getFare(from, to, seatType);
+        return fare >= 0 ? Money.fromFen(fare) : null;
+    }
+
+    /**
+     * 车次或路线变更后丢弃旧票价表，下次使用时重新构建
+     */
+    @EventListener
+    public void onTimetableChanged(TimetableChangedEvent event) {
+        if (event.getTrainId() == null) {
+            tables.clear();
+        } else {
+            tables.remove(event.getTrainId());
+        }
+    }
+
+    private int[] getClassRates(String trainType) {
+        if ("高铁".equals(trainType)) {
+            return highSpeedClassRates;
+        } else if ("动车".equals(trainType)) {
+            return emuClassRates;
+        }
+        return normalClassRates;
+    }
+
+    private long getCentsPerKm(String trainType) {
+        if ("高铁".equals(trainType)) {
+            return highSpeedCentsPerKm;
+        } else if ("动车".equals(trainType)) {
+            return emuCentsPerKm;
+        }
+        return normalCentsPerKm;
+    }
+}
@@ -0,0 +1,208 @@
+package com.mini12306.service.impl;
+
+import com.mini12306.dto.JourneyDTO;
+import com.mini12306.dto.JourneyLegDTO;
+import com.mini12306.dto.TrainDetailDTO;
+import com.mini12306.model.Result;
+import com.mini12306.model.Train;
+import com.mini12306.repository.TrainRepository;
+import com.mini12306.service.JourneyService;
+import com.mini12306.service.ServiceCalendarService;
+import com.mini12306.service.StationDictionaryService;
+import com.mini12306.service.TimetableService;
+import com.mini12306.util.DateUtils;
+import com.mini12306.util.JourneyPlanner;
+import com.mini12306.util.SegmentUtils;
+import com.mini12306.util.StationDictionary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * 换乘方案规划服务实现
+ * 规划器使用时刻表索引的数组快照，索引版本变化后重新构建；开行判断使用内存中的开行日历
+ */
+@Service
+public class JourneyServiceImpl implements JourneyService {
+
+    private static final int DAY = 24 * 60;
+
+    private static final int MAX_TRANSFERS = 2;
+
+    @Autowired
+    private TimetableService timetableService;
+
+    @Autowired
+    private StationDictionaryService stationDictionaryService;
+
+    @Autowired
+    private TrainRepository trainRepository;
+
+    @Autowired
+    private ServiceCalendarService serviceCalendarService;
+
+    @Value("${mini12306.journey.min-transfer-minutes:30}")
+    private int minTransferMinutes;
+
+    @Value("${mini12306.journey.max-results:5}")
+    private int maxResults;
+
+    private volatile JourneyPlanner planner;
+
+    @Override
+    public Result<List<JourneyDTO>> planJourneys(String startStation, String endStation, String travelDate, Integer maxTransfers) {
+        java.sql.Date date = travelDate == null || travelDate.trim().isEmpty() ? DateUtils.today() : DateUtils.parseDate(travelDate);
+        if (date == null) {
+            return Result.fail("日期格式错误，应为yyyy-MM-dd");
+        }
+        int transfers = maxTransfers == null ? MAX_TRANSFERS : Math.max(0, Math.min(MAX_TRANSFERS, maxTransfers));
+
+        List<Long> sources = resolveStations(startStation);
+        List<Long> targets = resolveStations(endStation);
+        if (sources.isEmpty() || targets.isEmpty()) {
+            return Result.fail("站点不存在");
+        }
+
+        LocalDate baseDate = date.toLocalDate();
+        JourneyPlanner currentPlanner = getPlanner();
+        JourneyPlanner.RunningCalendar calendar = loadCalendar(baseDate);
+
+        // 每轮只返回各换乘次数下到达最早的方案，从上一轮最早出发时间之后继续查询以获得当天更多班次
+        Map<String, JourneyPlanner.Journey> found = new LinkedHashMap<>();
+        int departAfter = 0;
+        while (found.size() < maxResults && departAfter < DAY) {
+            List<JourneyPlanner.Journey> journeys = currentPlanner.plan(sources, targets, departAfter,
+                    transfers, minTransferMinutes, calendar);
+            int nextDepart = Integer.MAX_VALUE;
+            for (JourneyPlanner.Journey journey : journeys) {
+                if (journey.getDepart() < DAY) {
+                    found.putIfAbsent(journey.getSignature(), journey);
+                    nextDepart = Math.min(nextDepart, journey.getDepart());
+                }
+            }
+            if (nextDepart == Integer.MAX_VALUE) {
+                break;
+            }
+            departAfter = nextDepart + 1;
+        }
+
+        List<JourneyPlanner.Journey> journeys = new ArrayList<>(found.values());
+        journeys.sort(Comparator.comparingInt(JourneyPlanner.Journey::getDepart)
+                .thenComparingInt(JourneyPlanner.Journey::getArrive));
+        if (journeys.size() > maxResults) {
+            journeys = journeys.subList(0, maxResults);
+        }
+        return Result.success(convertToDTOs(journeys, baseDate));
+    }
+
+    /**
+     * 站点名称匹配不到时按城市匹配，城市内任一车站均可出发或到达
+     */
+    private List<Long> resolveStations(String name) {
+        List<Long> ids = new ArrayList<>();
+        if (name == null || name.trim().isEmpty()) {
+            return ids;
+        }
+        StationDictionary dictionary = stationDictionaryService.getDictionary();
+        StationDictionary.StationInfo station = dictionary.getByName(name.trim());
+        if (station != null) {
+            ids.add(station.getId());
+            return ids;
+        }
+        for (StationDictionary.StationInfo s : dictionary.getByCity(name.trim())) {
+            ids.add(s.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * 时刻表索引变化后重新构建规划器快照
+     */
+    private JourneyPlanner getPlanner() {
+        JourneyPlanner current = planner;
+        long version = timetableService.getIndex().getVersion();
+        if (current != null && current.getVersion() == version) {
+            return current;
+        }
+        synchronized (this) {
+            current = planner;
+            if (current == null || current.getVersion() != timetableService.getIndex().getVersion()) {
+                current = JourneyPlanner.build(timetableService.getIndex());
+                planner = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * 出发日期前后几天的开行判断，由内存中的开行日历提供
+     */
+    private JourneyPlanner.RunningCalendar loadCalendar(LocalDate baseDate) {
+        List<Predicate<Long>> running = new ArrayList<>();
+        for (int d = JourneyPlanner.MIN_DAY_OFFSET; d <= JourneyPlanner.MAX_DAY_OFFSET; d++) {
+            running.add(serviceCalendarService.runningOn(java.sql.Date.valueOf(baseDate.plusDays(d))));
+        }
+        return (trainId, dayOffset) -> running.get(dayOffset - JourneyPlanner.MIN_DAY_OFFSET).test(trainId);
+    }
+
+    private List<JourneyDTO> convertToDTOs(List<JourneyPlanner.Journey> journeys, LocalDate baseDate) {
+        Set<Long> trainIds = new HashSet<>();
+        for (JourneyPlanner.Journey journey : journeys) {
+            for (JourneyPlanner.Leg leg : journey.getLegs()) {
+                trainIds.add(leg.getTrainId());
+            }
+        }
+        Map<Long, Train> trains = new HashMap<>();
+        for (Train train : trainRepository.findAllById(trainIds)) {
+            trains.put(train.getId(), train);
+        }
+        StationDictionary dictionary = stationDictionaryService.getDictionary();
+
+        List<JourneyDTO> dtos = new ArrayList<>();
+        for (JourneyPlanner.Journey journey : journeys) {
+            JourneyDTO dto = new JourneyDTO();
+            dto.setTransfers(journey.getTransfers());
+            dto.setDepartureTime(SegmentUtils.formatMinutes(journey.getDepart()));
+            dto.setArrivalTime(SegmentUtils.formatMinutes(journey.getArrive()));
+            dto.setDuration(TrainDetailDTO.formatDuration(journey.getArrive() - journey.getDepart()));
+            dto.setArrivalDayOffset(Math.floorDiv(journey.getArrive(), DAY));
+
+            List<JourneyLegDTO> legs = new ArrayList<>();
+            JourneyPlanner.Leg previous = null;
+            for (JourneyPlanner.Leg leg : journey.getLegs()) {
+                JourneyLegDTO legDTO = new JourneyLegDTO();
+                Train train = trains.get(leg.getTrainId());
+                legDTO.setTrainId(leg.getTrainId());
+                if (train != null) {
+                    legDTO.setTrainNumber(train.getCode());
+                    legDTO.setTrainType(train.getType());
+                }
+                legDTO.setStartStationId(leg.getFromStationId());
+                legDTO.setStartStation(dictionary.getName(leg.getFromStationId()));
+                legDTO.setEndStationId(leg.getToStationId());
+                legDTO.setEndStation(dictionary.getName(leg.getToStationId()));
+                legDTO.setTravelDate(baseDate.plusDays(leg.getDayOffset()).toString());
+                legDTO.setDepartureTime(SegmentUtils.formatMinutes(leg.getDepart()));
+                legDTO.setArrivalTime(SegmentUtils.formatMinutes(leg.getArrive()));
+                legDTO.setDuration(TrainDetailDTO.formatDuration(leg.getArrive() - leg.getDepart()));
+                legDTO.setTransferMinutes(previous == null ? 0 : leg.getDepart() - previous.getArrive());
+                legs.add(legDTO);
+                previous = leg;
+            }
+            dto.setLegs(legs);
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+}
@@ -1,25 +1,45 @@
 package com.mini12306.service.impl;
 
 import com.mini12306.dto.BuyTicketRequest;
+import com.mini12306.dto.OrderPageDTO;
+import com.mini12306.dto.OrderSearchRequest;
+import com.mini12306.dto.OrderSummaryView;
+import com.mini12306.dto.SeatPosition;
 import com.mini12306.model.Money;
 import com.mini12306.model.Order;
 import com.mini12306.model.Passenger;
 import com.mini12306.model.Result;
 import com.mini12306.model.Ticket;
 import com.mini12306.model.Train;
+import com.mini12306.model.TrainRoute;
 import com.mini12306.repository.OrderRepository;
 import com.mini12306.repository.PassengerRepository;
 import com.mini12306.repository.TicketRepository;
 import com.mini12306.repository.TrainRepository;
+import com.mini12306.repository.TrainRouteRepository;
+import com.mini12306.service.FareService;
 import com.mini12306.service.OrderService;
+import com.mini12306.service.OrderStatsService;
+import com.mini12306.service.SeatAllocationService;
+import com.mini12306.service.SeatInventoryService;
+import com.mini12306.service.StationDictionaryService;
+import com.mini12306.service.StationService;
 import com.mini12306.util.CodeGenerator;
+import com.mini12306.util.DateUtils;
+import com.mini12306.util.SegmentUtils;
+import com.mini12306.util.StationDictionary;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -27,6 +47,11 @@ import java.util.Optional;
  */
 @Service
 public class OrderServiceImpl implements OrderService {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
     
     @Autowired
     private OrderRepository orderRepository;
@@ -39,6 +64,31 @@ public class OrderServiceImpl implements OrderService {
 
     @Autowired
     private PassengerRepository passengerRepository;
+
+    @Autowired
+    private TrainRouteRepository trainRouteRepository;
+
+    @Autowired
+    private StationDictionaryService stationDictionaryService;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private SeatAllocationService seatAllocationService;
+
+    @Autowired
+    private FareService fareService;
+
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    @Autowired
+    private StationService stationService;
+
+    // 未支付订单的座位保留时长（分钟）
+    @Value("${mini12306.order.hold-ttl-minutes:15}")
+    private int holdTtlMinutes;
     
     /**
      * 扩展的Order DTO类，包含车次和站点信息
@@ -63,6 +113,7 @@ public class OrderServiceImpl implements OrderService {
             this.setPayTime(order.getPayTime());
             this.setCancelTime(order.getCancelTime());
             this.setTicketCount(order.getTicketCount());
+            this.setVersion(order.getVersion());
         }
 
         // Getter和Setter
@@ -131,11 +182,19 @@ public class OrderServiceImpl implements OrderService {
 
         Train train = trainOpt.get();
         
-        // 验证站点
-        if (!train.getStartStation().equals(request.getStartStation()) || 
-            !train.getEndStation().equals(request.getEndStation())) {
+        // 验证站点，支持购买途经站之间的区间
+        List<TrainRoute> routes = trainRouteRepository.findByTrainIdOrderByStationOrderAsc(train.getId());
+        List<Long> stops = SegmentUtils.getStops(train, routes);
+        Long fromStationId = resolveStationId(request.getStartStationId(), request.getStartStation(),
+                train.getStartStation(), train.getStartStationId());
+        Long toStationId = resolveStationId(request.getEndStationId(), request.getEndStation(),
+                train.getEndStation(), train.getEndStationId());
+        long segmentMask = SegmentUtils.mask(stops, fromStationId, toStationId);
+        if (segmentMask == 0) {
             return Result.fail("站点信息不匹配");
         }
+        TrainRoute fromRoute = SegmentUtils.findRoute(routes, fromStationId);
+        TrainRoute toRoute = SegmentUtils.findRoute(routes, toStationId);
         
         // 验证乘车人
         List<Passenger> passengers = new ArrayList<>();
@@ -147,46 +206,27 @@ public class OrderServiceImpl implements OrderService {
             passengers.add(passengerOpt.get());
         }
         
-        // 获取座位类型和计算实际价格
+        // 获取座位类型，从票价表读取区间票价
         String seatType = request.getSeatType() != null ? request.getSeatType() : "二等座";
-        Money actualPrice = calculateSeatPrice(train, seatType);
+        Money actualPrice = fareService.getFare(train, fromStationId, toStationId, seatType);
         if (actualPrice == null) {
             return Result.fail("无法计算该座位类型的价格");
         }
         
-        // 验证余票（根据座位类型检查）
-        int requestedSeats = request.getPassengerIds().size();
-        
-        // 根据座位类型和列车类型检查余票
-        boolean hasSeat = false;
-        if ("高铁".equals(train.getType())) {
-            if ("商务座".equals(seatType)) {
-                hasSeat = train.getHighSeatCount() != null && train.getHighSeatCount() >= requestedSeats;
-            } else if ("一等座".equals(seatType)) {
-                hasSeat = train.getMidSeatCount() != null && train.getMidSeatCount() >= requestedSeats;
-            } else if ("二等座".equals(seatType)) {
-                hasSeat = train.getLowSeatCount() != null && train.getLowSeatCount() >= requestedSeats;
-            }
-        } else if ("动车".equals(train.getType())) {
-            if ("一等座".equals(seatType)) {
-                hasSeat = train.getMidSeatCount() != null && train.getMidSeatCount() >= requestedSeats;
-            } else if ("二等座".equals(seatType)) {
-                hasSeat = train.getLowSeatCount() != null && train.getLowSeatCount() >= requestedSeats;
-            }
-        } else {
-            // 普通列车
-            if ("软卧".equals(seatType)) {
-                hasSeat = train.getHighSeatCount() != null && train.getHighSeatCount() >= requestedSeats;
-            } else if ("硬卧".equals(seatType)) {
-                hasSeat = train.getMidSeatCount() != null && train.getMidSeatCount() >= requestedSeats;
-            } else if ("硬座".equals(seatType)) {
-                hasSeat = train.getLowSeatCount() != null && train.getLowSeatCount() >= requestedSeats;
+        // 解析发车日期，未指定时默认当天
+        Date travelDate = DateUtils.today();
+        if (request.getTravelDate() != null && !request.getTravelDate().isEmpty()) {
+            travelDate = DateUtils.parseDate(request.getTravelDate());
+            if (travelDate == null) {
+                return Result.fail("日期格式有误");
             }
         }
-        
-        if (!hasSeat) {
-            return Result.fail("该座位类型余票不足");
+
+        if (!seatInventoryService.isRunning(train.getId(), travelDate)) {
+            return Result.fail("该车次当日停运");
         }
+
+        int requestedSeats = request.getPassengerIds().size();
         
         // 创建订单
         Order order = new Order();
@@ -197,11 +237,14 @@ public class OrderServiceImpl implements OrderService {
         order.setCreateTime(new Date());
         order.setPayTime(null);  // 未支付时 payTime 应该为 null
 
+        // 按乘车区间分配座位，区段不冲突的座位可以复用
+        List<SeatPosition> seatPositions = seatAllocationService.allocate(train, travelDate, seatType, segmentMask, requestedSeats);
+        if (seatPositions == null) {
+            return Result.fail(NO_SEAT, "该座位类型余票不足");
+        }
+
         orderRepository.save(order);
         
-        // 获取当前座位类型已售出的数量（用于分配座位号）
-        int soldSeatsOfType = getSoldSeatsCount(train, seatType);
-        
         // 创建车票
         for (int i = 0; i < passengers.size(); i++) {
             Passenger passenger = passengers.get(i);
@@ -217,8 +260,8 @@ public class OrderServiceImpl implements OrderService {
             ticket.setTrainCode(train.getCode());
             ticket.setTrainType(train.getType());
             // 设置起始站和终点站ID
-            ticket.setStartStationId(train.getStartStationId());
-            ticket.setEndStationId(train.getEndStationId());
+            ticket.setStartStationId(fromStationId);
+            ticket.setEndStationId(toStationId);
             // 设置起始站和终点站名称
             ticket.setStartStation(request.getStartStation());
             ticket.setEndStation(request.getEndStation());
@@ -226,21 +269,23 @@ public class OrderServiceImpl implements OrderService {
             ticket.setStartCity(request.getStartCity() != null ? request.getStartCity() : extractCityFromStation(request.getStartStation()));
             ticket.setEndCity(request.getEndCity() != null ? request.getEndCity() : extractCityFromStation(request.getEndStation()));
             
-            // 根据座位类型分配车厢和座位号
-            int coachNumber = getCoachNumberBySeatType(train.getType(), seatType);
-            int seatNumber = soldSeatsOfType + i + 1; // 当前座位类型已售 + 当前索引 + 1
-            
-            ticket.setSeat(String.valueOf(seatNumber));
-            ticket.setCoach(String.valueOf(coachNumber));
-            ticket.setSeatInfo(coachNumber + "车" + seatNumber + "号座");
+            // 设置分配到的车厢和座位号
+            SeatPosition position = seatPositions.get(i);
+            ticket.setSeat(String.valueOf(position.getSeat()));
+            ticket.setCoach(String.valueOf(position.getCoach()));
+            ticket.setSeatInfo(position.getSeatInfo());
             ticket.setSeatType(seatType);
             ticket.setPrice(actualPrice); // 使用实际价格
-            ticket.setStartTime(train.getStartTime());
-            ticket.setEndTime(train.getEndTime());
-            // 设置旅行日期为当天
-            ticket.setTravelDate(new Date());
+            ticket.setStartTime(fromRoute != null && fromRoute.getDepartTime() != null ?
+                    SegmentUtils.formatTime(fromRoute.getDepartTime()) : train.getStartTime());
+            ticket.setEndTime(toRoute != null && toRoute.getArriveTime() != null ?
+                    SegmentUtils.formatTime(toRoute.getArriveTime()) : train.getEndTime());
+            // 设置旅行日期
+            ticket.setTravelDate(travelDate);
             // 设置行程时间（分钟）
-            if (train.getDuration() != null) {
+            if (fromRoute != null && toRoute != null && fromRoute.getDepartTime() != null && toRoute.getArriveTime() != null) {
+                ticket.setDuration(SegmentUtils.getDuration(fromRoute, toRoute));
+            } else if (train.getDuration() != null) {
                 ticket.setDuration(train.getDuration());
             } else {
                 // 如果列车没有提供时长，则设置一个默认值
@@ -251,10 +296,11 @@ public class OrderServiceImpl implements OrderService {
             ticket.setUpdateTime(new Date());
             
             ticketRepository.save(ticket);
+            stationService.recordUsage(ticket.getStartStationId(), ticket.getEndStationId());
         }
         
-        // 注意：创建订单时不扣减余票，等支付时再扣减
-        // 这样可以避免恶意用户批量下单占用余票
+        // 注意：创建订单时只在座位图中保留座位，等支付时再扣减余票
+        // 超过保留时长未支付的订单由定时任务自动取消并释放座位
 
         // 设置订单包含的票数
         order.setTicketCount(request.getPassengerIds().size());
@@ -265,8 +311,10 @@ public class OrderServiceImpl implements OrderService {
         orderDTO.setTrainType(train.getType());
         orderDTO.setStartStation(request.getStartStation());
         orderDTO.setEndStation(request.getEndStation());
-        orderDTO.setDepartureTime(train.getStartTime());
-        orderDTO.setArrivalTime(train.getEndTime());
+        orderDTO.setDepartureTime(fromRoute != null && fromRoute.getDepartTime() != null ?
+                SegmentUtils.formatTime(fromRoute.getDepartTime()) : train.getStartTime());
+        orderDTO.setArrivalTime(toRoute != null && toRoute.getArriveTime() != null ?
+                SegmentUtils.formatTime(toRoute.getArriveTime()) : train.getEndTime());
         
         // 调试输出订单创建信息
         System.out.println("=================创建订单=======================");
@@ -299,38 +347,172 @@ public class OrderServiceImpl implements OrderService {
         
         return stationName;
     }
-    
+
+    /**
+     * 解析站点ID：优先使用请求中的ID，其次匹配列车始发/终点站，最后按站名查询
+     */
+    private Long resolveStationId(Long stationId, String stationName, String trainStationName, Long trainStationId) {
+        if (stationId != null) {
+            return stationId;
+        }
+        if (stationName == null) {
+            return null;
+        }
+        if (stationName.equals(trainStationName)) {
+            return trainStationId;
+        }
+        StationDictionary.StationInfo station = stationDictionaryService.getDictionary().getByName(stationName);
+        return station != null ? station.getId() : null;
+    }
+
     @Override
     public Result<List<Order>> listUserOrders(Long userId) {
-        List<Order> orders = orderRepository.findByUserIdOrderByCreateTimeDesc(userId);
-        List<OrderDTO> orderDTOs = new ArrayList<>();
-        
-        // 为每个订单加载票数信息并转换为OrderDTO
-        for (Order order : orders) {
-            List<Ticket> tickets = ticketRepository.findByOrderId(order.getId());
-            order.setTicketCount(tickets.size());
-            
-            // 创建扩展的OrderDTO对象
-            OrderDTO orderDTO = new OrderDTO(order);
-            
-            // 如果有票，从第一张票获取车次和站点信息
-            if (!tickets.isEmpty()) {
-                Ticket firstTicket = tickets.get(0);
-                orderDTO.setTrainNumber(firstTicket.getTrainCode());
-                orderDTO.setTrainType(firstTicket.getTrainType());
-                orderDTO.setStartStation(firstTicket.getStartStation());
-                orderDTO.setEndStation(firstTicket.getEndStation());
-                orderDTO.setDepartureTime(firstTicket.getStartTime());
-                orderDTO.setArrivalTime(firstTicket.getEndTime());
-            }
-            
-            orderDTOs.add(orderDTO);
+        // 一次查询返回全部订单及其车票数、第一张车票信息
+        List<Order> resultList = new ArrayList<>();
+        for (OrderSummaryView view : orderRepository.findOrderSummaries(userId, Integer.MAX_VALUE)) {
+            resultList.add(toOrderDTO(view));
         }
-        
-        // 创建一个新的Order列表以避免类型转换警告
-        List<Order> resultList = new ArrayList<>(orderDTOs);
         return Result.success(resultList);
     }
+
+    @Override
+    public Result<OrderPageDTO> listUserOrders(Long userId, String cursor, Integer size) {
+        int pageSize = toPageSize(size);
+        List<OrderSummaryView> views;
+        if (cursor == null || cursor.isEmpty()) {
+            views = orderRepository.findOrderSummaries(userId, pageSize);
+        } else {
+            long[] position = parseCursor(cursor);
+            if (position == null) {
+                return Result.fail("游标格式错误");
+            }
+            views = orderRepository.findOrderSummariesBefore(userId, new Date(position[0]), position[1], pageSize);
+        }
+        return Result.success(toPage(views, pageSize));
+    }
+
+    @Override
+    public Result<OrderPageDTO> searchOrders(Long userId, OrderSearchRequest request) {
+        int pageSize = toPageSize(request.getSize());
+        Date cursorTime = null;
+        Long cursorId = null;
+        if (request.getCursor() != null && !request.getCursor().isEmpty()) {
+            long[] position = parseCursor(request.getCursor());
+            if (position == null) {
+                return Result.fail("游标格式错误");
+            }
+            cursorTime = new Date(position[0]);
+            cursorId = position[1];
+        }
+        Date fromDate = null;
+        Date toDate = null;
+        if (request.getStartDate() != null && !request.getStartDate().isEmpty()) {
+            fromDate = DateUtils.parseDate(request.getStartDate());
+            if (fromDate == null) {
+                return Result.fail("日期格式有误");
+            }
+        }
+        if (request.getEndDate() != null && !request.getEndDate().isEmpty()) {
+            toDate = DateUtils.parseDate(request.getEndDate());
+            if (toDate == null) {
+                return Result.fail("日期格式有误");
+            }
+        }
+        String status = request.getStatus() != null && !request.getStatus().isEmpty() ? request.getStatus() : null;
+
+        List<Long> startStationIds = resolveStationIds(request.getStartStation());
+        List<Long> endStationIds = resolveStationIds(request.getEndStation());
+        if ((startStationIds != null && startStationIds.isEmpty()) || (endStationIds != null && endStationIds.isEmpty())) {
+            // 站点不存在，不会有匹配的订单
+            return Result.success(toPage(new ArrayList<>(), pageSize));
+        }
+
+        List<Long> ids = orderRepository.searchOrderIds(userId, status, startStationIds, endStationIds,
+                fromDate, toDate, cursorTime, cursorId, pageSize);
+        List<OrderSummaryView> views = ids.isEmpty() ? new ArrayList<>() : orderRepository.findOrderSummariesByIds(ids);
+        return Result.success(toPage(views, pageSize));
+    }
+
+    /**
+     * 名称包含关键字的站点ID，没有匹配的站点时按城市匹配；未填写时返回null，不存在时返回空列表
+     */
+    private List<Long> resolveStationIds(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return null;
+        }
+        StationDictionary dictionary = stationDictionaryService.getDictionary();
+        List<StationDictionary.StationInfo> stations = dictionary.findByNameContaining(name.trim());
+        if (stations.isEmpty()) {
+            stations = dictionary.getByCity(name.trim());
+        }
+        List<Long> ids = new ArrayList<>();
+        for (StationDictionary.StationInfo info : stations) {
+            ids.add(info.getId());
+        }
+        return ids;
+    }
+
+    private int toPageSize(Integer size) {
+        return size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(MAX_PAGE_SIZE, size));
+    }
+
+    /**
+     * 解析游标（格式：创建时间毫秒数_订单ID），格式错误时返回null
+     */
+    private long[] parseCursor(String cursor) {
+        String[] parts = cursor.split("_");
+        if (parts.length != 2) {
+            return null;
+        }
+        try {
+            return new long[]{Long.parseLong(parts[0]), Long.parseLong(parts[1])};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 组装分页结果，本页满时返回下一页游标
+     */
+    private OrderPageDTO toPage(List<OrderSummaryView> views, int pageSize) {
+        List<Order> orders = new ArrayList<>();
+        for (OrderSummaryView view : views) {
+            orders.add(toOrderDTO(view));
+        }
+        OrderPageDTO page = new OrderPageDTO();
+        page.setOrders(orders);
+        if (views.size() == pageSize) {
+            OrderSummaryView last = views.get(views.size() - 1);
+            page.setNextCursor(last.getCreateTime().getTime() + "_" + last.getId());
+        }
+        return page;
+    }
+
+    /**
+     * 将订单列表投影转换为OrderDTO
+     */
+    private OrderDTO toOrderDTO(OrderSummaryView view) {
+        Order order = new Order();
+        order.setId(view.getId());
+        order.setOrderNo(view.getOrderNo());
+        order.setUserId(view.getUserId());
+        order.setTotalAmount(view.getTotalAmount() != null ? new Money(view.getTotalAmount()) : null);
+        order.setStatus(view.getStatus());
+        order.setCreateTime(view.getCreateTime());
+        order.setPayTime(view.getPayTime());
+        order.setCancelTime(view.getCancelTime());
+        order.setVersion(view.getVersion());
+        order.setTicketCount(view.getTicketCount() != null ? view.getTicketCount() : 0);
+
+        OrderDTO orderDTO = new OrderDTO(order);
+        orderDTO.setTrainNumber(view.getTrainNumber());
+        orderDTO.setTrainType(view.getTrainType());
+        orderDTO.setStartStation(view.getStartStation());
+        orderDTO.setEndStation(view.getEndStation());
+        orderDTO.setDepartureTime(view.getDepartureTime());
+        orderDTO.setArrivalTime(view.getArrivalTime());
+        return orderDTO;
+    }
     
     @Override
     @Transactional
@@ -370,6 +552,7 @@ public class OrderServiceImpl implements OrderService {
         order.setStatus("CANCELED");  // 使用英文状态标识
         order.setCancelTime(new Date());
         orderRepository.save(order);
+        orderStatsService.markChanged(order.getCreateTime());
         
         // 获取第一张票的信息（用于后续填充 OrderDTO）
         Ticket firstTicket = tickets.isEmpty() ? null : tickets.get(0);
@@ -381,48 +564,12 @@ public class OrderServiceImpl implements OrderService {
                 ticket.setStatus(0); // 使用0表示已取消状态
                 ticket.setUpdateTime(new Date());
                 ticketRepository.save(ticket);
+                boolean seatFreed = seatAllocationService.release(ticket);
 
-                // 只有已支付的订单才恢复列车余票（未支付的订单没有扣票）
-                if ("PAID".equals(originalStatus)) {
-                    Optional<Train> trainOpt = trainRepository.findById(ticket.getTrainId());
-                    if (trainOpt.isPresent()) {
-                        Train train = trainOpt.get();
-                        String seatType = ticket.getSeatType();
-                        
-                        // 根据座位类型恢复库存
-                        if ("高铁".equals(train.getType())) {
-                            if ("商务座".equals(seatType) && train.getHighSeatCount() != null) {
-                                train.setHighSeatCount(train.getHighSeatCount() + 1);
-                            } else if ("一等座".equals(seatType) && train.getMidSeatCount() != null) {
-                                train.setMidSeatCount(train.getMidSeatCount() + 1);
-                            } else if ("二等座".equals(seatType) && train.getLowSeatCount() != null) {
-                                train.setLowSeatCount(train.getLowSeatCount() + 1);
-                            }
-                        } else if ("动车".equals(train.getType())) {
-                            if ("一等座".equals(seatType) && train.getMidSeatCount() != null) {
-                                train.setMidSeatCount(train.getMidSeatCount() + 1);
-                            } else if ("二等座".equals(seatType) && train.getLowSeatCount() != null) {
-                                train.setLowSeatCount(train.getLowSeatCount() + 1);
-                            }
-                        } else {
-                            // 普通列车
-                            if ("软卧".equals(seatType) && train.getHighSeatCount() != null) {
-                                train.setHighSeatCount(train.getHighSeatCount() + 1);
-                            } else if ("硬卧".equals(seatType) && train.getMidSeatCount() != null) {
-                                train.setMidSeatCount(train.getMidSeatCount() + 1);
-                            } else if ("硬座".equals(seatType) && train.getLowSeatCount() != null) {
-                                train.setLowSeatCount(train.getLowSeatCount() + 1);
-                            }
-                        }
-                        
-                        train.setSeatCount(train.getSeatCount() + 1);
-                        trainRepository.save(train);
-
-                        System.out.println("=== 取消已支付订单，恢复余票 ===");
-                        System.out.println("列车ID: " + ticket.getTrainId());
-                        System.out.println("座位类型: " + seatType);
-                        System.out.println("恢复后总余票: " + train.getSeatCount());
-                    }
+                // 只有已支付的订单才恢复余票（未支付的订单没有扣票），
+                // 座位还有其他已售区段时不恢复整座库存
+                if ("PAID".equals(originalStatus) && seatFreed) {
+                    seatInventoryService.restore(ticket.getTrainId(), ticket.getTravelDate(), ticket.getSeatType(), 1);
                 }
             }
         }
@@ -528,6 +675,11 @@ public class OrderServiceImpl implements OrderService {
         if (!"UNPAID".equals(order.getStatus())) {
             return Result.fail("订单状态错误，无法支付");
         }
+
+        // 超过保留时长的订单座位可能已被释放，不允许支付
+        if (isHoldExpired(order)) {
+            return Result.fail("订单已超时，请重新下单");
+        }
         
         // 查询订单的票信息
         List<Ticket> tickets = ticketRepository.findByOrderId(order.getId());
@@ -536,95 +688,54 @@ public class OrderServiceImpl implements OrderService {
             return Result.fail("订单中没有车票");
         }
 
-        // 获取列车信息用于扣减余票
-        Ticket firstTicket = tickets.get(0);
-        Long trainId = firstTicket.getTrainId();
-        int ticketCount = tickets.size();
-        String seatType = firstTicket.getSeatType();
-
-        // 查询列车信息
-        Optional<Train> trainOpt = trainRepository.findById(trainId);
-        if (!trainOpt.isPresent()) {
-            return Result.fail("列车不存在");
+        // 按列车、发车日期和座位类型汇总需要扣减的票数（只统计正常状态的票）
+        Map<String, List<Ticket>> ticketGroups = new LinkedHashMap<>();
+        for (Ticket ticket : tickets) {
+            if (ticket.getStatus() != null && ticket.getStatus() == 1) {
+                String key = ticket.getTrainId() + "|" + DateUtils.toSqlDate(ticket.getTravelDate()) + "|" + ticket.getSeatType();
+                ticketGroups.computeIfAbsent(key, k -> new ArrayList<>()).add(ticket);
+            }
         }
 
-        Train train = trainOpt.get();
-
-        // 根据座位类型检查余票是否足够并扣减
-        boolean deducted = false;
-        if ("高铁".equals(train.getType())) {
-            if ("商务座".equals(seatType)) {
-                if (train.getHighSeatCount() != null && train.getHighSeatCount() >= ticketCount) {
-                    train.setHighSeatCount(train.getHighSeatCount() - ticketCount);
-                    deducted = true;
-                }
-            } else if ("一等座".equals(seatType)) {
-                if (train.getMidSeatCount() != null && train.getMidSeatCount() >= ticketCount) {
-                    train.setMidSeatCount(train.getMidSeatCount() - ticketCount);
-                    deducted = true;
-                }
-            } else if ("二等座".equals(seatType)) {
-                if (train.getLowSeatCount() != null && train.getLowSeatCount() >= ticketCount) {
-                    train.setLowSeatCount(train.getLowSeatCount() - ticketCount);
-                    deducted = true;
-                }
+        for (List<Ticket> group : ticketGroups.values()) {
+            Ticket sample = group.get(0);
+            Optional<Train> trainOpt = trainRepository.findById(sample.getTrainId());
+            if (!trainOpt.isPresent()) {
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                return Result.fail("列车不存在");
             }
-        } else if ("动车".equals(train.getType())) {
-            if ("一等座".equals(seatType)) {
-                if (train.getMidSeatCount() != null && train.getMidSeatCount() >= ticketCount) {
-                    train.setMidSeatCount(train.getMidSeatCount() - ticketCount);
-                    deducted = true;
-                }
-            } else if ("二等座".equals(seatType)) {
-                if (train.getLowSeatCount() != null && train.getLowSeatCount() >= ticketCount) {
-                    train.setLowSeatCount(train.getLowSeatCount() - ticketCount);
-                    deducted = true;
-                }
-            }
-        } else {
-            // 普通列车
-            if ("软卧".equals(seatType)) {
-                if (train.getHighSeatCount() != null && train.getHighSeatCount() >= ticketCount) {
-                    train.setHighSeatCount(train.getHighSeatCount() - ticketCount);
-                    deducted = true;
-                }
-            } else if ("硬卧".equals(seatType)) {
-                if (train.getMidSeatCount() != null && train.getMidSeatCount() >= ticketCount) {
-                    train.setMidSeatCount(train.getMidSeatCount() - ticketCount);
-                    deducted = true;
-                }
-            } else if ("硬座".equals(seatType)) {
-                if (train.getLowSeatCount() != null && train.getLowSeatCount() >= ticketCount) {
-                    train.setLowSeatCount(train.getLowSeatCount() - ticketCount);
-                    deducted = true;
-                }
+
+            // 只有还没有已售区段的座位才扣减整座库存，扣减失败时回滚前面已扣减的库存；
+            // 并发支付同一座位时，提交后由座位分配服务按实际首次售出的车票修正
+            int unsoldSeats = seatAllocationService.markSold(group);
+            if (unsoldSeats > 0 &&
+                !seatInventoryService.deduct(trainOpt.get(), sample.getTravelDate(), sample.getSeatType(), unsoldSeats)) {
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                return Result.fail(NO_SEAT, "该座位类型余票不足");
             }
         }
-        
-        if (!deducted) {
-            return Result.fail("该座位类型余票不足");
-        }
-
-        // 扣减列车余票
-        train.setSeatCount(train.getSeatCount() - ticketCount);
-        trainRepository.save(train);
 
-        // 余票扣减成功后，才更新订单状态为已支付
+        // 余票扣减成功后，才更新订单状态为已支付（与超时取消互斥）
+        // 条件更新会清空持久化上下文，之后对order的修改只用于返回结果
+        Date payTime = new Date();
+        if (orderRepository.payIfUnpaid(order.getId(), payTime) == 0) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return Result.fail("订单状态已变更，无法支付");
+        }
         order.setStatus("PAID");
-        order.setPayTime(new Date());
-        orderRepository.save(order);
+        order.setPayTime(payTime);
+        orderStatsService.markChanged(order.getCreateTime());
 
-        // 更新所有车票状态为正常（1）
-        for (Ticket ticket : tickets) {
-            ticket.setStatus(1); // 1表示正常状态
-            ticket.setUpdateTime(new Date());
-            ticketRepository.save(ticket);
+        // 更新已扣减库存的车票（已退的票不再恢复为正常状态）
+        for (List<Ticket> group : ticketGroups.values()) {
+            for (Ticket ticket : group) {
+                ticket.setUpdateTime(new Date());
+                ticketRepository.save(ticket);
+            }
         }
 
         System.out.println("=== 支付成功，扣减余票 ===");
-        System.out.println("列车ID: " + trainId);
-        System.out.println("扣减票数: " + ticketCount);
-        System.out.println("剩余票数: " + train.getSeatCount());
+        System.out.println("扣减票数: " + tickets.size());
 
         order.setTicketCount(tickets.size());
         
@@ -645,117 +756,58 @@ public class OrderServiceImpl implements OrderService {
         return Result.success("支付成功", (Order)orderDTO);
     }
     
-    /**
-     * 根据座位类型计算实际价格
-     */
-    private Money calculateSeatPrice(Train train, String seatType) {
-        if ("高铁".equals(train.getType())) {
-            if ("商务座".equals(seatType)) {
-                return train.getPrice().multiply(1.5);
-            } else if ("一等座".equals(seatType)) {
-                return train.getPrice().multiply(1.2);
-            } else if ("二等座".equals(seatType)) {
-                return train.getPrice();
-            }
-        } else if ("动车".equals(train.getType())) {
-            if ("一等座".equals(seatType)) {
-                return train.getPrice().multiply(1.2);
-            } else if ("二等座".equals(seatType)) {
-                return train.getPrice();
-            }
-        } else {
-            // 普通列车
-            if ("软卧".equals(seatType)) {
-                return train.getPrice().multiply(1.5);
-            } else if ("硬卧".equals(seatType)) {
-                return train.getPrice().multiply(1.2);
-            } else if ("硬座".equals(seatType)) {
-                return train.getPrice();
-            }
-        }
-        return null;
-    }
-    
-    /**
-     * 根据座位类型分配车厢号
-     */
-    private int getCoachNumberBySeatType(String trainType, String seatType) {
-        if ("高铁".equals(trainType)) {
-            if ("商务座".equals(seatType)) {
-                return 1; // 商务座1车
-            } else if ("一等座".equals(seatType)) {
-                return 2; // 一等座2车
-            } else if ("二等座".equals(seatType)) {
-                return 3; // 二等座3车
-            }
-        } else if ("动车".equals(trainType)) {
-            if ("一等座".equals(seatType)) {
-                return 1; // 一等座1车
-            } else if ("二等座".equals(seatType)) {
-                return 2; // 二等座2车
+    @Override
+    @Transactional
+    public int expireUnpaidOrders(Date deadline, int batchSize) {
+        List<Order> orders = orderRepository.findByStatusAndCreateTimeBeforeOrderByCreateTimeAsc(
+                "UNPAID", deadline, PageRequest.of(0, batchSize));
+
+        int expired = 0;
+        Date now = new Date();
+        for (Order order : orders) {
+            // 用户可能刚好在此时支付或取消，只处理仍为待支付的订单
+            if (orderRepository.cancelIfUnpaid(order.getId(), now) == 0) {
+                continue;
             }
-        } else {
-            // 普通列车
-            if ("软卧".equals(seatType)) {
-                return 1; // 软卧1车
-            } else if ("硬卧".equals(seatType)) {
-                return 2; // 硬卧2车
-            } else if ("硬座".equals(seatType)) {
-                return 3; // 硬座3车
+            expired++;
+            orderStatsService.markChanged(order.getCreateTime());
+
+            // 未支付订单没有扣减余票，只需释放座位图中保留的座位
+            for (Ticket ticket : ticketRepository.findByOrderId(order.getId())) {
+                if (ticket.getStatus() != null && ticket.getStatus() == 1) {
+                    ticket.setStatus(0);
+                    ticket.setUpdateTime(now);
+                    ticketRepository.save(ticket);
+                    seatAllocationService.release(ticket);
+                }
             }
         }
-        return 1; // 默认1车
+        return expired;
     }
-    
+
     /**
-     * 获取该座位类型已売出的数量（用于计算下一个座位号）
-     * 通过查询数据库中该列车该座位类型的已売票数
+     * 判断未支付订单是否已超过座位保留时长
      */
-    private int getSoldSeatsCount(Train train, String seatType) {
-        // 查询该列车该座位类型的所有有效车票（状态为1）
-        List<Ticket> soldTickets = ticketRepository.findByTrainIdAndSeatTypeAndStatus(
-            train.getId(), seatType, 1);
-        return soldTickets != null ? soldTickets.size() : 0;
+    private boolean isHoldExpired(Order order) {
+        return order.getCreateTime() != null &&
+               order.getCreateTime().getTime() + holdTtlMinutes * 60 * 1000L < System.currentTimeMillis();
     }
     
     @Override
     public Result<List<Order>> searchOrdersByStartStation(Long userId, String startStation) {
-        // 获取用户的所有订单（按创建时间倒序）
-        List<Order> orders = orderRepository.findByUserIdOrderByCreateTimeDesc(userId);
-        List<OrderDTO> filteredOrders = new ArrayList<>();
-        
-        // 根据起始站筛选订单
-        for (Order order : orders) {
-            List<Ticket> tickets = ticketRepository.findByOrderId(order.getId());
-            
-            // 如果有票，检查起始站是否匹配
-            if (!tickets.isEmpty()) {
-                Ticket firstTicket = tickets.get(0);
-                // 验证起始站是否匹配
-                if (firstTicket.getStartStation() != null && 
-                    (firstTicket.getStartStation().contains(startStation) || 
-                     startStation.equals(firstTicket.getStartStation()))) {
-                    
-                    order.setTicketCount(tickets.size());
-                    
-                    // 创建扩展的OrderDTO对象
-                    OrderDTO orderDTO = new OrderDTO(order);
-                    
-                    // 从第一张票获取车次和站点信息
-                    orderDTO.setTrainNumber(firstTicket.getTrainCode());
-                    orderDTO.setTrainType(firstTicket.getTrainType());
-                    orderDTO.setStartStation(firstTicket.getStartStation());
-                    orderDTO.setEndStation(firstTicket.getEndStation());
-                    orderDTO.setDepartureTime(firstTicket.getStartTime());
-                    orderDTO.setArrivalTime(firstTicket.getEndTime());
-                    
-                    filteredOrders.add(orderDTO);
-                }
+        // 在数据库中按发站过滤出订单ID，再一次取回订单列表投影
+        List<Long> startStationIds = resolveStationIds(startStation);
+        List<Order> resultList = new ArrayList<>();
+        if (startStationIds != null && startStationIds.isEmpty()) {
+            return Result.success(resultList);
+        }
+        List<Long> ids = orderRepository.searchOrderIds(userId, null, startStationIds, null,
+                null, null, null, null, Integer.MAX_VALUE);
+        if (!ids.isEmpty()) {
+            for (OrderSummaryView view : orderRepository.findOrderSummariesByIds(ids)) {
+                resultList.add(toOrderDTO(view));
             }
         }
-        
-        // 创建一个新的Order列表以避免类型转换警告
-        List<Order> resultList = new ArrayList<>(filteredOrders);
         return Result.success(resultList);
     }
 }
@@ -0,0 +1,121 @@
+package com.mini12306.service.impl;
+
+import com.mini12306.dto.OrderAggregateView;
+import com.mini12306.model.Money;
+import com.mini12306.model.OrderDailyStats;
+import com.mini12306.repository.OrderDailyStatsRepository;
+import com.mini12306.repository.OrderRepository;
+import com.mini12306.service.OrderStatsService;
+import com.mini12306.util.DateUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 订单日汇总服务实现
+ * 每天的汇总由一次下单时间范围查询得到，只计算新结束的日期、最近几天和被标记的日期，
+ * 汇总量与历史订单总数无关。
+ * 标记与订单状态变化在同一事务中提交，服务重启不会丢失；回溯最近几天用于覆盖汇总与状态变化并发的情况
+ */
+@Service
+public class OrderStatsServiceImpl implements OrderStatsService {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderDailyStatsRepository orderDailyStatsRepository;
+
+    @Value("${mini12306.stats.rollup-lookback-days:2}")
+    private int lookbackDays;
+
+    @Override
+    public int rollup() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate from;
+        Date latest = orderDailyStatsRepository.findLatestStatDate();
+        if (latest != null) {
+            // 从未汇总的第一天开始，并回溯最近几天
+            LocalDate next = DateUtils.toSqlDate(latest).toLocalDate().plusDays(1);
+            LocalDate lookback = yesterday.minusDays(Math.max(lookbackDays, 1) - 1L);
+            from = next.isBefore(lookback) ? next : lookback;
+        } else {
+            // 首次运行时从最早的订单开始补齐
+            Date earliest = orderRepository.findEarliestCreateTime();
+            if (earliest == null) {
+                return 0;
+            }
+            from = DateUtils.toSqlDate(earliest).toLocalDate();
+        }
+
+        int days = 0;
+        for (LocalDate day = from; !day.isAfter(yesterday); day = day.plusDays(1)) {
+            save(aggregateDay(day));
+            days++;
+        }
+
+        // 先清除标记再重新汇总，汇总期间再次变化的日期会被重新标记，下次继续处理
+        for (Date staleDate : orderDailyStatsRepository.findStaleDates()) {
+            orderDailyStatsRepository.clearStale(staleDate);
+            save(aggregateDay(DateUtils.toSqlDate(staleDate).toLocalDate()));
+            days++;
+        }
+        return days;
+    }
+
+    @Override
+    public void markChanged(Date createTime) {
+        if (createTime == null) {
+            return;
+        }
+        // 当天的数据按订单表实时统计，只有已结束的日期需要标记
+        java.sql.Date day = DateUtils.toSqlDate(createTime);
+        if (day.toLocalDate().isBefore(LocalDate.now())) {
+            orderDailyStatsRepository.markStale(day);
+        }
+    }
+
+    private void save(OrderDailyStats stats) {
+        orderDailyStatsRepository.upsert(stats.getStatDate(), stats.getOrderCount(),
+                stats.getPaidCount(), stats.getPaidAmount().getAmount());
+    }
+
+    @Override
+    public List<OrderDailyStats> getDailyStats(LocalDate startDate, LocalDate endDate) {
+        List<OrderDailyStats> result = new ArrayList<>();
+        if (startDate.isAfter(endDate)) {
+            return result;
+        }
+        Map<LocalDate, OrderDailyStats> stored = new HashMap<>();
+        for (OrderDailyStats stats : orderDailyStatsRepository.findByStatDateBetweenOrderByStatDateAsc(
+                java.sql.Date.valueOf(startDate), java.sql.Date.valueOf(endDate))) {
+            stored.put(DateUtils.toSqlDate(stats.getStatDate()).toLocalDate(), stats);
+        }
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            OrderDailyStats stats = stored.get(day);
+            result.add(stats != null ? stats : aggregateDay(day));
+        }
+        return result;
+    }
+
+    @Override
+    public OrderDailyStats aggregateDay(LocalDate day) {
+        OrderAggregateView view = orderRepository.aggregateByCreateTime(
+                DateUtils.startOfDay(day), DateUtils.startOfDay(day.plusDays(1)));
+        OrderDailyStats stats = new OrderDailyStats();
+        stats.setStatDate(java.sql.Date.valueOf(day));
+        stats.setOrderCount(view.getOrderCount() != null ? view.getOrderCount() : 0L);
+        stats.setPaidCount(view.getPaidCount() != null ? view.getPaidCount() : 0L);
+        stats.setPaidAmount(new Money(view.getPaidAmount() != null ? view.getPaidAmount() : BigDecimal.ZERO));
+        stats.setUpdateTime(new Date());
+        return stats;
+    }
+}
@@ -0,0 +1,236 @@
+package com.mini12306.service.impl;
+
+import com.mini12306.dto.BuyTicketRequest;
+import com.mini12306.dto.PurchaseQueueResult;
+import com.mini12306.model.Order;
+import com.mini12306.model.Result;
+import com.mini12306.repository.TrainRepository;
+import com.mini12306.service.OrderService;
+import com.mini12306.service.PurchaseQueueService;
+import com.mini12306.service.RetryService;
+import com.mini12306.util.CodeGenerator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 排队购票服务实现
+ * 每个车次一个有界队列，同一车次同时最多一个工作线程在处理；
+ * 工作线程池大小固定，因此下单占用的数据库连接数不随请求量增长。
+ * 只为存在的列车创建队列，空闲的队列定时回收，队列数量不随客户端传入的车次增长
+ */
+@Service
+public class PurchaseQueueServiceImpl implements PurchaseQueueService {
+
+    private static final Logger log = LoggerFactory.getLogger(PurchaseQueueServiceImpl.class);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TrainRepository trainRepository;
+
+    @Autowired
+    private RetryService retryService;
+
+    // 每个车次队列的容量
+    @Value("${mini12306.order.queue.capacity:1000}")
+    private int capacity;
+
+    // 工作线程数，应小于数据库连接池大小，给同步请求留出连接
+    @Value("${mini12306.order.queue.workers:3}")
+    private int workers;
+
+    // 工作线程每次从队列取出的请求数
+    @Value("${mini12306.order.queue.batch-size:20}")
+    private int batchSize;
+
+    // 已完成结果的保留时长（分钟）
+    @Value("${mini12306.order.queue.result-ttl-minutes:30}")
+    private int resultTtlMinutes;
+
+    // 队列空闲多久后回收（分钟）
+    @Value("${mini12306.order.queue.idle-minutes:10}")
+    private int idleMinutes;
+
+    private ExecutorService executor;
+
+    private final Map<Long, TrainQueue> queues = new ConcurrentHashMap<>();
+
+    private final Map<String, PurchaseQueueResult> results = new ConcurrentHashMap<>();
+
+    /**
+     * 单个车次的购票队列
+     */
+    private static class TrainQueue {
+        private final BlockingQueue<PurchaseTask> tasks;
+        // 是否已有工作线程在处理该车次
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+        // 最近一次提交请求的时间
+        private volatile long lastSubmitTime = System.currentTimeMillis();
+
+        TrainQueue(int capacity) {
+            this.tasks = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    /**
+     * 排队中的购票请求
+     */
+    private static class PurchaseTask {
+        private final PurchaseQueueResult result;
+        private final BuyTicketRequest request;
+        // 是否已放入队列，在提交线程内写入和读取
+        private boolean queued;
+
+        PurchaseTask(PurchaseQueueResult result, BuyTicketRequest request) {
+            this.result = result;
+            this.request = request;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newFixedThreadPool(workers);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public Result<String> submit(Long userId, BuyTicketRequest request) {
+        // 已有队列说明列车存在，否则先确认列车存在再创建队列
+        if (!queues.containsKey(request.getTrainId()) && !trainRepository.existsById(request.getTrainId())) {
+            return Result.fail("列车不存在");
+        }
+
+        PurchaseQueueResult result = new PurchaseQueueResult();
+        result.setQueueId(String.valueOf(CodeGenerator.nextId()));
+        result.setUserId(userId);
+        result.setTrainId(request.getTrainId());
+        result.setStatus("QUEUED");
+        result.setCreateTime(new Date());
+
+        PurchaseTask task = new PurchaseTask(result, request);
+        results.put(result.getQueueId(), result);
+        // 在map锁内入队，与空闲回收互斥，不会把请求放进已被回收的队列
+        TrainQueue queue = queues.compute(request.getTrainId(), (trainId, existing) -> {
+            TrainQueue target = existing != null ? existing : new TrainQueue(capacity);
+            target.lastSubmitTime = System.currentTimeMillis();
+            task.queued = target.tasks.offer(task);
+            return target;
+        });
+        if (!task.queued) {
+            results.remove(result.getQueueId());
+            return Result.fail(QUEUE_FULL, "当前购票人数过多，请稍后重试");
+        }
+
+        scheduleDrain(queue);
+        return Result.success("已进入排队", result.getQueueId());
+    }
+
+    @Override
+    public Result<PurchaseQueueResult> getResult(Long userId, String queueId) {
+        PurchaseQueueResult result = results.get(queueId);
+        if (result == null) {
+            return Result.fail("排队记录不存在或已过期");
+        }
+        if (!result.getUserId().equals(userId)) {
+            return Result.fail("无权查看该排队记录");
+        }
+        return Result.success(result);
+    }
+
+    /**
+     * 该车次没有工作线程在处理时提交一个处理任务
+     */
+    private void scheduleDrain(TrainQueue queue) {
+        if (queue.draining.compareAndSet(false, true)) {
+            executor.execute(() -> drain(queue));
+        }
+    }
+
+    /**
+     * 取出一批请求依次下单，处理完后若队列仍有请求则重新排入线程池，
+     * 让其他车次的队列也能轮到
+     */
+    private void drain(TrainQueue queue) {
+        try {
+            List<PurchaseTask> batch = new ArrayList<>(batchSize);
+            queue.tasks.drainTo(batch, batchSize);
+            for (PurchaseTask task : batch) {
+                process(task);
+            }
+        } finally {
+            queue.draining.set(false);
+        }
+        if (!queue.tasks.isEmpty()) {
+            scheduleDrain(queue);
+        }
+    }
+
+    private void process(PurchaseTask task) {
+        PurchaseQueueResult result = task.result;
+        result.setStatus("PROCESSING");
+        // 重新放入Map，保证轮询线程能看到最新状态
+        results.put(result.getQueueId(), result);
+        try {
+            // 每个请求单独开启事务，一个请求失败不影响同批其他请求
+            Result<Order> orderResult = retryService.execute("queuedCreateOrder",
+                    () -> orderService.createOrder(result.getUserId(), task.request));
+            result.setMessage(orderResult.getMessage());
+            if (orderResult.isSuccess()) {
+                result.setOrder(orderResult.getData());
+                result.setStatus("SUCCESS");
+            } else {
+                result.setStatus("FAILED");
+            }
+        } catch (Exception e) {
+            log.error("排队购票处理失败: {}", result.getQueueId(), e);
+            result.setMessage("购票失败，请稍后重试");
+            result.setStatus("FAILED");
+        }
+        result.setFinishTime(new Date());
+        results.put(result.getQueueId(), result);
+    }
+
+    /**
+     * 定时清理过期的已完成结果
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void cleanExpiredResults() {
+        long deadline = System.currentTimeMillis() - resultTtlMinutes * 60 * 1000L;
+        results.values().removeIf(result ->
+                result.getFinishTime() != null && result.getFinishTime().getTime() < deadline);
+    }
+
+    /**
+     * 定时回收空闲的车次队列，队列中仍有请求或正在处理时保留
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdleQueues() {
+        long deadline = System.currentTimeMillis() - idleMinutes * 60 * 1000L;
+        for (Long trainId : queues.keySet()) {
+            queues.computeIfPresent(trainId, (id, queue) ->
+                    queue.tasks.isEmpty() && !queue.draining.get() && queue.lastSubmitTime < deadline ? null : queue);
+        }
+    }
+}
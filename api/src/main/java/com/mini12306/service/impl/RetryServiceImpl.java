@@ -0,0 +1,109 @@
+package com.mini12306.service.impl;
+
+import com.mini12306.model.Result;
+import com.mini12306.service.RetryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 并发冲突重试服务实现
+ * 退避时间在[0, 基础时间 * 2^重试次数]之间随机，避免冲突的请求同时重试再次冲突
+ */
+@Service
+public class RetryServiceImpl implements RetryService {
+
+    private static final Logger log = LoggerFactory.getLogger(RetryServiceImpl.class);
+
+    // 最大尝试次数（含首次执行）
+    @Value("${mini12306.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    // 退避基础时间（毫秒）
+    @Value("${mini12306.retry.base-backoff-ms:20}")
+    private long baseBackoffMs;
+
+    // 单次退避上限（毫秒）
+    @Value("${mini12306.retry.max-backoff-ms:500}")
+    private long maxBackoffMs;
+
+    private final Map<String, Metrics> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * 单个操作的统计计数
+     */
+    private static class Metrics {
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong conflicts = new AtomicLong();
+        private final AtomicLong retries = new AtomicLong();
+        private final AtomicLong exhausted = new AtomicLong();
+    }
+
+    @Override
+    public <T> Result<T> execute(String operation, Supplier<Result<T>> action) {
+        Metrics m = metrics.computeIfAbsent(operation, k -> new Metrics());
+        m.calls.incrementAndGet();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (ConcurrencyFailureException e) {
+                // 包括乐观锁版本冲突、死锁和锁等待超时，事务已回滚，可以整体重试
+                m.conflicts.incrementAndGet();
+                if (attempt >= maxAttempts) {
+                    m.exhausted.incrementAndGet();
+                    log.warn("并发冲突重试{}次后仍失败: {}, {}", attempt, operation, e.getMessage());
+                    return Result.fail("系统繁忙，请稍后重试");
+                }
+                m.retries.incrementAndGet();
+                if (!backoff(attempt)) {
+                    return Result.fail("系统繁忙，请稍后重试");
+                }
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> result = new TreeMap<>();
+        for (Map.Entry<String, Metrics> entry : metrics.entrySet()) {
+            Metrics m = entry.getValue();
+            long calls = m.calls.get();
+            long conflicts = m.conflicts.get();
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("calls", calls);
+            stats.put("conflicts", conflicts);
+            stats.put("retries", m.retries.get());
+            stats.put("exhausted", m.exhausted.get());
+            // 平均每次调用遇到的冲突次数，持续偏高的车次适合改用排队购票
+            stats.put("conflictRate", calls > 0 ? (double) conflicts / calls : 0.0);
+            result.put(entry.getKey(), stats);
+        }
+        return result;
+    }
+
+    /**
+     * 随机退避，线程被中断时返回false
+     */
+    private boolean backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.mini12306.service.impl;
+
+import com.mini12306.dto.SeatPosition;
+import com.mini12306.event.SeatAllocatedEvent;
+import com.mini12306.event.SeatReleasedEvent;
+import com.mini12306.model.Order;
+import com.mini12306.model.Ticket;
+import com.mini12306.model.Train;
+import com.mini12306.repository.OrderRepository;
+import com.mini12306.repository.TicketRepository;
+import com.mini12306.repository.TrainRepository;
+import com.mini12306.repository.TrainRouteRepository;
+import com.mini12306.service.SeatAllocationService;
+import com.mini12306.service.SeatInventoryService;
+import com.mini12306.util.DateUtils;
+import com.mini12306.util.SeatMap;
+import com.mini12306.util.SeatTypeUtils;
+import com.mini12306.util.SegmentUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 座位分配服务实现
+ * 座位图只保存在内存中，服务启动时由车票表重建
+ */
+@Service
+public class SeatAllocationServiceImpl implements SeatAllocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(SeatAllocationServiceImpl.class);
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TrainRepository trainRepository;
+
+    @Autowired
+    private TrainRouteRepository trainRouteRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Map<String, SeatLayout> layouts = new ConcurrentHashMap<>();
+
+    /**
+     * 座位图及其发车日期、起始车厢号、线路经停站
+     */
+    private static class SeatLayout {
+        private final SeatMap seatMap;
+        private final java.sql.Date travelDate;
+        private final int firstCoach;
+        private final List<Long> stops;
+
+        SeatLayout(int capacity, java.sql.Date travelDate, int firstCoach, List<Long> stops) {
+            this.seatMap = new SeatMap(capacity);
+            this.travelDate = travelDate;
+            this.firstCoach = firstCoach;
+            this.stops = stops;
+        }
+    }
+
+    @Override
+    public long getSegmentMask(Train train, Long fromStationId, Long toStationId) {
+        return SegmentUtils.mask(loadStops(train), fromStationId, toStationId);
+    }
+
+    @Override
+    public List<SeatPosition> allocate(Train train, Date travelDate, String seatType, long segmentMask, int count) {
+        int capacity = SeatTypeUtils.getCapacity(train, seatType);
+        SeatLayout layout = getOrCreateLayout(train, travelDate, seatType);
+
+        int[] seats = layout.seatMap.allocate(count, capacity, segmentMask);
+        if (seats == null) {
+            return null;
+        }
+
+        // 事务回滚时归还座位，避免座位图与车票表不一致
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        for (int index : seats) {
+                            layout.seatMap.release(index, segmentMask);
+                        }
+                    }
+                }
+            });
+        }
+        SeatAllocatedEvent event = new SeatAllocatedEvent(train.getId(), travelDate, seatType);
+        afterCommit(() -> eventPublisher.publishEvent(event));
+
+        List<SeatPosition> positions = new ArrayList<>();
+        for (int index : seats) {
+            positions.add(new SeatPosition(layout.firstCoach + index / SeatTypeUtils.SEATS_PER_COACH,
+                    index % SeatTypeUtils.SEATS_PER_COACH + 1));
+        }
+        return positions;
+    }
+
+    @Override
+    public int countAvailable(Train train, Date travelDate, String seatType, long segmentMask) {
+        SeatLayout layout = layouts.get(buildKey(train.getId(), travelDate, seatType));
+        if (layout == null) {
+            return SeatTypeUtils.getCapacity(train, seatType);
+        }
+        return layout.seatMap.countAvailable(segmentMask);
+    }
+
+    @Override
+    public int markSold(List<Ticket> tickets) {
+        int unsoldSeats = 0;
+        for (Ticket ticket : tickets) {
+            SeatLayout layout = layouts.get(buildKey(ticket.getTrainId(), ticket.getTravelDate(), ticket.getSeatType()));
+            int index = layout != null ? toIndex(layout, ticket) : -1;
+            if (index < 0) {
+                // 座位图中没有该车票时按整座计算
+                unsoldSeats++;
+                continue;
+            }
+
+            // 已支付标记只在事务提交后写入，座位是否首次售出按提交顺序判断；
+            // 与事务中按已提交状态预扣的库存不一致时（并发支付同一座位的不同区段），按车票补扣或归还
+            long mask = ticketMask(layout, ticket);
+            boolean unsold = !layout.seatMap.isSold(index);
+            if (unsold) {
+                unsoldSeats++;
+            }
+            afterCompletion(() -> {
+                boolean firstSold = layout.seatMap.markSold(index, mask);
+                correctInventory(ticket, (firstSold ? 1 : 0) - (unsold ? 1 : 0));
+            });
+        }
+        return unsoldSeats;
+    }
+
+    @Override
+    public boolean release(Ticket ticket) {
+        SeatLayout layout = layouts.get(buildKey(ticket.getTrainId(), ticket.getTravelDate(), ticket.getSeatType()));
+        int index = layout != null ? toIndex(layout, ticket) : -1;
+        SeatReleasedEvent event = new SeatReleasedEvent(ticket.getTrainId(), ticket.getTravelDate(), ticket.getSeatType());
+        if (index < 0) {
+            // 座位图中没有该车票时按整座计算
+            afterCommit(() -> eventPublisher.publishEvent(event));
+            return true;
+        }
+
+        long mask = ticketMask(layout, ticket);
+        boolean lastSold = layout.seatMap.isLastSold(index, mask);
+
+        // 事务提交后再释放，避免回滚后座位被重复分配；释放后通知候补。
+        // 提交时座位实际是否不再有已售区段与事务中的判断不一致时，按车票修正恢复的库存
+        afterCompletion(() -> {
+            boolean freed = layout.seatMap.release(index, mask);
+            correctInventory(ticket, (lastSold ? 1 : 0) - (freed ? 1 : 0));
+            eventPublisher.publishEvent(event);
+        });
+        return lastSold;
+    }
+
+    /**
+     * 修正整座库存，seats为正时补扣、为负时归还
+     */
+    private void correctInventory(Ticket ticket, int seats) {
+        if (seats < 0) {
+            seatInventoryService.restore(ticket.getTrainId(), ticket.getTravelDate(), ticket.getSeatType(), -seats);
+        } else if (seats > 0) {
+            Optional<Train> trainOpt = trainRepository.findById(ticket.getTrainId());
+            if (trainOpt.isPresent() &&
+                !seatInventoryService.deduct(trainOpt.get(), ticket.getTravelDate(), ticket.getSeatType(), seats)) {
+                log.warn("补扣整座库存失败，余票不足: 车票 {} 数量 {}", ticket.getTicketNo(), seats);
+            }
+        }
+    }
+
+    /**
+     * 在当前事务提交后执行，没有事务时立即执行
+     * 回调中的事务同步已被清除，库存的扣减和恢复会立即生效，不会再注册到已结束的事务上
+     */
+    private void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        action.run();
+                    }
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 在当前事务提交后执行，没有事务时立即执行
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    @Override
+    public void rebuild() {
+        layouts.clear();
+
+        // 只需要恢复今天及以后发车的有效车票
+        List<Ticket> tickets = ticketRepository.findByStatusAndTravelDateGreaterThanEqual(1, DateUtils.today());
+        if (tickets.isEmpty()) {
+            return;
+        }
+
+        Set<Long> trainIds = new HashSet<>();
+        Set<Long> orderIds = new HashSet<>();
+        for (Ticket ticket : tickets) {
+            trainIds.add(ticket.getTrainId());
+            orderIds.add(ticket.getOrderId());
+        }
+        Map<Long, Train> trains = new HashMap<>();
+        for (Train train : trainRepository.findAllById(trainIds)) {
+            trains.put(train.getId(), train);
+        }
+        Set<Long> paidOrderIds = new HashSet<>();
+        for (Order order : orderRepository.findAllById(orderIds)) {
+            if ("PAID".equals(order.getStatus())) {
+                paidOrderIds.add(order.getId());
+            }
+        }
+
+        int conflicts = 0;
+        for (Ticket ticket : tickets) {
+            Train train = trains.get(ticket.getTrainId());
+            if (train == null) {
+                continue;
+            }
+
+            SeatLayout layout = getOrCreateLayout(train, ticket.getTravelDate(), ticket.getSeatType());
+            int index = toIndex(layout, ticket);
+            long mask = ticketMask(layout, ticket);
+            if (!layout.seatMap.markHeld(index, mask)) {
+                conflicts++;
+                continue;
+            }
+            if (paidOrderIds.contains(ticket.getOrderId())) {
+                layout.seatMap.markSold(index, mask);
+            }
+        }
+
+        log.info("座位图重建完成，有效车票数: {}，座位冲突数: {}", tickets.size(), conflicts);
+    }
+
+    /**
+     * 定时回收已过发车日期的座位图，这些日期不会再售票或退票
+     */
+    @Scheduled(fixedDelay = 3600000)
+    public void evictPastLayouts() {
+        java.sql.Date today = DateUtils.today();
+        int size = layouts.size();
+        layouts.values().removeIf(layout -> layout.travelDate.before(today));
+        if (layouts.size() < size) {
+            log.info("回收过期座位图: {}", size - layouts.size());
+        }
+    }
+
+    private SeatLayout getOrCreateLayout(Train train, Date travelDate, String seatType) {
+        return layouts.computeIfAbsent(buildKey(train.getId(), travelDate, seatType),
+                k -> new SeatLayout(SeatTypeUtils.getCapacity(train, seatType), DateUtils.toSqlDate(travelDate),
+                        SeatTypeUtils.getFirstCoach(train, seatType), loadStops(train)));
+    }
+
+    private List<Long> loadStops(Train train) {
+        return SegmentUtils.getStops(train, trainRouteRepository.findByTrainIdOrderByStationOrderAsc(train.getId()));
+    }
+
+    /**
+     * 车票乘车区间的区段掩码，站点无法匹配线路的旧车票按全程计算
+     */
+    private long ticketMask(SeatLayout layout, Ticket ticket) {
+        long mask = SegmentUtils.mask(layout.stops, ticket.getStartStationId(), ticket.getEndStationId());
+        return mask != 0 ? mask : SegmentUtils.fullMask(layout.stops);
+    }
+
+    /**
+     * 根据车票上的车厢号和座位号计算座位下标，无法解析时返回-1
+     */
+    private int toIndex(SeatLayout layout, Ticket ticket) {
+        try {
+            int coach = Integer.parseInt(ticket.getCoach());
+            int seat = Integer.parseInt(ticket.getSeat());
+            if (coach < layout.firstCoach || seat < 1 || seat > SeatTypeUtils.SEATS_PER_COACH) {
+                return -1;
+            }
+            return (coach - layout.firstCoach) * SeatTypeUtils.SEATS_PER_COACH + seat - 1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private String buildKey(Long trainId, Date travelDate, String seatType) {
+        return trainId + "|" + DateUtils.toSqlDate(travelDate) + "|" + seatType;
+    }
+}
@@ -0,0 +1,499 @@
+package com.mini12306.service.impl;
+
+import com.mini12306.model.SeatInventory;
+import com.mini12306.model.Train;
+import com.mini12306.model.TrainSchedule;
+import com.mini12306.repository.SeatInventoryRepository;
+import com.mini12306.repository.TrainRepository;
+import com.mini12306.repository.TrainScheduleRepository;
+import com.mini12306.service.SeatInventoryService;
+import com.mini12306.util.DateUtils;
+import com.mini12306.util.PartitionedExecutor;
+import com.mini12306.util.SeatTypeUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 座位库存服务实现
+ * 余票计数保存在内存中，所有加载、扣减、恢复都作为命令交给按车次分区的单写线程顺序执行，
+ * 同一库存行只有一个线程读写，不需要加锁，也不会出现旧的加载结果覆盖较新恢复的情况。
+ * 扣减在内存中预占并立即应答，调用方事务提交后才计入待落库变更，回滚时归还预占；恢复在调用方提交后执行。
+ * 每批命令执行完后，单写线程把各库存行的净变更合并，在一个事务中批量落库；落库失败的变更保留在内存中，由定时任务重试。
+ * 计数只在单个JVM内准确，不支持多实例同时售票；数据库余票少于内存计数时按数据库修正
+ */
+@Service
+public class SeatInventoryServiceImpl implements SeatInventoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(SeatInventoryServiceImpl.class);
+
+    @Autowired
+    private SeatInventoryRepository seatInventoryRepository;
+
+    @Autowired
+    private TrainScheduleRepository trainScheduleRepository;
+
+    @Autowired
+    private TrainRepository trainRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // 单写线程分区数，同一车次的库存命令总由同一线程执行
+    @Value("${mini12306.inventory.writer-partitions:2}")
+    private int writerPartitions;
+
+    // 每批最多合并执行的命令数
+    @Value("${mini12306.inventory.writer-batch-size:200}")
+    private int writerBatchSize;
+
+    // 扣减等待单写线程应答的最长时间（毫秒），调用方等待时持有数据库连接，连接池耗尽时超时失败而不是无限等待
+    @Value("${mini12306.inventory.deduct-timeout-ms:2000}")
+    private long deductTimeoutMs;
+
+    /**
+     * 各库存行的内存状态，键为 trainId|date|seatType，只由所属分区的单写线程修改
+     */
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+
+    private PartitionedExecutor<InventoryCommand> writer;
+
+    private TransactionTemplate newTransaction;
+
+    /**
+     * 单个库存行的内存状态
+     * remaining不含已预占的数量；unflushed为已生效但尚未写入数据库的净变更
+     */
+    private static class Slot {
+        private final String key;
+        private final Long trainId;
+        private final java.sql.Date travelDate;
+        private final String seatType;
+        private volatile boolean loaded;
+        private int total;
+        private volatile int remaining;
+        private volatile int reserved;
+        private volatile int unflushed;
+
+        Slot(String key, Long trainId, java.sql.Date travelDate, String seatType) {
+            this.key = key;
+            this.trainId = trainId;
+            this.travelDate = travelDate;
+            this.seatType = seatType;
+        }
+    }
+
+    private enum CommandType {
+        // 预占余票，结果通过result返回
+        DEDUCT,
+        // 调用方提交，预占转为待落库的扣减
+        COMMIT,
+        // 调用方回滚，归还预占
+        CANCEL,
+        // 恢复余票
+        RESTORE,
+        // 重试落库
+        FLUSH,
+        // 回收已过发车日期的库存行
+        EVICT
+    }
+
+    /**
+     * 库存命令
+     */
+    private static class InventoryCommand {
+        private final CommandType type;
+        private final String key;
+        private final Long trainId;
+        private final java.sql.Date travelDate;
+        private final String seatType;
+        private final int count;
+        // 当日没有库存行时按此座位数生成
+        private final int capacity;
+        private final CompletableFuture<Boolean> result;
+
+        InventoryCommand(CommandType type, Slot slot) {
+            this(type, slot.key, slot.trainId, slot.travelDate, slot.seatType, 0, 0);
+        }
+
+        InventoryCommand(CommandType type, InventoryCommand deduct) {
+            this(type, deduct.key, deduct.trainId, deduct.travelDate, deduct.seatType, deduct.count, 0);
+        }
+
+        InventoryCommand(CommandType type, String key, Long trainId, java.sql.Date travelDate, String seatType,
+                         int count, int capacity) {
+            this.type = type;
+            this.key = key;
+            this.trainId = trainId;
+            this.travelDate = travelDate;
+            this.seatType = seatType;
+            this.count = count;
+            this.capacity = capacity;
+            this.result = type == CommandType.DEDUCT ? new CompletableFuture<>() : null;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        writer = new PartitionedExecutor<>("inventory-writer", writerPartitions, 10000, writerBatchSize, this::apply);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // 退出前写入尚未落库的变更
+        for (Slot slot : slots.values()) {
+            if (slot.unflushed != 0) {
+                writer.submit(slot.trainId, new InventoryCommand(CommandType.FLUSH, slot));
+            }
+        }
+        writer.shutdown();
+    }
+
+    @Override
+    public boolean isRunning(Long trainId, Date travelDate) {
+        TrainSchedule schedule = trainScheduleRepository.findByTrainIdAndTravelDate(trainId, DateUtils.toSqlDate(travelDate));
+        if (schedule != null) {
+            return schedule.getStatus() != null && schedule.getStatus() == 1;
+        }
+        // 未配置日程的列车按每日运行处理，兼容旧数据
+        return trainScheduleRepository.countByTrainId(trainId) == 0;
+    }
+
+    @Override
+    @Transactional
+    public void initInventory(TrainSchedule schedule) {
+        if (schedule.getTrainId() == null || schedule.getTravelDate() == null) {
+            return;
+        }
+
+        Optional<Train> trainOpt = trainRepository.findById(schedule.getTrainId());
+        if (!trainOpt.isPresent()) {
+            return;
+        }
+
+        Train train = trainOpt.get();
+        for (String seatType : SeatTypeUtils.getSeatTypes(train.getType())) {
+            seatInventoryRepository.insertIfAbsent(train.getId(), DateUtils.toSqlDate(schedule.getTravelDate()),
+                    seatType, SeatTypeUtils.getCapacity(train, seatType));
+        }
+    }
+
+    @Override
+    public int getRemaining(Train train, Date travelDate, String seatType) {
+        Slot slot = slots.get(buildKey(train.getId(), DateUtils.toSqlDate(travelDate), seatType));
+        if (slot != null && slot.loaded) {
+            return slot.remaining;
+        }
+        Optional<SeatInventory> inventoryOpt = seatInventoryRepository.findByTrainIdAndTravelDateAndSeatType(
+                train.getId(), DateUtils.toSqlDate(travelDate), seatType);
+        if (inventoryOpt.isPresent()) {
+            return inventoryOpt.get().getRemainingCount();
+        }
+        // 当日尚未生成库存，余票即为总座位数
+        return SeatTypeUtils.getCapacity(train, seatType);
+    }
+
+    @Override
+    public boolean deduct(Train train, Date travelDate, String seatType, int count) {
+        java.sql.Date day = DateUtils.toSqlDate(travelDate);
+        InventoryCommand command = new InventoryCommand(CommandType.DEDUCT, buildKey(train.getId(), day, seatType),
+                train.getId(), day, seatType, count, SeatTypeUtils.getCapacity(train, seatType));
+        writer.submit(train.getId(), command);
+        if (!await(command)) {
+            return false;
+        }
+
+        // 提交后预占才计入落库，回滚时归还
+        InventoryCommand commit = new InventoryCommand(CommandType.COMMIT, command);
+        InventoryCommand cancel = new InventoryCommand(CommandType.CANCEL, command);
+        afterCompletion(() -> writer.submit(train.getId(), commit), () -> writer.submit(train.getId(), cancel));
+        return true;
+    }
+
+    @Override
+    public void restore(Long trainId, Date travelDate, String seatType, int count) {
+        java.sql.Date day = DateUtils.toSqlDate(travelDate);
+        InventoryCommand command = new InventoryCommand(CommandType.RESTORE, buildKey(trainId, day, seatType),
+                trainId, day, seatType, count, 0);
+
+        // 事务提交后再恢复，避免回滚后余票被多算
+        afterCompletion(() -> writer.submit(trainId, command), null);
+    }
+
+    /**
+     * 定时重试落库失败的变更，并回收已过发车日期、没有未完成变更的库存行
+     */
+    @Scheduled(fixedDelayString = "${mini12306.inventory.flush-retry-interval-ms:1000}")
+    public void retryFlush() {
+        java.sql.Date today = DateUtils.today();
+        for (Slot slot : slots.values()) {
+            if (slot.unflushed != 0) {
+                writer.submit(slot.trainId, new InventoryCommand(CommandType.FLUSH, slot));
+            } else if (slot.reserved == 0 && slot.travelDate.before(today)) {
+                writer.submit(slot.trainId, new InventoryCommand(CommandType.EVICT, slot));
+            }
+        }
+    }
+
+    /**
+     * 等待单写线程的扣减应答，超时后取消命令，单写线程看到已取消的命令时不再预占
+     */
+    private boolean await(InventoryCommand command) {
+        try {
+            try {
+                return command.result.get(deductTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (command.result.cancel(false)) {
+                    throw new IllegalStateException("扣减余票超时: " + command.key);
+                }
+                // 取消前单写线程已经应答
+                return command.result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (command.result.cancel(false)) {
+                throw new IllegalStateException("扣减余票被中断: " + command.key, e);
+            }
+            return command.result.getNow(false);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("扣减余票失败: " + command.key, e.getCause());
+        }
+    }
+
+    /**
+     * 单写线程执行一批命令，然后把本批产生的变更合并落库
+     * 不向执行器抛出异常，避免整批命令被重复执行
+     */
+    private void apply(List<InventoryCommand> batch) {
+        Set<Slot> dirty = new LinkedHashSet<>();
+        for (InventoryCommand command : batch) {
+            try {
+                execute(command, dirty);
+            } catch (RuntimeException e) {
+                log.error("库存命令执行失败: {} {} 数量 {}", command.type, command.key, command.count, e);
+                if (command.result != null) {
+                    command.result.completeExceptionally(e);
+                }
+            }
+        }
+        flush(dirty);
+    }
+
+    private void execute(InventoryCommand command, Set<Slot> dirty) {
+        if (command.type == CommandType.FLUSH || command.type == CommandType.EVICT) {
+            Slot slot = slots.get(command.key);
+            if (slot == null) {
+                return;
+            }
+            if (command.type == CommandType.FLUSH) {
+                dirty.add(slot);
+            } else if (slot.reserved == 0 && slot.unflushed == 0) {
+                slots.remove(command.key, slot);
+            }
+            return;
+        }
+
+        Slot slot = slots.computeIfAbsent(command.key,
+                k -> new Slot(k, command.trainId, command.travelDate, command.seatType));
+        switch (command.type) {
+            case DEDUCT:
+                if (command.result.isDone()) {
+                    // 调用方已超时放弃
+                    return;
+                }
+                load(slot, command.capacity);
+                if (slot.remaining < command.count) {
+                    command.result.complete(false);
+                    return;
+                }
+                slot.remaining -= command.count;
+                slot.reserved += command.count;
+                if (!command.result.complete(true)) {
+                    // 应答前调用方已超时放弃，归还预占
+                    slot.remaining += command.count;
+                    slot.reserved -= command.count;
+                }
+                break;
+            case COMMIT:
+                slot.reserved -= command.count;
+                slot.unflushed -= command.count;
+                dirty.add(slot);
+                break;
+            case CANCEL:
+                slot.reserved -= command.count;
+                slot.remaining += command.count;
+                break;
+            case RESTORE:
+                if (slot.loaded) {
+                    // 恢复后不超过总座位数
+                    int restored = Math.max(0, Math.min(command.count, slot.total - slot.remaining - slot.reserved));
+                    if (restored < command.count) {
+                        log.warn("恢复余票超过总座位数，已按总座位数封顶: {} 数量 {}", command.key, command.count);
+                    }
+                    slot.remaining += restored;
+                    slot.unflushed += restored;
+                } else {
+                    // 未加载的库存行只记录变更，落库时由数据库按总座位数封顶
+                    slot.unflushed += command.count;
+                }
+                dirty.add(slot);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 首次扣减时从数据库加载余票，当日没有库存行时按列车座位数生成
+     * 加载与落库都在单写线程中执行，读到的值包含此前全部已落库的变更，再加上尚未落库的变更即为当前余票
+     */
+    private void load(Slot slot, int capacity) {
+        if (slot.loaded) {
+            return;
+        }
+        SeatInventory inventory = newTransaction.execute(status -> {
+            Optional<SeatInventory> inventoryOpt = seatInventoryRepository.findByTrainIdAndTravelDateAndSeatType(
+                    slot.trainId, slot.travelDate, slot.seatType);
+            if (inventoryOpt.isPresent()) {
+                return inventoryOpt.get();
+            }
+            seatInventoryRepository.insertIfAbsent(slot.trainId, slot.travelDate, slot.seatType, capacity);
+            return seatInventoryRepository.findByTrainIdAndTravelDateAndSeatType(
+                    slot.trainId, slot.travelDate, slot.seatType).orElse(null);
+        });
+        slot.total = inventory != null ? inventory.getTotalCount() : capacity;
+        int remaining = inventory != null ? inventory.getRemainingCount() : capacity;
+        slot.remaining = Math.max(0, Math.min(slot.total, remaining + slot.unflushed));
+        slot.loaded = true;
+    }
+
+    /**
+     * 在一个事务中写入各库存行的净变更，失败时变更保留在内存中等待重试
+     */
+    private void flush(Set<Slot> dirty) {
+        List<Slot> pending = new ArrayList<>();
+        for (Slot slot : dirty) {
+            if (slot.unflushed != 0) {
+                pending.add(slot);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<Slot, Integer> shortfalls = new HashMap<>();
+        try {
+            newTransaction.executeWithoutResult(status -> {
+                shortfalls.clear();
+                for (Slot slot : pending) {
+                    int shortfall = persist(slot, slot.unflushed);
+                    if (shortfall > 0) {
+                        shortfalls.put(slot, shortfall);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("库存落库失败，{}行变更稍后重试: {}", pending.size(), e.getMessage());
+            return;
+        }
+
+        for (Slot slot : pending) {
+            slot.unflushed = 0;
+            Integer shortfall = shortfalls.get(slot);
+            if (shortfall != null) {
+                slot.remaining = Math.max(0, slot.remaining - shortfall);
+            }
+        }
+    }
+
+    /**
+     * 写入单个库存行的净变更
+     * @return 数据库余票不足、未能扣减的数量
+     */
+    private int persist(Slot slot, int delta) {
+        if (delta < 0) {
+            int count = -delta;
+            if (seatInventoryRepository.decrementIfAvailable(slot.trainId, slot.travelDate, slot.seatType, count) > 0) {
+                return 0;
+            }
+            Integer dbRemaining = seatInventoryRepository.findRemainingCount(slot.trainId, slot.travelDate, slot.seatType);
+            if (dbRemaining == null) {
+                // 库存行已被删除，按总座位数重新生成
+                seatInventoryRepository.insertIfAbsent(slot.trainId, slot.travelDate, slot.seatType, slot.total);
+                dbRemaining = slot.total;
+            }
+            // 数据库余票少于内存计数，说明库存被其他进程修改过，扣到0并修正内存计数
+            int deducted = Math.max(0, Math.min(count, dbRemaining));
+            if (deducted > 0) {
+                seatInventoryRepository.decrementIfAvailable(slot.trainId, slot.travelDate, slot.seatType, deducted);
+            }
+            if (deducted < count) {
+                log.warn("数据库余票少于内存计数，已扣减到0: {} 差额 {}", slot.key, count - deducted);
+            }
+            return count - deducted;
+        }
+
+        if (seatInventoryRepository.increment(slot.trainId, slot.travelDate, slot.seatType, delta) > 0) {
+            return 0;
+        }
+        if (seatInventoryRepository.fillToTotal(slot.trainId, slot.travelDate, slot.seatType) > 0) {
+            log.warn("恢复余票超过总座位数，已按总座位数封顶: {} 数量 {}", slot.key, delta);
+        } else if (slot.loaded) {
+            seatInventoryRepository.insertIfAbsent(slot.trainId, slot.travelDate, slot.seatType, slot.total);
+        } else {
+            log.warn("恢复余票时库存不存在，已忽略: {} 数量 {}", slot.key, delta);
+        }
+        return 0;
+    }
+
+    /**
+     * 在当前事务提交或回滚后执行，没有事务时立即按提交处理
+     */
+    private void afterCompletion(Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                } else if (onRollback != null) {
+                    onRollback.run();
+                }
+            }
+        });
+    }
+
+    private String buildKey(Long trainId, java.sql.Date travelDate, String seatType) {
+        return trainId + "|" + travelDate + "|" + seatType;
+    }
+}
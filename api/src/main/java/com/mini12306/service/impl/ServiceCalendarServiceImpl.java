@@ -0,0 +1,149 @@
+package com.mini12306.service.impl;
+
+import com.mini12306.event.TrainScheduleChangedEvent;
+import com.mini12306.model.TrainSchedule;
+import com.mini12306.repository.TrainScheduleRepository;
+import com.mini12306.service.ServiceCalendarService;
+import com.mini12306.util.DateUtils;
+import com.mini12306.util.ServiceCalendar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * 列车开行日历服务实现
+ * 日历从昨天开始覆盖到未来若干天，首次使用或跨天后整体重建，日程修改后只重新加载对应车次
+ */
+@Service
+public class ServiceCalendarServiceImpl implements ServiceCalendarService {
+
+    private static final Logger log = LoggerFactory.getLogger(ServiceCalendarServiceImpl.class);
+
+    @Autowired
+    private TrainScheduleRepository trainScheduleRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${mini12306.calendar.horizon-days:60}")
+    private int horizonDays;
+
+    private volatile ServiceCalendar calendar;
+
+    @Override
+    public boolean isRunning(Long trainId, Date travelDate) {
+        return runningOn(travelDate).test(trainId);
+    }
+
+    @Override
+    public Predicate<Long> runningOn(Date travelDate) {
+        LocalDate date = toLocalDate(travelDate);
+        ServiceCalendar current = getCalendar();
+        if (current.covers(date)) {
+            return trainId -> current.isRunning(trainId, date);
+        }
+
+        // 超出日历范围时查询当日日程
+        Set<Long> scheduledTrainIds = new HashSet<>(trainScheduleRepository.findScheduledTrainIds());
+        Set<Long> runningTrainIds = new HashSet<>();
+        for (TrainSchedule schedule : trainScheduleRepository.findByTravelDateAndStatus(java.sql.Date.valueOf(date), 1)) {
+            runningTrainIds.add(schedule.getTrainId());
+        }
+        return trainId -> !scheduledTrainIds.contains(trainId) || runningTrainIds.contains(trainId);
+    }
+
+    @Override
+    public void refreshTrain(Long trainId) {
+        // 事务提交后再读取，保证读到修改后的数据
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reloadTrain(trainId);
+                }
+            });
+        } else {
+            reloadTrain(trainId);
+        }
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        LocalDate startDate = LocalDate.now().minusDays(1);
+        ServiceCalendar rebuilt = new ServiceCalendar(startDate, horizonDays + 2);
+
+        Map<Long, List<LocalDate>> runningDates = new HashMap<>();
+        for (Long trainId : trainScheduleRepository.findScheduledTrainIds()) {
+            runningDates.put(trainId, new ArrayList<>());
+        }
+        List<TrainSchedule> schedules = trainScheduleRepository.findByTravelDateBetween(
+                java.sql.Date.valueOf(startDate), java.sql.Date.valueOf(startDate.plusDays(rebuilt.getDays() - 1)));
+        for (TrainSchedule schedule : schedules) {
+            if (schedule.getStatus() != null && schedule.getStatus() == 1) {
+                runningDates.computeIfAbsent(schedule.getTrainId(), k -> new ArrayList<>())
+                        .add(schedule.getTravelDate().toLocalDate());
+            }
+        }
+        for (Map.Entry<Long, List<LocalDate>> entry : runningDates.entrySet()) {
+            rebuilt.put(entry.getKey(), entry.getValue());
+        }
+        calendar = rebuilt;
+
+        log.info("开行日历构建完成，起始日期: {}，天数: {}，配置日程的车次数: {}",
+                startDate, rebuilt.getDays(), runningDates.size());
+    }
+
+    /**
+     * 获取当前日历，尚未构建或已跨天时重建
+     */
+    private ServiceCalendar getCalendar() {
+        ServiceCalendar current = calendar;
+        LocalDate startDate = LocalDate.now().minusDays(1);
+        if (current == null || !current.getStartDate().equals(startDate)) {
+            synchronized (this) {
+                current = calendar;
+                if (current == null || !current.getStartDate().equals(startDate)) {
+                    rebuild();
+                    current = calendar;
+                }
+            }
+        }
+        return current;
+    }
+
+    private void reloadTrain(Long trainId) {
+        ServiceCalendar current = getCalendar();
+        List<TrainSchedule> schedules = trainScheduleRepository.findByTrainId(trainId);
+        if (schedules.isEmpty()) {
+            current.remove(trainId);
+        } else {
+            List<LocalDate> runningDates = new ArrayList<>();
+            for (TrainSchedule schedule : schedules) {
+                if (schedule.getStatus() != null && schedule.getStatus() == 1 && schedule.getTravelDate() != null) {
+                    runningDates.add(schedule.getTravelDate().toLocalDate());
+                }
+            }
+            current.put(trainId, runningDates);
+        }
+        eventPublisher.publishEvent(new TrainScheduleChangedEvent(trainId));
+    }
+
+    private LocalDate toLocalDate(Date date) {
+        return (date != null ? DateUtils.toSqlDate(date) : DateUtils.today()).toLocalDate();
+    }
+}
@@ -0,0 +1,171 @@
+package com.mini12306.service.impl;
+
+import com.mini12306.dto.StationBoardDTO;
+import com.mini12306.model.Result;
+import com.mini12306.model.Train;
+import com.mini12306.repository.TrainRepository;
+import com.mini12306.service.ServiceCalendarService;
+import com.mini12306.service.StationBoardService;
+import com.mini12306.service.StationDictionaryService;
+import com.mini12306.service.TimetableService;
+import com.mini12306.util.DateUtils;
+import com.mini12306.util.SegmentUtils;
+import com.mini12306.util.StationBoard;
+import com.mini12306.util.StationDictionary;
+import com.mini12306.util.TimetableIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 车站大屏服务实现
+ * 大屏索引和车次号随时刻表索引版本一起重建，查询时只读内存
+ */
+@Service
+public class StationBoardServiceImpl implements StationBoardService {
+
+    private static final int MAX_LIMIT = 200;
+
+    /**
+     * 大屏索引及构建时的车次信息
+     */
+    private static final class Snapshot {
+        private final StationBoard board;
+        private final Map<Long, Train> trains;
+
+        Snapshot(StationBoard board, Map<Long, Train> trains) {
+            this.board = board;
+            this.trains = trains;
+        }
+    }
+
+    @Autowired
+    private TimetableService timetableService;
+
+    @Autowired
+    private StationDictionaryService stationDictionaryService;
+
+    @Autowired
+    private ServiceCalendarService serviceCalendarService;
+
+    @Autowired
+    private TrainRepository trainRepository;
+
+    private volatile Snapshot snapshot;
+
+    @Override
+    public Result<StationBoardDTO> getBoard(String station, String type, String travelDate,
+                                            String startTime, String endTime, Integer limit) {
+        StationDictionary dictionary = stationDictionaryService.getDictionary();
+        StationDictionary.StationInfo info = dictionary.getByName(station);
+        if (info == null) {
+            return Result.fail("站点不存在");
+        }
+        boolean departure = !StringUtils.hasText(type) || "departure".equals(type);
+        if (!departure && !"arrival".equals(type)) {
+            return Result.fail("类型应为departure或arrival");
+        }
+        java.sql.Date date = StringUtils.hasText(travelDate) ? DateUtils.parseDate(travelDate) : DateUtils.today();
+        if (date == null) {
+            return Result.fail("日期格式错误，应为yyyy-MM-dd");
+        }
+        LocalDate day = date.toLocalDate();
+
+        int from;
+        if (StringUtils.hasText(startTime)) {
+            from = parseMinutes(startTime);
+        } else {
+            // 查询今天时默认从当前时刻开始，即接下来的车次
+            from = day.equals(LocalDate.now()) ? LocalTime.now().toSecondOfDay() / 60 : 0;
+        }
+        int to = StringUtils.hasText(endTime) ? parseMinutes(endTime) : 24 * 60 - 1;
+        if (from < 0 || to < 0) {
+            return Result.fail("时间格式错误，应为HH:mm");
+        }
+        if (from > to) {
+            return Result.fail("起始时刻不能晚于截止时刻");
+        }
+        int max = limit == null ? 20 : Math.max(1, Math.min(MAX_LIMIT, limit));
+
+        // 跨天车次按始发日期判断是否开行
+        Map<Integer, Predicate<Long>> running = new HashMap<>();
+        Predicate<StationBoard.Event> filter = event -> running
+                .computeIfAbsent(event.getDayOffset(),
+                        offset -> serviceCalendarService.runningOn(java.sql.Date.valueOf(day.minusDays(offset))))
+                .test(event.getTrainId());
+
+        Snapshot current = getSnapshot();
+        List<StationBoardDTO.Item> items = new ArrayList<>();
+        for (StationBoard.Event event : current.board.query(info.getId(), departure, from, to, filter, max)) {
+            TimetableIndex.TrainStops stops = event.getStops();
+            StationBoardDTO.Item item = new StationBoardDTO.Item();
+            item.setTrainId(event.getTrainId());
+            Train train = current.trains.get(event.getTrainId());
+            if (train != null) {
+                item.setTrainNumber(train.getCode());
+                item.setTrainType(train.getType());
+            }
+            item.setTime(SegmentUtils.formatMinutes(event.getTime()));
+            item.setOriginStation(dictionary.getName(stops.getStationId(0)));
+            item.setTerminalStation(dictionary.getName(stops.getStationId(stops.size() - 1)));
+            item.setOriginDate(day.minusDays(event.getDayOffset()).toString());
+            items.add(item);
+        }
+
+        StationBoardDTO dto = new StationBoardDTO();
+        dto.setStation(info.getName());
+        dto.setType(departure ? "departure" : "arrival");
+        dto.setTravelDate(day.toString());
+        dto.setTrains(items);
+        return Result.success(dto);
+    }
+
+    /**
+     * 时刻表索引变化后重新构建大屏索引
+     */
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        TimetableIndex index = timetableService.getIndex();
+        if (current != null && current.board.getVersion() == index.getVersion()) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || current.board.getVersion() != index.getVersion()) {
+                StationBoard board = StationBoard.build(index);
+                Map<Long, Train> trains = new HashMap<>();
+                for (Train train : trainRepository.findAll()) {
+                    trains.put(train.getId(), train);
+                }
+                current = new Snapshot(board, trains);
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * 解析HH:mm格式的时刻，格式错误时返回-1
+     */
+    private int parseMinutes(String time) {
+        try {
+            String[] parts = time.trim().split(":");
+            int hour = Integer.parseInt(parts[0]);
+            int minute = Integer.parseInt(parts[1]);
+            if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+                return -1;
+            }
+            return hour * 60 + minute;
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+}
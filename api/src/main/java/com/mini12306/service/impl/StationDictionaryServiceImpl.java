@@ -0,0 +1,78 @@
+package com.mini12306.service.impl;
+
+import com.mini12306.repository.StationRepository;
+import com.mini12306.service.StationDictionaryService;
+import com.mini12306.util.StationDictionary;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 站点字典服务实现
+ * 服务启动时加载，站点增删改提交后整体重建并原子替换
+ */
+@Service
+public class StationDictionaryServiceImpl implements StationDictionaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(StationDictionaryServiceImpl.class);
+
+    @Autowired
+    private StationRepository stationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicReference<StationDictionary> dictionary = new AtomicReference<>();
+
+    private TransactionTemplate readTransaction;
+
+    @PostConstruct
+    public void init() {
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        readTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public StationDictionary getDictionary() {
+        StationDictionary current = dictionary.get();
+        if (current == null) {
+            // 启动加载之前的请求直接加载一次
+            current = load();
+            if (!dictionary.compareAndSet(null, current)) {
+                current = dictionary.get();
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public void reload() {
+        // 事务提交后再读取，保证读到修改后的数据
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dictionary.set(load());
+                }
+            });
+        } else {
+            dictionary.set(load());
+        }
+    }
+
+    private StationDictionary load() {
+        StationDictionary loaded = readTransaction.execute(status -> StationDictionary.of(stationRepository.findAll()));
+        log.info("站点字典加载完成，站点数: {}", loaded.size());
+        return loaded;
+    }
+}
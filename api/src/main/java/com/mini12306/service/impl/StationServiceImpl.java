@@ -1,23 +1,64 @@
 package com.mini12306.service.impl;
 
+import com.mini12306.dto.StationSuggestionDTO;
 import com.mini12306.model.Result;
 import com.mini12306.model.Station;
+import com.mini12306.model.StationUsage;
 import com.mini12306.repository.StationRepository;
+import com.mini12306.repository.StationUsageRepository;
+import com.mini12306.service.StationDictionaryService;
 import com.mini12306.service.StationService;
+import com.mini12306.util.StationDictionary;
+import com.mini12306.util.StationSuggestIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 站点服务实现
+ * 联想输入使用内存中的前缀树索引，站点字典替换后重建，热度定时刷新
+ * 新建车票的站点热度先在内存中累计，定时累加到站点热度表后重新读取，不扫描车票表；
+ * 进程退出时尚未累加的增量会丢失，只影响联想排序
  */
 @Service
 public class StationServiceImpl implements StationService {
+
+    private static final Logger log = LoggerFactory.getLogger(StationServiceImpl.class);
     
     @Autowired
     private StationRepository stationRepository;
+
+    @Autowired
+    private StationUsageRepository stationUsageRepository;
+
+    @Autowired
+    private StationDictionaryService stationDictionaryService;
+
+    @Value("${mini12306.station.suggest.max-results:10}")
+    private int suggestMaxResults;
+
+    private volatile StationSuggestIndex suggestIndex;
+
+    // 站点ID -> 作为发站或到站的车票数
+    private volatile Map<Long, Long> popularity = Collections.emptyMap();
+
+    // 站点ID -> 尚未累加到站点热度表的车票数
+    private final Map<Long, AtomicLong> pendingUsage = new ConcurrentHashMap<>();
     
     @Override
     public Result<List<Station>> getAllStations() {
@@ -66,4 +107,101 @@ public class StationServiceImpl implements StationService {
         List<Station> stations = stationRepository.findByCityContaining(keyword);
         return Result.success(stations);
     }
+
+    @Override
+    public Result<List<StationSuggestionDTO>> suggest(String keyword, Integer limit) {
+        List<StationSuggestionDTO> suggestions = new ArrayList<>();
+        if (!StringUtils.hasText(keyword)) {
+            return Result.success(suggestions);
+        }
+        int size = limit == null ? suggestMaxResults : Math.max(1, Math.min(limit, suggestMaxResults));
+        for (StationDictionary.StationInfo station : getSuggestIndex().suggest(keyword, size)) {
+            StationSuggestionDTO dto = new StationSuggestionDTO();
+            dto.setId(station.getId());
+            dto.setName(station.getName());
+            dto.setPinyin(station.getPinyin());
+            dto.setCode(station.getCode());
+            dto.setCity(station.getCity());
+            suggestions.add(dto);
+        }
+        return Result.success(suggestions);
+    }
+
+    @Override
+    public void recordUsage(Long startStationId, Long endStationId) {
+        Runnable action = () -> {
+            addPending(startStationId, 1);
+            addPending(endStationId, 1);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 定时把内存中的热度增量累加到站点热度表，再读取热度重建联想索引
+     */
+    @Scheduled(fixedDelayString = "${mini12306.station.suggest.popularity-refresh-ms:600000}")
+    public void refreshPopularity() {
+        flushUsage();
+
+        Map<Long, Long> counts = new HashMap<>();
+        for (StationUsage usage : stationUsageRepository.findAll()) {
+            counts.put(usage.getStationId(), usage.getUsageCount());
+        }
+        popularity = counts;
+        synchronized (this) {
+            suggestIndex = StationSuggestIndex.build(stationDictionaryService.getDictionary(), counts, suggestMaxResults);
+        }
+    }
+
+    private void addPending(Long stationId, long delta) {
+        if (stationId != null) {
+            pendingUsage.computeIfAbsent(stationId, id -> new AtomicLong()).addAndGet(delta);
+        }
+    }
+
+    /**
+     * 逐个站点取出增量并累加，写入失败时放回，下次刷新重试
+     */
+    private void flushUsage() {
+        for (Map.Entry<Long, AtomicLong> entry : pendingUsage.entrySet()) {
+            long delta = entry.getValue().getAndSet(0);
+            if (delta == 0) {
+                continue;
+            }
+            try {
+                stationUsageRepository.addUsage(entry.getKey(), delta);
+            } catch (RuntimeException e) {
+                entry.getValue().addAndGet(delta);
+                log.warn("累加站点热度失败，下次刷新重试: stationId={}", entry.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * 站点字典替换后重建联想索引
+     */
+    private StationSuggestIndex getSuggestIndex() {
+        StationDictionary dictionary = stationDictionaryService.getDictionary();
+        StationSuggestIndex current = suggestIndex;
+        if (current != null && current.getDictionary() == dictionary) {
+            return current;
+        }
+        synchronized (this) {
+            current = suggestIndex;
+            if (current == null || current.getDictionary() != dictionary) {
+                current = StationSuggestIndex.build(dictionary, popularity, suggestMaxResults);
+                suggestIndex = current;
+            }
+            return current;
+        }
+    }
 }
@@ -1,14 +1,23 @@
 package com.mini12306.service.impl;
 
+import com.mini12306.model.Money;
+import com.mini12306.model.OrderDailyStats;
 import com.mini12306.repository.OrderRepository;
 import com.mini12306.repository.TicketRepository;
 import com.mini12306.repository.TrainRepository;
 import com.mini12306.repository.StationRepository;
+import com.mini12306.service.OrderStatsService;
+import com.mini12306.service.RetryService;
 import com.mini12306.service.StatsService;
+import com.mini12306.service.TrainService;
+import com.mini12306.util.DateUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -29,6 +38,15 @@ public class StatsServiceImpl implements StatsService {
     @Autowired
     private StationRepository stationRepository;
 
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    @Autowired
+    private RetryService retryService;
+
+    @Autowired
+    private TrainService trainService;
+
     /**
      * 获取系统统计数据
      */
@@ -61,18 +79,42 @@ public class StatsServiceImpl implements StatsService {
     @Override
     public Map<String, Object> getOrderStats() {
         Map<String, Object> stats = new HashMap<>();
-        
+        LocalDate today = LocalDate.now();
+        LocalDate yesterday = today.minusDays(1);
+        LocalDate monthStart = today.withDayOfMonth(1);
+
+        // 今日实时统计，历史日期读日汇总表，读取行数与天数成正比
+        OrderDailyStats todayStats = orderStatsService.aggregateDay(today);
+        LocalDate from = monthStart.isBefore(yesterday) ? monthStart : yesterday;
+        List<OrderDailyStats> dailyStats = orderStatsService.getDailyStats(from, yesterday);
+        OrderDailyStats yesterdayStats = dailyStats.get(dailyStats.size() - 1);
+
+        long monthOrderCount = todayStats.getOrderCount();
+        Money monthPaidAmount = todayStats.getPaidAmount();
+        List<OrderDailyStats> monthStats = new ArrayList<>();
+        for (OrderDailyStats day : dailyStats) {
+            if (!DateUtils.toSqlDate(day.getStatDate()).toLocalDate().isBefore(monthStart)) {
+                monthOrderCount += day.getOrderCount();
+                monthPaidAmount = monthPaidAmount.add(day.getPaidAmount());
+                monthStats.add(day);
+            }
+        }
+        monthStats.add(todayStats);
+
         // 今日订单数
-        long todayOrderCount = orderRepository.countTodayOrders();
-        stats.put("todayOrderCount", todayOrderCount);
+        stats.put("todayOrderCount", todayStats.getOrderCount());
+        stats.put("todayPaidAmount", todayStats.getPaidAmount().getAmount());
 
         // 昨日订单数
-        long yesterdayOrderCount = orderRepository.countYesterdayOrders();
-        stats.put("yesterdayOrderCount", yesterdayOrderCount);
+        stats.put("yesterdayOrderCount", yesterdayStats.getOrderCount());
+        stats.put("yesterdayPaidAmount", yesterdayStats.getPaidAmount().getAmount());
 
         // 本月订单数
-        long monthOrderCount = orderRepository.countMonthOrders();
         stats.put("monthOrderCount", monthOrderCount);
+        stats.put("monthPaidAmount", monthPaidAmount.getAmount());
+
+        // 本月每日订单数及已支付金额
+        stats.put("dailyStats", monthStats);
 
         // 订单总数
         long totalOrderCount = orderRepository.count();
@@ -96,4 +138,20 @@ public class StatsServiceImpl implements StatsService {
 
         return stats;
     }
+
+    /**
+     * 获取并发冲突统计数据
+     */
+    @Override
+    public Map<String, Object> getConcurrencyStats() {
+        return retryService.getMetrics();
+    }
+
+    /**
+     * 获取列车查询缓存统计数据
+     */
+    @Override
+    public Map<String, Object> getSearchCacheStats() {
+        return trainService.getSearchCacheStats();
+    }
 }
@@ -3,6 +3,7 @@ package com.mini12306.service.impl;
 import com.mini12306.dto.ChangeRuleDTO;
 import com.mini12306.dto.ChangeTicketRequest;
 import com.mini12306.dto.RefundRuleDTO;
+import com.mini12306.dto.SeatPosition;
 import com.mini12306.dto.TicketDetailDTO;
 import com.mini12306.model.Money;
 import com.mini12306.model.Order;
@@ -10,29 +11,44 @@ import com.mini12306.model.Result;
 import com.mini12306.model.Station;
 import com.mini12306.model.Ticket;
 import com.mini12306.model.Train;
+import com.mini12306.model.TrainRoute;
 import com.mini12306.repository.OrderRepository;
-import com.mini12306.repository.StationRepository;
 import com.mini12306.repository.TicketRepository;
 import com.mini12306.repository.TrainRepository;
+import com.mini12306.repository.TrainRouteRepository;
+import com.mini12306.service.FareService;
+import com.mini12306.service.OrderStatsService;
+import com.mini12306.service.SeatAllocationService;
+import com.mini12306.service.SeatInventoryService;
+import com.mini12306.service.StationDictionaryService;
+import com.mini12306.service.StationService;
 import com.mini12306.service.TicketService;
 import com.mini12306.util.CodeGenerator;
+import com.mini12306.util.DateUtils;
+import com.mini12306.util.SegmentUtils;
+import com.mini12306.util.StationDictionary;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.util.StringUtils;
 
 import jakarta.persistence.criteria.Predicate;
 import java.math.BigDecimal;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * 票务服务实现
@@ -47,12 +63,30 @@ public class TicketServiceImpl implements TicketService {
     private TrainRepository trainRepository;
     
     @Autowired
-    private StationRepository stationRepository;
+    private StationDictionaryService stationDictionaryService;
     
 
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private SeatAllocationService seatAllocationService;
+
+    @Autowired
+    private TrainRouteRepository trainRouteRepository;
+
+    @Autowired
+    private FareService fareService;
+
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    @Autowired
+    private StationService stationService;
+
     @Override
     public Result<List<TicketDetailDTO>> listUserBoughtTickets(Long userId) {
         // 使用优化的查询方法直接获取DTO列表
@@ -60,13 +94,7 @@ public class TicketServiceImpl implements TicketService {
         
         // 如果Repository方法没有返回数据，则使用传统方式构建DTO
         if (ticketDetails == null || ticketDetails.isEmpty()) {
-            ticketDetails = new ArrayList<>();
-            List<Ticket> tickets = ticketRepository.findByUserId(userId);
-            
-            for (Ticket ticket : tickets) {
-                TicketDetailDTO dto = convertToTicketDetail(ticket);
-                ticketDetails.add(dto);
-            }
+            ticketDetails = convertToTicketDetails(ticketRepository.findByUserId(userId));
         }
         
         return Result.success(ticketDetails);
@@ -74,15 +102,8 @@ public class TicketServiceImpl implements TicketService {
     
     @Override
     public Result<List<TicketDetailDTO>> listUserTickets(Long passengerId) {
-        List<TicketDetailDTO> ticketDetails = new ArrayList<>();
         List<Ticket> tickets = ticketRepository.findByPassengerId(passengerId);
-        
-        for (Ticket ticket : tickets) {
-            TicketDetailDTO dto = convertToTicketDetail(ticket);
-            ticketDetails.add(dto);
-        }
-        
-        return Result.success(ticketDetails);
+        return Result.success(convertToTicketDetails(tickets));
     }
     
     @Override
@@ -111,16 +132,9 @@ public class TicketServiceImpl implements TicketService {
         ticket.setUpdateTime(new Date());
         ticketRepository.save(ticket);
 
-        // 恢复列车余票
-        Optional<Train> trainOpt = trainRepository.findById(ticket.getTrainId());
-        if (trainOpt.isPresent()) {
-            Train train = trainOpt.get();
-            train.setSeatCount(train.getSeatCount() + 1);
-            trainRepository.save(train);
-        }
-        
-        // 更新订单总金额和票数
-        updateOrderAfterCancelTicket(ticket.getOrderId());
+        // 释放座位，恢复余票并更新订单总金额和票数
+        boolean seatFreed = seatAllocationService.release(ticket);
+        restoreSeatAndUpdateOrder(ticket, seatFreed);
         
         TicketDetailDTO dto = convertToTicketDetail(ticket);
         return Result.success("取消车票成功", dto);
@@ -167,7 +181,8 @@ public class TicketServiceImpl implements TicketService {
         
         try {
             Page<Ticket> page = ticketRepository.findAll(spec, pageRequest);
-            Page<TicketDetailDTO> dtoPage = page.map(ticket -> convertToTicketDetail(ticket));
+            Page<TicketDetailDTO> dtoPage = new PageImpl<>(convertToTicketDetails(page.getContent()),
+                    page.getPageable(), page.getTotalElements());
             return Result.success(dtoPage);
         } catch (Exception e) {
             return Result.fail("查询车票列表失败：" + e.getMessage());
@@ -220,20 +235,33 @@ public class TicketServiceImpl implements TicketService {
         ticket.setUpdateTime(new Date());
         ticketRepository.save(ticket);
 
-        // 恢复列车余票
-        Optional<Train> trainOpt = trainRepository.findById(ticket.getTrainId());
-        if (trainOpt.isPresent()) {
-            Train train = trainOpt.get();
-            train.setSeatCount(train.getSeatCount() + 1);
-            trainRepository.save(train);
-        }
-        
-        // 更新订单总金额和票数
-        updateOrderAfterCancelTicket(ticket.getOrderId());
+        // 释放座位，恢复余票并更新订单总金额和票数
+        boolean seatFreed = seatAllocationService.release(ticket);
+        restoreSeatAndUpdateOrder(ticket, seatFreed);
 
         return Result.success("取消车票成功");
     }
     
+    /**
+     * 退票后恢复余票并更新订单，订单只查询一次
+     * @param seatFreed 座位是否已没有其他已售区段
+     */
+    private void restoreSeatAndUpdateOrder(Ticket ticket, boolean seatFreed) {
+        Optional<Order> orderOpt = orderRepository.findById(ticket.getOrderId());
+        if (!orderOpt.isPresent()) {
+            return;
+        }
+
+        Order order = orderOpt.get();
+
+        // 只有已支付的订单扣减过余票，才需要恢复
+        if ("PAID".equals(order.getStatus()) && seatFreed) {
+            seatInventoryService.restore(ticket.getTrainId(), ticket.getTravelDate(), ticket.getSeatType(), 1);
+        }
+
+        applyCancelTicketToOrder(order);
+    }
+
     /**
      * 更新订单信息，当票被取消时
      */
@@ -244,10 +272,18 @@ public class TicketServiceImpl implements TicketService {
             return;
         }
         
-        Order order = orderOpt.get();
-        
+        applyCancelTicketToOrder(orderOpt.get());
+    }
+
+    /**
+     * 根据剩余有效票重新计算订单金额，没有有效票时取消订单
+     */
+    private void applyCancelTicketToOrder(Order order) {
+        // 订单状态或金额将要变化，下单日期已汇总时需要重新汇总
+        orderStatsService.markChanged(order.getCreateTime());
+
         // 查询该订单的所有有效票
-        List<Ticket> validTickets = ticketRepository.findByOrderIdAndStatus(orderId, 1);
+        List<Ticket> validTickets = ticketRepository.findByOrderIdAndStatus(order.getId(), 1);
         
         // 如果没有有效票了，将订单状态更改为已取消
         if (validTickets.isEmpty()) {
@@ -279,52 +315,77 @@ public class TicketServiceImpl implements TicketService {
      */
     private TicketDetailDTO convertToTicketDetail(Ticket ticket) {
         // 如果Ticket中已经包含了所有必要信息，可以直接构建DTO
-        if (ticket.getStartStation() != null && ticket.getEndStation() != null && 
-            ticket.getTrainCode() != null && ticket.getSeatInfo() != null) {
+        if (isDetailComplete(ticket)) {
             return new TicketDetailDTO(ticket);
         }
         
         // 否则，需要查询相关实体来构建完整的DTO
         Optional<Train> trainOpt = trainRepository.findById(ticket.getTrainId());
-        
-        TicketDetailDTO dto;
-        
-        if (trainOpt.isPresent()) {
-            Train train = trainOpt.get();
-            
-            Optional<Station> startStationOpt = null;
-            Optional<Station> endStationOpt = null;
-            
-            // 查询相关站点
-            if (ticket.getStartStationId() != null) {
-                startStationOpt = stationRepository.findById(ticket.getStartStationId());
-            }
-            
-            if (ticket.getEndStationId() != null) {
-                endStationOpt = stationRepository.findById(ticket.getEndStationId());
-            }
-            
-            Station startStation = startStationOpt != null && startStationOpt.isPresent() ? 
-                    startStationOpt.get() : new Station();
-            Station endStation = endStationOpt != null && endStationOpt.isPresent() ? 
-                    endStationOpt.get() : new Station();
-            
-            // 如果缺少站点名称，从备用字段获取
-            if (startStation.getName() == null && ticket.getStartStation() != null) {
-                startStation.setName(ticket.getStartStation());
+        if (!trainOpt.isPresent()) {
+            // 如果找不到相关的列车，只使用车票信息创建DTO
+            return new TicketDetailDTO(ticket);
+        }
+        return buildTicketDetail(ticket, trainOpt.get(), stationDictionaryService.getDictionary());
+    }
+
+    /**
+     * 批量构建车票详情
+     * 先收集整页车票中需要补全的车次ID，用一次查询取回，站点从站点字典读取，
+     * 查询次数与车票数量无关
+     */
+    private List<TicketDetailDTO> convertToTicketDetails(List<Ticket> tickets) {
+        Set<Long> trainIds = new HashSet<>();
+        for (Ticket ticket : tickets) {
+            if (!isDetailComplete(ticket) && ticket.getTrainId() != null) {
+                trainIds.add(ticket.getTrainId());
             }
-            
-            if (endStation.getName() == null && ticket.getEndStation() != null) {
-                endStation.setName(ticket.getEndStation());
+        }
+
+        Map<Long, Train> trains = new HashMap<>();
+        StationDictionary dictionary = null;
+        if (!trainIds.isEmpty()) {
+            for (Train train : trainRepository.findAllById(trainIds)) {
+                trains.put(train.getId(), train);
             }
-            
-            dto = new TicketDetailDTO(ticket, train, startStation, endStation);
-        } else {
-            // 如果找不到相关的列车，只使用车票信息创建DTO
-            dto = new TicketDetailDTO(ticket);
+            dictionary = stationDictionaryService.getDictionary();
+        }
+
+        List<TicketDetailDTO> result = new ArrayList<>(tickets.size());
+        for (Ticket ticket : tickets) {
+            Train train = isDetailComplete(ticket) ? null : trains.get(ticket.getTrainId());
+            result.add(train != null ? buildTicketDetail(ticket, train, dictionary) : new TicketDetailDTO(ticket));
+        }
+        return result;
+    }
+
+    /**
+     * 车票中是否已冗余了展示所需的车次和站点信息
+     */
+    private boolean isDetailComplete(Ticket ticket) {
+        return ticket.getStartStation() != null && ticket.getEndStation() != null
+                && ticket.getTrainCode() != null && ticket.getSeatInfo() != null;
+    }
+
+    /**
+     * 由车次和站点字典补全车票详情
+     */
+    private TicketDetailDTO buildTicketDetail(Ticket ticket, Train train, StationDictionary dictionary) {
+        StationDictionary.StationInfo startInfo = dictionary.get(ticket.getStartStationId());
+        StationDictionary.StationInfo endInfo = dictionary.get(ticket.getEndStationId());
+        
+        Station startStation = startInfo != null ? startInfo.toStation() : new Station();
+        Station endStation = endInfo != null ? endInfo.toStation() : new Station();
+        
+        // 如果缺少站点名称，从备用字段获取
+        if (startStation.getName() == null && ticket.getStartStation() != null) {
+            startStation.setName(ticket.getStartStation());
+        }
+        
+        if (endStation.getName() == null && ticket.getEndStation() != null) {
+            endStation.setName(ticket.getEndStation());
         }
         
-        return dto;
+        return new TicketDetailDTO(ticket, train, startStation, endStation);
     }
     
     @Override
@@ -522,13 +583,6 @@ public class TicketServiceImpl implements TicketService {
             return Result.fail("列车已发车，不可改签");
         }
         
-        // 查询原列车（用于恢复座位）
-        Optional<Train> originalTrainOpt = trainRepository.findById(originalTicket.getTrainId());
-        if (!originalTrainOpt.isPresent()) {
-            return Result.fail("原车次不存在");
-        }
-        Train originalTrain = originalTrainOpt.get();
-        
         // 查询新车次
         Optional<Train> newTrainOpt = trainRepository.findById(request.getNewTrainId());
         if (!newTrainOpt.isPresent()) {
@@ -537,71 +591,40 @@ public class TicketServiceImpl implements TicketService {
         
         Train newTrain = newTrainOpt.get();
         
-        // 验证：起点终点必须不变
-        if (!originalTicket.getStartStation().equals(newTrain.getStartStation()) ||
-            !originalTicket.getEndStation().equals(newTrain.getEndStation())) {
+        // 验证：起点终点必须不变，新车次需经停原车票的上下车站
+        List<TrainRoute> routes = trainRouteRepository.findByTrainIdOrderByStationOrderAsc(newTrain.getId());
+        long segmentMask = SegmentUtils.mask(SegmentUtils.getStops(newTrain, routes),
+                originalTicket.getStartStationId(), originalTicket.getEndStationId());
+        if (segmentMask == 0) {
             return Result.fail("只能改签到相同起点和终点的车次");
         }
+        TrainRoute fromRoute = SegmentUtils.findRoute(routes, originalTicket.getStartStationId());
+        TrainRoute toRoute = SegmentUtils.findRoute(routes, originalTicket.getEndStationId());
         
         // 解析旅行日期
-        Date newTravelDate;
-        try {
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-            newTravelDate = sdf.parse(request.getTravelDate());
-        } catch (Exception e) {
+        Date newTravelDate = DateUtils.parseDate(request.getTravelDate());
+        if (newTravelDate == null) {
             return Result.fail("日期格式有误");
         }
-        
-        // 检查新座位类型是否有剩余
-        String newSeatType = request.getNewSeatType();
-        boolean hasAvailableSeat = false;
-        
-        if ("高铁".equals(newTrain.getType())) {
-            if ("商务座".equals(newSeatType)) {
-                hasAvailableSeat = newTrain.getHighSeatCount() != null && newTrain.getHighSeatCount() > 0;
-            } else if ("一等座".equals(newSeatType)) {
-                hasAvailableSeat = newTrain.getMidSeatCount() != null && newTrain.getMidSeatCount() > 0;
-            } else if ("二等座".equals(newSeatType)) {
-                hasAvailableSeat = newTrain.getLowSeatCount() != null && newTrain.getLowSeatCount() > 0;
-            }
-        } else if ("动车".equals(newTrain.getType())) {
-            if ("一等座".equals(newSeatType)) {
-                hasAvailableSeat = newTrain.getMidSeatCount() != null && newTrain.getMidSeatCount() > 0;
-            } else if ("二等座".equals(newSeatType)) {
-                hasAvailableSeat = newTrain.getLowSeatCount() != null && newTrain.getLowSeatCount() > 0;
-            }
-        } else {
-            if ("软卧".equals(newSeatType)) {
-                hasAvailableSeat = newTrain.getHighSeatCount() != null && newTrain.getHighSeatCount() > 0;
-            } else if ("硬卧".equals(newSeatType)) {
-                hasAvailableSeat = newTrain.getMidSeatCount() != null && newTrain.getMidSeatCount() > 0;
-            } else if ("硬座".equals(newSeatType)) {
-                hasAvailableSeat = newTrain.getLowSeatCount() != null && newTrain.getLowSeatCount() > 0;
-            }
-        }
-        
-        if (!hasAvailableSeat) {
-            return Result.fail("新车次的该座位类型已售罄");
+
+        if (!seatInventoryService.isRunning(newTrain.getId(), newTravelDate)) {
+            return Result.fail("该车次当日停运");
         }
         
-        // 计算新票价（根据座位类型）
-        Money newPrice = calculateSeatPrice(newTrain, newSeatType);
+        // 计算新票价（从票价表读取原乘车区间、新座位类型的票价）
+        String newSeatType = request.getNewSeatType();
+        Money newPrice = fareService.getFare(newTrain, originalTicket.getStartStationId(),
+                originalTicket.getEndStationId(), newSeatType);
         if (newPrice == null) {
             return Result.fail("无法计算该座位类型的价格");
         }
         
-        // 恢复原列车座位
-        restoreTrainSeat(originalTrain, originalTicket.getSeatType());
-        trainRepository.save(originalTrain);
-        
-        // 减少新列车座位
-        reduceTrainSeat(newTrain, newSeatType);
-        trainRepository.save(newTrain);
-        
-        // 获取座位号
-        int soldSeatsCount = getSoldSeatsCount(newTrain, newSeatType);
-        int coachNumber = getCoachNumberBySeatType(newTrain.getType(), newSeatType);
-        int seatNumber = soldSeatsCount + 1;
+        // 按原乘车区间分配新座位
+        List<SeatPosition> seatPositions = seatAllocationService.allocate(newTrain, newTravelDate, newSeatType, segmentMask, 1);
+        if (seatPositions == null) {
+            return Result.fail("新车次的该座位类型已售罄");
+        }
+        SeatPosition position = seatPositions.get(0);
         
         // 创建新票
         Ticket newTicket = new Ticket();
@@ -614,23 +637,44 @@ public class TicketServiceImpl implements TicketService {
         newTicket.setTrainId(newTrain.getId());
         newTicket.setTrainCode(newTrain.getCode());
         newTicket.setTrainType(newTrain.getType());
-        newTicket.setStartStation(newTrain.getStartStation());
-        newTicket.setEndStation(newTrain.getEndStation());
+        newTicket.setStartStationId(originalTicket.getStartStationId());
+        newTicket.setEndStationId(originalTicket.getEndStationId());
+        newTicket.setStartStation(originalTicket.getStartStation());
+        newTicket.setEndStation(originalTicket.getEndStation());
+        newTicket.setStartCity(originalTicket.getStartCity());
+        newTicket.setEndCity(originalTicket.getEndCity());
         newTicket.setSeatType(newSeatType);
-        newTicket.setCoach(String.valueOf(coachNumber));
-        newTicket.setSeat(String.valueOf(seatNumber));
-        newTicket.setSeatInfo(coachNumber + "车" + seatNumber + "号座");
+        newTicket.setCoach(String.valueOf(position.getCoach()));
+        newTicket.setSeat(String.valueOf(position.getSeat()));
+        newTicket.setSeatInfo(position.getSeatInfo());
         newTicket.setPrice(newPrice);
         newTicket.setTravelDate(newTravelDate);
-        newTicket.setStartTime(newTrain.getStartTime());
-        newTicket.setEndTime(newTrain.getEndTime());
-        newTicket.setDuration(newTrain.getDuration());        
+        newTicket.setStartTime(fromRoute != null && fromRoute.getDepartTime() != null ?
+                SegmentUtils.formatTime(fromRoute.getDepartTime()) : newTrain.getStartTime());
+        newTicket.setEndTime(toRoute != null && toRoute.getArriveTime() != null ?
+                SegmentUtils.formatTime(toRoute.getArriveTime()) : newTrain.getEndTime());
+        newTicket.setDuration(fromRoute != null && toRoute != null && fromRoute.getDepartTime() != null && toRoute.getArriveTime() != null ?
+                SegmentUtils.getDuration(fromRoute, toRoute) : newTrain.getDuration());
         newTicket.setStatus(1); // 正常状态
         newTicket.setCreateTime(new Date());
         newTicket.setUpdateTime(new Date());
         
+        // 已支付订单的车票占用了库存，改签时先扣减新车次再恢复原车次
+        Optional<Order> orderOpt = orderRepository.findById(originalTicket.getOrderId());
+        boolean paid = orderOpt.isPresent() && "PAID".equals(orderOpt.get().getStatus());
+        if (paid && seatAllocationService.markSold(Collections.singletonList(newTicket)) > 0 &&
+            !seatInventoryService.deduct(newTrain, newTravelDate, newSeatType, 1)) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return Result.fail("新车次的该座位类型已售罄");
+        }
+        if (seatAllocationService.release(originalTicket) && paid) {
+            seatInventoryService.restore(originalTicket.getTrainId(), originalTicket.getTravelDate(),
+                    originalTicket.getSeatType(), 1);
+        }
+        
         // 保存新票 & 更新原票状态
-        ticketRepository.save(newTicket);        
+        ticketRepository.save(newTicket);
+        stationService.recordUsage(newTicket.getStartStationId(), newTicket.getEndStationId());
         originalTicket.setStatus(3); // 3表示已改签状态
         originalTicket.setUpdateTime(new Date());
         ticketRepository.save(originalTicket);
@@ -640,134 +684,4 @@ public class TicketServiceImpl implements TicketService {
         
         return Result.success("改签成功", dto);
     }
-    
-    /**
-     * 根据座位类型计算实际价格
-     */
-    private Money calculateSeatPrice(Train train, String seatType) {
-        if ("高铁".equals(train.getType())) {
-            if ("商务座".equals(seatType)) {
-                return train.getPrice().multiply(1.5);
-            } else if ("一等座".equals(seatType)) {
-                return train.getPrice().multiply(1.2);
-            } else if ("二等座".equals(seatType)) {
-                return train.getPrice();
-            }
-        } else if ("动车".equals(train.getType())) {
-            if ("一等座".equals(seatType)) {
-                return train.getPrice().multiply(1.2);
-            } else if ("二等座".equals(seatType)) {
-                return train.getPrice();
-            }
-        } else {
-            // 普通列车
-            if ("软卧".equals(seatType)) {
-                return train.getPrice().multiply(1.5);
-            } else if ("硬卧".equals(seatType)) {
-                return train.getPrice().multiply(1.2);
-            } else if ("硬座".equals(seatType)) {
-                return train.getPrice();
-            }
-        }
-        return null;
-    }
-    
-    /**
-     * 恢复列车座位（退票/改签时）
-     */
-    private void restoreTrainSeat(Train train, String seatType) {
-        if ("高铁".equals(train.getType())) {
-            if ("商务座".equals(seatType) && train.getHighSeatCount() != null) {
-                train.setHighSeatCount(train.getHighSeatCount() + 1);
-            } else if ("一等座".equals(seatType) && train.getMidSeatCount() != null) {
-                train.setMidSeatCount(train.getMidSeatCount() + 1);
-            } else if ("二等座".equals(seatType) && train.getLowSeatCount() != null) {
-                train.setLowSeatCount(train.getLowSeatCount() + 1);
-            }
-        } else if ("动车".equals(train.getType())) {
-            if ("一等座".equals(seatType) && train.getMidSeatCount() != null) {
-                train.setMidSeatCount(train.getMidSeatCount() + 1);
-            } else if ("二等座".equals(seatType) && train.getLowSeatCount() != null) {
-                train.setLowSeatCount(train.getLowSeatCount() + 1);
-            }
-        } else {
-            if ("软卧".equals(seatType) && train.getHighSeatCount() != null) {
-                train.setHighSeatCount(train.getHighSeatCount() + 1);
-            } else if ("硬卧".equals(seatType) && train.getMidSeatCount() != null) {
-                train.setMidSeatCount(train.getMidSeatCount() + 1);
-            } else if ("硬座".equals(seatType) && train.getLowSeatCount() != null) {
-                train.setLowSeatCount(train.getLowSeatCount() + 1);
-            }
-        }
-        train.setSeatCount(train.getSeatCount() + 1);
-    }
-    
-    /**
-     * 减少列车座位（购票/改签时）
-     */
-    private void reduceTrainSeat(Train train, String seatType) {
-        if ("高铁".equals(train.getType())) {
-            if ("商务座".equals(seatType) && train.getHighSeatCount() != null) {
-                train.setHighSeatCount(train.getHighSeatCount() - 1);
-            } else if ("一等座".equals(seatType) && train.getMidSeatCount() != null) {
-                train.setMidSeatCount(train.getMidSeatCount() - 1);
-            } else if ("二等座".equals(seatType) && train.getLowSeatCount() != null) {
-                train.setLowSeatCount(train.getLowSeatCount() - 1);
-            }
-        } else if ("动车".equals(train.getType())) {
-            if ("一等座".equals(seatType) && train.getMidSeatCount() != null) {
-                train.setMidSeatCount(train.getMidSeatCount() - 1);
-            } else if ("二等座".equals(seatType) && train.getLowSeatCount() != null) {
-                train.setLowSeatCount(train.getLowSeatCount() - 1);
-            }
-        } else {
-            if ("软卧".equals(seatType) && train.getHighSeatCount() != null) {
-                train.setHighSeatCount(train.getHighSeatCount() - 1);
-            } else if ("硬卧".equals(seatType) && train.getMidSeatCount() != null) {
-                train.setMidSeatCount(train.getMidSeatCount() - 1);
-            } else if ("硬座".equals(seatType) && train.getLowSeatCount() != null) {
-                train.setLowSeatCount(train.getLowSeatCount() - 1);
-            }
-        }
-        train.setSeatCount(train.getSeatCount() - 1);
-    }
-    
-    /**
-     * 根据座位类型分配车厢号
-     */
-    private int getCoachNumberBySeatType(String trainType, String seatType) {
-        if ("高铁".equals(trainType)) {
-            if ("商务座".equals(seatType)) {
-                return 1;
-            } else if ("一等座".equals(seatType)) {
-                return 2;
-            } else if ("二等座".equals(seatType)) {
-                return 3;
-            }
-        } else if ("动车".equals(trainType)) {
-            if ("一等座".equals(seatType)) {
-                return 1;
-            } else if ("二等座".equals(seatType)) {
-                return 2;
-            }
-        } else {
-            if ("软卧".equals(seatType)) {
-                return 1;
-            } else if ("硬卧".equals(seatType)) {
-                return 2;
-            } else if ("硬座".equals(seatType)) {
-                return 3;
-            }
-        }
-        return 1;
-    }
-    
-    /**
-     * 获取该座位类型已售出的数量
-     */
-    private int getSoldSeatsCount(Train train, String seatType) {
-        List<Ticket> soldTickets = ticketRepository.findByTrainIdAndSeatTypeAndStatus(
-            train.getId(), seatType, 1);
-        return soldTickets != null ? soldTickets.size() : 0;
-    }
 }
@@ -0,0 +1,139 @@
+package com.mini12306.service.impl;
+
+import com.mini12306.event.TimetableChangedEvent;
+import com.mini12306.model.Train;
+import com.mini12306.model.TrainRoute;
+import com.mini12306.repository.TrainRepository;
+import com.mini12306.repository.TrainRouteRepository;
+import com.mini12306.service.TimetableService;
+import com.mini12306.util.TimetableIndex;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 时刻表服务实现
+ * 服务启动时全量构建索引，管理后台修改列车或路线后只重新加载对应车次
+ */
+@Service
+public class TimetableServiceImpl implements TimetableService {
+
+    private static final Logger log = LoggerFactory.getLogger(TimetableServiceImpl.class);
+
+    @Autowired
+    private TrainRepository trainRepository;
+
+    @Autowired
+    private TrainRouteRepository trainRouteRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final TimetableIndex index = new TimetableIndex();
+
+    private TransactionTemplate readTransaction;
+
+    @PostConstruct
+    public void init() {
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        readTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public List<TimetableIndex.StopMatch> findDirectTrains(Long fromStationId, Long toStationId) {
+        return index.findDirect(fromStationId, toStationId);
+    }
+
+    @Override
+    public TimetableIndex.TrainStops getTrainStops(Long trainId) {
+        return index.getTrain(trainId);
+    }
+
+    @Override
+    public TimetableIndex getIndex() {
+        return index;
+    }
+
+    @Override
+    public void refreshTrain(Long trainId) {
+        // 事务提交后再读取，保证读到修改后的数据
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reloadTrain(trainId);
+                }
+            });
+        } else {
+            reloadTrain(trainId);
+        }
+    }
+
+    @Override
+    public void rebuild() {
+        Map<Long, List<TrainRoute>> routesByTrain = new HashMap<>();
+        for (TrainRoute route : trainRouteRepository.findAll()) {
+            routesByTrain.computeIfAbsent(route.getTrainId(), k -> new ArrayList<>()).add(route);
+        }
+
+        List<TimetableIndex.TrainStops> all = new ArrayList<>();
+        for (Train train : trainRepository.findAll()) {
+            List<TrainRoute> routes = routesByTrain.getOrDefault(train.getId(), new ArrayList<>());
+            routes.sort(Comparator.comparing(TrainRoute::getStationOrder, Comparator.nullsLast(Comparator.naturalOrder())));
+            TimetableIndex.TrainStops stops = TimetableIndex.TrainStops.of(train, routes);
+            if (stops != null) {
+                all.add(stops);
+            }
+        }
+        index.reset(all);
+        eventPublisher.publishEvent(new TimetableChangedEvent(null, new HashSet<>()));
+
+        log.info("时刻表索引构建完成，车次数: {}", all.size());
+    }
+
+    private void reloadTrain(Long trainId) {
+        Set<Long> stationIds = new HashSet<>();
+        readTransaction.executeWithoutResult(status -> {
+            Optional<Train> trainOpt = trainRepository.findById(trainId);
+            TimetableIndex.TrainStops stops = trainOpt.isPresent() ? TimetableIndex.TrainStops.of(trainOpt.get(),
+                    trainRouteRepository.findByTrainIdOrderByStationOrderAsc(trainId)) : null;
+            addStations(stationIds, index.getTrain(trainId));
+            addStations(stationIds, stops);
+            if (stops != null) {
+                index.put(stops);
+            } else {
+                index.remove(trainId);
+            }
+        });
+        eventPublisher.publishEvent(new TimetableChangedEvent(trainId, stationIds));
+    }
+
+    private void addStations(Set<Long> stationIds, TimetableIndex.TrainStops stops) {
+        if (stops != null) {
+            for (int i = 0; i < stops.size(); i++) {
+                stationIds.add(stops.getStationId(i));
+            }
+        }
+    }
+}
@@ -2,12 +2,13 @@ package com.mini12306.service.impl;
 
 import com.mini12306.model.Result;
 import com.mini12306.model.TrainRoute;
-import com.mini12306.model.Station;
 import com.mini12306.model.Train;
 import com.mini12306.repository.TrainRouteRepository;
-import com.mini12306.repository.StationRepository;
 import com.mini12306.repository.TrainRepository;
+import com.mini12306.service.StationDictionaryService;
+import com.mini12306.service.TimetableService;
 import com.mini12306.service.TrainRouteService;
+import com.mini12306.util.StationDictionary;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -33,7 +34,10 @@ public class TrainRouteServiceImpl implements TrainRouteService {
     private TrainRepository trainRepository;
 
     @Autowired
-    private StationRepository stationRepository;
+    private StationDictionaryService stationDictionaryService;
+
+    @Autowired
+    private TimetableService timetableService;
 
     @Override
     public Result<?> listTrainRoutes(Long trainId, Long stationId, PageRequest pageRequest) {
@@ -109,6 +113,7 @@ public class TrainRouteServiceImpl implements TrainRouteService {
             route.setUpdateTime(new Date());
 
             TrainRoute savedRoute = trainRouteRepository.save(route);
+            timetableService.refreshTrain(savedRoute.getTrainId());
 
             return Result.success("添加列车路线成功", convertToDTO(savedRoute));
         } catch (Exception e) {
@@ -138,6 +143,7 @@ public class TrainRouteServiceImpl implements TrainRouteService {
             }
 
             List<TrainRoute> savedRoutes = trainRouteRepository.saveAll(routes);
+            timetableService.refreshTrain(trainId);
 
             return Result.success("批量添加列车路线成功", savedRoutes.size());
         } catch (Exception e) {
@@ -178,6 +184,7 @@ public class TrainRouteServiceImpl implements TrainRouteService {
             route.setUpdateTime(new Date());
 
             TrainRoute updatedRoute = trainRouteRepository.save(route);
+            timetableService.refreshTrain(updatedRoute.getTrainId());
 
             return Result.success("更新列车路线成功", convertToDTO(updatedRoute));
         } catch (Exception e) {
@@ -195,6 +202,7 @@ public class TrainRouteServiceImpl implements TrainRouteService {
 
         try {
             trainRouteRepository.deleteById(id);
+            timetableService.refreshTrain(routeOpt.get().getTrainId());
             return Result.success("删除列车路线成功");
         } catch (Exception e) {
             return Result.fail("删除列车路线失败：" + e.getMessage());
@@ -206,6 +214,7 @@ public class TrainRouteServiceImpl implements TrainRouteService {
     public Result<?> deleteTrainRoutesByTrainId(Long trainId) {
         try {
             trainRouteRepository.deleteByTrainId(trainId);
+            timetableService.refreshTrain(trainId);
             return Result.success("删除列车所有路线成功");
         } catch (Exception e) {
             return Result.fail("删除列车所有路线失败：" + e.getMessage());
@@ -242,9 +251,8 @@ public class TrainRouteServiceImpl implements TrainRouteService {
 
         // 查询站点信息
         if (route.getStationId() != null) {
-            Optional<Station> stationOpt = stationRepository.findById(route.getStationId());
-            if (stationOpt.isPresent()) {
-                Station station = stationOpt.get();
+            StationDictionary.StationInfo station = stationDictionaryService.getDictionary().get(route.getStationId());
+            if (station != null) {
                 dto.put("stationName", station.getName());
                 dto.put("stationCity", station.getCity());
             }
@@ -5,6 +5,8 @@ import com.mini12306.model.TrainSchedule;
 import com.mini12306.model.Train;
 import com.mini12306.repository.TrainScheduleRepository;
 import com.mini12306.repository.TrainRepository;
+import com.mini12306.service.SeatInventoryService;
+import com.mini12306.service.ServiceCalendarService;
 import com.mini12306.service.TrainScheduleService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -31,6 +33,12 @@ public class TrainScheduleServiceImpl implements TrainScheduleService {
     @Autowired
     private TrainRepository trainRepository;
 
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private ServiceCalendarService serviceCalendarService;
+
     @Override
     public Result<?> listTrainSchedules(Long trainId, String travelDate, Integer status, PageRequest pageRequest) {
         Specification<TrainSchedule> spec = (root, query, cb) -> {
@@ -108,6 +116,8 @@ public class TrainScheduleServiceImpl implements TrainScheduleService {
             schedule.setUpdateTime(new java.util.Date());
 
             TrainSchedule savedSchedule = trainScheduleRepository.save(schedule);
+            initInventoryIfRunning(savedSchedule);
+            serviceCalendarService.refreshTrain(savedSchedule.getTrainId());
 
             return Result.success("添加车次日程成功", convertToDTO(savedSchedule));
         } catch (Exception e) {
@@ -133,6 +143,10 @@ public class TrainScheduleServiceImpl implements TrainScheduleService {
             }
 
             List<TrainSchedule> savedSchedules = trainScheduleRepository.saveAll(schedules);
+            for (TrainSchedule savedSchedule : savedSchedules) {
+                initInventoryIfRunning(savedSchedule);
+            }
+            serviceCalendarService.refreshTrain(trainId);
 
             return Result.success("批量添加车次日程成功", savedSchedules.size());
         } catch (Exception e) {
@@ -161,6 +175,8 @@ public class TrainScheduleServiceImpl implements TrainScheduleService {
             schedule.setUpdateTime(new java.util.Date());
 
             TrainSchedule updatedSchedule = trainScheduleRepository.save(schedule);
+            initInventoryIfRunning(updatedSchedule);
+            serviceCalendarService.refreshTrain(updatedSchedule.getTrainId());
 
             return Result.success("更新车次日程成功", convertToDTO(updatedSchedule));
         } catch (Exception e) {
@@ -178,6 +194,7 @@ public class TrainScheduleServiceImpl implements TrainScheduleService {
 
         try {
             trainScheduleRepository.deleteById(id);
+            serviceCalendarService.refreshTrain(scheduleOpt.get().getTrainId());
             return Result.success("删除车次日程成功");
         } catch (Exception e) {
             return Result.fail("删除车次日程失败：" + e.getMessage());
@@ -189,6 +206,7 @@ public class TrainScheduleServiceImpl implements TrainScheduleService {
     public Result<?> deleteTrainSchedulesByTrainId(Long trainId) {
         try {
             trainScheduleRepository.deleteByTrainId(trainId);
+            serviceCalendarService.refreshTrain(trainId);
             return Result.success("删除列车所有日程成功");
         } catch (Exception e) {
             return Result.fail("删除列车所有日程失败：" + e.getMessage());
@@ -197,6 +215,15 @@ public class TrainScheduleServiceImpl implements TrainScheduleService {
 
     // ========== 辅助方法 ==========
 
+    /**
+     * 正常运行的日程生成当日座位库存
+     */
+    private void initInventoryIfRunning(TrainSchedule schedule) {
+        if (schedule.getStatus() != null && schedule.getStatus() == 1) {
+            seatInventoryService.initInventory(schedule);
+        }
+    }
+
     /**
      * 将TrainSchedule实体转换为DTO
      */
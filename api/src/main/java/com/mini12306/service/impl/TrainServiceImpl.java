@@ -1,19 +1,41 @@
 package com.mini12306.service.impl;
 
+import com.mini12306.dto.SeatAvailabilityDTO;
 import com.mini12306.dto.TrainDetailDTO;
+import com.mini12306.event.SeatAllocatedEvent;
+import com.mini12306.event.SeatReleasedEvent;
+import com.mini12306.event.TrainScheduleChangedEvent;
+import com.mini12306.event.TimetableChangedEvent;
 import com.mini12306.model.Result;
 import com.mini12306.model.Station;
 import com.mini12306.model.Train;
 import com.mini12306.model.Money;
 import com.mini12306.repository.StationRepository;
 import com.mini12306.repository.TrainRepository;
+import com.mini12306.service.SeatAllocationService;
+import com.mini12306.service.FareService;
+import com.mini12306.service.ServiceCalendarService;
+import com.mini12306.service.StationDictionaryService;
+import com.mini12306.service.TimetableService;
 import com.mini12306.service.TrainService;
+import com.mini12306.util.DateUtils;
+import com.mini12306.util.FareTable;
+import com.mini12306.util.SearchCache;
+import com.mini12306.util.SeatTypeUtils;
+import com.mini12306.util.SegmentUtils;
+import com.mini12306.util.StationDictionary;
+import com.mini12306.util.TimetableIndex;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 
 import jakarta.persistence.criteria.Predicate;
@@ -30,34 +52,242 @@ public class TrainServiceImpl implements TrainService {
     
     @Autowired
     private StationRepository stationRepository;
+
+    @Autowired
+    private SeatAllocationService seatAllocationService;
+
+    @Autowired
+    private TimetableService timetableService;
+
+    @Autowired
+    private StationDictionaryService stationDictionaryService;
+
+    @Autowired
+    private ServiceCalendarService serviceCalendarService;
+
+    @Autowired
+    private FareService fareService;
+
+    @Value("${mini12306.search-cache.max-size:1000}")
+    private int searchCacheMaxSize;
+
+    @Value("${mini12306.search-cache.ttl-seconds:30}")
+    private int searchCacheTtlSeconds;
+
+    // 查询结果缓存，键包含余票日期，按车次、站点、车次余票日期等标签失效
+    private SearchCache<String, List<TrainDetailDTO>> searchCache;
+
+    private static final String LIST_TAG = "list";
+
+    // 批量余票查询一次最多的车次数
+    private static final int MAX_AVAILABILITY_TRAINS = 100;
+
+    @PostConstruct
+    public void init() {
+        searchCache = new SearchCache<>(searchCacheMaxSize, searchCacheTtlSeconds * 1000L);
+    }
     
     @Override
     public Result<List<TrainDetailDTO>> listAllTrains() {
+        java.sql.Date today = DateUtils.today();
+        String key = "all|" + today;
+        List<TrainDetailDTO> cached = searchCache.get(key);
+        if (cached != null) {
+            return Result.success(cached);
+        }
+        long sequence = searchCache.begin();
+
         List<Train> trains = trainRepository.findAll();
-        List<TrainDetailDTO> trainDetails = convertToTrainDetails(trains);
+        List<TrainDetailDTO> trainDetails = convertToTrainDetails(trains, today);
+
+        Set<Object> tags = new HashSet<>();
+        tags.add(LIST_TAG);
+        for (Train train : trains) {
+            tags.add(trainTag(train.getId()));
+            tags.add(seatTag(train.getId(), today));
+            tags.add(stationTag(train.getStartStationId()));
+            tags.add(stationTag(train.getEndStationId()));
+        }
+        trainDetails = Collections.unmodifiableList(trainDetails);
+        searchCache.put(key, trainDetails, tags, sequence);
         return Result.success(trainDetails);
     }
     
     @Override
-    public Result<List<TrainDetailDTO>> searchTrains(String startStation, String endStation) {
-        // 先尝试通过站点名称查询相应的Station实体
-        Optional<Station> startStationOpt = stationRepository.findByName(startStation);
-        Optional<Station> endStationOpt = stationRepository.findByName(endStation);
-        
-        List<Train> trains;
+    public Result<List<TrainDetailDTO>> searchTrains(String startStation, String endStation, String travelDate) {
+        java.sql.Date date = null;
+        if (StringUtils.hasText(travelDate)) {
+            date = DateUtils.parseDate(travelDate);
+            if (date == null) {
+                return Result.fail("日期格式错误，应为yyyy-MM-dd");
+            }
+        }
+        // 未指定日期时不过滤开行日期，余票按当天计算
+        java.sql.Date seatDate = date != null ? date : DateUtils.today();
+        String key = "search|" + (date != null ? date : "*|" + seatDate) + "|" + startStation + "|" + endStation;
+        List<TrainDetailDTO> cached = searchCache.get(key);
+        if (cached != null) {
+            return Result.success(cached);
+        }
+        long sequence = searchCache.begin();
+
+        Set<Object> tags = new HashSet<>();
+        tags.add(nameTag(startStation));
+        tags.add(nameTag(endStation));
+        List<TrainDetailDTO> trainDetails = doSearchTrains(startStation, endStation, date, seatDate, tags);
+        for (TrainDetailDTO trainDetail : trainDetails) {
+            tags.add(seatTag(trainDetail.getId(), seatDate));
+        }
+        trainDetails = Collections.unmodifiableList(trainDetails);
+        searchCache.put(key, trainDetails, tags, sequence);
+        return Result.success(trainDetails);
+    }
+
+    /**
+     * 查询两站之间的车次，并记录结果依赖的站点和车次标签
+     * @param date 乘车日期，不为空时只保留当日开行的车次
+     * @param seatDate 余票日期
+     */
+    private List<TrainDetailDTO> doSearchTrains(String startStation, String endStation, java.sql.Date date,
+                                                java.sql.Date seatDate, Set<Object> tags) {
+        java.util.function.Predicate<Long> running = date != null ? serviceCalendarService.runningOn(date) : trainId -> true;
+
+        // 先尝试通过站点名称在站点字典中查找
+        StationDictionary dictionary = stationDictionaryService.getDictionary();
+        StationDictionary.StationInfo start = dictionary.getByName(startStation);
+        StationDictionary.StationInfo end = dictionary.getByName(endStation);
         
-        if (startStationOpt.isPresent() && endStationOpt.isPresent()) {
-            // 如果找到对应的Station实体，则使用站点ID查询
-            Station start = startStationOpt.get();
-            Station end = endStationOpt.get();
-            trains = trainRepository.findByStationIds(start.getId(), end.getId());
+        if (start != null && end != null) {
+            // 如果找到对应的站点，则通过时刻表索引查询，包含途经两站的车次
+            List<TimetableIndex.StopMatch> matches = timetableService.findDirectTrains(start.getId(), end.getId());
+
+            // 按开行日历过滤，过滤掉的车次同样记录标签，日程变更后失效
+            List<TimetableIndex.StopMatch> runningMatches = new ArrayList<>();
+            List<Long> trainIds = new ArrayList<>();
+            for (TimetableIndex.StopMatch match : matches) {
+                tags.add(trainTag(match.getTrainId()));
+                if (running.test(match.getTrainId())) {
+                    runningMatches.add(match);
+                    trainIds.add(match.getTrainId());
+                }
+            }
+            Map<Long, Train> trains = new HashMap<>();
+            for (Train train : trainRepository.findAllById(trainIds)) {
+                trains.put(train.getId(), train);
+            }
+
+            List<TrainDetailDTO> trainDetails = new ArrayList<>();
+            for (TimetableIndex.StopMatch match : runningMatches) {
+                Train train = trains.get(match.getTrainId());
+                if (train != null) {
+                    trainDetails.add(createSegmentDetail(train, match, start.getName(), end.getName(), seatDate));
+                }
+            }
+            // 按出发时刻排序
+            trainDetails.sort(Comparator.comparing(TrainDetailDTO::getDepartureTime,
+                    Comparator.nullsLast(Comparator.naturalOrder())));
+            tags.add(stationTag(start.getId()));
+            tags.add(stationTag(end.getId()));
+            return trainDetails;
+        }
+
+        // 兼容旧代码，使用站点名称查询
+        List<Train> trains = new ArrayList<>();
+        for (Train train : trainRepository.findByStations(startStation, endStation)) {
+            tags.add(trainTag(train.getId()));
+            tags.add(stationTag(train.getStartStationId()));
+            tags.add(stationTag(train.getEndStationId()));
+            if (running.test(train.getId())) {
+                trains.add(train);
+            }
+        }
+        return convertToTrainDetails(trains, seatDate);
+    }
+
+    @Override
+    public Map<String, Object> getSearchCacheStats() {
+        return searchCache.getStats();
+    }
+
+    /**
+     * 车次或路线变更：失效包含该车次的结果，以及经过其新旧经停站的查询（可能新增该车次）
+     */
+    @EventListener
+    public void onTimetableChanged(TimetableChangedEvent event) {
+        if (event.getTrainId() == null) {
+            searchCache.invalidateAll();
+            return;
+        }
+        searchCache.invalidate(trainTag(event.getTrainId()));
+        searchCache.invalidate(LIST_TAG);
+        for (Long stationId : event.getStationIds()) {
+            searchCache.invalidate(stationTag(stationId));
+        }
+    }
+
+    /**
+     * 日程变更：失效包含该车次（含按日期过滤掉该车次）的查询结果
+     */
+    @EventListener
+    public void onTrainScheduleChanged(TrainScheduleChangedEvent event) {
+        searchCache.invalidate(trainTag(event.getTrainId()));
+    }
+
+    /**
+     * 余票变化：只失效展示该车次该日期余票的结果
+     */
+    @EventListener
+    public void onSeatAllocated(SeatAllocatedEvent event) {
+        invalidateSeats(event.getTrainId(), event.getTravelDate());
+    }
+
+    @EventListener
+    public void onSeatReleased(SeatReleasedEvent event) {
+        invalidateSeats(event.getTrainId(), event.getTravelDate());
+    }
+
+    private void invalidateSeats(Long trainId, Date travelDate) {
+        searchCache.invalidate(seatTag(trainId, DateUtils.toSqlDate(travelDate)));
+    }
+
+    /**
+     * 站点变更提交后失效引用该站点ID或名称的结果（在站点字典重新加载之后执行）
+     */
+    private void invalidateStation(Long stationId, String... names) {
+        Runnable action = () -> {
+            if (stationId != null) {
+                searchCache.invalidate(stationTag(stationId));
+            }
+            for (String name : names) {
+                searchCache.invalidate(nameTag(name));
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
         } else {
-            // 兼容旧代码，使用站点名称查询
-            trains = trainRepository.findByStations(startStation, endStation);
+            action.run();
         }
-        
-        List<TrainDetailDTO> trainDetails = convertToTrainDetails(trains);
-        return Result.success(trainDetails);
+    }
+
+    private static String trainTag(Long trainId) {
+        return "train:" + trainId;
+    }
+
+    private static String seatTag(Long trainId, Date travelDate) {
+        return "seat:" + trainId + "|" + travelDate;
+    }
+
+    private static String stationTag(Long stationId) {
+        return "station:" + stationId;
+    }
+
+    private static String nameTag(String stationName) {
+        return "name:" + stationName;
     }
     
     @Override
@@ -72,6 +302,99 @@ public class TrainServiceImpl implements TrainService {
         return Result.success(trainDetail);
     }
     
+    @Override
+    public Result<SeatAvailabilityDTO> getAvailability(List<Long> trainIds, String travelDate,
+                                                       String startStation, String endStation) {
+        if (trainIds == null || trainIds.isEmpty()) {
+            return Result.fail("车次不能为空");
+        }
+        Set<Long> ids = new LinkedHashSet<>(trainIds);
+        if (ids.size() > MAX_AVAILABILITY_TRAINS) {
+            return Result.fail("一次最多查询" + MAX_AVAILABILITY_TRAINS + "个车次");
+        }
+        java.sql.Date date = StringUtils.hasText(travelDate) ? DateUtils.parseDate(travelDate) : DateUtils.today();
+        if (date == null) {
+            return Result.fail("日期格式错误，应为yyyy-MM-dd");
+        }
+
+        Long fromStationId = null;
+        Long toStationId = null;
+        if (StringUtils.hasText(startStation) || StringUtils.hasText(endStation)) {
+            StationDictionary dictionary = stationDictionaryService.getDictionary();
+            StationDictionary.StationInfo from = dictionary.getByName(startStation);
+            StationDictionary.StationInfo to = dictionary.getByName(endStation);
+            if (from == null || to == null) {
+                return Result.fail("站点不存在");
+            }
+            fromStationId = from.getId();
+            toStationId = to.getId();
+        }
+
+        // 一次查询取出所有车次，余票从内存座位图读取
+        Map<Long, Train> trains = new HashMap<>();
+        for (Train train : trainRepository.findAllById(ids)) {
+            trains.put(train.getId(), train);
+        }
+
+        List<Long> resultIds = new ArrayList<>();
+        List<List<String>> seatTypes = new ArrayList<>();
+        List<int[]> remaining = new ArrayList<>();
+        for (Long trainId : ids) {
+            Train train = trains.get(trainId);
+            if (train == null) {
+                continue;
+            }
+            long segmentMask = getAvailabilityMask(train, fromStationId, toStationId);
+            if (segmentMask == 0) {
+                // 车次不经过该区间
+                continue;
+            }
+            List<String> types = new ArrayList<>();
+            for (String seatType : SeatTypeUtils.getSeatTypes(train.getType())) {
+                if (SeatTypeUtils.getCapacity(train, seatType) > 0) {
+                    types.add(seatType);
+                }
+            }
+            int[] counts = new int[types.size()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = seatAllocationService.countAvailable(train, date, types.get(i), segmentMask);
+            }
+            resultIds.add(trainId);
+            seatTypes.add(types);
+            remaining.add(counts);
+        }
+
+        SeatAvailabilityDTO dto = new SeatAvailabilityDTO();
+        dto.setTravelDate(date.toString());
+        dto.setTrainIds(resultIds);
+        dto.setSeatTypes(seatTypes);
+        dto.setRemaining(remaining);
+        return Result.success(dto);
+    }
+
+    /**
+     * 根据时刻表索引中的经停站计算区段掩码，不查询路线表；未指定区间时按全程计算
+     */
+    private long getAvailabilityMask(Train train, Long fromStationId, Long toStationId) {
+        TimetableIndex.TrainStops stops = timetableService.getTrainStops(train.getId());
+        if (stops == null) {
+            return SegmentUtils.mask(0, 1);
+        }
+        if (fromStationId == null) {
+            return SegmentUtils.mask(0, stops.size() - 1);
+        }
+        int fromIndex = -1;
+        int toIndex = -1;
+        for (int i = 0; i < stops.size(); i++) {
+            if (fromIndex < 0 && stops.getStationId(i) == fromStationId) {
+                fromIndex = i;
+            } else if (fromIndex >= 0 && stops.getStationId(i) == toStationId) {
+                toIndex = i;
+            }
+        }
+        return SegmentUtils.mask(fromIndex, toIndex);
+    }
+
     @Override
     public Result<?> listStations(String name, String city, PageRequest pageRequest) {
         Specification<Station> spec = (root, query, cb) -> {
@@ -116,12 +439,15 @@ public class TrainServiceImpl implements TrainService {
 
         station.setName((String)stationInfo.get("name"));
         station.setCode((String)stationInfo.get("code"));
+        station.setPinyin(normalizePinyin((String)stationInfo.get("pinyin")));
         station.setProvince((String)stationInfo.get("province"));
         station.setCity((String)stationInfo.get("city"));
         station.setCreateTime(new Date());
         station.setUpdateTime(new Date());
 
         stationRepository.save(station);
+        stationDictionaryService.reload();
+        invalidateStation(station.getId(), station.getName());
         return Result.success("添加站点成功");
     }
 
@@ -134,6 +460,7 @@ public class TrainServiceImpl implements TrainService {
         }
 
         Station station = stationOpt.get();
+        String oldName = station.getName();
 
         // 检查名称和编码是否已存在
         if (stationInfo.containsKey("name")) {
@@ -152,6 +479,10 @@ public class TrainServiceImpl implements TrainService {
             station.setCode((String)stationInfo.get("code"));
         }
 
+        if (stationInfo.containsKey("pinyin")) {
+            station.setPinyin(normalizePinyin((String)stationInfo.get("pinyin")));
+        }
+
         if (stationInfo.containsKey("province")) {
             station.setProvince((String)stationInfo.get("province"));
         }
@@ -162,6 +493,8 @@ public class TrainServiceImpl implements TrainService {
 
         station.setUpdateTime(new Date());
         stationRepository.save(station);
+        stationDictionaryService.reload();
+        invalidateStation(id, oldName, station.getName());
         return Result.success("更新站点成功");
     }
 
@@ -182,6 +515,8 @@ public class TrainServiceImpl implements TrainService {
         }
 
         stationRepository.deleteById(id);
+        stationDictionaryService.reload();
+        invalidateStation(id, stationOpt.get().getName());
         return Result.success("删除站点成功");
     }
 
@@ -206,6 +541,16 @@ public class TrainServiceImpl implements TrainService {
         return Result.success(dtoPage);
     }
 
+    /**
+     * 规范化站点拼音：小写，音节之间保留一个空格
+     */
+    private String normalizePinyin(String pinyin) {
+        if (!StringUtils.hasText(pinyin)) {
+            return null;
+        }
+        return pinyin.trim().toLowerCase().replaceAll("\\s+", " ");
+    }
+
     /**
      * 处理站点名称，移除"站"字（如果有）
      */
@@ -243,6 +588,7 @@ public class TrainServiceImpl implements TrainService {
         train.setUpdateTime(new Date());
 
         trainRepository.save(train);
+        timetableService.refreshTrain(train.getId());
         return Result.success("添加列车成功");
     }
 
@@ -291,6 +637,7 @@ public class TrainServiceImpl implements TrainService {
 
         train.setUpdateTime(new Date());
         trainRepository.save(train);
+        timetableService.refreshTrain(id);
         return Result.success("更新列车成功");
     }
 
@@ -303,17 +650,18 @@ public class TrainServiceImpl implements TrainService {
         }
 
         trainRepository.deleteById(id);
+        timetableService.refreshTrain(id);
         return Result.success("删除列车成功");
     }
 
     /**
      * 将Train实体列表转换为TrainDetailDTO列表
      */
-    private List<TrainDetailDTO> convertToTrainDetails(List<Train> trains) {
+    private List<TrainDetailDTO> convertToTrainDetails(List<Train> trains, Date travelDate) {
         List<TrainDetailDTO> trainDetails = new ArrayList<>();
         
         for (Train train : trains) {
-            TrainDetailDTO trainDetail = createTrainDetail(train);
+            TrainDetailDTO trainDetail = createTrainDetail(train, travelDate);
             trainDetails.add(trainDetail);
         }
         
@@ -321,92 +669,90 @@ public class TrainServiceImpl implements TrainService {
     }
     
     /**
-     * 创建单个TrainDetailDTO
+     * 创建单个TrainDetailDTO，余票按当天计算
      */
     private TrainDetailDTO createTrainDetail(Train train) {
+        return createTrainDetail(train, DateUtils.today());
+    }
+
+    /**
+     * 创建单个TrainDetailDTO
+     * @param travelDate 余票日期
+     */
+    private TrainDetailDTO createTrainDetail(Train train, Date travelDate) {
         TrainDetailDTO trainDetail = TrainDetailDTO.fromTrain(train);
         
-        // 获取站点详细信息
+        // 从站点字典获取站点名称
         if (train.getStartStationId() != null && train.getEndStationId() != null) {
-            Optional<Station> startStationOpt = stationRepository.findById(train.getStartStationId());
-            Optional<Station> endStationOpt = stationRepository.findById(train.getEndStationId());
+            StationDictionary dictionary = stationDictionaryService.getDictionary();
+            String startStation = dictionary.getName(train.getStartStationId());
+            String endStation = dictionary.getName(train.getEndStationId());
             
-            if (startStationOpt.isPresent()) {
-                Station startStation = startStationOpt.get();
-                trainDetail.setStartStation(startStation.getName());
+            if (startStation != null) {
+                trainDetail.setStartStation(startStation);
             }
             
-            if (endStationOpt.isPresent()) {
-                Station endStation = endStationOpt.get();
-                trainDetail.setEndStation(endStation.getName());
+            if (endStation != null) {
+                trainDetail.setEndStation(endStation);
             }
         }
         
-        // 添加座位信息
-        trainDetail.setSeatInfo(generateSeatInfo(train));
+        // 添加座位信息（全程可售座位）
+        long segmentMask = seatAllocationService.getSegmentMask(train, train.getStartStationId(), train.getEndStationId());
+        FareTable fares = fareService.getFareTable(train);
+        trainDetail.setSeatInfo(generateSeatInfo(train, fares, 0, fares.getStopCount() - 1, segmentMask, travelDate));
         
         return trainDetail;
     }
+
+    /**
+     * 创建乘车区间的TrainDetailDTO，时间、票价和余票按区间计算
+     */
+    private TrainDetailDTO createSegmentDetail(Train train, TimetableIndex.StopMatch match,
+                                               String startStation, String endStation, Date travelDate) {
+        TrainDetailDTO trainDetail = TrainDetailDTO.fromTrain(train);
+        trainDetail.setStartStation(startStation);
+        trainDetail.setEndStation(endStation);
+
+        TimetableIndex.TrainStops stops = timetableService.getTrainStops(train.getId());
+        if (stops == null) {
+            return createTrainDetail(train, travelDate);
+        }
+        int from = match.getFromIndex();
+        int to = match.getToIndex();
+        if (stops.getDepart(from) >= 0 && stops.getArrive(to) >= 0) {
+            trainDetail.setDepartureTime(SegmentUtils.formatMinutes(stops.getDepart(from)));
+            trainDetail.setArrivalTime(SegmentUtils.formatMinutes(stops.getArrive(to)));
+            trainDetail.setDuration(TrainDetailDTO.formatDuration(stops.getArrive(to) - stops.getDepart(from)));
+        }
+
+        trainDetail.setSeatInfo(generateSeatInfo(train, fareService.getFareTable(train), from, to,
+                SegmentUtils.mask(from, to), travelDate));
+        return trainDetail;
+    }
     
     /**
-     * 生成座位信息
+     * 生成座位信息，票价从票价表读取
+     * @param fromIndex 上车站经停序号
+     * @param toIndex 下车站经停序号
+     * @param travelDate 余票日期
      */
-    private List<TrainDetailDTO.SeatInfoDTO> generateSeatInfo(Train train) {
+    private List<TrainDetailDTO.SeatInfoDTO> generateSeatInfo(Train train, FareTable fares, int fromIndex, int toIndex,
+                                                              long segmentMask, Date travelDate) {
         List<TrainDetailDTO.SeatInfoDTO> seatInfo = new ArrayList<>();
-        
-        // 根据列车类型映射座位名称
-        if ("高铁".equals(train.getType())) {
-            // 商务座（高级座）
-            if (train.getHighSeatCount() != null && train.getHighSeatCount() > 0) {
-                seatInfo.add(new TrainDetailDTO.SeatInfoDTO(
-                    "商务座", train.getPrice().multiply(1.5), train.getHighSeatCount()));
-            }
-            
-            // 一等座（中级座）
-            if (train.getMidSeatCount() != null && train.getMidSeatCount() > 0) {
-                seatInfo.add(new TrainDetailDTO.SeatInfoDTO(
-                    "一等座", train.getPrice().multiply(1.2), train.getMidSeatCount()));
-            }
-            
-            // 二等座（次级座）
-            if (train.getLowSeatCount() != null && train.getLowSeatCount() > 0) {
-                seatInfo.add(new TrainDetailDTO.SeatInfoDTO(
-                    "二等座", train.getPrice(), train.getLowSeatCount()));
-            }
-        } else if ("动车".equals(train.getType())) {
-            // 动车没有商务座，只有一等座和二等座
-            // 一等座（中级座）
-            if (train.getMidSeatCount() != null && train.getMidSeatCount() > 0) {
-                seatInfo.add(new TrainDetailDTO.SeatInfoDTO(
-                    "一等座", train.getPrice().multiply(1.2), train.getMidSeatCount()));
-            }
-            
-            // 二等座（次级座）
-            if (train.getLowSeatCount() != null && train.getLowSeatCount() > 0) {
-                seatInfo.add(new TrainDetailDTO.SeatInfoDTO(
-                    "二等座", train.getPrice(), train.getLowSeatCount()));
-            }
-        } else {
-            // 普通列车（快车、特快等）
-            // 软卧（高级座）
-            if (train.getHighSeatCount() != null && train.getHighSeatCount() > 0) {
-                seatInfo.add(new TrainDetailDTO.SeatInfoDTO(
-                    "软卧", train.getPrice().multiply(1.5), train.getHighSeatCount()));
-            }
-            
-            // 硬卧（中级座）
-            if (train.getMidSeatCount() != null && train.getMidSeatCount() > 0) {
-                seatInfo.add(new TrainDetailDTO.SeatInfoDTO(
-                    "硬卧", train.getPrice().multiply(1.2), train.getMidSeatCount()));
-            }
-            
-            // 硬座（次级座）
-            if (train.getLowSeatCount() != null && train.getLowSeatCount() > 0) {
+
+        // 座位类型按高级到次级排列（高铁：商务座/一等座/二等座，动车：一等座/二等座，普通列车：软卧/硬卧/硬座）
+        List<String> seatTypes = SeatTypeUtils.getSeatTypes(train.getType());
+        for (int seatClass = 0; seatClass < seatTypes.size(); seatClass++) {
+            String seatType = seatTypes.get(seatClass);
+            if (SeatTypeUtils.getCapacity(train, seatType) > 0) {
+                long fare = fares.getFare(fromIndex, toIndex, seatClass);
                 seatInfo.add(new TrainDetailDTO.SeatInfoDTO(
-                    "硬座", train.getPrice(), train.getLowSeatCount()));
+                    seatType, fare >= 0 ? Money.fromFen(fare) : null,
+                    seatAllocationService.countAvailable(train, travelDate, seatType, segmentMask)));
             }
         }
-        
+
         return seatInfo;
     }
 }
@@ -0,0 +1,301 @@
+package com.mini12306.service.impl;
+
+import com.mini12306.dto.BuyTicketRequest;
+import com.mini12306.event.SeatReleasedEvent;
+import com.mini12306.model.Order;
+import com.mini12306.model.Passenger;
+import com.mini12306.model.Result;
+import com.mini12306.model.Train;
+import com.mini12306.model.Waitlist;
+import com.mini12306.repository.PassengerRepository;
+import com.mini12306.repository.TrainRepository;
+import com.mini12306.repository.WaitlistRepository;
+import com.mini12306.service.OrderService;
+import com.mini12306.service.RetryService;
+import com.mini12306.service.SeatInventoryService;
+import com.mini12306.service.WaitlistService;
+import com.mini12306.util.DateUtils;
+import com.mini12306.util.PartitionedExecutor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 候补购票服务实现
+ * 座位释放事件按车次分区交给匹配线程，同一车次的候补订单串行兑现
+ */
+@Service
+public class WaitlistServiceImpl implements WaitlistService {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitlistServiceImpl.class);
+
+    // 错误码：兑现时候补订单已被用户取消
+    private static final String WAITLIST_CANCELED = "WAITLIST_CANCELED";
+
+    private static final String DEPARTED_MESSAGE = "发车日期已过";
+
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+
+    @Autowired
+    private TrainRepository trainRepository;
+
+    @Autowired
+    private PassengerRepository passengerRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private RetryService retryService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // 匹配线程分区数
+    @Value("${mini12306.waitlist.matcher-partitions:2}")
+    private int matcherPartitions;
+
+    // 每次释放事件最多尝试兑现的候补订单数
+    @Value("${mini12306.waitlist.batch-size:20}")
+    private int batchSize;
+
+    private PartitionedExecutor<SeatReleasedEvent> matcher;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        matcher = new PartitionedExecutor<>("waitlist-matcher", matcherPartitions, 10000, 100, this::match);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        matcher.shutdown();
+    }
+
+    @Override
+    public Result<Waitlist> join(Long userId, BuyTicketRequest request) {
+        if (request.getTrainId() == null || request.getPassengerIds() == null || request.getPassengerIds().isEmpty()) {
+            return Result.fail("参数错误");
+        }
+
+        Optional<Train> trainOpt = trainRepository.findById(request.getTrainId());
+        if (!trainOpt.isPresent()) {
+            return Result.fail("列车不存在");
+        }
+
+        Date travelDate = DateUtils.today();
+        if (request.getTravelDate() != null && !request.getTravelDate().isEmpty()) {
+            travelDate = DateUtils.parseDate(request.getTravelDate());
+            if (travelDate == null) {
+                return Result.fail("日期格式有误");
+            }
+        }
+        if (travelDate.before(DateUtils.today())) {
+            return Result.fail("发车日期已过");
+        }
+        if (!seatInventoryService.isRunning(request.getTrainId(), travelDate)) {
+            return Result.fail("该车次当日停运");
+        }
+
+        for (Long passengerId : request.getPassengerIds()) {
+            Optional<Passenger> passengerOpt = passengerRepository.findById(passengerId);
+            if (!passengerOpt.isPresent() || !userId.equals(passengerOpt.get().getUserId())) {
+                return Result.fail("乘车人不存在: " + passengerId);
+            }
+        }
+
+        String seatType = request.getSeatType() != null ? request.getSeatType() : "二等座";
+        if (waitlistRepository.existsByUserIdAndTrainIdAndTravelDateAndSeatTypeAndStatus(
+                userId, request.getTrainId(), travelDate, seatType, "WAITING")) {
+            return Result.fail("已有该车次的候补订单");
+        }
+
+        Waitlist waitlist = new Waitlist();
+        waitlist.setUserId(userId);
+        waitlist.setTrainId(request.getTrainId());
+        waitlist.setTravelDate(travelDate);
+        waitlist.setSeatType(seatType);
+        waitlist.setStartStationId(request.getStartStationId());
+        waitlist.setEndStationId(request.getEndStationId());
+        waitlist.setStartStation(request.getStartStation());
+        waitlist.setEndStation(request.getEndStation());
+        waitlist.setPassengerIds(joinIds(request.getPassengerIds()));
+        waitlist.setStatus("WAITING");
+        waitlist.setCreateTime(new Date());
+        waitlist.setUpdateTime(new Date());
+        waitlistRepository.save(waitlist);
+
+        // 登记时可能已有座位释放，立即尝试兑现一次
+        matcher.submit(waitlist.getTrainId(), new SeatReleasedEvent(waitlist.getTrainId(), travelDate, seatType));
+        return Result.success("候补登记成功", waitlist);
+    }
+
+    @Override
+    public Result<List<Waitlist>> listUserWaitlist(Long userId) {
+        return Result.success(waitlistRepository.findByUserIdOrderByCreateTimeDesc(userId));
+    }
+
+    @Override
+    @Transactional
+    public Result<Waitlist> cancel(Long userId, Long id) {
+        Optional<Waitlist> waitlistOpt = waitlistRepository.findById(id);
+        if (!waitlistOpt.isPresent()) {
+            return Result.fail("候补订单不存在");
+        }
+
+        Waitlist waitlist = waitlistOpt.get();
+        if (!waitlist.getUserId().equals(userId)) {
+            return Result.fail("无权取消该候补订单");
+        }
+        if (waitlistRepository.updateIfWaiting(id, "CANCELED", null, null) == 0) {
+            return Result.fail("候补订单已兑现或已取消");
+        }
+
+        waitlist.setStatus("CANCELED");
+        return Result.success("取消候补成功", waitlist);
+    }
+
+    @Override
+    @Transactional
+    public int expireDeparted() {
+        return waitlistRepository.expireBefore(DateUtils.today(), DEPARTED_MESSAGE);
+    }
+
+    /**
+     * 座位释放事务提交后交给该车次的匹配线程
+     */
+    @EventListener
+    public void onSeatReleased(SeatReleasedEvent event) {
+        matcher.submit(event.getTrainId(), event);
+    }
+
+    /**
+     * 合并同一批中相同车次、日期、座位类型的释放事件后依次匹配
+     */
+    private void match(List<SeatReleasedEvent> events) {
+        Map<String, SeatReleasedEvent> distinct = new LinkedHashMap<>();
+        for (SeatReleasedEvent event : events) {
+            distinct.putIfAbsent(event.getTrainId() + "|" + DateUtils.toSqlDate(event.getTravelDate()) + "|"
+                    + event.getSeatType(), event);
+        }
+        for (SeatReleasedEvent event : distinct.values()) {
+            matchWaitlist(event.getTrainId(), DateUtils.toSqlDate(event.getTravelDate()), event.getSeatType());
+        }
+    }
+
+    /**
+     * 按登记顺序兑现候补订单
+     * 人数较多的候补因余票不足失败时，继续尝试人数较少的后续候补
+     */
+    private void matchWaitlist(Long trainId, java.sql.Date travelDate, String seatType) {
+        List<Waitlist> entries = waitlistRepository.findByTrainIdAndTravelDateAndSeatTypeAndStatusOrderByIdAsc(
+                trainId, travelDate, seatType, "WAITING", PageRequest.of(0, batchSize));
+
+        boolean departed = travelDate.before(DateUtils.today());
+        // 已因余票不足失败的最小乘车人数，人数不少于它的候补无需再尝试
+        int failedSize = Integer.MAX_VALUE;
+        int fulfilled = 0;
+        for (Waitlist entry : entries) {
+            if (departed) {
+                finish(entry, "EXPIRED", DEPARTED_MESSAGE);
+                continue;
+            }
+
+            List<Long> passengerIds = parseIds(entry.getPassengerIds());
+            if (passengerIds.size() >= failedSize) {
+                continue;
+            }
+
+            Result<Order> result = fulfil(entry, passengerIds);
+            if (result.isSuccess()) {
+                fulfilled++;
+            } else if (OrderService.NO_SEAT.equals(result.getCode())) {
+                failedSize = passengerIds.size();
+                if (failedSize == 1) {
+                    break;
+                }
+            } else if (!WAITLIST_CANCELED.equals(result.getCode())) {
+                finish(entry, "FAILED", result.getMessage());
+            }
+        }
+
+        if (fulfilled > 0) {
+            log.info("候补兑现，列车ID: {}，日期: {}，座位类型: {}，兑现数: {}", trainId, travelDate, seatType, fulfilled);
+        }
+    }
+
+    /**
+     * 在同一事务中下单并更新候补状态，候补已被取消时回滚订单
+     */
+    private Result<Order> fulfil(Waitlist entry, List<Long> passengerIds) {
+        BuyTicketRequest request = new BuyTicketRequest();
+        request.setTrainId(entry.getTrainId());
+        request.setStartStationId(entry.getStartStationId());
+        request.setEndStationId(entry.getEndStationId());
+        request.setStartStation(entry.getStartStation());
+        request.setEndStation(entry.getEndStation());
+        request.setPassengerIds(passengerIds);
+        request.setSeatType(entry.getSeatType());
+        request.setTravelDate(DateUtils.toSqlDate(entry.getTravelDate()).toString());
+
+        return retryService.execute("waitlistFulfil", () -> transactionTemplate.execute(status -> {
+            Result<Order> result = orderService.createOrder(entry.getUserId(), request);
+            if (!result.isSuccess()) {
+                status.setRollbackOnly();
+                return result;
+            }
+            if (waitlistRepository.updateIfWaiting(entry.getId(), "FULFILLED", result.getData().getOrderNo(), null) == 0) {
+                status.setRollbackOnly();
+                return Result.fail(WAITLIST_CANCELED, "候补订单已取消");
+            }
+            return result;
+        }));
+    }
+
+    private void finish(Waitlist entry, String status, String message) {
+        transactionTemplate.executeWithoutResult(s -> waitlistRepository.updateIfWaiting(entry.getId(), status, null, message));
+    }
+
+    private String joinIds(List<Long> ids) {
+        StringBuilder sb = new StringBuilder();
+        for (Long id : ids) {
+            if (sb.length() > 0) {
+                sb.append(",");
+            }
+            sb.append(id);
+        }
+        return sb.toString();
+    }
+
+    private List<Long> parseIds(String ids) {
+        List<Long> result = new ArrayList<>();
+        for (String id : ids.split(",")) {
+            if (!id.isEmpty()) {
+                result.add(Long.valueOf(id.trim()));
+            }
+        }
+        return result;
+    }
+}
@@ -1,28 +1,80 @@
 package com.mini12306.util;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 编号生成工具类
+ * 采用雪花算法：41位毫秒时间戳 + 10位节点号 + 12位序列号，
+ * 通过CAS更新状态，无锁且同一节点内严格递增。
+ * 多实例部署时需为每个实例配置不同的节点号（mini12306.node-id）
  */
 public class CodeGenerator {
-    
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyyMMddHHmmss");
-    private static final Random RANDOM = new Random();
-    
+
+    // 起始时间 2024-01-01 00:00:00 UTC
+    private static final long EPOCH = 1704067200000L;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+
+    public static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    // 高位为上次使用的时间戳（相对EPOCH），低12位为序列号
+    private static final AtomicLong STATE = new AtomicLong();
+
+    private static volatile long nodeId = 0;
+
     /**
-     * 生成订单号：当前时间+4位随机数
+     * 设置当前实例的节点号
+     */
+    public static void setNodeId(long id) {
+        if (id < 0 || id > MAX_NODE_ID) {
+            throw new IllegalArgumentException("节点号必须在0到" + MAX_NODE_ID + "之间: " + id);
+        }
+        nodeId = id;
+    }
+
+    /**
+     * 生成订单号：ORDER + 雪花ID
      */
     public static String generateOrderNo() {
-        return "ORDER" + DATE_FORMAT.format(new Date()) + String.format("%04d", RANDOM.nextInt(10000));
+        return "ORDER" + nextId();
     }
-    
+
     /**
-     * 生成乘车人编号：当前时间+4位随机数
+     * 生成车票编号：TICKET + 雪花ID
      */
     public static String generateTicketNo() {
-        return "TICKET" + DATE_FORMAT.format(new Date()) + String.format("%04d", RANDOM.nextInt(10000));
+        return "TICKET" + nextId();
+    }
+
+    /**
+     * 生成下一个ID
+     * 时钟回拨时沿用上次的时间戳继续递增序列号，序列号用尽时借用下一毫秒，保证单调递增
+     */
+    public static long nextId() {
+        while (true) {
+            long now = System.currentTimeMillis() - EPOCH;
+            long last = STATE.get();
+            long lastTimestamp = last >>> SEQUENCE_BITS;
+
+            long timestamp;
+            long sequence;
+            if (now > lastTimestamp) {
+                timestamp = now;
+                sequence = 0;
+            } else {
+                timestamp = lastTimestamp;
+                sequence = (last & SEQUENCE_MASK) + 1;
+                if (sequence > SEQUENCE_MASK) {
+                    timestamp++;
+                    sequence = 0;
+                }
+            }
+
+            if (STATE.compareAndSet(last, (timestamp << SEQUENCE_BITS) | sequence)) {
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,61 @@
+package com.mini12306.util;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * 日期工具类
+ * 统一处理发车日期的解析与按天截断
+ */
+public class DateUtils {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    /**
+     * 解析yyyy-MM-dd格式的日期，格式错误时返回null
+     */
+    public static java.sql.Date parseDate(String dateStr) {
+        if (dateStr == null || dateStr.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return java.sql.Date.valueOf(LocalDate.parse(dateStr.trim(), DATE_FORMATTER));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 截断到当天零点，便于按日期作为库存键
+     * 兼容数据库返回的java.sql.Date
+     */
+    public static java.sql.Date toSqlDate(Date date) {
+        if (date == null) {
+            return null;
+        }
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return new java.sql.Date(calendar.getTimeInMillis());
+    }
+
+    /**
+     * 某天零点的时刻，按[当天零点, 次日零点)的区间查询时间戳字段，以便使用索引
+     */
+    public static Date startOfDay(LocalDate day) {
+        return java.sql.Timestamp.valueOf(day.atStartOfDay());
+    }
+
+    /**
+     * 今天（零点）
+     */
+    public static java.sql.Date today() {
+        return toSqlDate(new Date());
+    }
+}
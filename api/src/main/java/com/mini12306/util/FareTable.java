@@ -0,0 +1,141 @@
+package com.mini12306.util;
+
+import com.mini12306.model.Train;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 单个车次的票价表
+ * 按（上车序号, 下车序号, 座位等级）预先计算票价，以分为单位存放在一维数组中，
+ * 查询只需一次数组读取。座位等级按SeatTypeUtils中的顺序（高级到次级）编号
+ */
+public class FareTable {
+
+    // 费率以万分比表示，10000为次级座位的基础票价
+    public static final int RATE_SCALE = 10000;
+
+    private final Long trainId;
+
+    private final TimetableIndex.TrainStops stops;
+
+    private final long baseFare;
+
+    private final List<String> seatTypes;
+
+    private final int stopCount;
+
+    private final int classCount;
+
+    // 下标为 (上车序号 * 站数 + 下车序号) * 等级数 + 等级，无法计价时为-1
+    private final long[] fares;
+
+    private FareTable(Long trainId, TimetableIndex.TrainStops stops, long baseFare, List<String> seatTypes, int stopCount) {
+        this.trainId = trainId;
+        this.stops = stops;
+        this.baseFare = baseFare;
+        this.seatTypes = seatTypes;
+        this.stopCount = stopCount;
+        this.classCount = seatTypes.size();
+        this.fares = new long[stopCount * stopCount * classCount];
+        Arrays.fill(fares, -1L);
+    }
+
+    /**
+     * 构建票价表
+     * 列车设置了全程票价时按区间里程占全程里程的比例折算（上下车站缺少里程时按全程票价），
+     * 未设置时按区间里程乘以每公里费率计算；再乘以座位等级费率
+     * @param stops 车次经停信息，为null时只计算全程票价
+     * @param classRates 各座位等级的费率（万分比），与座位类型顺序一致
+     * @param centsPerKm 每公里基础票价（分）
+     */
+    public static FareTable build(Train train, TimetableIndex.TrainStops stops, int[] classRates, long centsPerKm) {
+        long baseFare = train.getPrice() != null ? train.getPrice().toFen() : -1;
+        List<String> seatTypes = SeatTypeUtils.getSeatTypes(train.getType());
+        int n = stops != null ? stops.size() : 2;
+        FareTable table = new FareTable(train.getId(), stops, baseFare, seatTypes, n);
+
+        int total = stops != null ? stops.getDistance(n - 1) : -1;
+        for (int from = 0; from < n; from++) {
+            for (int to = from + 1; to < n; to++) {
+                long base = segmentFare(stops, from, to, total, baseFare, centsPerKm);
+                if (base < 0) {
+                    continue;
+                }
+                int offset = (from * n + to) * table.classCount;
+                for (int c = 0; c < table.classCount; c++) {
+                    int rate = c < classRates.length ? classRates[c] : RATE_SCALE;
+                    table.fares[offset + c] = (base * rate + RATE_SCALE / 2) / RATE_SCALE;
+                }
+            }
+        }
+        return table;
+    }
+
+    private static long segmentFare(TimetableIndex.TrainStops stops, int from, int to, int total,
+                                    long baseFare, long centsPerKm) {
+        int toDistance = stops != null ? stops.getDistance(to) : -1;
+        int fromDistance = stops != null ? stops.getDistance(from) : 0;
+        // 始发站缺少里程时按0公里计算，中途站缺少里程时无法按里程计价
+        if (fromDistance < 0 && from == 0) {
+            fromDistance = 0;
+        }
+        int distance = toDistance - fromDistance;
+        if (baseFare >= 0) {
+            if (total <= 0 || toDistance < 0 || fromDistance < 0) {
+                return baseFare;
+            }
+            return (baseFare * distance + total / 2) / total;
+        }
+        if (toDistance < 0 || fromDistance < 0 || distance <= 0) {
+            return -1;
+        }
+        return centsPerKm * distance;
+    }
+
+    public Long getTrainId() {
+        return trainId;
+    }
+
+    /**
+     * 构建票价表所用的经停信息，用于判断是否过期
+     */
+    public TimetableIndex.TrainStops getStops() {
+        return stops;
+    }
+
+    /**
+     * 构建时的全程票价（分），未设置时为-1
+     */
+    public long getBaseFare() {
+        return baseFare;
+    }
+
+    public int getStopCount() {
+        return stopCount;
+    }
+
+    /**
+     * 座位类型对应的等级，不支持的座位类型返回-1
+     */
+    public int seatClassOf(String seatType) {
+        return seatTypes.indexOf(seatType);
+    }
+
+    /**
+     * 查询区间票价（分），序号越界、等级无效或无法计价时返回-1
+     */
+    public long getFare(int fromIndex, int toIndex, int seatClass) {
+        if (fromIndex < 0 || toIndex >= stopCount || fromIndex >= toIndex || seatClass < 0 || seatClass >= classCount) {
+            return -1;
+        }
+        return fares[(fromIndex * stopCount + toIndex) * classCount + seatClass];
+    }
+
+    /**
+     * 查询区间票价（分），按座位类型名称
+     */
+    public long getFare(int fromIndex, int toIndex, String seatType) {
+        return getFare(fromIndex, toIndex, seatClassOf(seatType));
+    }
+}
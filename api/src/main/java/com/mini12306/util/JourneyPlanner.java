@@ -0,0 +1,383 @@
+package com.mini12306.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 换乘方案规划（RAPTOR算法）
+ * 由时刻表索引构建的只读数组快照：每个车次是一条线路，每天最多一个班次。
+ * 第k轮扫描所有经过上一轮被更新站点的线路，得到乘坐k趟车的最早到达时间，
+ * 因此k轮后即得到0至k-1次换乘的帕累托最优方案
+ */
+public class JourneyPlanner {
+
+    private static final int INF = Integer.MAX_VALUE;
+
+    private static final int DAY = 24 * 60;
+
+    // 可乘坐的班次相对出发日期的天数范围（前一天发车的夜车当天也会经过）
+    public static final int MIN_DAY_OFFSET = -1;
+    public static final int MAX_DAY_OFFSET = 2;
+
+    private final long version;
+
+    private final long[] stationIds;
+
+    private final Map<Long, Integer> stationIndex = new HashMap<>();
+
+    private final long[] routeTrainIds;
+
+    // 线路经停站（站点下标）及相对始发日0点的到发分钟数
+    private final int[][] routeStops;
+    private final int[][] routeArrive;
+    private final int[][] routeDepart;
+
+    // 经过每个站点的（线路, 经停序号）
+    private final int[][] stopRoutes;
+    private final int[][] stopPositions;
+
+    /**
+     * 判断车次在出发日期偏移若干天的日期是否开行
+     */
+    public interface RunningCalendar {
+        boolean isRunning(long trainId, int dayOffset);
+    }
+
+    /**
+     * 一段乘车
+     */
+    public static class Leg {
+        private final long trainId;
+        private final int fromIndex;
+        private final int toIndex;
+        private final long fromStationId;
+        private final long toStationId;
+        // 该班次始发日期相对出发日期的天数
+        private final int dayOffset;
+        // 相对出发日期0点的分钟数
+        private final int depart;
+        private final int arrive;
+
+        Leg(long trainId, int fromIndex, int toIndex, long fromStationId, long toStationId,
+            int dayOffset, int depart, int arrive) {
+            this.trainId = trainId;
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+            this.fromStationId = fromStationId;
+            this.toStationId = toStationId;
+            this.dayOffset = dayOffset;
+            this.depart = depart;
+            this.arrive = arrive;
+        }
+
+        public long getTrainId() {
+            return trainId;
+        }
+
+        public int getFromIndex() {
+            return fromIndex;
+        }
+
+        public int getToIndex() {
+            return toIndex;
+        }
+
+        public long getFromStationId() {
+            return fromStationId;
+        }
+
+        public long getToStationId() {
+            return toStationId;
+        }
+
+        public int getDayOffset() {
+            return dayOffset;
+        }
+
+        public int getDepart() {
+            return depart;
+        }
+
+        public int getArrive() {
+            return arrive;
+        }
+    }
+
+    /**
+     * 完整出行方案
+     */
+    public static class Journey {
+        private final List<Leg> legs;
+
+        Journey(List<Leg> legs) {
+            this.legs = legs;
+        }
+
+        public List<Leg> getLegs() {
+            return legs;
+        }
+
+        public int getTransfers() {
+            return legs.size() - 1;
+        }
+
+        public int getDepart() {
+            return legs.get(0).getDepart();
+        }
+
+        public int getArrive() {
+            return legs.get(legs.size() - 1).getArrive();
+        }
+
+        /**
+         * 方案签名，用于去重
+         */
+        public String getSignature() {
+            StringBuilder sb = new StringBuilder();
+            for (Leg leg : legs) {
+                sb.append(leg.trainId).append('@').append(leg.dayOffset).append(':')
+                  .append(leg.fromIndex).append('-').append(leg.toIndex).append(';');
+            }
+            return sb.toString();
+        }
+    }
+
+    private JourneyPlanner(long version, long[] stationIds, long[] routeTrainIds,
+                           int[][] routeStops, int[][] routeArrive, int[][] routeDepart) {
+        this.version = version;
+        this.stationIds = stationIds;
+        this.routeTrainIds = routeTrainIds;
+        this.routeStops = routeStops;
+        this.routeArrive = routeArrive;
+        this.routeDepart = routeDepart;
+        for (int i = 0; i < stationIds.length; i++) {
+            stationIndex.put(stationIds[i], i);
+        }
+
+        int[] counts = new int[stationIds.length];
+        for (int[] stops : routeStops) {
+            for (int s : stops) {
+                counts[s]++;
+            }
+        }
+        stopRoutes = new int[stationIds.length][];
+        stopPositions = new int[stationIds.length][];
+        for (int s = 0; s < stationIds.length; s++) {
+            stopRoutes[s] = new int[counts[s]];
+            stopPositions[s] = new int[counts[s]];
+        }
+        Arrays.fill(counts, 0);
+        for (int r = 0; r < routeStops.length; r++) {
+            for (int i = 0; i < routeStops[r].length; i++) {
+                int s = routeStops[r][i];
+                stopRoutes[s][counts[s]] = r;
+                stopPositions[s][counts[s]] = i;
+                counts[s]++;
+            }
+        }
+    }
+
+    /**
+     * 从时刻表索引构建快照
+     */
+    public static JourneyPlanner build(TimetableIndex index) {
+        long version = index.getVersion();
+        List<TimetableIndex.TrainStops> trains = new ArrayList<>(index.getTrains());
+
+        Map<Long, Integer> stations = new HashMap<>();
+        List<Long> stationList = new ArrayList<>();
+        int n = trains.size();
+        long[] routeTrainIds = new long[n];
+        int[][] routeStops = new int[n][];
+        int[][] routeArrive = new int[n][];
+        int[][] routeDepart = new int[n][];
+        for (int r = 0; r < n; r++) {
+            TimetableIndex.TrainStops train = trains.get(r);
+            routeTrainIds[r] = train.getTrainId();
+            routeStops[r] = new int[train.size()];
+            routeArrive[r] = new int[train.size()];
+            routeDepart[r] = new int[train.size()];
+            for (int i = 0; i < train.size(); i++) {
+                long stationId = train.getStationId(i);
+                Integer s = stations.get(stationId);
+                if (s == null) {
+                    s = stationList.size();
+                    stations.put(stationId, s);
+                    stationList.add(stationId);
+                }
+                routeStops[r][i] = s;
+                routeArrive[r][i] = train.getArrive(i);
+                routeDepart[r][i] = train.getDepart(i);
+            }
+        }
+
+        long[] stationIds = new long[stationList.size()];
+        for (int i = 0; i < stationIds.length; i++) {
+            stationIds[i] = stationList.get(i);
+        }
+        return new JourneyPlanner(version, stationIds, routeTrainIds, routeStops, routeArrive, routeDepart);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 规划从任一出发站到任一到达站的方案
+     * @param departAfter 最早出发时间（相对出发日期0点的分钟数）
+     * @param maxTransfers 最多换乘次数
+     * @param minTransfer 同站换乘的最短间隔（分钟）
+     * @return 各换乘次数下到达最早的方案，换乘越多到达越早
+     */
+    public List<Journey> plan(Collection<Long> sources, Collection<Long> targets, int departAfter,
+                              int maxTransfers, int minTransfer, RunningCalendar calendar) {
+        int stationCount = stationIds.length;
+        int rounds = maxTransfers + 1;
+
+        int[][] tau = new int[rounds + 1][stationCount];
+        int[][] labelRoute = new int[rounds + 1][stationCount];
+        int[][] labelBoard = new int[rounds + 1][stationCount];
+        int[][] labelAlight = new int[rounds + 1][stationCount];
+        int[][] labelDay = new int[rounds + 1][stationCount];
+        for (int[] row : tau) {
+            Arrays.fill(row, INF);
+        }
+        int[] best = new int[stationCount];
+        Arrays.fill(best, INF);
+        boolean[] marked = new boolean[stationCount];
+        boolean[] isTarget = new boolean[stationCount];
+
+        for (Long target : targets) {
+            Integer t = stationIndex.get(target);
+            if (t != null) {
+                isTarget[t] = true;
+            }
+        }
+        boolean hasSource = false;
+        for (Long source : sources) {
+            Integer s = stationIndex.get(source);
+            if (s != null && !isTarget[s]) {
+                tau[0][s] = departAfter;
+                best[s] = departAfter;
+                marked[s] = true;
+                hasSource = true;
+            }
+        }
+        if (!hasSource) {
+            return new ArrayList<>();
+        }
+
+        int targetBest = INF;
+        int[] routeStart = new int[routeStops.length];
+        Arrays.fill(routeStart, INF);
+        List<Integer> touched = new ArrayList<>();
+
+        for (int k = 1; k <= rounds; k++) {
+            // 收集经过上一轮更新站点的线路及最早的上车位置
+            touched.clear();
+            for (int s = 0; s < stationCount; s++) {
+                if (!marked[s]) {
+                    continue;
+                }
+                marked[s] = false;
+                for (int j = 0; j < stopRoutes[s].length; j++) {
+                    int r = stopRoutes[s][j];
+                    int pos = stopPositions[s][j];
+                    if (routeStart[r] == INF) {
+                        touched.add(r);
+                    }
+                    routeStart[r] = Math.min(routeStart[r], pos);
+                }
+            }
+            if (touched.isEmpty()) {
+                break;
+            }
+
+            for (int r : touched) {
+                int start = routeStart[r];
+                routeStart[r] = INF;
+                int[] stops = routeStops[r];
+                int[] arrive = routeArrive[r];
+                int[] depart = routeDepart[r];
+
+                int day = INF;
+                int boardPos = -1;
+                for (int i = start; i < stops.length; i++) {
+                    int s = stops[i];
+
+                    // 已上车时尝试在本站下车
+                    if (day != INF && arrive[i] >= 0) {
+                        int t = arrive[i] + day * DAY;
+                        if (t < best[s] && t < targetBest) {
+                            tau[k][s] = t;
+                            best[s] = t;
+                            labelRoute[k][s] = r;
+                            labelBoard[k][s] = boardPos;
+                            labelAlight[k][s] = i;
+                            labelDay[k][s] = day;
+                            marked[s] = true;
+                            if (isTarget[s]) {
+                                targetBest = t;
+                            }
+                        }
+                    }
+
+                    // 上一轮能到达本站时，尝试换乘更早的班次
+                    int previous = tau[k - 1][s];
+                    if (previous == INF || depart[i] < 0) {
+                        continue;
+                    }
+                    int ready = previous + (k > 1 ? minTransfer : 0);
+                    int d = Math.max(MIN_DAY_OFFSET, Math.floorDiv(ready - depart[i] + DAY - 1, DAY));
+                    while (d <= MAX_DAY_OFFSET && d < day && !calendar.isRunning(routeTrainIds[r], d)) {
+                        d++;
+                    }
+                    if (d <= MAX_DAY_OFFSET && d < day) {
+                        day = d;
+                        boardPos = i;
+                    }
+                }
+            }
+        }
+
+        // 每个换乘次数只保留比更少换乘到达更早的方案
+        List<Journey> journeys = new ArrayList<>();
+        int bestArrive = INF;
+        for (int k = 1; k <= rounds; k++) {
+            int arriveAt = INF;
+            int target = -1;
+            for (int s = 0; s < stationCount; s++) {
+                if (isTarget[s] && tau[k][s] < arriveAt) {
+                    arriveAt = tau[k][s];
+                    target = s;
+                }
+            }
+            if (target >= 0 && arriveAt < bestArrive) {
+                bestArrive = arriveAt;
+                journeys.add(reconstruct(k, target, labelRoute, labelBoard, labelAlight, labelDay));
+            }
+        }
+        return journeys;
+    }
+
+    private Journey reconstruct(int round, int target, int[][] labelRoute, int[][] labelBoard,
+                                int[][] labelAlight, int[][] labelDay) {
+        List<Leg> legs = new ArrayList<>();
+        int s = target;
+        for (int k = round; k >= 1; k--) {
+            int r = labelRoute[k][s];
+            int board = labelBoard[k][s];
+            int alight = labelAlight[k][s];
+            int day = labelDay[k][s];
+            int from = routeStops[r][board];
+            legs.add(0, new Leg(routeTrainIds[r], board, alight, stationIds[from], stationIds[s], day,
+                    routeDepart[r][board] + day * DAY, routeArrive[r][alight] + day * DAY));
+            s = from;
+        }
+        return new Journey(legs);
+    }
+}
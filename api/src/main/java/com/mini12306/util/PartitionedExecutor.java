@@ -0,0 +1,148 @@
+package com.mini12306.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 分区单写线程执行器
+ * 按键将事件分配到固定分区，每个分区由一个线程按提交顺序批量处理，
+ * 同一键的事件总在同一线程串行执行，不同分区之间互不阻塞。
+ * 处理失败的批次按退避时间重试，重试用尽后记录错误日志并计入失败事件数
+ */
+public class PartitionedExecutor<E> {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionedExecutor.class);
+
+    /**
+     * 每批事件最多处理次数
+     */
+    private static final int MAX_ATTEMPTS = 3;
+
+    /**
+     * 重试退避基础时间（毫秒），每次重试翻倍
+     */
+    private static final long BASE_BACKOFF_MS = 100;
+
+    private final List<Partition> partitions = new ArrayList<>();
+
+    private final int batchSize;
+
+    private final Consumer<List<E>> handler;
+
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    /**
+     * @param name 线程名前缀
+     * @param partitionCount 分区数
+     * @param capacity 每个分区的队列容量，队列满时提交方阻塞等待
+     * @param batchSize 每批最多处理的事件数
+     * @param handler 批处理逻辑，同一批事件属于同一分区
+     */
+    public PartitionedExecutor(String name, int partitionCount, int capacity, int batchSize, Consumer<List<E>> handler) {
+        this.batchSize = batchSize;
+        this.handler = handler;
+        for (int i = 0; i < partitionCount; i++) {
+            Partition partition = new Partition(capacity);
+            partition.thread = new Thread(partition::run, name + "-" + i);
+            partition.thread.setDaemon(true);
+            partition.thread.start();
+            partitions.add(partition);
+        }
+    }
+
+    /**
+     * 提交事件到键对应的分区
+     */
+    public void submit(long key, E event) {
+        Partition partition = partitions.get((int) Math.floorMod(key, (long) partitions.size()));
+        try {
+            partition.queue.put(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("提交事件被中断", e);
+        }
+    }
+
+    /**
+     * 重试用尽后仍处理失败、被丢弃的事件数
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * 停止接收事件，处理完队列中剩余的事件后退出
+     */
+    public void shutdown() {
+        running = false;
+        for (Partition partition : partitions) {
+            try {
+                partition.thread.join(10000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private class Partition {
+        private final BlockingQueue<E> queue;
+        private Thread thread;
+
+        Partition(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        void run() {
+            List<E> batch = new ArrayList<>(batchSize);
+            while (running || !queue.isEmpty()) {
+                try {
+                    E first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    // 阻塞等到第一个事件后，把已积压的事件一起取出合并处理
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    process(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        /**
+         * 处理一批事件，失败时退避后重试
+         */
+        private void process(List<E> batch) throws InterruptedException {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    handler.accept(batch);
+                    return;
+                } catch (Exception e) {
+                    if (attempt >= MAX_ATTEMPTS) {
+                        long failed = failedCount.addAndGet(batch.size());
+                        log.error("{} 批处理失败，已重试{}次，丢弃{}个事件（累计{}个）",
+                                thread.getName(), attempt - 1, batch.size(), failed, e);
+                        return;
+                    }
+                    log.warn("{} 批处理失败，第{}次重试: {}", thread.getName(), attempt, e.getMessage());
+                    Thread.sleep(BASE_BACKOFF_MS << (attempt - 1));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.mini12306.util;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 查询结果缓存
+ * 按最近最少使用淘汰并限制条目数，条目超过存活时间后视为失效。
+ * 每个条目带有若干标签（如车次、站点），数据变更时只失效带有对应标签的条目。
+ * 为避免查询期间发生的变更被旧结果覆盖，写入时需带上查询开始前取得的序号，
+ * 之后其标签被失效过的结果不会写入。
+ * 失效记录与条目按同样的容量上限保留，淘汰最早的记录时把其序号并入下限，
+ * 早于下限开始的查询结果一律不写入。
+ */
+public class SearchCache<K, V> {
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expireAt;
+        private final Set<Object> tags;
+
+        Entry(V value, long expireAt, Set<Object> tags) {
+            this.value = value;
+            this.expireAt = expireAt;
+            this.tags = tags;
+        }
+    }
+
+    private final int maxSize;
+
+    private final long ttlMillis;
+
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    // 标签 -> 带有该标签的缓存键
+    private final Map<Object, Set<K>> tagIndex = new HashMap<>();
+
+    // 标签最近一次失效时的序号，按失效先后排列；全部失效或记录被淘汰时只记录下限
+    private final LinkedHashMap<Object, Long> tagInvalidatedAt;
+    private long allInvalidatedAt;
+    private long sequence;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+    private long rejectedPuts;
+
+    public SearchCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > SearchCache.this.maxSize) {
+                    unindex(eldest.getKey(), eldest.getValue());
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.tagInvalidatedAt = new LinkedHashMap<Object, Long>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Long> eldest) {
+                if (size() > SearchCache.this.maxSize) {
+                    allInvalidatedAt = Math.max(allInvalidatedAt, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 查询缓存，未命中或已过期时返回null
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.expireAt <= System.currentTimeMillis()) {
+            entries.remove(key);
+            unindex(key, entry);
+            expirations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * 获取当前序号，在查询数据库之前调用
+     */
+    public synchronized long begin() {
+        return sequence;
+    }
+
+    /**
+     * 写入缓存，查询开始后其标签已被失效时放弃写入
+     * @param startSequence 查询开始前由begin取得的序号
+     */
+    public synchronized void put(K key, V value, Collection<?> tags, long startSequence) {
+        if (maxSize <= 0 || ttlMillis <= 0) {
+            return;
+        }
+        if (allInvalidatedAt > startSequence) {
+            rejectedPuts++;
+            return;
+        }
+        Set<Object> tagSet = new HashSet<>(tags);
+        for (Object tag : tagSet) {
+            Long invalidatedAt = tagInvalidatedAt.get(tag);
+            if (invalidatedAt != null && invalidatedAt > startSequence) {
+                rejectedPuts++;
+                return;
+            }
+        }
+
+        Entry<V> old = entries.remove(key);
+        if (old != null) {
+            unindex(key, old);
+        }
+        entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis, tagSet));
+        for (Object tag : tagSet) {
+            tagIndex.computeIfAbsent(tag, k -> new HashSet<>()).add(key);
+        }
+    }
+
+    /**
+     * 失效带有指定标签的条目
+     * @return 失效的条目数
+     */
+    public synchronized int invalidate(Object tag) {
+        // 先移除再写入，使最近失效的标签排在最后
+        tagInvalidatedAt.remove(tag);
+        tagInvalidatedAt.put(tag, ++sequence);
+        Set<K> keys = tagIndex.remove(tag);
+        if (keys == null) {
+            return 0;
+        }
+        int count = 0;
+        for (K key : keys) {
+            Entry<V> entry = entries.remove(key);
+            if (entry != null) {
+                unindex(key, entry);
+                count++;
+            }
+        }
+        invalidations += count;
+        return count;
+    }
+
+    /**
+     * 失效全部条目
+     */
+    public synchronized void invalidateAll() {
+        allInvalidatedAt = ++sequence;
+        tagInvalidatedAt.clear();
+        invalidations += entries.size();
+        entries.clear();
+        tagIndex.clear();
+    }
+
+    /**
+     * 命中率、淘汰数等统计数据
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long requests = hits + misses;
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("ttlMillis", ttlMillis);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", requests == 0 ? 0.0 : (double) hits / requests);
+        stats.put("evictions", evictions);
+        stats.put("expirations", expirations);
+        stats.put("invalidations", invalidations);
+        stats.put("rejectedPuts", rejectedPuts);
+        stats.put("invalidatedTags", tagInvalidatedAt.size());
+        return stats;
+    }
+
+    private void unindex(K key, Entry<V> entry) {
+        for (Object tag : entry.tags) {
+            Set<K> keys = tagIndex.get(tag);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    tagIndex.remove(tag);
+                }
+            }
+        }
+    }
+}
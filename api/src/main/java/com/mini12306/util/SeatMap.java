@@ -0,0 +1,221 @@
+package com.mini12306.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 座位图
+ * 记录某车次某日某座位类型每个物理座位（下标从0开始）在线路各区段上的占用情况。
+ * 每个座位用一个long表示区段掩码，第k位表示第k站到第k+1站的区段，
+ * 因此同一座位可以分别卖给不重叠的区间，如A→C和C→E。
+ * held记录已分配的区段（含未支付订单），sold记录已支付的区段。
+ * 每个查询过的乘车区间维护一份区间索引（占用座位数和查找游标），座位占用变化时增量更新，
+ * 分配和统计的开销与座位总数无关，只与区间数（不超过站数的平方）有关。
+ */
+public class SeatMap {
+
+    private long[] held;
+
+    private long[] sold;
+
+    // 有任意区段被占用的座位，用于快速查找整座空闲的座位
+    private final BitSet used = new BitSet();
+
+    private int capacity;
+
+    // 下一次查找整座空闲座位的起点，座位完全释放时回退以便复用
+    private int cursor;
+
+    // 乘车区间掩码到区间索引的映射
+    private final Map<Long, MaskIndex> maskIndexes = new HashMap<>();
+
+    /**
+     * 单个乘车区间的索引
+     * cursor之前被占用过的座位都与该区间冲突，座位变为可用时游标回退到该座位；
+     * occupied为与该区间冲突的座位数
+     */
+    private static class MaskIndex {
+        private int cursor;
+        private int occupied;
+    }
+
+    public SeatMap(int capacity) {
+        this.capacity = capacity;
+        this.held = new long[Math.max(capacity, 1)];
+        this.sold = new long[Math.max(capacity, 1)];
+    }
+
+    /**
+     * 为count位乘客分配区段不冲突的座位，空座不足时返回null且不占用任何座位
+     * 优先复用已部分占用的座位，把整座空闲的座位留给长途乘客
+     * @param capacity 当前座位总数，列车座位数调整后自动扩容
+     */
+    public synchronized int[] allocate(int count, int capacity, long mask) {
+        ensureCapacity(capacity);
+        if (count <= 0 || mask == 0) {
+            return null;
+        }
+
+        MaskIndex maskIndex = getMaskIndex(mask);
+        if (this.capacity - maskIndex.occupied < count) {
+            return null;
+        }
+
+        // 从区间游标开始查找已部分占用且区段不冲突的座位，跳过的座位都与该区间冲突
+        int[] seats = new int[count];
+        int found = 0;
+        int scanned = maskIndex.cursor;
+        for (int i = used.nextSetBit(maskIndex.cursor); i >= 0 && i < this.capacity && found < count;
+             i = used.nextSetBit(i + 1)) {
+            if ((held[i] & mask) == 0) {
+                seats[found++] = i;
+            }
+            scanned = i + 1;
+        }
+
+        // 可用座位数已保证剩余乘车人能分到整座空闲的座位
+        int index = cursor;
+        for (; found < count; found++) {
+            index = used.nextClearBit(index);
+            if (index >= this.capacity) {
+                // 游标之后已满，从头查找被释放的座位
+                index = used.nextClearBit(0);
+            }
+            used.set(index);
+            seats[found] = index;
+            cursor = index + 1;
+        }
+
+        for (int seat : seats) {
+            setHeld(seat, held[seat] | mask);
+        }
+        // 已选座位分配后也与该区间冲突，游标可以越过
+        maskIndex.cursor = Math.max(maskIndex.cursor, scanned);
+        return seats;
+    }
+
+    /**
+     * 标记座位区段已占用（启动时根据已售车票重建），区段冲突时返回false
+     */
+    public synchronized boolean markHeld(int index, long mask) {
+        if (index < 0) {
+            return false;
+        }
+        ensureCapacity(index + 1);
+        if ((held[index] & mask) != 0) {
+            return false;
+        }
+        setHeld(index, held[index] | mask);
+        return true;
+    }
+
+    /**
+     * 判断座位是否有已支付区段
+     */
+    public synchronized boolean isSold(int index) {
+        return index >= 0 && index < sold.length && sold[index] != 0;
+    }
+
+    /**
+     * 标记座位区段已支付（支付事务提交后）
+     * @return 该座位此前没有任何已支付区段时返回true
+     */
+    public synchronized boolean markSold(int index, long mask) {
+        if (index < 0 || index >= held.length) {
+            return false;
+        }
+        boolean firstSold = sold[index] == 0;
+        sold[index] |= mask;
+        return firstSold;
+    }
+
+    /**
+     * 判断释放该区段后座位是否不再有已支付区段
+     */
+    public synchronized boolean isLastSold(int index, long mask) {
+        if (index < 0 || index >= sold.length) {
+            return false;
+        }
+        return sold[index] != 0 && (sold[index] & ~mask) == 0;
+    }
+
+    /**
+     * 释放座位区段
+     * @return 释放前座位有已支付区段、释放后不再有时返回true
+     */
+    public synchronized boolean release(int index, long mask) {
+        if (index < 0 || index >= held.length) {
+            return false;
+        }
+        boolean lastSold = sold[index] != 0 && (sold[index] & ~mask) == 0;
+        sold[index] &= ~mask;
+        setHeld(index, held[index] & ~mask);
+        if (held[index] == 0 && index < cursor) {
+            cursor = index;
+        }
+        return lastSold;
+    }
+
+    /**
+     * 统计指定区段可售的座位数
+     */
+    public synchronized int countAvailable(long mask) {
+        if (mask == 0) {
+            return capacity;
+        }
+        return capacity - getMaskIndex(mask).occupied;
+    }
+
+    /**
+     * 获取区间索引，首次查询该区间时扫描一次座位图建立
+     */
+    private MaskIndex getMaskIndex(long mask) {
+        MaskIndex maskIndex = maskIndexes.get(mask);
+        if (maskIndex == null) {
+            maskIndex = new MaskIndex();
+            for (int i = used.nextSetBit(0); i >= 0 && i < held.length; i = used.nextSetBit(i + 1)) {
+                if ((held[i] & mask) != 0) {
+                    maskIndex.occupied++;
+                }
+            }
+            maskIndexes.put(mask, maskIndex);
+        }
+        return maskIndex;
+    }
+
+    /**
+     * 修改座位的已分配区段，同步更新占用标记和各区间索引
+     */
+    private void setHeld(int index, long value) {
+        long old = held[index];
+        if (old == value) {
+            return;
+        }
+        held[index] = value;
+        used.set(index, value != 0);
+        for (Map.Entry<Long, MaskIndex> entry : maskIndexes.entrySet()) {
+            long mask = entry.getKey();
+            MaskIndex maskIndex = entry.getValue();
+            boolean wasOccupied = (old & mask) != 0;
+            boolean occupied = (value & mask) != 0;
+            if (wasOccupied != occupied) {
+                maskIndex.occupied += occupied ? 1 : -1;
+            }
+            if (!occupied && index < maskIndex.cursor) {
+                maskIndex.cursor = index;
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > this.capacity) {
+            this.capacity = capacity;
+        }
+        if (this.capacity > held.length) {
+            held = Arrays.copyOf(held, this.capacity);
+            sold = Arrays.copyOf(sold, this.capacity);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.mini12306.util;
+
+import com.mini12306.model.Train;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 座位类型工具类
+ * 高铁：商务座/一等座/二等座，动车：一等座/二等座，普通列车：软卧/硬卧/硬座
+ * 分别对应列车上的高级/中级/次级座位数
+ */
+public class SeatTypeUtils {
+
+    private static final List<String> HIGH_SPEED_SEAT_TYPES = Arrays.asList("商务座", "一等座", "二等座");
+    private static final List<String> EMU_SEAT_TYPES = Arrays.asList("一等座", "二等座");
+    private static final List<String> NORMAL_SEAT_TYPES = Arrays.asList("软卧", "硬卧", "硬座");
+
+    /**
+     * 每节车厢的座位数
+     */
+    public static final int SEATS_PER_COACH = 100;
+
+    /**
+     * 获取列车类型支持的座位类型，按高级到次级排序
+     */
+    public static List<String> getSeatTypes(String trainType) {
+        if ("高铁".equals(trainType)) {
+            return HIGH_SPEED_SEAT_TYPES;
+        } else if ("动车".equals(trainType)) {
+            return EMU_SEAT_TYPES;
+        }
+        return NORMAL_SEAT_TYPES;
+    }
+
+    /**
+     * 获取列车某座位类型的总座位数，不支持的座位类型返回0
+     */
+    public static int getCapacity(Train train, String seatType) {
+        Integer count = null;
+        if ("高铁".equals(train.getType())) {
+            if ("商务座".equals(seatType)) {
+                count = train.getHighSeatCount();
+            } else if ("一等座".equals(seatType)) {
+                count = train.getMidSeatCount();
+            } else if ("二等座".equals(seatType)) {
+                count = train.getLowSeatCount();
+            }
+        } else if ("动车".equals(train.getType())) {
+            if ("一等座".equals(seatType)) {
+                count = train.getMidSeatCount();
+            } else if ("二等座".equals(seatType)) {
+                count = train.getLowSeatCount();
+            }
+        } else {
+            // 普通列车
+            if ("软卧".equals(seatType)) {
+                count = train.getHighSeatCount();
+            } else if ("硬卧".equals(seatType)) {
+                count = train.getMidSeatCount();
+            } else if ("硬座".equals(seatType)) {
+                count = train.getLowSeatCount();
+            }
+        }
+        return count != null ? count : 0;
+    }
+
+    /**
+     * 获取座位类型的起始车厢号
+     * 车厢按座位等级从高到低依次编排，每种座位类型至少占一节车厢
+     */
+    public static int getFirstCoach(Train train, String seatType) {
+        int coach = 1;
+        for (String type : getSeatTypes(train.getType())) {
+            if (type.equals(seatType)) {
+                return coach;
+            }
+            int capacity = getCapacity(train, type);
+            coach += Math.max(1, (capacity + SEATS_PER_COACH - 1) / SEATS_PER_COACH);
+        }
+        return coach;
+    }
+}
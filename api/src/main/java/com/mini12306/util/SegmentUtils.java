@@ -0,0 +1,107 @@
+package com.mini12306.util;
+
+import com.mini12306.model.Train;
+import com.mini12306.model.TrainRoute;
+
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 线路区段工具类
+ * 线路上第k站到第k+1站为第k个区段，乘车区间用区段掩码表示
+ */
+public class SegmentUtils {
+
+    /**
+     * 区段掩码最多支持的站点数
+     */
+    public static final int MAX_STOPS = 64;
+
+    /**
+     * 获取列车经停站ID列表，没有配置路线时只包含始发站和终点站
+     */
+    public static List<Long> getStops(Train train, List<TrainRoute> routes) {
+        List<Long> stops = new ArrayList<>();
+        if (routes != null && routes.size() >= 2) {
+            for (TrainRoute route : routes) {
+                stops.add(route.getStationId());
+            }
+        } else {
+            stops.add(train.getStartStationId());
+            stops.add(train.getEndStationId());
+        }
+        return stops;
+    }
+
+    /**
+     * 计算第fromIndex站到第toIndex站的区段掩码，区间无效时返回0
+     */
+    public static long mask(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex <= fromIndex || toIndex >= MAX_STOPS) {
+            return 0L;
+        }
+        return ((1L << (toIndex - fromIndex)) - 1) << fromIndex;
+    }
+
+    /**
+     * 计算乘车区间的区段掩码，站点不在线路上或方向相反时返回0
+     */
+    public static long mask(List<Long> stops, Long fromStationId, Long toStationId) {
+        int last = stops.size() - 1;
+        // 全程票直接返回，兼容未设置站点ID的旧车次
+        if (Objects.equals(stops.get(0), fromStationId) && Objects.equals(stops.get(last), toStationId)) {
+            return mask(0, last);
+        }
+        if (fromStationId == null || toStationId == null) {
+            return 0L;
+        }
+        return mask(stops.indexOf(fromStationId), stops.lastIndexOf(toStationId));
+    }
+
+    /**
+     * 全程区段掩码
+     */
+    public static long fullMask(List<Long> stops) {
+        return mask(0, stops.size() - 1);
+    }
+
+    /**
+     * 在列车路线中查找站点，未配置路线或不在线路上时返回null
+     */
+    public static TrainRoute findRoute(List<TrainRoute> routes, Long stationId) {
+        for (TrainRoute route : routes) {
+            if (route.getStationId().equals(stationId)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 区间历时（分钟），到达时间早于出发时间视为次日到达
+     */
+    public static int getDuration(TrainRoute fromRoute, TrainRoute toRoute) {
+        long minutes = (toRoute.getArriveTime().getTime() - fromRoute.getDepartTime().getTime()) / (60 * 1000);
+        if (minutes < 0) {
+            minutes += 24 * 60;
+        }
+        return (int) minutes;
+    }
+
+    /**
+     * 格式化为HH:mm
+     */
+    public static String formatTime(Time time) {
+        return time.toString().substring(0, 5);
+    }
+
+    /**
+     * 将相对始发日0点的分钟数格式化为HH:mm，跨天部分取当日时刻
+     */
+    public static String formatMinutes(int minutes) {
+        int minuteOfDay = Math.floorMod(minutes, 24 * 60);
+        return String.format("%02d:%02d", minuteOfDay / 60, minuteOfDay % 60);
+    }
+}
@@ -0,0 +1,86 @@
+package com.mini12306.util;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 列车开行日历
+ * 以起始日期为第0位，为每个配置过日程的车次保存一个开行日位图（第k位表示起始日期后第k天正常开行），
+ * 判断某日是否开行只需一次位测试。没有任何日程记录的车次视为每日开行。
+ * 单个车次更新时整体替换其位图，读取时无需加锁
+ */
+public class ServiceCalendar {
+
+    private final LocalDate startDate;
+
+    private final int days;
+
+    // 车次ID -> 开行日位图，只包含配置过日程的车次
+    private final Map<Long, BitSet> running = new ConcurrentHashMap<>();
+
+    public ServiceCalendar(LocalDate startDate, int days) {
+        this.startDate = startDate;
+        this.days = days;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    /**
+     * 日期是否在日历覆盖范围内
+     */
+    public boolean covers(LocalDate date) {
+        long offset = ChronoUnit.DAYS.between(startDate, date);
+        return offset >= 0 && offset < days;
+    }
+
+    /**
+     * 设置车次的开行日期（覆盖原有位图）
+     * @param runningDates 正常开行的日期，范围外的日期忽略
+     */
+    public void put(Long trainId, Collection<LocalDate> runningDates) {
+        BitSet bits = new BitSet(days);
+        for (LocalDate date : runningDates) {
+            long offset = ChronoUnit.DAYS.between(startDate, date);
+            if (offset >= 0 && offset < days) {
+                bits.set((int) offset);
+            }
+        }
+        running.put(trainId, bits);
+    }
+
+    /**
+     * 移除车次的日程，之后视为每日开行
+     */
+    public void remove(Long trainId) {
+        running.remove(trainId);
+    }
+
+    /**
+     * 车次是否配置过日程
+     */
+    public boolean isScheduled(Long trainId) {
+        return running.containsKey(trainId);
+    }
+
+    /**
+     * 车次在指定日期是否开行，日期需在覆盖范围内
+     */
+    public boolean isRunning(Long trainId, LocalDate date) {
+        BitSet bits = running.get(trainId);
+        if (bits == null) {
+            return true;
+        }
+        long offset = ChronoUnit.DAYS.between(startDate, date);
+        return offset >= 0 && offset < days && bits.get((int) offset);
+    }
+}
@@ -0,0 +1,173 @@
+package com.mini12306.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 车站大屏索引
+ * 由时刻表索引构建：站点ID → 按当日时刻排序的出发（或到达）事件数组，
+ * 时间段查询先二分查找起始位置再顺序读取，不访问数据库。索引变化后整体重建
+ */
+public class StationBoard {
+
+    private static final int DAY = 24 * 60;
+
+    /**
+     * 某车次在某站的一次出发或到达
+     */
+    public static final class Event {
+        private final TimetableIndex.TrainStops stops;
+        private final int stopIndex;
+        private final int time;
+
+        private Event(TimetableIndex.TrainStops stops, int stopIndex, int time) {
+            this.stops = stops;
+            this.stopIndex = stopIndex;
+            this.time = time;
+        }
+
+        public Long getTrainId() {
+            return stops.getTrainId();
+        }
+
+        public TimetableIndex.TrainStops getStops() {
+            return stops;
+        }
+
+        public int getStopIndex() {
+            return stopIndex;
+        }
+
+        /**
+         * 相对始发日0点的分钟数
+         */
+        public int getTime() {
+            return time;
+        }
+
+        public int getMinuteOfDay() {
+            return Math.floorMod(time, DAY);
+        }
+
+        /**
+         * 相对始发日的天数，0为始发当天
+         */
+        public int getDayOffset() {
+            return Math.floorDiv(time, DAY);
+        }
+    }
+
+    /**
+     * 单个站点的事件，minutes与events一一对应且按当日时刻升序
+     */
+    private static final class Events {
+        private final int[] minutes;
+        private final Event[] events;
+
+        Events(List<Event> list) {
+            list.sort(Comparator.comparingInt(Event::getMinuteOfDay).thenComparing(Event::getTrainId));
+            this.events = list.toArray(new Event[0]);
+            this.minutes = new int[events.length];
+            for (int i = 0; i < events.length; i++) {
+                minutes[i] = events[i].getMinuteOfDay();
+            }
+        }
+    }
+
+    private final long version;
+
+    private final Map<Long, Events> departures;
+
+    private final Map<Long, Events> arrivals;
+
+    private StationBoard(long version, Map<Long, Events> departures, Map<Long, Events> arrivals) {
+        this.version = version;
+        this.departures = departures;
+        this.arrivals = arrivals;
+    }
+
+    /**
+     * 由时刻表索引构建，始发站只有出发、终点站只有到达
+     */
+    public static StationBoard build(TimetableIndex index) {
+        long version = index.getVersion();
+        Map<Long, List<Event>> departureLists = new HashMap<>();
+        Map<Long, List<Event>> arrivalLists = new HashMap<>();
+        for (TimetableIndex.TrainStops stops : index.getTrains()) {
+            int last = stops.size() - 1;
+            for (int i = 0; i <= last; i++) {
+                Long stationId = stops.getStationId(i);
+                if (i < last && stops.getDepart(i) >= 0) {
+                    departureLists.computeIfAbsent(stationId, k -> new ArrayList<>())
+                            .add(new Event(stops, i, stops.getDepart(i)));
+                }
+                if (i > 0 && stops.getArrive(i) >= 0) {
+                    arrivalLists.computeIfAbsent(stationId, k -> new ArrayList<>())
+                            .add(new Event(stops, i, stops.getArrive(i)));
+                }
+            }
+        }
+        return new StationBoard(version, toEvents(departureLists), toEvents(arrivalLists));
+    }
+
+    private static Map<Long, Events> toEvents(Map<Long, List<Event>> lists) {
+        Map<Long, Events> result = new HashMap<>();
+        for (Map.Entry<Long, List<Event>> entry : lists.entrySet()) {
+            result.put(entry.getKey(), new Events(entry.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * 构建时的时刻表索引版本
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 查询当日时刻在[fromMinute, toMinute]内的事件，按时刻排序
+     * @param departure true查询出发，false查询到达
+     * @param filter 过滤条件（如当日是否开行），为null时不过滤
+     * @param limit 最多返回的事件数
+     */
+    public List<Event> query(Long stationId, boolean departure, int fromMinute, int toMinute,
+                             Predicate<Event> filter, int limit) {
+        Events events = (departure ? departures : arrivals).get(stationId);
+        if (events == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<Event> result = new ArrayList<>();
+        for (int i = lowerBound(events.minutes, fromMinute); i < events.minutes.length; i++) {
+            if (events.minutes[i] > toMinute || result.size() >= limit) {
+                break;
+            }
+            if (filter == null || filter.test(events.events[i])) {
+                result.add(events.events[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 第一个不小于key的位置
+     */
+    private static int lowerBound(int[] sorted, int key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,171 @@
+package com.mini12306.util;
+
+import com.mini12306.model.Station;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 站点字典
+ * 站点ID、名称、拼音、代码、城市的不可变快照，站点变更时整体替换而不是原地修改，
+ * 因此读取时无需加锁
+ */
+public final class StationDictionary {
+
+    public static final StationDictionary EMPTY = new StationDictionary(Collections.emptyList());
+
+    /**
+     * 站点基本信息（只读）
+     */
+    public static final class StationInfo {
+        private final Long id;
+        private final String name;
+        private final String pinyin;
+        private final String code;
+        private final String city;
+        private final String province;
+
+        private StationInfo(Station station) {
+            this.id = station.getId();
+            this.name = station.getName();
+            this.pinyin = station.getPinyin();
+            this.code = station.getCode();
+            this.city = station.getCity();
+            this.province = station.getProvince();
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getPinyin() {
+            return pinyin;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public String getCity() {
+            return city;
+        }
+
+        public String getProvince() {
+            return province;
+        }
+
+        /**
+         * 转换为站点实体（新对象，修改不影响字典）
+         */
+        public Station toStation() {
+            Station station = new Station();
+            station.setId(id);
+            station.setName(name);
+            station.setPinyin(pinyin);
+            station.setCode(code);
+            station.setCity(city);
+            station.setProvince(province);
+            return station;
+        }
+    }
+
+    private final List<StationInfo> all;
+
+    private final Map<Long, StationInfo> byId;
+
+    private final Map<String, StationInfo> byName;
+
+    private final Map<String, List<StationInfo>> byCity;
+
+    private StationDictionary(Collection<Station> stations) {
+        List<StationInfo> list = new ArrayList<>(stations.size());
+        Map<Long, StationInfo> ids = new HashMap<>();
+        Map<String, StationInfo> names = new HashMap<>();
+        Map<String, List<StationInfo>> cities = new HashMap<>();
+        for (Station station : stations) {
+            StationInfo info = new StationInfo(station);
+            list.add(info);
+            ids.put(info.getId(), info);
+            if (info.getName() != null) {
+                names.put(info.getName(), info);
+            }
+            if (info.getCity() != null) {
+                cities.computeIfAbsent(info.getCity(), k -> new ArrayList<>()).add(info);
+            }
+        }
+        cities.replaceAll((city, infos) -> Collections.unmodifiableList(infos));
+        this.all = Collections.unmodifiableList(list);
+        this.byId = ids;
+        this.byName = names;
+        this.byCity = cities;
+    }
+
+    /**
+     * 由站点列表构建字典
+     */
+    public static StationDictionary of(Collection<Station> stations) {
+        return new StationDictionary(stations);
+    }
+
+    /**
+     * 根据ID查询站点，不存在时返回null
+     */
+    public StationInfo get(Long id) {
+        return id != null ? byId.get(id) : null;
+    }
+
+    /**
+     * 根据名称查询站点，不存在时返回null
+     */
+    public StationInfo getByName(String name) {
+        return name != null ? byName.get(name) : null;
+    }
+
+    /**
+     * 查询城市的所有站点
+     */
+    public List<StationInfo> getByCity(String city) {
+        List<StationInfo> infos = city != null ? byCity.get(city) : null;
+        return infos != null ? infos : Collections.emptyList();
+    }
+
+    /**
+     * 查询名称包含关键字的站点（包括前缀匹配），字典只有数千个站点，直接遍历
+     */
+    public List<StationInfo> findByNameContaining(String keyword) {
+        List<StationInfo> infos = new ArrayList<>();
+        if (keyword == null || keyword.isEmpty()) {
+            return infos;
+        }
+        for (StationInfo info : all) {
+            if (info.getName() != null && info.getName().contains(keyword)) {
+                infos.add(info);
+            }
+        }
+        return infos;
+    }
+
+    /**
+     * 站点名称，不存在时返回null
+     */
+    public String getName(Long id) {
+        StationInfo info = get(id);
+        return info != null ? info.getName() : null;
+    }
+
+    public List<StationInfo> getAll() {
+        return all;
+    }
+
+    public int size() {
+        return all.size();
+    }
+}
@@ -0,0 +1,181 @@
+package com.mini12306.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 站点联想输入索引（前缀树）
+ * 以站名、城市、全拼、拼音首字母和站点代码作为键插入前缀树，
+ * 每个节点预先保存按热度排序的前K个站点，查询只需沿输入走到对应节点，与站点总数无关
+ */
+public class StationSuggestIndex {
+
+    private static class Node {
+        private Map<Character, Node> children;
+        private final int[] top;
+        private int count;
+
+        Node(int maxResults) {
+            this.top = new int[maxResults];
+        }
+
+        Node child(char c, int maxResults) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            return children.computeIfAbsent(c, k -> new Node(maxResults));
+        }
+
+        Node get(char c) {
+            return children != null ? children.get(c) : null;
+        }
+
+        void add(int station) {
+            if (count == top.length) {
+                return;
+            }
+            for (int i = 0; i < count; i++) {
+                if (top[i] == station) {
+                    return;
+                }
+            }
+            top[count++] = station;
+        }
+    }
+
+    private final StationDictionary dictionary;
+
+    private final List<StationDictionary.StationInfo> stations;
+
+    private final int maxResults;
+
+    private final Node root;
+
+    private StationSuggestIndex(StationDictionary dictionary, List<StationDictionary.StationInfo> stations, int maxResults) {
+        this.dictionary = dictionary;
+        this.stations = stations;
+        this.maxResults = maxResults;
+        this.root = new Node(maxResults);
+    }
+
+    /**
+     * 构建索引
+     * @param popularity 站点ID -> 热度（如购票次数），没有记录的站点热度为0
+     * @param maxResults 每个前缀最多保存的站点数
+     */
+    public static StationSuggestIndex build(StationDictionary dictionary, Map<Long, Long> popularity, int maxResults) {
+        // 按热度从高到低插入，每个节点先到的即为前K个，无需再排序
+        List<StationDictionary.StationInfo> ranked = new ArrayList<>(dictionary.getAll());
+        ranked.sort(Comparator.comparingLong((StationDictionary.StationInfo s) -> -popularity.getOrDefault(s.getId(), 0L))
+                .thenComparingInt(s -> s.getName() != null ? s.getName().length() : Integer.MAX_VALUE)
+                .thenComparing(StationDictionary.StationInfo::getName, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        StationSuggestIndex index = new StationSuggestIndex(dictionary, ranked, Math.max(maxResults, 1));
+        for (int i = 0; i < ranked.size(); i++) {
+            for (String key : keys(ranked.get(i))) {
+                index.insert(key, i);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 查询以keyword为前缀的站点，按热度排序
+     */
+    public List<StationDictionary.StationInfo> suggest(String keyword, int limit) {
+        String key = normalize(keyword);
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.get(key.charAt(i));
+        }
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        int size = Math.min(limit, node.count);
+        List<StationDictionary.StationInfo> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(stations.get(node.top[i]));
+        }
+        return result;
+    }
+
+    /**
+     * 构建索引所用的站点字典
+     */
+    public StationDictionary getDictionary() {
+        return dictionary;
+    }
+
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    private void insert(String key, int station) {
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.child(key.charAt(i), maxResults);
+            node.add(station);
+        }
+    }
+
+    /**
+     * 站点的所有检索键：站名（含去掉"站"字）、城市、全拼、拼音首字母、站点代码
+     */
+    static Set<String> keys(StationDictionary.StationInfo station) {
+        Set<String> keys = new LinkedHashSet<>();
+        String name = normalize(station.getName());
+        addKey(keys, name);
+        if (name.endsWith("站")) {
+            addKey(keys, name.substring(0, name.length() - 1));
+        }
+        addKey(keys, normalize(station.getCity()));
+        addKey(keys, normalize(station.getCode()));
+
+        if (station.getPinyin() != null) {
+            String[] syllables = station.getPinyin().trim().toLowerCase().split("\\s+");
+            StringBuilder full = new StringBuilder();
+            StringBuilder initials = new StringBuilder();
+            for (String syllable : syllables) {
+                if (!syllable.isEmpty()) {
+                    full.append(syllable);
+                    initials.append(syllable.charAt(0));
+                }
+            }
+            addKey(keys, full.toString());
+            addKey(keys, initials.toString());
+        }
+        return keys;
+    }
+
+    private static void addKey(Set<String> keys, String key) {
+        if (!key.isEmpty()) {
+            keys.add(key);
+        }
+    }
+
+    /**
+     * 去掉空白并转为小写
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,348 @@
+package com.mini12306.util;
+
+import com.mini12306.model.Train;
+import com.mini12306.model.TrainRoute;
+
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 时刻表索引
+ * 列车ID → 按顺序排列的经停站；站点ID → 按列车ID排序的（列车ID, 经停序号）。
+ * 站到站查询对两个站点的有序数组做归并求交，不需要访问数据库。
+ * 写操作串行执行并整体替换站点数组，读操作无锁
+ */
+public class TimetableIndex {
+
+    // 经停序号占用的低位数
+    private static final int INDEX_BITS = 16;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+    private final Map<Long, TrainStops> trains = new ConcurrentHashMap<>();
+
+    private final Map<Long, long[]> stationTrains = new ConcurrentHashMap<>();
+
+    // 每次修改后递增，用于判断基于索引构建的其他结构是否过期
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * 单个车次的经停信息
+     * 到发时间为相对始发日0点的分钟数，跨天后继续累加，便于比较
+     */
+    public static class TrainStops {
+        private final Long trainId;
+        private final long[] stationIds;
+        private final int[] arrive;
+        private final int[] depart;
+        // 与始发站的里程，缺失时为-1
+        private final int[] distance;
+
+        public TrainStops(Long trainId, long[] stationIds, int[] arrive, int[] depart, int[] distance) {
+            this.trainId = trainId;
+            this.stationIds = stationIds;
+            this.arrive = arrive;
+            this.depart = depart;
+            this.distance = distance;
+        }
+
+        /**
+         * 根据列车和路线构建经停信息，没有配置路线时只包含始发站和终点站，站点缺失时返回null
+         */
+        public static TrainStops of(Train train, List<TrainRoute> routes) {
+            if (routes != null && routes.size() >= 2) {
+                int n = routes.size();
+                long[] stationIds = new long[n];
+                int[] arrive = new int[n];
+                int[] depart = new int[n];
+                int[] distance = new int[n];
+                int offset = 0;
+                int last = -1;
+                for (int i = 0; i < n; i++) {
+                    TrainRoute route = routes.get(i);
+                    stationIds[i] = route.getStationId();
+                    int a = toMinutes(route.getArriveTime() != null ? route.getArriveTime() : route.getDepartTime());
+                    int d = toMinutes(route.getDepartTime() != null ? route.getDepartTime() : route.getArriveTime());
+                    // 时间比上一站早说明跨过了午夜
+                    if (a >= 0 && last >= 0 && a + offset < last) {
+                        offset += 24 * 60;
+                    }
+                    arrive[i] = a >= 0 ? a + offset : last;
+                    if (d >= 0 && d + offset < arrive[i]) {
+                        offset += 24 * 60;
+                    }
+                    depart[i] = d >= 0 ? d + offset : arrive[i];
+                    last = depart[i];
+                    distance[i] = route.getDistance() != null ? route.getDistance() : -1;
+                }
+                return new TrainStops(train.getId(), stationIds, arrive, depart, distance);
+            }
+
+            if (train.getStartStationId() == null || train.getEndStationId() == null) {
+                return null;
+            }
+            int start = parseMinutes(train.getStartTime());
+            int end;
+            if (start >= 0 && train.getDuration() != null) {
+                end = start + train.getDuration();
+            } else {
+                end = parseMinutes(train.getEndTime());
+                if (end >= 0 && end < start) {
+                    end += 24 * 60;
+                }
+            }
+            return new TrainStops(train.getId(),
+                    new long[]{train.getStartStationId(), train.getEndStationId()},
+                    new int[]{start, end}, new int[]{start, end}, new int[]{0, -1});
+        }
+
+        public Long getTrainId() {
+            return trainId;
+        }
+
+        public int size() {
+            return stationIds.length;
+        }
+
+        public long getStationId(int index) {
+            return stationIds[index];
+        }
+
+        public int getArrive(int index) {
+            return arrive[index];
+        }
+
+        public int getDepart(int index) {
+            return depart[index];
+        }
+
+        /**
+         * 与始发站的里程，缺失时为-1
+         */
+        public int getDistance(int index) {
+            return distance[index];
+        }
+
+        /**
+         * 站点第一次出现的经停序号，不经停时返回-1
+         */
+        public int indexOf(long stationId) {
+            for (int i = 0; i < stationIds.length; i++) {
+                if (stationIds[i] == stationId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * 站点最后一次出现的经停序号，不经停时返回-1
+         */
+        public int lastIndexOf(long stationId) {
+            for (int i = stationIds.length - 1; i >= 0; i--) {
+                if (stationIds[i] == stationId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * 站到站直达查询结果
+     */
+    public static class StopMatch {
+        private final Long trainId;
+        private final int fromIndex;
+        private final int toIndex;
+
+        public StopMatch(Long trainId, int fromIndex, int toIndex) {
+            this.trainId = trainId;
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+        }
+
+        public Long getTrainId() {
+            return trainId;
+        }
+
+        public int getFromIndex() {
+            return fromIndex;
+        }
+
+        public int getToIndex() {
+            return toIndex;
+        }
+    }
+
+    /**
+     * 新增或替换车次的经停信息
+     */
+    public synchronized void put(TrainStops stops) {
+        remove(stops.getTrainId());
+        version.incrementAndGet();
+        trains.put(stops.getTrainId(), stops);
+        for (int i = 0; i < stops.size() && i <= INDEX_MASK; i++) {
+            long entry = pack(stops.getTrainId(), i);
+            stationTrains.compute(stops.getStationId(i), (k, entries) -> insert(entries, entry));
+        }
+    }
+
+    /**
+     * 删除车次
+     */
+    public synchronized void remove(Long trainId) {
+        TrainStops old = trains.remove(trainId);
+        if (old == null) {
+            return;
+        }
+        version.incrementAndGet();
+        for (int i = 0; i < old.size(); i++) {
+            stationTrains.computeIfPresent(old.getStationId(i), (k, entries) -> removeTrain(entries, trainId));
+        }
+    }
+
+    /**
+     * 清空后整体加载
+     */
+    public synchronized void reset(Collection<TrainStops> all) {
+        version.incrementAndGet();
+        trains.clear();
+        stationTrains.clear();
+        for (TrainStops stops : all) {
+            put(stops);
+        }
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public TrainStops getTrain(Long trainId) {
+        return trains.get(trainId);
+    }
+
+    public Collection<TrainStops> getTrains() {
+        return trains.values();
+    }
+
+    /**
+     * 经停该站的（列车ID, 经停序号），按列车ID排序
+     */
+    public long[] getStationEntries(Long stationId) {
+        long[] entries = stationTrains.get(stationId);
+        return entries != null ? entries : new long[0];
+    }
+
+    /**
+     * 查询先经过出发站、后经过到达站的车次
+     */
+    public List<StopMatch> findDirect(Long fromStationId, Long toStationId) {
+        long[] from = getStationEntries(fromStationId);
+        long[] to = getStationEntries(toStationId);
+        List<StopMatch> matches = new ArrayList<>();
+
+        int i = 0;
+        int j = 0;
+        while (i < from.length && j < to.length) {
+            long trainA = trainOf(from[i]);
+            long trainB = trainOf(to[j]);
+            if (trainA < trainB) {
+                i++;
+            } else if (trainA > trainB) {
+                j++;
+            } else {
+                // 同一车次可能多次经过同一站，取最早上车和最晚下车
+                int fromIndex = indexOf(from[i]);
+                while (i < from.length && trainOf(from[i]) == trainA) {
+                    fromIndex = Math.min(fromIndex, indexOf(from[i]));
+                    i++;
+                }
+                int toIndex = indexOf(to[j]);
+                while (j < to.length && trainOf(to[j]) == trainB) {
+                    toIndex = Math.max(toIndex, indexOf(to[j]));
+                    j++;
+                }
+                if (fromIndex < toIndex) {
+                    matches.add(new StopMatch(trainA, fromIndex, toIndex));
+                }
+            }
+        }
+        return matches;
+    }
+
+    public static long trainOf(long entry) {
+        return entry >>> INDEX_BITS;
+    }
+
+    public static int indexOf(long entry) {
+        return (int) (entry & INDEX_MASK);
+    }
+
+    private static long pack(long trainId, int index) {
+        return (trainId << INDEX_BITS) | index;
+    }
+
+    private static long[] insert(long[] entries, long entry) {
+        if (entries == null) {
+            return new long[]{entry};
+        }
+        int pos = Arrays.binarySearch(entries, entry);
+        if (pos >= 0) {
+            return entries;
+        }
+        pos = -pos - 1;
+        long[] result = new long[entries.length + 1];
+        System.arraycopy(entries, 0, result, 0, pos);
+        result[pos] = entry;
+        System.arraycopy(entries, pos, result, pos + 1, entries.length - pos);
+        return result;
+    }
+
+    private static long[] removeTrain(long[] entries, long trainId) {
+        int count = 0;
+        for (long entry : entries) {
+            if (trainOf(entry) != trainId) {
+                count++;
+            }
+        }
+        if (count == 0) {
+            return null;
+        }
+        long[] result = new long[count];
+        int k = 0;
+        for (long entry : entries) {
+            if (trainOf(entry) != trainId) {
+                result[k++] = entry;
+            }
+        }
+        return result;
+    }
+
+    private static int toMinutes(Time time) {
+        if (time == null) {
+            return -1;
+        }
+        return time.toLocalTime().toSecondOfDay() / 60;
+    }
+
+    /**
+     * 解析HH:mm格式的时间，格式错误时返回-1
+     */
+    private static int parseMinutes(String time) {
+        if (time == null) {
+            return -1;
+        }
+        try {
+            String[] parts = time.trim().split(":");
+            return Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]);
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+}
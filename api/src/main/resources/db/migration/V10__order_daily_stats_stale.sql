@@ -0,0 +1,38 @@
+-- ========================================
+-- 订单日汇总重新汇总标记：已汇总日期的订单状态变化时在同一事务中置位，由定时任务重新汇总
+-- 按字段名和索引名判断是否已存在，由初始化脚本建立的数据库也可重复执行
+-- ========================================
+
+DROP PROCEDURE IF EXISTS add_column_if_absent;
+DROP PROCEDURE IF EXISTS add_index_if_absent;
+
+DELIMITER //
+CREATE PROCEDURE add_column_if_absent(IN tbl VARCHAR(64), IN col VARCHAR(64), IN definition VARCHAR(255))
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = DATABASE() AND table_name = tbl AND column_name = col) THEN
+        SET @ddl = CONCAT('ALTER TABLE ', tbl, ' ADD COLUMN ', col, ' ', definition);
+        PREPARE stmt FROM @ddl;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+    END IF;
+END //
+
+CREATE PROCEDURE add_index_if_absent(IN tbl VARCHAR(64), IN idx VARCHAR(64), IN cols VARCHAR(255))
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.statistics
+                   WHERE table_schema = DATABASE() AND table_name = tbl AND index_name = idx) THEN
+        SET @ddl = CONCAT('CREATE INDEX ', idx, ' ON ', tbl, ' (', cols, ')');
+        PREPARE stmt FROM @ddl;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+    END IF;
+END //
+DELIMITER ;
+
+CALL add_column_if_absent('order_daily_stats', 'stale',
+        'TINYINT NOT NULL DEFAULT 0 COMMENT ''汇总后该天订单有状态变化，需要重新汇总'' AFTER paid_amount');
+CALL add_index_if_absent('order_daily_stats', 'idx_stale', 'stale');
+
+DROP PROCEDURE IF EXISTS add_column_if_absent;
+DROP PROCEDURE IF EXISTS add_index_if_absent;
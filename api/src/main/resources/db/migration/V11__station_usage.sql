@@ -0,0 +1,18 @@
+-- ========================================
+-- 站点热度表：站点作为发站或到站的车票数，新建车票时累加，联想排序直接读取，不再定时扫描车票表
+-- ========================================
+
+CREATE TABLE IF NOT EXISTS station_usage (
+    station_id BIGINT NOT NULL PRIMARY KEY COMMENT '站点ID',
+    usage_count BIGINT NOT NULL DEFAULT 0 COMMENT '作为发站或到站的车票数',
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='站点热度表';
+
+-- 用已有车票初始化，只在迁移时扫描一次
+INSERT INTO station_usage (station_id, usage_count)
+SELECT t.station_id, COUNT(*) FROM (
+    SELECT start_station_id AS station_id FROM ticket WHERE start_station_id IS NOT NULL
+    UNION ALL
+    SELECT end_station_id AS station_id FROM ticket WHERE end_station_id IS NOT NULL
+) t GROUP BY t.station_id
+ON DUPLICATE KEY UPDATE usage_count = VALUES(usage_count);
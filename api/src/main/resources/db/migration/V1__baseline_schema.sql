@@ -0,0 +1,151 @@
+-- ========================================
+-- 基线结构：与引入迁移前的 full_init_database.sql 表结构完全一致
+-- 已有数据库会被标记为此版本（baseline-on-migrate），不会重复执行；
+-- 之后新增的表、字段和索引都放在后续版本中，并且可以重复执行
+-- ========================================
+
+-- 创建管理员用户表
+CREATE TABLE admin_user (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    password VARCHAR(100) NOT NULL,
+    role VARCHAR(20) NOT NULL DEFAULT 'admin' COMMENT '角色',
+    real_name VARCHAR(50),
+    phone VARCHAR(20),
+    email VARCHAR(100),
+    last_login_time TIMESTAMP NULL,
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    status INT DEFAULT 1 COMMENT '状态：0-禁用，1-启用'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='管理员用户表';
+
+-- 创建用户账户表
+CREATE TABLE user_account (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    password VARCHAR(100) NOT NULL,
+    real_name VARCHAR(50),
+    card_id VARCHAR(18),
+    phone VARCHAR(20),
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    auth_status INT DEFAULT 0 COMMENT '身份验证状态：0-未验证，1-已验证'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='用户账户表';
+
+-- 创建车站信息表
+CREATE TABLE station (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(50) NOT NULL UNIQUE COMMENT '站点名称',
+    code VARCHAR(10) COMMENT '站点代码',
+    city VARCHAR(50) COMMENT '所属城市',
+    province VARCHAR(50) COMMENT '所属省份',
+    type VARCHAR(20) COMMENT '站点类型：高铁站、普通站等',
+    address VARCHAR(200) COMMENT '站点地址',
+    longitude DOUBLE COMMENT '经度',
+    latitude DOUBLE COMMENT '纬度',
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='车站信息表';
+
+-- 创建列车信息表
+CREATE TABLE train (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    code VARCHAR(20) NOT NULL UNIQUE COMMENT '车次编号',
+    type VARCHAR(10) COMMENT '列车类型',
+    start_station_id BIGINT COMMENT '起始站ID',
+    end_station_id BIGINT COMMENT '终点站ID',
+    start_station VARCHAR(50) COMMENT '起始站名称',
+    end_station VARCHAR(50) COMMENT '终点站名称',
+    start_time VARCHAR(10) COMMENT '出发时间',
+    end_time VARCHAR(10) COMMENT '到达时间',
+    duration INT COMMENT '运行时间(分钟)',
+    seat_count INT COMMENT '座位数',
+    high_seat_count INT COMMENT '高级座位数（高铁/动车：商务座，普快：软卧）',
+    mid_seat_count INT COMMENT '中级座位数（高铁/动车：一等座，普快：硬卧）',
+    low_seat_count INT COMMENT '次级座位数（高铁/动车：二等座，普快：硬座）',
+    price DECIMAL(10,2) COMMENT '票价',
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (start_station_id) REFERENCES station(id),
+    FOREIGN KEY (end_station_id) REFERENCES station(id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='列车信息表';
+
+-- 创建列车路线表
+CREATE TABLE train_route (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    train_id BIGINT NOT NULL,
+    station_id BIGINT NOT NULL,
+    station_order INT NOT NULL COMMENT '站点顺序',
+    arrive_time TIME COMMENT '到站时间',
+    depart_time TIME COMMENT '出站时间',
+    stop_time INT COMMENT '停留时间(分钟)',
+    distance INT COMMENT '与起始站距离(公里)',
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (train_id) REFERENCES train(id),
+    FOREIGN KEY (station_id) REFERENCES station(id),
+    UNIQUE KEY unique_train_station (train_id, station_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='列车路线表';
+
+-- 创建订单表
+CREATE TABLE orders (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    order_no VARCHAR(50) NOT NULL UNIQUE,
+    user_id BIGINT NOT NULL,
+    total_amount DECIMAL(10,2),
+    status VARCHAR(20) DEFAULT 'UNPAID' COMMENT '订单状态：UNPAID-待支付、PAID-已支付、CANCELED-已取消、COMPLETED-已完成',
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    pay_time TIMESTAMP NULL,
+    cancel_time TIMESTAMP NULL,
+    FOREIGN KEY (user_id) REFERENCES user_account(id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='订单表';
+
+-- 创建车票表
+CREATE TABLE ticket (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    ticket_no VARCHAR(50) NOT NULL UNIQUE COMMENT '车票编号',
+    order_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL COMMENT '购票用户ID',
+    passenger_id BIGINT NOT NULL COMMENT '乘车人ID',
+    passenger_name VARCHAR(50) COMMENT '乘车人姓名',
+    passenger_card VARCHAR(18) COMMENT '乘车人证件号',
+    train_id BIGINT NOT NULL COMMENT '列车ID',
+    train_code VARCHAR(20) COMMENT '列车车次',
+    train_type VARCHAR(10) COMMENT '列车类型',
+    start_station_id BIGINT NOT NULL COMMENT '发站ID',
+    end_station_id BIGINT NOT NULL COMMENT '到站ID',
+    start_station VARCHAR(50) COMMENT '发站名称',
+    end_station VARCHAR(50) COMMENT '到站名称',
+    start_city VARCHAR(50) COMMENT '发站所在城市',
+    end_city VARCHAR(50) COMMENT '到站所在城市',
+    seat_type VARCHAR(20) DEFAULT '二等座' COMMENT '座位类型',
+    coach VARCHAR(10) COMMENT '车厢号',
+    seat VARCHAR(10) COMMENT '座位号',
+    seat_info VARCHAR(30) COMMENT '完整座位信息',
+    travel_date DATE COMMENT '发车日期',
+    start_time VARCHAR(10) COMMENT '发车时间',
+    end_time VARCHAR(10) COMMENT '到达时间',
+    duration INT COMMENT '历时(分钟)',
+    price DECIMAL(10,2) NOT NULL COMMENT '票价',
+    status INT DEFAULT 1 COMMENT '车票状态：0-已取消，1-正常，2-已检票，3-已改签，4-已过期',
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (order_id) REFERENCES orders(id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='车票表';
+
+-- 创建乘客信息表
+CREATE TABLE passenger (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    real_name VARCHAR(50) NOT NULL,
+    card_id VARCHAR(18) NOT NULL,
+    card_type VARCHAR(10) DEFAULT '身份证' COMMENT '证件类型',
+    phone VARCHAR(20),
+    type VARCHAR(10) DEFAULT '成人' COMMENT '乘客类型: 成人、儿童、学生等',
+    is_default BOOLEAN DEFAULT FALSE COMMENT '是否默认乘车人',
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES user_account(id),
+    UNIQUE KEY unique_user_passenger (user_id, card_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='乘客信息表';
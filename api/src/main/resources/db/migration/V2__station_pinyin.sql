@@ -0,0 +1,23 @@
+-- ========================================
+-- 站点拼音：站点字典和联想输入按全拼、首字母匹配
+-- 按字段名判断是否已存在，由初始化脚本建立的数据库也可重复执行
+-- ========================================
+
+DROP PROCEDURE IF EXISTS add_column_if_absent;
+
+DELIMITER //
+CREATE PROCEDURE add_column_if_absent(IN tbl VARCHAR(64), IN col VARCHAR(64), IN definition VARCHAR(255))
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = DATABASE() AND table_name = tbl AND column_name = col) THEN
+        SET @ddl = CONCAT('ALTER TABLE ', tbl, ' ADD COLUMN ', col, ' ', definition);
+        PREPARE stmt FROM @ddl;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+    END IF;
+END //
+DELIMITER ;
+
+CALL add_column_if_absent('station', 'pinyin', 'VARCHAR(100) COMMENT ''站点名称拼音，音节之间以空格分隔'' AFTER name');
+
+DROP PROCEDURE IF EXISTS add_column_if_absent;
@@ -0,0 +1,25 @@
+-- ========================================
+-- 乐观锁版本号：列车、订单、车票并发修改时校验版本
+-- 按字段名判断是否已存在，由初始化脚本建立的数据库也可重复执行
+-- ========================================
+
+DROP PROCEDURE IF EXISTS add_column_if_absent;
+
+DELIMITER //
+CREATE PROCEDURE add_column_if_absent(IN tbl VARCHAR(64), IN col VARCHAR(64), IN definition VARCHAR(255))
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = DATABASE() AND table_name = tbl AND column_name = col) THEN
+        SET @ddl = CONCAT('ALTER TABLE ', tbl, ' ADD COLUMN ', col, ' ', definition);
+        PREPARE stmt FROM @ddl;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+    END IF;
+END //
+DELIMITER ;
+
+CALL add_column_if_absent('train', 'version', 'BIGINT NOT NULL DEFAULT 0 COMMENT ''乐观锁版本号'' AFTER update_time');
+CALL add_column_if_absent('orders', 'version', 'BIGINT NOT NULL DEFAULT 0 COMMENT ''乐观锁版本号'' AFTER update_time');
+CALL add_column_if_absent('ticket', 'version', 'BIGINT NOT NULL DEFAULT 0 COMMENT ''乐观锁版本号'' AFTER update_time');
+
+DROP PROCEDURE IF EXISTS add_column_if_absent;
@@ -0,0 +1,14 @@
+-- ========================================
+-- 车次日程表：按日期记录车次是否开行，没有日程记录的车次视为每日开行
+-- ========================================
+
+CREATE TABLE IF NOT EXISTS train_schedule (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    train_id BIGINT NOT NULL,
+    travel_date DATE NOT NULL COMMENT '运行日期',
+    status INT DEFAULT 1 COMMENT '状态：0-停运，1-正常',
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (train_id) REFERENCES train(id),
+    UNIQUE KEY unique_train_date (train_id, travel_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='车次日程表';
@@ -0,0 +1,16 @@
+-- ========================================
+-- 座位库存表：按列车、发车日期、座位类型维护余票
+-- ========================================
+
+CREATE TABLE IF NOT EXISTS seat_inventory (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    train_id BIGINT NOT NULL,
+    travel_date DATE NOT NULL COMMENT '发车日期',
+    seat_type VARCHAR(20) NOT NULL COMMENT '座位类型',
+    total_count INT NOT NULL COMMENT '总座位数',
+    remaining_count INT NOT NULL COMMENT '余票数',
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (train_id) REFERENCES train(id),
+    UNIQUE KEY unique_train_date_seat (train_id, travel_date, seat_type)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='座位库存表';
@@ -0,0 +1,25 @@
+-- ========================================
+-- 候补订单表：余票不足时排队，释放座位后按提交顺序兑现
+-- ========================================
+
+CREATE TABLE IF NOT EXISTS waitlist (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    train_id BIGINT NOT NULL,
+    travel_date DATE NOT NULL COMMENT '发车日期',
+    seat_type VARCHAR(20) NOT NULL COMMENT '座位类型',
+    start_station_id BIGINT COMMENT '出发站ID',
+    end_station_id BIGINT COMMENT '到达站ID',
+    start_station VARCHAR(50) COMMENT '出发站名称',
+    end_station VARCHAR(50) COMMENT '到达站名称',
+    passenger_ids VARCHAR(200) NOT NULL COMMENT '乘车人ID，逗号分隔',
+    status VARCHAR(20) DEFAULT 'WAITING' COMMENT '状态：WAITING-候补中、FULFILLED-已兑现、CANCELED-已取消、FAILED-兑现失败、EXPIRED-已过期',
+    order_no VARCHAR(50) COMMENT '兑现后生成的订单号',
+    message VARCHAR(200) COMMENT '兑现失败原因',
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES user_account(id),
+    FOREIGN KEY (train_id) REFERENCES train(id),
+    INDEX idx_train_date_seat_status (train_id, travel_date, seat_type, status, id),
+    INDEX idx_user_id (user_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='候补订单表';
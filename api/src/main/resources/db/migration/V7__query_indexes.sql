@@ -0,0 +1,52 @@
+-- ========================================
+-- 仓库查询方法对应的二级索引
+-- 按索引名判断是否已存在，早于基线脚本建立的数据库也可补齐
+-- ========================================
+
+DROP PROCEDURE IF EXISTS add_index_if_absent;
+
+DELIMITER //
+CREATE PROCEDURE add_index_if_absent(IN tbl VARCHAR(64), IN idx VARCHAR(64), IN cols VARCHAR(255))
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.statistics
+                   WHERE table_schema = DATABASE() AND table_name = tbl AND index_name = idx) THEN
+        SET @ddl = CONCAT('CREATE INDEX ', idx, ' ON ', tbl, ' (', cols, ')');
+        PREPARE stmt FROM @ddl;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+    END IF;
+END //
+DELIMITER ;
+
+-- 车票：用户车票列表、乘车人车票、订单车票、余票统计、过期处理
+CALL add_index_if_absent('ticket', 'idx_user_create_time', 'user_id, create_time');
+CALL add_index_if_absent('ticket', 'idx_passenger_id', 'passenger_id');
+CALL add_index_if_absent('ticket', 'idx_order_status', 'order_id, status');
+CALL add_index_if_absent('ticket', 'idx_order_station_date', 'order_id, start_station_id, end_station_id, travel_date');
+CALL add_index_if_absent('ticket', 'idx_train_date_seat_status', 'train_id, travel_date, seat_type, status');
+CALL add_index_if_absent('ticket', 'idx_status_travel_date', 'status, travel_date');
+
+-- 订单：用户订单列表、超时订单清理、按下单时间统计
+CALL add_index_if_absent('orders', 'idx_user_create_time', 'user_id, create_time');
+CALL add_index_if_absent('orders', 'idx_status_create_time', 'status, create_time');
+CALL add_index_if_absent('orders', 'idx_create_time', 'create_time');
+
+-- 站点：按代码、城市、省份查询
+CALL add_index_if_absent('station', 'idx_code', 'code');
+CALL add_index_if_absent('station', 'idx_city', 'city');
+CALL add_index_if_absent('station', 'idx_province', 'province');
+
+-- 列车：按起止站名称、类型查询
+CALL add_index_if_absent('train', 'idx_station_names', 'start_station, end_station');
+CALL add_index_if_absent('train', 'idx_type', 'type');
+
+-- 列车路线：按车次读取有序经停站
+CALL add_index_if_absent('train_route', 'idx_train_order', 'train_id, station_order');
+
+-- 车次日程：按日期查询开行车次
+CALL add_index_if_absent('train_schedule', 'idx_travel_date_status', 'travel_date, status');
+
+-- 用户：按认证状态分页
+CALL add_index_if_absent('user_account', 'idx_auth_status', 'auth_status');
+
+DROP PROCEDURE IF EXISTS add_index_if_absent;
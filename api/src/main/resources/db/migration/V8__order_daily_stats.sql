@@ -0,0 +1,11 @@
+-- ========================================
+-- 订单日汇总表：按下单日期汇总订单数和已支付金额，由定时任务维护
+-- ========================================
+
+CREATE TABLE IF NOT EXISTS order_daily_stats (
+    stat_date DATE NOT NULL PRIMARY KEY COMMENT '下单日期',
+    order_count BIGINT NOT NULL DEFAULT 0 COMMENT '订单数',
+    paid_count BIGINT NOT NULL DEFAULT 0 COMMENT '已支付（含已完成）订单数',
+    paid_amount DECIMAL(14,2) NOT NULL DEFAULT 0 COMMENT '已支付（含已完成）订单金额',
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='订单日汇总表';
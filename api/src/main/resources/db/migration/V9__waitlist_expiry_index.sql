@@ -0,0 +1,22 @@
+-- ========================================
+-- 候补订单过期清理按(status, travel_date)范围查找
+-- ========================================
+
+DROP PROCEDURE IF EXISTS add_index_if_absent;
+
+DELIMITER //
+CREATE PROCEDURE add_index_if_absent(IN tbl VARCHAR(64), IN idx VARCHAR(64), IN cols VARCHAR(255))
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.statistics
+                   WHERE table_schema = DATABASE() AND table_name = tbl AND index_name = idx) THEN
+        SET @ddl = CONCAT('CREATE INDEX ', idx, ' ON ', tbl, ' (', cols, ')');
+        PREPARE stmt FROM @ddl;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+    END IF;
+END //
+DELIMITER ;
+
+CALL add_index_if_absent('waitlist', 'idx_status_travel_date', 'status, travel_date');
+
+DROP PROCEDURE IF EXISTS add_index_if_absent;
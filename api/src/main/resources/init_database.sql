@@ -3,6 +3,7 @@
 -- ========================================
 -- 警告：此脚本将删除所有现有数据！
 -- 执行前请确保已备份重要数据
+-- 表结构需与 db/migration 下的迁移脚本保持一致，结构变更请新增迁移版本
 -- ========================================
 
 -- 创建数据库（如果不存在）
@@ -15,9 +16,14 @@ USE Mini12306;
 -- 第一步：删除所有现有表
 -- ========================================
 
+DROP TABLE IF EXISTS station_usage;
+DROP TABLE IF EXISTS order_daily_stats;
+DROP TABLE IF EXISTS waitlist;
 DROP TABLE IF EXISTS passenger;
 DROP TABLE IF EXISTS ticket;
 DROP TABLE IF EXISTS orders;
+DROP TABLE IF EXISTS seat_inventory;
+DROP TABLE IF EXISTS train_schedule;
 DROP TABLE IF EXISTS train_route;
 DROP TABLE IF EXISTS train;
 DROP TABLE IF EXISTS station;
@@ -53,7 +59,8 @@ CREATE TABLE user_account (
     phone VARCHAR(20),
     create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-    auth_status INT DEFAULT 0 COMMENT '身份验证状态：0-未验证，1-已验证'
+    auth_status INT DEFAULT 0 COMMENT '身份验证状态：0-未验证，1-已验证',
+    INDEX idx_auth_status (auth_status)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='用户账户表';
 
 
@@ -62,6 +69,7 @@ CREATE TABLE user_account (
 CREATE TABLE station (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     name VARCHAR(50) NOT NULL UNIQUE COMMENT '站点名称',
+    pinyin VARCHAR(100) COMMENT '站点名称拼音，音节之间以空格分隔',
     code VARCHAR(10) COMMENT '站点代码',
     city VARCHAR(50) COMMENT '所属城市',
     province VARCHAR(50) COMMENT '所属省份',
@@ -70,7 +78,10 @@ CREATE TABLE station (
     longitude DOUBLE COMMENT '经度',
     latitude DOUBLE COMMENT '纬度',
     create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_code (code),
+    INDEX idx_city (city),
+    INDEX idx_province (province)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='车站信息表';
 
 -- 创建列车信息表
@@ -92,8 +103,11 @@ CREATE TABLE train (
     price DECIMAL(10,2) COMMENT '票价',
     create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0 COMMENT '乐观锁版本号',
     FOREIGN KEY (start_station_id) REFERENCES station(id),
-    FOREIGN KEY (end_station_id) REFERENCES station(id)
+    FOREIGN KEY (end_station_id) REFERENCES station(id),
+    INDEX idx_station_names (start_station, end_station),
+    INDEX idx_type (type)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='列车信息表';
 
 -- 创建列车路线表
@@ -110,9 +124,37 @@ CREATE TABLE train_route (
     update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (train_id) REFERENCES train(id),
     FOREIGN KEY (station_id) REFERENCES station(id),
-    UNIQUE KEY unique_train_station (train_id, station_id)
+    UNIQUE KEY unique_train_station (train_id, station_id),
+    INDEX idx_train_order (train_id, station_order)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='列车路线表';
 
+-- 创建车次日程表
+CREATE TABLE train_schedule (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    train_id BIGINT NOT NULL,
+    travel_date DATE NOT NULL COMMENT '运行日期',
+    status INT DEFAULT 1 COMMENT '状态：0-停运，1-正常',
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (train_id) REFERENCES train(id),
+    UNIQUE KEY unique_train_date (train_id, travel_date),
+    INDEX idx_travel_date_status (travel_date, status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='车次日程表';
+
+-- 创建座位库存表（按列车、发车日期、座位类型维护余票）
+CREATE TABLE seat_inventory (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    train_id BIGINT NOT NULL,
+    travel_date DATE NOT NULL COMMENT '发车日期',
+    seat_type VARCHAR(20) NOT NULL COMMENT '座位类型',
+    total_count INT NOT NULL COMMENT '总座位数',
+    remaining_count INT NOT NULL COMMENT '余票数',
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (train_id) REFERENCES train(id),
+    UNIQUE KEY unique_train_date_seat (train_id, travel_date, seat_type)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='座位库存表';
+
 -- 创建订单表
 CREATE TABLE orders (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -122,9 +164,13 @@ CREATE TABLE orders (
     status VARCHAR(20) DEFAULT 'UNPAID' COMMENT '订单状态：UNPAID-待支付、PAID-已支付、CANCELED-已取消、COMPLETED-已完成',
     create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0 COMMENT '乐观锁版本号',
     pay_time TIMESTAMP NULL,
     cancel_time TIMESTAMP NULL,
-    FOREIGN KEY (user_id) REFERENCES user_account(id)
+    FOREIGN KEY (user_id) REFERENCES user_account(id),
+    INDEX idx_status_create_time (status, create_time),
+    INDEX idx_user_create_time (user_id, create_time),
+    INDEX idx_create_time (create_time)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='订单表';
 
 -- 创建车票表
@@ -157,9 +203,58 @@ CREATE TABLE ticket (
     status INT DEFAULT 1 COMMENT '车票状态：0-已取消，1-正常，2-已检票，3-已改签，4-已过期',
     create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-    FOREIGN KEY (order_id) REFERENCES orders(id)
+    version BIGINT NOT NULL DEFAULT 0 COMMENT '乐观锁版本号',
+    FOREIGN KEY (order_id) REFERENCES orders(id),
+    INDEX idx_order_station_date (order_id, start_station_id, end_station_id, travel_date),
+    INDEX idx_order_status (order_id, status),
+    INDEX idx_user_create_time (user_id, create_time),
+    INDEX idx_passenger_id (passenger_id),
+    INDEX idx_train_date_seat_status (train_id, travel_date, seat_type, status),
+    INDEX idx_status_travel_date (status, travel_date)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='车票表';
 
+-- 创建候补订单表
+CREATE TABLE waitlist (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    train_id BIGINT NOT NULL,
+    travel_date DATE NOT NULL COMMENT '发车日期',
+    seat_type VARCHAR(20) NOT NULL COMMENT '座位类型',
+    start_station_id BIGINT COMMENT '出发站ID',
+    end_station_id BIGINT COMMENT '到达站ID',
+    start_station VARCHAR(50) COMMENT '出发站名称',
+    end_station VARCHAR(50) COMMENT '到达站名称',
+    passenger_ids VARCHAR(200) NOT NULL COMMENT '乘车人ID，逗号分隔',
+    status VARCHAR(20) DEFAULT 'WAITING' COMMENT '状态：WAITING-候补中、FULFILLED-已兑现、CANCELED-已取消、FAILED-兑现失败、EXPIRED-已过期',
+    order_no VARCHAR(50) COMMENT '兑现后生成的订单号',
+    message VARCHAR(200) COMMENT '兑现失败原因',
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES user_account(id),
+    FOREIGN KEY (train_id) REFERENCES train(id),
+    INDEX idx_train_date_seat_status (train_id, travel_date, seat_type, status, id),
+    INDEX idx_user_id (user_id),
+    INDEX idx_status_travel_date (status, travel_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='候补订单表';
+
+-- 创建订单日汇总表
+CREATE TABLE order_daily_stats (
+    stat_date DATE NOT NULL PRIMARY KEY COMMENT '下单日期',
+    order_count BIGINT NOT NULL DEFAULT 0 COMMENT '订单数',
+    paid_count BIGINT NOT NULL DEFAULT 0 COMMENT '已支付（含已完成）订单数',
+    paid_amount DECIMAL(14,2) NOT NULL DEFAULT 0 COMMENT '已支付（含已完成）订单金额',
+    stale TINYINT NOT NULL DEFAULT 0 COMMENT '汇总后该天订单有状态变化，需要重新汇总',
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_stale (stale)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='订单日汇总表';
+
+-- 创建站点热度表
+CREATE TABLE station_usage (
+    station_id BIGINT NOT NULL PRIMARY KEY COMMENT '站点ID',
+    usage_count BIGINT NOT NULL DEFAULT 0 COMMENT '作为发站或到站的车票数',
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='站点热度表';
+
 -- 创建乘客信息表
 CREATE TABLE passenger (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -190,46 +285,46 @@ VALUES ('admin', '$2a$10$XALW8EtiSGMNI3mTqUqgbOouakeEC18UUFH62P/7.5/RZCAUdxSMe',
 -- 第四步：初始化车站数据
 -- ========================================
 
-INSERT INTO station (name, code, city, province, type, create_time, update_time) VALUES
+INSERT INTO station (name, pinyin, code, city, province, type, create_time, update_time) VALUES
 -- 原有车站
-('北京站', '100000', '北京', '北京市', '高铁站', NOW(), NOW()),
-('广州站', '510000', '广州', '广东省', '高铁站', NOW(), NOW()),
-('上海站', '200000', '上海', '上海市', '高铁站', NOW(), NOW()),
-('武昌站', '430061', '武汉', '湖北省', '高铁站', NOW(), NOW()),
-('沈阳北站', '110000', '沈阳', '辽宁省', '高铁站', NOW(), NOW()),
-('广州白云站', '510400', '广州', '广东省', '高铁站', NOW(), NOW()),
+('北京站', 'bei jing zhan', '100000', '北京', '北京市', '高铁站', NOW(), NOW()),
+('广州站', 'guang zhou zhan', '510000', '广州', '广东省', '高铁站', NOW(), NOW()),
+('上海站', 'shang hai zhan', '200000', '上海', '上海市', '高铁站', NOW(), NOW()),
+('武昌站', 'wu chang zhan', '430061', '武汉', '湖北省', '高铁站', NOW(), NOW()),
+('沈阳北站', 'shen yang bei zhan', '110000', '沈阳', '辽宁省', '高铁站', NOW(), NOW()),
+('广州白云站', 'guang zhou bai yun zhan', '510400', '广州', '广东省', '高铁站', NOW(), NOW()),
 
 -- 华北地区
-('天津站', '120000', '天津', '天津市', '高铁站', NOW(), NOW()),
-('石家庄站', '050000', '石家庄', '河北省', '高铁站', NOW(), NOW()),
-('太原站', '030000', '太原', '山西省', '高铁站', NOW(), NOW()),
+('天津站', 'tian jin zhan', '120000', '天津', '天津市', '高铁站', NOW(), NOW()),
+('石家庄站', 'shi jia zhuang zhan', '050000', '石家庄', '河北省', '高铁站', NOW(), NOW()),
+('太原站', 'tai yuan zhan', '030000', '太原', '山西省', '高铁站', NOW(), NOW()),
 
 -- 华东地区
-('南京南站', '210000', '南京', '江苏省', '高铁站', NOW(), NOW()),
-('杭州东站', '310000', '杭州', '浙江省', '高铁站', NOW(), NOW()),
-('合肥南站', '230000', '合肥', '安徽省', '高铁站', NOW(), NOW()),
-('济南西站', '250000', '济南', '山东省', '高铁站', NOW(), NOW()),
+('南京南站', 'nan jing nan zhan', '210000', '南京', '江苏省', '高铁站', NOW(), NOW()),
+('杭州东站', 'hang zhou dong zhan', '310000', '杭州', '浙江省', '高铁站', NOW(), NOW()),
+('合肥南站', 'he fei nan zhan', '230000', '合肥', '安徽省', '高铁站', NOW(), NOW()),
+('济南西站', 'ji nan xi zhan', '250000', '济南', '山东省', '高铁站', NOW(), NOW()),
 
 -- 华南地区
-('深圳北站', '518000', '深圳', '广东省', '高铁站', NOW(), NOW()),
-('长沙南站', '410000', '长沙', '湖南省', '高铁站', NOW(), NOW()),
-('福州站', '350000', '福州', '福建省', '高铁站', NOW(), NOW()),
-('南昌西站', '330000', '南昌', '江西省', '高铁站', NOW(), NOW()),
+('深圳北站', 'shen zhen bei zhan', '518000', '深圳', '广东省', '高铁站', NOW(), NOW()),
+('长沙南站', 'chang sha nan zhan', '410000', '长沙', '湖南省', '高铁站', NOW(), NOW()),
+('福州站', 'fu zhou zhan', '350000', '福州', '福建省', '高铁站', NOW(), NOW()),
+('南昌西站', 'nan chang xi zhan', '330000', '南昌', '江西省', '高铁站', NOW(), NOW()),
 
 -- 西南地区
-('成都东站', '610000', '成都', '四川省', '高铁站', NOW(), NOW()),
-('重庆北站', '400000', '重庆', '重庆市', '高铁站', NOW(), NOW()),
-('昆明站', '650000', '昆明', '云南省', '高铁站', NOW(), NOW()),
-('贵阳北站', '550000', '贵阳', '贵州省', '高铁站', NOW(), NOW()),
+('成都东站', 'cheng du dong zhan', '610000', '成都', '四川省', '高铁站', NOW(), NOW()),
+('重庆北站', 'chong qing bei zhan', '400000', '重庆', '重庆市', '高铁站', NOW(), NOW()),
+('昆明站', 'kun ming zhan', '650000', '昆明', '云南省', '高铁站', NOW(), NOW()),
+('贵阳北站', 'gui yang bei zhan', '550000', '贵阳', '贵州省', '高铁站', NOW(), NOW()),
 
 -- 西北地区
-('西安北站', '710000', '西安', '陕西省', '高铁站', NOW(), NOW()),
-('兰州站', '730000', '兰州', '甘肃省', '高铁站', NOW(), NOW()),
+('西安北站', 'xi an bei zhan', '710000', '西安', '陕西省', '高铁站', NOW(), NOW()),
+('兰州站', 'lan zhou zhan', '730000', '兰州', '甘肃省', '高铁站', NOW(), NOW()),
 
 -- 东北地区
-('哈尔滨西站', '150000', '哈尔滨', '黑龙江省', '高铁站', NOW(), NOW()),
-('长春站', '130000', '长春', '吉林省', '高铁站', NOW(), NOW()),
-('大连北站', '116000', '大连', '辽宁省', '高铁站', NOW(), NOW());
+('哈尔滨西站', 'ha er bin xi zhan', '150000', '哈尔滨', '黑龙江省', '高铁站', NOW(), NOW()),
+('长春站', 'chang chun zhan', '130000', '长春', '吉林省', '高铁站', NOW(), NOW()),
+('大连北站', 'da lian bei zhan', '116000', '大连', '辽宁省', '高铁站', NOW(), NOW());
 
 -- ========================================
 -- 第五步：初始化列车数据
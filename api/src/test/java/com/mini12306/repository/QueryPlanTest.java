@@ -0,0 +1,431 @@
+package com.mini12306.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.data.jpa.repository.Query;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 仓库查询方法的执行计划测试
+ * 在MySQL容器中执行迁移脚本并写入测试数据，对每个查询方法执行EXPLAIN，出现全表扫描即失败。
+ * 原生SQL直接取自@Query注解，订单条件搜索取自拼接方法，派生查询和JPQL按生成的SQL手写。
+ * 本身需要读取整表的方法列在EXCLUDED中并注明原因，RepositoryCoverageTest保证每个仓库方法
+ * 要么在finders中检查，要么在EXCLUDED中说明
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class QueryPlanTest {
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    private static final Pattern NAMED_PARAM = Pattern.compile(":(\\w+)");
+
+    /**
+     * 不检查执行计划的仓库方法及原因
+     */
+    static final Map<String, String> EXCLUDED = new LinkedHashMap<>();
+
+    static {
+        EXCLUDED.put("AccountRepository.findByUsernameContaining", "管理后台按用户名前后模糊匹配，LIKE '%x%'无法使用索引");
+        EXCLUDED.put("AccountRepository.findByRealNameContaining", "管理后台按姓名前后模糊匹配，LIKE '%x%'无法使用索引");
+        EXCLUDED.put("AccountRepository.findByPhoneContaining", "管理后台按手机号前后模糊匹配，LIKE '%x%'无法使用索引");
+        EXCLUDED.put("StationRepository.findByNameContaining", "前后模糊匹配，用户侧联想由内存站点字典提供");
+        EXCLUDED.put("StationRepository.findByCityContaining", "前后模糊匹配，用户侧联想由内存站点字典提供");
+        EXCLUDED.put("StationRepository.findPopularStations", "统计全部站点的车次数，只用于管理后台");
+        EXCLUDED.put("TrainRepository.findPopularTrains", "统计全部车次的售票数，只用于管理后台");
+        EXCLUDED.put("OrderRepository.findLatestOrders", "不带条件返回全部订单");
+    }
+
+    private static Connection connection;
+
+    @BeforeAll
+    public static void setUp() throws SQLException {
+        Flyway.configure()
+                .dataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        connection = DriverManager.getConnection(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword());
+        seed();
+    }
+
+    @AfterAll
+    public static void tearDown() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    /**
+     * 写入足够的数据使优化器按真实分布选择索引，外键检查关闭以便独立生成各表数据
+     */
+    private static void seed() throws SQLException {
+        String seq = "WITH RECURSIVE seq(n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < %d) ";
+        try (Statement st = connection.createStatement()) {
+            st.execute("SET SESSION cte_max_recursion_depth = 100000");
+            st.execute("SET FOREIGN_KEY_CHECKS = 0");
+            st.execute("INSERT INTO admin_user (username, password) " + String.format(seq, 10)
+                    + "SELECT CONCAT('admin', n), 'x' FROM seq");
+            st.execute("INSERT INTO user_account (username, password, auth_status) " + String.format(seq, 1000)
+                    + "SELECT CONCAT('u', n), 'x', n % 20 FROM seq");
+            st.execute("INSERT INTO station (name, code, city, province, type) " + String.format(seq, 500)
+                    + "SELECT CONCAT('站', n), CONCAT('C', n), CONCAT('城市', n % 100), CONCAT('省', n % 30), '高铁站' FROM seq");
+            st.execute("INSERT INTO train (code, type, start_station_id, end_station_id, start_station, end_station) "
+                    + String.format(seq, 500)
+                    + "SELECT CONCAT('T', n), CONCAT('类型', n % 50), n % 500 + 1, (n + 7) % 500 + 1, "
+                    + "CONCAT('站', n % 500 + 1), CONCAT('站', (n + 7) % 500 + 1) FROM seq");
+            st.execute("INSERT INTO train_route (train_id, station_id, station_order, distance) " + String.format(seq, 5000)
+                    + "SELECT (n - 1) DIV 10 + 1, n, (n - 1) % 10, ((n - 1) % 10) * 100 FROM seq");
+            st.execute("INSERT INTO train_schedule (train_id, travel_date, status) " + String.format(seq, 15000)
+                    + "SELECT (n - 1) % 500 + 1, DATE_ADD('2030-01-01', INTERVAL (n - 1) DIV 500 DAY), n % 10 = 0 FROM seq");
+            st.execute("INSERT INTO seat_inventory (train_id, travel_date, seat_type, total_count, remaining_count) "
+                    + String.format(seq, 15000)
+                    + "SELECT (n - 1) % 500 + 1, DATE_ADD('2030-01-01', INTERVAL (n - 1) DIV 500 DAY), '二等座', 100, 100 FROM seq");
+            st.execute("INSERT INTO orders (order_no, user_id, total_amount, status, create_time) " + String.format(seq, 10000)
+                    + "SELECT CONCAT('O', n), n % 1000 + 1, 100, ELT(n % 4 + 1, 'UNPAID', 'PAID', 'CANCELED', 'COMPLETED'), "
+                    + "DATE_ADD('2030-01-01', INTERVAL n * 50 MINUTE) FROM seq");
+            st.execute("INSERT INTO ticket (ticket_no, order_id, user_id, passenger_id, train_id, start_station_id, "
+                    + "end_station_id, seat_type, travel_date, price, status, create_time) " + String.format(seq, 20000)
+                    + "SELECT CONCAT('K', n), (n - 1) DIV 2 + 1, ((n - 1) DIV 2 + 1) % 1000 + 1, n % 3000 + 1, n % 500 + 1, "
+                    + "n % 500 + 1, (n * 7) % 500 + 1, ELT(n % 3 + 1, '商务座', '一等座', '二等座'), "
+                    + "DATE_ADD('2030-01-01', INTERVAL n % 365 DAY), 100, n % 5, "
+                    + "DATE_ADD('2030-01-01', INTERVAL n * 25 MINUTE) FROM seq");
+            st.execute("INSERT INTO waitlist (user_id, train_id, travel_date, seat_type, passenger_ids, status) "
+                    + String.format(seq, 2000)
+                    + "SELECT n % 1000 + 1, n % 500 + 1, DATE_ADD('2030-01-01', INTERVAL n % 30 DAY), '二等座', '1', "
+                    + "ELT(n % 5 + 1, 'WAITING', 'FULFILLED', 'CANCELED', 'FAILED', 'EXPIRED') FROM seq");
+            st.execute("INSERT INTO passenger (user_id, real_name, card_id) " + String.format(seq, 3000)
+                    + "SELECT n % 1000 + 1, CONCAT('乘客', n), CONCAT('ID', n) FROM seq");
+            st.execute("INSERT INTO order_daily_stats (stat_date, order_count, paid_count, paid_amount) "
+                    + String.format(seq, 365)
+                    + "SELECT DATE_ADD('2030-01-01', INTERVAL n - 1 DAY), 29, 7, 700 FROM seq");
+            st.execute("SET FOREIGN_KEY_CHECKS = 1");
+            st.execute("ANALYZE TABLE admin_user, user_account, station, train, train_route, train_schedule, "
+                    + "seat_inventory, orders, ticket, waitlist, passenger, order_daily_stats");
+        }
+    }
+
+    static Stream<Arguments> finders() {
+        Map<String, String> summaryParams = new HashMap<>();
+        summaryParams.put("userId", "1");
+        summaryParams.put("limit", "20");
+        summaryParams.put("cursorTime", "'2030-06-01 00:00:00'");
+        summaryParams.put("cursorId", "5000");
+
+        Map<String, String> idsParams = new HashMap<>();
+        idsParams.put("ids", "1, 2, 3");
+
+        Map<String, String> dayParams = new HashMap<>();
+        dayParams.put("from", "'2030-03-01 00:00:00'");
+        dayParams.put("to", "'2030-03-02 00:00:00'");
+
+        Map<String, String> statDateParams = new HashMap<>();
+        statDateParams.put("statDate", "'2030-03-01'");
+
+        Map<String, String> upsertParams = new HashMap<>(statDateParams);
+        upsertParams.put("orderCount", "29");
+        upsertParams.put("paidCount", "7");
+        upsertParams.put("paidAmount", "700");
+
+        Map<String, String> inventoryParams = new HashMap<>();
+        inventoryParams.put("trainId", "1");
+        inventoryParams.put("travelDate", "'2030-01-05'");
+        inventoryParams.put("seatType", "'二等座'");
+
+        Map<String, String> insertParams = new HashMap<>(inventoryParams);
+        insertParams.put("totalCount", "100");
+
+        Map<String, String> usageParams = new HashMap<>();
+        usageParams.put("stationId", "1");
+        usageParams.put("delta", "3");
+
+        return Stream.of(
+                // AccountRepository
+                Arguments.of("AccountRepository.findByUsername", "SELECT * FROM user_account WHERE username = 'u1'"),
+                Arguments.of("AccountRepository.existsByUsername", "SELECT id FROM user_account WHERE username = 'u1' LIMIT 1"),
+                Arguments.of("AccountRepository.findByAuthStatus", "SELECT * FROM user_account WHERE auth_status = 3 LIMIT 10"),
+                // AdminRepository
+                Arguments.of("AdminRepository.findByUsername", "SELECT * FROM admin_user WHERE username = 'admin1'"),
+                // OrderRepository
+                Arguments.of("OrderRepository.findByUserId", "SELECT * FROM orders WHERE user_id = 1"),
+                Arguments.of("OrderRepository.countByUserId", "SELECT COUNT(id) FROM orders WHERE user_id = 1"),
+                Arguments.of("OrderRepository.findByOrderNo", "SELECT * FROM orders WHERE order_no = 'O1'"),
+                Arguments.of("OrderRepository.findByUserIdOrderByCreateTimeDesc",
+                        "SELECT * FROM orders WHERE user_id = 1 ORDER BY create_time DESC"),
+                Arguments.of("OrderRepository.findOrderSummaries",
+                        nativeQuery(OrderRepository.class, "findOrderSummaries", summaryParams)),
+                Arguments.of("OrderRepository.findOrderSummariesBefore",
+                        nativeQuery(OrderRepository.class, "findOrderSummariesBefore", summaryParams)),
+                Arguments.of("OrderRepository.findOrderSummariesByIds",
+                        nativeQuery(OrderRepository.class, "findOrderSummariesByIds", idsParams)),
+                Arguments.of("OrderRepository.searchOrderIds(全部条件)",
+                        searchSql(1L, "PAID", Arrays.asList(1L, 2L), Arrays.asList(3L), date("2030-03-01"),
+                                date("2030-03-31"), date("2030-06-01"), 5000L)),
+                Arguments.of("OrderRepository.searchOrderIds(只按用户)",
+                        searchSql(1L, null, null, null, null, null, null, null)),
+                Arguments.of("OrderRepository.searchOrderIds(按发站)",
+                        searchSql(1L, null, Arrays.asList(1L, 2L), null, null, null, null, null)),
+                Arguments.of("OrderRepository.findByStatusAndCreateTimeBeforeOrderByCreateTimeAsc",
+                        "SELECT * FROM orders WHERE status = 'UNPAID' AND create_time < '2030-01-03' "
+                                + "ORDER BY create_time ASC LIMIT 100"),
+                Arguments.of("OrderRepository.aggregateByCreateTime",
+                        nativeQuery(OrderRepository.class, "aggregateByCreateTime", dayParams)),
+                Arguments.of("OrderRepository.findEarliestCreateTime", "SELECT MIN(create_time) FROM orders"),
+                Arguments.of("OrderRepository.cancelIfUnpaid",
+                        "UPDATE orders SET status = 'CANCELED', version = version + 1 WHERE id = 1 AND status = 'UNPAID'"),
+                Arguments.of("OrderRepository.payIfUnpaid",
+                        "UPDATE orders SET status = 'PAID', version = version + 1 WHERE id = 1 AND status = 'UNPAID'"),
+                // OrderDailyStatsRepository
+                Arguments.of("OrderDailyStatsRepository.findByStatDateBetweenOrderByStatDateAsc",
+                        "SELECT * FROM order_daily_stats WHERE stat_date BETWEEN '2030-03-01' AND '2030-03-31' "
+                                + "ORDER BY stat_date ASC"),
+                Arguments.of("OrderDailyStatsRepository.findLatestStatDate", "SELECT MAX(stat_date) FROM order_daily_stats"),
+                Arguments.of("OrderDailyStatsRepository.upsert",
+                        nativeQuery(OrderDailyStatsRepository.class, "upsert", upsertParams)),
+                Arguments.of("OrderDailyStatsRepository.markStale",
+                        nativeQuery(OrderDailyStatsRepository.class, "markStale", statDateParams)),
+                Arguments.of("OrderDailyStatsRepository.findStaleDates",
+                        nativeQuery(OrderDailyStatsRepository.class, "findStaleDates", new HashMap<>())),
+                Arguments.of("OrderDailyStatsRepository.clearStale",
+                        nativeQuery(OrderDailyStatsRepository.class, "clearStale", statDateParams)),
+                // PassengerRepository
+                Arguments.of("PassengerRepository.findByUserId", "SELECT * FROM passenger WHERE user_id = 1"),
+                Arguments.of("PassengerRepository.countByUserId", "SELECT COUNT(id) FROM passenger WHERE user_id = 1"),
+                Arguments.of("PassengerRepository.deleteByUserIdAndId", "SELECT * FROM passenger WHERE user_id = 1 AND id = 1"),
+                // SeatInventoryRepository
+                Arguments.of("SeatInventoryRepository.findByTrainIdAndTravelDateAndSeatType",
+                        "SELECT * FROM seat_inventory WHERE train_id = 1 AND travel_date = '2030-01-05' AND seat_type = '二等座'"),
+                Arguments.of("SeatInventoryRepository.findByTrainIdAndTravelDate",
+                        "SELECT * FROM seat_inventory WHERE train_id = 1 AND travel_date = '2030-01-05'"),
+                Arguments.of("SeatInventoryRepository.insertIfAbsent",
+                        nativeQuery(SeatInventoryRepository.class, "insertIfAbsent", insertParams)),
+                Arguments.of("SeatInventoryRepository.findRemainingCount",
+                        nativeQuery(SeatInventoryRepository.class, "findRemainingCount", inventoryParams)),
+                Arguments.of("SeatInventoryRepository.decrementIfAvailable",
+                        "UPDATE seat_inventory SET remaining_count = remaining_count - 1 WHERE train_id = 1 "
+                                + "AND travel_date = '2030-01-05' AND seat_type = '二等座' AND remaining_count >= 1"),
+                Arguments.of("SeatInventoryRepository.increment",
+                        "UPDATE seat_inventory SET remaining_count = remaining_count + 1 WHERE train_id = 1 "
+                                + "AND travel_date = '2030-01-05' AND seat_type = '二等座' "
+                                + "AND remaining_count + 1 <= total_count"),
+                Arguments.of("SeatInventoryRepository.fillToTotal",
+                        "UPDATE seat_inventory SET remaining_count = total_count WHERE train_id = 1 "
+                                + "AND travel_date = '2030-01-05' AND seat_type = '二等座'"),
+                // StationRepository
+                Arguments.of("StationRepository.findByName", "SELECT * FROM station WHERE name = '站1'"),
+                Arguments.of("StationRepository.findByCode", "SELECT * FROM station WHERE code = 'C1'"),
+                Arguments.of("StationRepository.findByCity", "SELECT * FROM station WHERE city = '城市1'"),
+                Arguments.of("StationRepository.findByProvince", "SELECT * FROM station WHERE province = '省1'"),
+                // StationUsageRepository
+                Arguments.of("StationUsageRepository.addUsage",
+                        nativeQuery(StationUsageRepository.class, "addUsage", usageParams)),
+                // TicketRepository
+                Arguments.of("TicketRepository.findByUserId", "SELECT * FROM ticket WHERE user_id = 1"),
+                Arguments.of("TicketRepository.countByUserId", "SELECT COUNT(id) FROM ticket WHERE user_id = 1"),
+                Arguments.of("TicketRepository.findByPassengerId", "SELECT * FROM ticket WHERE passenger_id = 1"),
+                Arguments.of("TicketRepository.findByOrderId", "SELECT * FROM ticket WHERE order_id = 1"),
+                Arguments.of("TicketRepository.findByTicketNo", "SELECT * FROM ticket WHERE ticket_no = 'K1'"),
+                Arguments.of("TicketRepository.findValidTicketsByUserId", "SELECT * FROM ticket WHERE user_id = 1 AND status = 1"),
+                Arguments.of("TicketRepository.findTicketDetailsByUserId",
+                        "SELECT * FROM ticket WHERE user_id = 1 ORDER BY create_time DESC"),
+                Arguments.of("TicketRepository.findByOrderIdAndStatus", "SELECT * FROM ticket WHERE order_id = 1 AND status = 1"),
+                Arguments.of("TicketRepository.findByUserIdAndTravelDate",
+                        "SELECT * FROM ticket WHERE user_id = 1 AND travel_date = '2030-01-05'"),
+                Arguments.of("TicketRepository.countByTrainIdAndTravelDate",
+                        "SELECT COUNT(id) FROM ticket WHERE train_id = 1 AND travel_date = '2030-01-05' AND status = 1"),
+                Arguments.of("TicketRepository.countByTrainIdAndTravelDateAndSeatType",
+                        "SELECT COUNT(id) FROM ticket WHERE train_id = 1 AND travel_date = '2030-01-05' "
+                                + "AND seat_type = '二等座' AND status = 1"),
+                Arguments.of("TicketRepository.findByStatusAndTravelDateGreaterThanEqual",
+                        "SELECT * FROM ticket WHERE status = 1 AND travel_date >= '2030-12-25'"),
+                // TrainRepository
+                Arguments.of("TrainRepository.findByStations",
+                        "SELECT * FROM train WHERE start_station = '站2' AND end_station = '站9'"),
+                Arguments.of("TrainRepository.findByStationIds",
+                        "SELECT * FROM train WHERE start_station_id = 2 AND end_station_id = 9"),
+                Arguments.of("TrainRepository.findByStartStationId", "SELECT * FROM train WHERE start_station_id = 2"),
+                Arguments.of("TrainRepository.findByEndStationId", "SELECT * FROM train WHERE end_station_id = 9"),
+                Arguments.of("TrainRepository.findByType", "SELECT * FROM train WHERE type = '类型1'"),
+                Arguments.of("TrainRepository.findByCode", "SELECT * FROM train WHERE code = 'T1'"),
+                // TrainRouteRepository
+                Arguments.of("TrainRouteRepository.findByTrainIdOrderByStationOrderAsc",
+                        "SELECT * FROM train_route WHERE train_id = 1 ORDER BY station_order ASC"),
+                Arguments.of("TrainRouteRepository.findByTrainIdAndStationId",
+                        "SELECT * FROM train_route WHERE train_id = 1 AND station_id = 1"),
+                Arguments.of("TrainRouteRepository.findByStationId", "SELECT * FROM train_route WHERE station_id = 1"),
+                Arguments.of("TrainRouteRepository.deleteByTrainId", "SELECT * FROM train_route WHERE train_id = 1"),
+                // TrainScheduleRepository
+                Arguments.of("TrainScheduleRepository.findByTrainId", "SELECT * FROM train_schedule WHERE train_id = 1"),
+                Arguments.of("TrainScheduleRepository.countByTrainId", "SELECT COUNT(id) FROM train_schedule WHERE train_id = 1"),
+                Arguments.of("TrainScheduleRepository.findByTrainIdAndTravelDate",
+                        "SELECT * FROM train_schedule WHERE train_id = 1 AND travel_date = '2030-01-05'"),
+                Arguments.of("TrainScheduleRepository.findByTravelDate",
+                        "SELECT * FROM train_schedule WHERE travel_date = '2030-01-05'"),
+                Arguments.of("TrainScheduleRepository.findByTravelDateAndStatus",
+                        "SELECT * FROM train_schedule WHERE travel_date = '2030-01-05' AND status = 1"),
+                Arguments.of("TrainScheduleRepository.findByTravelDateBetween",
+                        "SELECT * FROM train_schedule WHERE travel_date BETWEEN '2030-01-05' AND '2030-01-06'"),
+                Arguments.of("TrainScheduleRepository.findScheduledTrainIds", "SELECT DISTINCT train_id FROM train_schedule"),
+                Arguments.of("TrainScheduleRepository.deleteByTrainId", "SELECT * FROM train_schedule WHERE train_id = 1"),
+                // WaitlistRepository
+                Arguments.of("WaitlistRepository.findByTrainIdAndTravelDateAndSeatTypeAndStatusOrderByIdAsc",
+                        "SELECT * FROM waitlist WHERE train_id = 1 AND travel_date = '2030-01-02' AND seat_type = '二等座' "
+                                + "AND status = 'WAITING' ORDER BY id ASC LIMIT 20"),
+                Arguments.of("WaitlistRepository.findByUserIdOrderByCreateTimeDesc",
+                        "SELECT * FROM waitlist WHERE user_id = 1 ORDER BY create_time DESC"),
+                Arguments.of("WaitlistRepository.existsByUserIdAndTrainIdAndTravelDateAndSeatTypeAndStatus",
+                        "SELECT id FROM waitlist WHERE user_id = 1 AND train_id = 1 AND travel_date = '2030-01-02' "
+                                + "AND seat_type = '二等座' AND status = 'WAITING' LIMIT 1"),
+                Arguments.of("WaitlistRepository.updateIfWaiting",
+                        "UPDATE waitlist SET status = 'FULFILLED' WHERE id = 1 AND status = 'WAITING'"),
+                Arguments.of("WaitlistRepository.expireBefore",
+                        "UPDATE waitlist SET status = 'EXPIRED' WHERE status = 'WAITING' AND travel_date < '2030-01-03'")
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("finders")
+    @DisplayName("测试查询方法不触发全表扫描")
+    public void testNoFullTableScan(String finder, String sql) throws SQLException {
+        List<String> fullScans = new ArrayList<>();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                String table = rs.getString("table");
+                // 派生表是已按索引过滤后的中间结果，只检查实际的数据表；
+                // 插入语句的目标表按唯一键判断重复，EXPLAIN中的type不表示读取
+                if (table != null && !table.startsWith("<") && !"INSERT".equals(rs.getString("select_type"))
+                        && "ALL".equals(rs.getString("type"))) {
+                    fullScans.add(table);
+                }
+            }
+        }
+        assertTrue(fullScans.isEmpty(), finder + " 全表扫描: " + fullScans + "\n" + sql);
+    }
+
+    static Stream<Arguments> orderSummaryPages() {
+        Map<String, String> summaryParams = new HashMap<>();
+        summaryParams.put("userId", "1");
+        summaryParams.put("limit", "20");
+        summaryParams.put("cursorTime", "'2030-06-01 00:00:00'");
+        summaryParams.put("cursorId", "5000");
+
+        return Stream.of(
+                Arguments.of("OrderRepository.findOrderSummaries",
+                        nativeQuery(OrderRepository.class, "findOrderSummaries", summaryParams)),
+                Arguments.of("OrderRepository.findOrderSummariesBefore",
+                        nativeQuery(OrderRepository.class, "findOrderSummariesBefore", summaryParams))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("orderSummaryPages")
+    @DisplayName("测试订单列表分页按索引顺序取出一页订单，不对用户全部订单分组排序")
+    public void testOrderSummaryPageWithoutSort(String finder, String sql) throws SQLException {
+        List<String> sorts = new ArrayList<>();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                String table = rs.getString("table");
+                String extra = rs.getString("Extra");
+                if (extra == null) {
+                    continue;
+                }
+                // 只允许对派生表中已取出的一页订单排序
+                if (extra.contains("Using temporary")
+                        || (extra.contains("Using filesort") && table != null && !table.startsWith("<"))) {
+                    sorts.add(table + ": " + extra);
+                }
+            }
+        }
+        assertTrue(sorts.isEmpty(), finder + " 排序或临时表: " + sorts + "\n" + sql);
+    }
+
+    /**
+     * 订单条件搜索拼接出的SQL，参数替换为字面量
+     */
+    private static String searchSql(Long userId, String status, List<Long> startStationIds, List<Long> endStationIds,
+                                    Date fromDate, Date toDate, Date cursorTime, Long cursorId) {
+        Map<String, Object> params = new HashMap<>();
+        String sql = OrderSearchRepositoryImpl.buildSearchSql(userId, status, startStationIds, endStationIds,
+                fromDate, toDate, cursorTime, cursorId, 20, params);
+        Matcher matcher = NAMED_PARAM.matcher(sql);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            Object value = params.get(matcher.group(1));
+            assertNotNull(value, "searchOrderIds 缺少参数 " + matcher.group(1));
+            matcher.appendReplacement(result, Matcher.quoteReplacement(literal(value)));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    private static String literal(Object value) {
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).stream().map(QueryPlanTest::literal).collect(Collectors.joining(", "));
+        }
+        if (value instanceof Date) {
+            return "'" + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format((Date) value) + "'";
+        }
+        if (value instanceof String) {
+            return "'" + value + "'";
+        }
+        return String.valueOf(value);
+    }
+
+    private static Date date(String value) {
+        return java.sql.Date.valueOf(value);
+    }
+
+    /**
+     * 取出仓库方法@Query中的原生SQL，并把命名参数替换为字面量
+     */
+    private static String nativeQuery(Class<?> repository, String methodName, Map<String, String> params) {
+        Method method = Arrays.stream(repository.getMethods())
+                .filter(m -> m.getName().equals(methodName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(repository.getSimpleName() + "." + methodName));
+        Query query = method.getAnnotation(Query.class);
+        assertNotNull(query, methodName + " 未声明@Query");
+        assertTrue(query.nativeQuery(), methodName + " 不是原生SQL");
+
+        Matcher matcher = NAMED_PARAM.matcher(query.value());
+        StringBuilder sql = new StringBuilder();
+        while (matcher.find()) {
+            String value = params.get(matcher.group(1));
+            assertNotNull(value, methodName + " 缺少参数 " + matcher.group(1));
+            matcher.appendReplacement(sql, Matcher.quoteReplacement(value));
+        }
+        matcher.appendTail(sql);
+        return sql.toString();
+    }
+}
@@ -0,0 +1,92 @@
+package com.mini12306.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.data.repository.Repository;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 仓库方法覆盖测试
+ * 每个仓库接口（含同包内的自定义片段接口）声明的方法必须在QueryPlanTest.finders中检查执行计划，
+ * 或在QueryPlanTest.EXCLUDED中说明原因；新增查询方法而不补充执行计划检查时失败。
+ * 不依赖数据库，没有Docker环境时也会运行
+ */
+public class RepositoryCoverageTest {
+
+    private static final String REPOSITORY_PACKAGE = "com.mini12306.repository";
+
+    @Test
+    @DisplayName("测试每个仓库方法都有执行计划检查或排除说明")
+    public void testEveryFinderCovered() throws ClassNotFoundException {
+        Set<String> covered = new HashSet<>();
+        QueryPlanTest.finders().forEach(arguments -> {
+            // 同一方法的不同条件组合以"方法名(说明)"区分
+            String name = (String) arguments.get()[0];
+            int suffix = name.indexOf('(');
+            covered.add(suffix >= 0 ? name.substring(0, suffix) : name);
+        });
+
+        Set<String> missing = new TreeSet<>();
+        Set<String> declared = new HashSet<>();
+        for (Class<?> repository : findRepositories()) {
+            for (Class<?> type : declaringTypes(repository)) {
+                for (Method method : type.getDeclaredMethods()) {
+                    String name = repository.getSimpleName() + "." + method.getName();
+                    declared.add(name);
+                    if (!covered.contains(name) && !QueryPlanTest.EXCLUDED.containsKey(name)) {
+                        missing.add(name);
+                    }
+                }
+            }
+        }
+        assertTrue(missing.isEmpty(), "以下仓库方法既没有执行计划检查，也没有排除说明: " + missing);
+
+        // 排除列表中不应保留已删除的方法
+        Set<String> stale = new TreeSet<>(QueryPlanTest.EXCLUDED.keySet());
+        stale.removeAll(declared);
+        assertTrue(stale.isEmpty(), "排除列表中的方法已不存在: " + stale);
+    }
+
+    private List<Class<?>> findRepositories() throws ClassNotFoundException {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                return beanDefinition.getMetadata().isInterface();
+            }
+        };
+        scanner.addIncludeFilter(new AssignableTypeFilter(Repository.class));
+
+        List<Class<?>> repositories = new ArrayList<>();
+        for (BeanDefinition definition : scanner.findCandidateComponents(REPOSITORY_PACKAGE)) {
+            repositories.add(Class.forName(definition.getBeanClassName()));
+        }
+        assertFalse(repositories.isEmpty(), "没有找到仓库接口");
+        return repositories;
+    }
+
+    /**
+     * 仓库接口本身及其继承的同包自定义片段接口
+     */
+    private List<Class<?>> declaringTypes(Class<?> repository) {
+        List<Class<?>> types = new ArrayList<>();
+        types.add(repository);
+        for (Class<?> parent : repository.getInterfaces()) {
+            if (REPOSITORY_PACKAGE.equals(parent.getPackageName())) {
+                types.add(parent);
+            }
+        }
+        return types;
+    }
+}
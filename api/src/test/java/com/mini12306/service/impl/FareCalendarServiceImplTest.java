@@ -0,0 +1,181 @@
+package com.mini12306.service.impl;
+
+import com.mini12306.dto.FareCalendarDTO;
+import com.mini12306.event.SeatAllocatedEvent;
+import com.mini12306.model.Money;
+import com.mini12306.model.Result;
+import com.mini12306.model.Station;
+import com.mini12306.model.Train;
+import com.mini12306.repository.TrainRepository;
+import com.mini12306.service.FareService;
+import com.mini12306.service.SeatAllocationService;
+import com.mini12306.service.ServiceCalendarService;
+import com.mini12306.service.StationDictionaryService;
+import com.mini12306.service.TimetableService;
+import com.mini12306.util.FareTable;
+import com.mini12306.util.StationDictionary;
+import com.mini12306.util.TimetableIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * FareCalendarServiceImpl 单元测试类
+ */
+public class FareCalendarServiceImplTest {
+
+    @Mock
+    private TimetableService timetableService;
+
+    @Mock
+    private StationDictionaryService stationDictionaryService;
+
+    @Mock
+    private ServiceCalendarService serviceCalendarService;
+
+    @Mock
+    private FareService fareService;
+
+    @Mock
+    private SeatAllocationService seatAllocationService;
+
+    @Mock
+    private TrainRepository trainRepository;
+
+    @InjectMocks
+    private FareCalendarServiceImpl fareCalendarService;
+
+    private final LocalDate today = LocalDate.now();
+
+    private Train g1;
+
+    private Train d2;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(fareCalendarService, "cacheMaxSize", 100);
+        ReflectionTestUtils.setField(fareCalendarService, "cacheTtlSeconds", 300L);
+        fareCalendarService.init();
+
+        when(stationDictionaryService.getDictionary()).thenReturn(StationDictionary.of(Arrays.asList(
+                createStation(1L, "北京南"), createStation(2L, "上海虹桥"))));
+
+        // G1全程二等座500元，D2全程二等座300元、一等座360元
+        g1 = createTrain(1L, "G1", "高铁", 50000);
+        d2 = createTrain(2L, "D2", "动车", 30000);
+        when(timetableService.findDirectTrains(1L, 2L)).thenReturn(Arrays.asList(
+                new TimetableIndex.StopMatch(1L, 0, 1), new TimetableIndex.StopMatch(2L, 0, 1)));
+        when(trainRepository.findAllById(any())).thenReturn(Arrays.asList(g1, d2));
+        when(fareService.getFareTable(g1)).thenReturn(FareTable.build(g1, null, new int[]{15000, 12000, 10000}, 0));
+        when(fareService.getFareTable(d2)).thenReturn(FareTable.build(d2, null, new int[]{12000, 10000}, 0));
+
+        Predicate<Long> everyTrain = trainId -> true;
+        when(serviceCalendarService.runningOn(any())).thenReturn(everyTrain);
+        when(seatAllocationService.countAvailable(any(), any(), anyString(), anyLong())).thenReturn(10);
+    }
+
+    private Station createStation(Long id, String name) {
+        Station station = new Station();
+        station.setId(id);
+        station.setName(name);
+        return station;
+    }
+
+    private Train createTrain(Long id, String code, String type, long priceFen) {
+        Train train = new Train();
+        train.setId(id);
+        train.setCode(code);
+        train.setType(type);
+        train.setPrice(Money.fromFen(priceFen));
+        train.setHighSeatCount(50);
+        train.setMidSeatCount(100);
+        train.setLowSeatCount(500);
+        return train;
+    }
+
+    private java.sql.Date day(int offset) {
+        return java.sql.Date.valueOf(today.plusDays(offset));
+    }
+
+    private List<FareCalendarDTO.DayFare> query(int days) {
+        Result<FareCalendarDTO> result = fareCalendarService.getFareCalendar("北京南", "上海虹桥", days);
+        assertTrue(result.isSuccess(), result.getMessage());
+        return result.getData().getDays();
+    }
+
+    @Test
+    @DisplayName("测试按日期分别计算有余票的最低票价")
+    public void testGetFareCalendar_PerDate() {
+        // 第0天D2二等座售罄；第1天G1停运；第2天全部售罄
+        when(seatAllocationService.countAvailable(eq(d2), eq(day(0)), eq("二等座"), anyLong())).thenReturn(0);
+        Predicate<Long> withoutG1 = trainId -> trainId != 1L;
+        when(serviceCalendarService.runningOn(day(1))).thenReturn(withoutG1);
+        when(seatAllocationService.countAvailable(any(), eq(day(2)), anyString(), anyLong())).thenReturn(0);
+
+        List<FareCalendarDTO.DayFare> days = query(3);
+        assertEquals(3, days.size());
+
+        FareCalendarDTO.DayFare day0 = days.get(0);
+        assertEquals(today.toString(), day0.getTravelDate());
+        assertEquals(36000, day0.getMinPrice().toFen());
+        assertEquals("D2", day0.getTrainNumber());
+        assertEquals("一等座", day0.getSeatType());
+        assertEquals(2, day0.getAvailableTrains());
+
+        FareCalendarDTO.DayFare day1 = days.get(1);
+        assertEquals(today.plusDays(1).toString(), day1.getTravelDate());
+        assertEquals(30000, day1.getMinPrice().toFen());
+        assertEquals(2L, day1.getTrainId());
+        assertEquals("二等座", day1.getSeatType());
+        assertEquals(1, day1.getAvailableTrains());
+
+        FareCalendarDTO.DayFare day2 = days.get(2);
+        assertNull(day2.getMinPrice());
+        assertNull(day2.getTrainId());
+        assertEquals(0, day2.getAvailableTrains());
+    }
+
+    @Test
+    @DisplayName("测试余票变化只重新计算对应日期")
+    public void testGetFareCalendar_InvalidateOneDate() {
+        List<FareCalendarDTO.DayFare> first = query(2);
+        assertEquals(30000, first.get(0).getMinPrice().toFen());
+        assertEquals(30000, first.get(1).getMinPrice().toFen());
+
+        // 缓存命中时不再查询候选车次
+        query(2);
+        verify(timetableService, times(1)).findDirectTrains(1L, 2L);
+
+        // 两天的D2二等座都售罄，但只有第1天收到余票变化事件
+        when(seatAllocationService.countAvailable(eq(d2), any(), eq("二等座"), anyLong())).thenReturn(0);
+        fareCalendarService.onSeatAllocated(new SeatAllocatedEvent(2L, day(1), "二等座"));
+
+        List<FareCalendarDTO.DayFare> second = query(2);
+        assertEquals(30000, second.get(0).getMinPrice().toFen());
+        assertEquals(36000, second.get(1).getMinPrice().toFen());
+        verify(timetableService, times(2)).findDirectTrains(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("测试天数超出范围或站点不存在时失败")
+    public void testGetFareCalendar_InvalidRequest() {
+        assertFalse(fareCalendarService.getFareCalendar("北京南", "上海虹桥", 0).isSuccess());
+        assertFalse(fareCalendarService.getFareCalendar("北京南", "上海虹桥", 61).isSuccess());
+        assertFalse(fareCalendarService.getFareCalendar("北京南", "不存在", 3).isSuccess());
+        verify(timetableService, never()).findDirectTrains(any(), any());
+    }
+}
@@ -0,0 +1,212 @@
+package com.mini12306.service.impl;
+
+import com.mini12306.dto.SeatPosition;
+import com.mini12306.model.Ticket;
+import com.mini12306.model.Train;
+import com.mini12306.model.TrainRoute;
+import com.mini12306.repository.OrderRepository;
+import com.mini12306.repository.TicketRepository;
+import com.mini12306.repository.TrainRepository;
+import com.mini12306.repository.TrainRouteRepository;
+import com.mini12306.service.SeatInventoryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * SeatAllocationServiceImpl 单元测试类
+ */
+public class SeatAllocationServiceImplTest {
+
+    private static final long A = 1L;
+    private static final long X = 2L;
+    private static final long B = 3L;
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private TrainRepository trainRepository;
+
+    @Mock
+    private TrainRouteRepository trainRouteRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private SeatInventoryService seatInventoryService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private SeatAllocationServiceImpl seatAllocationService;
+
+    private final java.sql.Date day = java.sql.Date.valueOf(LocalDate.now().plusDays(1));
+
+    private Train train;
+
+    // 同一座位的A→X和X→B两张车票
+    private Ticket first;
+
+    private Ticket second;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+
+        train = new Train();
+        train.setId(1L);
+        train.setType("高铁");
+        train.setLowSeatCount(10);
+        when(trainRepository.findById(1L)).thenReturn(Optional.of(train));
+        when(trainRouteRepository.findByTrainIdOrderByStationOrderAsc(1L))
+                .thenReturn(Arrays.asList(createRoute(A, 1), createRoute(X, 2), createRoute(B, 3)));
+        when(seatInventoryService.deduct(any(), any(), anyString(), anyInt())).thenReturn(true);
+
+        first = createTicket("T1", A, X);
+        second = createTicket("T2", X, B);
+        assertEquals(first.getCoach(), second.getCoach());
+        assertEquals(first.getSeat(), second.getSeat());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private TrainRoute createRoute(long stationId, int order) {
+        TrainRoute route = new TrainRoute();
+        route.setTrainId(1L);
+        route.setStationId(stationId);
+        route.setStationOrder(order);
+        return route;
+    }
+
+    private Ticket createTicket(String ticketNo, long from, long to) {
+        long mask = seatAllocationService.getSegmentMask(train, from, to);
+        SeatPosition position = seatAllocationService.allocate(train, day, "二等座", mask, 1).get(0);
+        Ticket ticket = new Ticket();
+        ticket.setTicketNo(ticketNo);
+        ticket.setTrainId(1L);
+        ticket.setTravelDate(day);
+        ticket.setSeatType("二等座");
+        ticket.setStartStationId(from);
+        ticket.setEndStationId(to);
+        ticket.setCoach(String.valueOf(position.getCoach()));
+        ticket.setSeat(String.valueOf(position.getSeat()));
+        return ticket;
+    }
+
+    /**
+     * 模拟在事务中执行，返回事务结束时需要回调的同步器
+     */
+    private <T> List<TransactionSynchronization> inTransaction(Supplier<T> action, T expected) {
+        TransactionSynchronizationManager.initSynchronization();
+        assertEquals(expected, action.get());
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        return synchronizations;
+    }
+
+    private void complete(List<TransactionSynchronization> synchronizations, int status) {
+        for (TransactionSynchronization synchronization : synchronizations) {
+            synchronization.afterCompletion(status);
+        }
+    }
+
+    @Test
+    @DisplayName("测试先标记的支付回滚后，后提交的支付仍保留整座扣减")
+    public void testMarkSold_FirstRollsBack() {
+        // 两个支付事务都按已提交状态预扣整座库存
+        List<TransactionSynchronization> t1 = inTransaction(() -> seatAllocationService.markSold(List.of(first)), 1);
+        List<TransactionSynchronization> t2 = inTransaction(() -> seatAllocationService.markSold(List.of(second)), 1);
+
+        complete(t1, TransactionSynchronization.STATUS_ROLLED_BACK);
+        complete(t2, TransactionSynchronization.STATUS_COMMITTED);
+
+        // t2提交时座位首次售出，预扣正确，不需要修正
+        verify(seatInventoryService, never()).restore(any(), any(), anyString(), anyInt());
+        verify(seatInventoryService, never()).deduct(any(), any(), anyString(), anyInt());
+        // 之后支付的车票看到已提交的售出状态，不再预扣
+        assertEquals(0, seatAllocationService.markSold(List.of(first)));
+    }
+
+    @Test
+    @DisplayName("测试并发支付同一座位都提交时，后提交的车票归还多扣的库存")
+    public void testMarkSold_BothCommit() {
+        List<TransactionSynchronization> t1 = inTransaction(() -> seatAllocationService.markSold(List.of(first)), 1);
+        List<TransactionSynchronization> t2 = inTransaction(() -> seatAllocationService.markSold(List.of(second)), 1);
+
+        complete(t2, TransactionSynchronization.STATUS_COMMITTED);
+        verify(seatInventoryService, never()).restore(any(), any(), anyString(), anyInt());
+        complete(t1, TransactionSynchronization.STATUS_COMMITTED);
+        verify(seatInventoryService, times(1)).restore(1L, day, "二等座", 1);
+    }
+
+    @Test
+    @DisplayName("测试支付时座位的已售区段被释放，提交后按车票补扣")
+    public void testMarkSold_OtherReleased() {
+        seatAllocationService.markSold(List.of(first));
+
+        // t2支付时座位已有售出区段，不预扣；t3在t2提交前退掉first
+        List<TransactionSynchronization> t2 = inTransaction(() -> seatAllocationService.markSold(List.of(second)), 0);
+        List<TransactionSynchronization> t3 = inTransaction(() -> seatAllocationService.release(first), true);
+        complete(t3, TransactionSynchronization.STATUS_COMMITTED);
+        complete(t2, TransactionSynchronization.STATUS_COMMITTED);
+
+        verify(seatInventoryService, never()).restore(any(), any(), anyString(), anyInt());
+        verify(seatInventoryService, times(1)).deduct(train, day, "二等座", 1);
+    }
+
+    @Test
+    @DisplayName("测试并发退掉同一座位的两张车票，最后提交的车票恢复整座库存")
+    public void testRelease_Concurrent() {
+        seatAllocationService.markSold(Collections.singletonList(first));
+        seatAllocationService.markSold(Collections.singletonList(second));
+
+        // 两个退票事务都看到座位还有另一张已售车票
+        List<TransactionSynchronization> t1 = inTransaction(() -> seatAllocationService.release(first), false);
+        List<TransactionSynchronization> t2 = inTransaction(() -> seatAllocationService.release(second), false);
+
+        complete(t1, TransactionSynchronization.STATUS_COMMITTED);
+        verify(seatInventoryService, never()).restore(any(), any(), anyString(), anyInt());
+        complete(t2, TransactionSynchronization.STATUS_COMMITTED);
+        verify(seatInventoryService, times(1)).restore(1L, day, "二等座", 1);
+    }
+
+    @Test
+    @DisplayName("测试回收已过发车日期的座位图")
+    public void testEvictPastLayouts() {
+        java.sql.Date yesterday = java.sql.Date.valueOf(LocalDate.now().minusDays(1));
+        long mask = seatAllocationService.getSegmentMask(train, A, B);
+        assertNotNull(seatAllocationService.allocate(train, yesterday, "二等座", mask, 1));
+        assertEquals(9, seatAllocationService.countAvailable(train, yesterday, "二等座", mask));
+        assertEquals(9, seatAllocationService.countAvailable(train, day, "二等座", mask));
+
+        seatAllocationService.evictPastLayouts();
+        assertEquals(10, seatAllocationService.countAvailable(train, yesterday, "二等座", mask));
+        assertEquals(9, seatAllocationService.countAvailable(train, day, "二等座", mask));
+    }
+}
@@ -0,0 +1,213 @@
+package com.mini12306.service.impl;
+
+import com.mini12306.model.SeatInventory;
+import com.mini12306.model.Train;
+import com.mini12306.repository.SeatInventoryRepository;
+import com.mini12306.repository.TrainRepository;
+import com.mini12306.repository.TrainScheduleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * SeatInventoryServiceImpl 单元测试类
+ */
+public class SeatInventoryServiceImplTest {
+
+    @Mock
+    private SeatInventoryRepository seatInventoryRepository;
+
+    @Mock
+    private TrainScheduleRepository trainScheduleRepository;
+
+    @Mock
+    private TrainRepository trainRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private SeatInventoryServiceImpl seatInventoryService;
+
+    private final java.sql.Date day = java.sql.Date.valueOf(LocalDate.now().plusDays(1));
+
+    private Train train;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(seatInventoryService, "writerPartitions", 2);
+        ReflectionTestUtils.setField(seatInventoryService, "writerBatchSize", 200);
+        ReflectionTestUtils.setField(seatInventoryService, "deductTimeoutMs", 2000L);
+        seatInventoryService.init();
+
+        train = new Train();
+        train.setId(1L);
+        train.setType("高铁");
+        train.setLowSeatCount(10);
+        when(seatInventoryRepository.decrementIfAvailable(any(), any(), anyString(), anyInt())).thenReturn(1);
+        when(seatInventoryRepository.increment(any(), any(), anyString(), anyInt())).thenReturn(1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        seatInventoryService.shutdown();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void mockInventory(int total, int remaining) {
+        SeatInventory inventory = new SeatInventory();
+        inventory.setTotalCount(total);
+        inventory.setRemainingCount(remaining);
+        when(seatInventoryRepository.findByTrainIdAndTravelDateAndSeatType(1L, day, "二等座"))
+                .thenReturn(Optional.of(inventory));
+    }
+
+    private void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "等待单写线程超时");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * 已写入数据库的扣减总数
+     */
+    private int flushedDeduction() {
+        ArgumentCaptor<Integer> counts = ArgumentCaptor.forClass(Integer.class);
+        verify(seatInventoryRepository, atLeast(0)).decrementIfAvailable(eq(1L), eq(day), eq("二等座"), counts.capture());
+        return counts.getAllValues().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    @Test
+    @DisplayName("测试并发扣减不超卖，库存只加载一次并合并落库")
+    public void testDeduct_Concurrent() throws Exception {
+        mockInventory(100, 10);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return seatInventoryService.deduct(train, day, "二等座", 1);
+            }));
+        }
+        start.countDown();
+        int deducted = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                deducted++;
+            }
+        }
+        pool.shutdown();
+
+        assertEquals(10, deducted);
+        assertEquals(0, seatInventoryService.getRemaining(train, day, "二等座"));
+        waitUntil(() -> flushedDeduction() == 10);
+        verify(seatInventoryRepository, times(1)).findByTrainIdAndTravelDateAndSeatType(1L, day, "二等座");
+    }
+
+    @Test
+    @DisplayName("测试事务回滚后归还预占且不落库")
+    public void testDeduct_Rollback() throws Exception {
+        mockInventory(10, 10);
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertTrue(seatInventoryService.deduct(train, day, "二等座", 3));
+        assertEquals(7, seatInventoryService.getRemaining(train, day, "二等座"));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        waitUntil(() -> seatInventoryService.getRemaining(train, day, "二等座") == 10);
+        seatInventoryService.retryFlush();
+        Thread.sleep(100);
+        verify(seatInventoryRepository, never()).decrementIfAvailable(any(), any(), anyString(), anyInt());
+    }
+
+    @Test
+    @DisplayName("测试恢复余票不超过总座位数")
+    public void testRestore_Capped() throws Exception {
+        mockInventory(10, 9);
+
+        assertTrue(seatInventoryService.deduct(train, day, "二等座", 1));
+        waitUntil(() -> flushedDeduction() == 1);
+
+        seatInventoryService.restore(1L, day, "二等座", 5);
+        verify(seatInventoryRepository, timeout(2000)).increment(1L, day, "二等座", 2);
+        assertEquals(10, seatInventoryService.getRemaining(train, day, "二等座"));
+    }
+
+    @Test
+    @DisplayName("测试落库失败的恢复保留在内存中，加载时计入并与后续扣减合并落库")
+    public void testRestore_BeforeLoad() throws Exception {
+        mockInventory(10, 5);
+        when(seatInventoryRepository.increment(any(), any(), anyString(), anyInt()))
+                .thenThrow(new RuntimeException("数据库不可用"))
+                .thenReturn(1);
+
+        seatInventoryService.restore(1L, day, "二等座", 2);
+        verify(seatInventoryRepository, timeout(2000)).increment(1L, day, "二等座", 2);
+
+        // 恢复尚未落库，加载时数据库中的5张加上内存中的2张
+        assertTrue(seatInventoryService.deduct(train, day, "二等座", 1));
+        assertEquals(6, seatInventoryService.getRemaining(train, day, "二等座"));
+
+        // 扣减提交后与未落库的恢复合并为净变更写入
+        verify(seatInventoryRepository, timeout(2000)).increment(1L, day, "二等座", 1);
+        assertEquals(0, flushedDeduction());
+    }
+
+    @Test
+    @DisplayName("测试数据库余票少于内存计数时扣到0并修正计数")
+    public void testFlush_Shortfall() throws Exception {
+        mockInventory(10, 10);
+        when(seatInventoryRepository.decrementIfAvailable(1L, day, "二等座", 3)).thenReturn(0);
+        when(seatInventoryRepository.findRemainingCount(1L, day, "二等座")).thenReturn(1);
+
+        assertTrue(seatInventoryService.deduct(train, day, "二等座", 3));
+        verify(seatInventoryRepository, timeout(2000)).decrementIfAvailable(1L, day, "二等座", 1);
+        waitUntil(() -> seatInventoryService.getRemaining(train, day, "二等座") == 5);
+    }
+
+    @Test
+    @DisplayName("测试售罄时不预占")
+    public void testDeduct_SoldOut() {
+        mockInventory(10, 2);
+
+        assertFalse(seatInventoryService.deduct(train, day, "二等座", 3));
+        assertTrue(seatInventoryService.deduct(train, day, "二等座", 2));
+        assertFalse(seatInventoryService.deduct(train, day, "二等座", 1));
+        assertEquals(0, seatInventoryService.getRemaining(train, day, "二等座"));
+    }
+}
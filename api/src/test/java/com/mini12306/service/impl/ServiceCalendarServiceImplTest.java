@@ -0,0 +1,134 @@
+package com.mini12306.service.impl;
+
+import com.mini12306.model.TrainSchedule;
+import com.mini12306.repository.TrainScheduleRepository;
+import com.mini12306.util.ServiceCalendar;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ServiceCalendarServiceImpl 单元测试类
+ */
+public class ServiceCalendarServiceImplTest {
+
+    @Mock
+    private TrainScheduleRepository trainScheduleRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ServiceCalendarServiceImpl serviceCalendarService;
+
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(serviceCalendarService, "horizonDays", 3);
+        // 车次1只在明天开行，车次2未配置日程
+        when(trainScheduleRepository.findScheduledTrainIds()).thenReturn(Collections.singletonList(1L));
+        when(trainScheduleRepository.findByTravelDateBetween(any(), any()))
+                .thenReturn(Collections.singletonList(createSchedule(1L, today.plusDays(1), 1)));
+    }
+
+    private TrainSchedule createSchedule(Long trainId, LocalDate travelDate, Integer status) {
+        TrainSchedule schedule = new TrainSchedule();
+        schedule.setTrainId(trainId);
+        schedule.setTravelDate(java.sql.Date.valueOf(travelDate));
+        schedule.setStatus(status);
+        return schedule;
+    }
+
+    @Test
+    @DisplayName("测试日历从昨天覆盖到开售期末尾")
+    public void testRebuild_Horizon() {
+        serviceCalendarService.rebuild();
+
+        ServiceCalendar calendar = (ServiceCalendar) ReflectionTestUtils.getField(serviceCalendarService, "calendar");
+        assertEquals(today.minusDays(1), calendar.getStartDate());
+        assertEquals(5, calendar.getDays());
+        assertTrue(calendar.covers(today.plusDays(3)));
+        assertFalse(calendar.covers(today.plusDays(4)));
+        verify(trainScheduleRepository).findByTravelDateBetween(
+                java.sql.Date.valueOf(today.minusDays(1)), java.sql.Date.valueOf(today.plusDays(3)));
+    }
+
+    @Test
+    @DisplayName("测试日历范围内按位图判断开行")
+    public void testIsRunning_WithinHorizon() {
+        assertFalse(serviceCalendarService.isRunning(1L, java.sql.Date.valueOf(today)));
+        assertTrue(serviceCalendarService.isRunning(1L, java.sql.Date.valueOf(today.plusDays(1))));
+        assertTrue(serviceCalendarService.isRunning(2L, java.sql.Date.valueOf(today)));
+
+        // 范围内不查询当日日程，日历只构建一次
+        verify(trainScheduleRepository, never()).findByTravelDateAndStatus(any(), any());
+        verify(trainScheduleRepository, times(1)).findByTravelDateBetween(any(), any());
+    }
+
+    @Test
+    @DisplayName("测试超出日历范围时查询当日日程")
+    public void testRunningOn_BeyondHorizon() {
+        LocalDate beyond = today.plusDays(4);
+        when(trainScheduleRepository.findByTravelDateAndStatus(java.sql.Date.valueOf(beyond), 1))
+                .thenReturn(Collections.singletonList(createSchedule(1L, beyond, 1)));
+
+        assertTrue(serviceCalendarService.isRunning(1L, java.sql.Date.valueOf(beyond)));
+        assertTrue(serviceCalendarService.isRunning(2L, java.sql.Date.valueOf(beyond)));
+        verify(trainScheduleRepository, times(2)).findByTravelDateAndStatus(java.sql.Date.valueOf(beyond), 1);
+
+        when(trainScheduleRepository.findByTravelDateAndStatus(java.sql.Date.valueOf(beyond), 1))
+                .thenReturn(Collections.emptyList());
+        assertFalse(serviceCalendarService.isRunning(1L, java.sql.Date.valueOf(beyond)));
+    }
+
+    @Test
+    @DisplayName("测试跨天后重建日历")
+    public void testIsRunning_DayRollover() {
+        // 模拟前一天构建的日历
+        ServiceCalendar stale = new ServiceCalendar(today.minusDays(2), 5);
+        stale.put(1L, Collections.emptyList());
+        ReflectionTestUtils.setField(serviceCalendarService, "calendar", stale);
+
+        assertTrue(serviceCalendarService.isRunning(1L, java.sql.Date.valueOf(today.plusDays(1))));
+
+        ServiceCalendar calendar = (ServiceCalendar) ReflectionTestUtils.getField(serviceCalendarService, "calendar");
+        assertNotSame(stale, calendar);
+        assertEquals(today.minusDays(1), calendar.getStartDate());
+        verify(trainScheduleRepository, times(1)).findByTravelDateBetween(any(), any());
+    }
+
+    @Test
+    @DisplayName("测试修改日程后只重新加载对应车次")
+    public void testRefreshTrain_ReloadOneTrain() {
+        serviceCalendarService.rebuild();
+        when(trainScheduleRepository.findByTrainId(1L)).thenReturn(Arrays.asList(
+                createSchedule(1L, today, 1), createSchedule(1L, today.plusDays(1), 0)));
+
+        serviceCalendarService.refreshTrain(1L);
+
+        assertTrue(serviceCalendarService.isRunning(1L, java.sql.Date.valueOf(today)));
+        assertFalse(serviceCalendarService.isRunning(1L, java.sql.Date.valueOf(today.plusDays(1))));
+        verify(trainScheduleRepository, times(1)).findByTravelDateBetween(any(), any());
+        verify(eventPublisher).publishEvent(any(Object.class));
+
+        // 车次的日程全部删除后视为每日开行
+        when(trainScheduleRepository.findByTrainId(1L)).thenReturn(Collections.emptyList());
+        serviceCalendarService.refreshTrain(1L);
+        assertTrue(serviceCalendarService.isRunning(1L, java.sql.Date.valueOf(today.plusDays(1))));
+    }
+}
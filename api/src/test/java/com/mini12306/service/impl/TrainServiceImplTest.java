@@ -0,0 +1,227 @@
+package com.mini12306.service.impl;
+
+import com.mini12306.dto.SeatAvailabilityDTO;
+import com.mini12306.model.Result;
+import com.mini12306.model.Station;
+import com.mini12306.model.Train;
+import com.mini12306.repository.StationRepository;
+import com.mini12306.repository.TrainRepository;
+import com.mini12306.service.FareService;
+import com.mini12306.service.SeatAllocationService;
+import com.mini12306.service.ServiceCalendarService;
+import com.mini12306.service.StationDictionaryService;
+import com.mini12306.service.TimetableService;
+import com.mini12306.util.StationDictionary;
+import com.mini12306.util.TimetableIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * TrainServiceImpl 单元测试类
+ */
+public class TrainServiceImplTest {
+
+    private static final long A = 1L;
+    private static final long X = 2L;
+    private static final long B = 3L;
+
+    @Mock
+    private TrainRepository trainRepository;
+
+    @Mock
+    private StationRepository stationRepository;
+
+    @Mock
+    private SeatAllocationService seatAllocationService;
+
+    @Mock
+    private TimetableService timetableService;
+
+    @Mock
+    private StationDictionaryService stationDictionaryService;
+
+    @Mock
+    private ServiceCalendarService serviceCalendarService;
+
+    @Mock
+    private FareService fareService;
+
+    @InjectMocks
+    private TrainServiceImpl trainService;
+
+    private final LocalDate tomorrow = LocalDate.now().plusDays(1);
+
+    private final java.sql.Date day = java.sql.Date.valueOf(tomorrow);
+
+    // G1经停A→X→B，G2反向B→X→A，G3只有A→B
+    private Train g1;
+
+    private Train g2;
+
+    private Train g3;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(trainService, "searchCacheMaxSize", 100);
+        ReflectionTestUtils.setField(trainService, "searchCacheTtlSeconds", 30);
+        trainService.init();
+
+        when(stationDictionaryService.getDictionary()).thenReturn(StationDictionary.of(Arrays.asList(
+                createStation(A, "北京南"), createStation(X, "济南西"), createStation(B, "上海虹桥"))));
+
+        g1 = createTrain(1L);
+        g2 = createTrain(2L);
+        g3 = createTrain(3L);
+        when(trainRepository.findAllById(any())).thenReturn(Arrays.asList(g1, g2, g3));
+        when(timetableService.getTrainStops(1L)).thenReturn(createStops(1L, A, X, B));
+        when(timetableService.getTrainStops(2L)).thenReturn(createStops(2L, B, X, A));
+        when(timetableService.getTrainStops(3L)).thenReturn(createStops(3L, A, B));
+
+        // 余票数按区段掩码返回，便于检查使用的掩码
+        when(seatAllocationService.countAvailable(any(), any(), anyString(), anyLong()))
+                .thenAnswer(invocation -> (int) (long) invocation.getArgument(3, Long.class));
+    }
+
+    private Station createStation(Long id, String name) {
+        Station station = new Station();
+        station.setId(id);
+        station.setName(name);
+        return station;
+    }
+
+    private Train createTrain(Long id) {
+        Train train = new Train();
+        train.setId(id);
+        train.setCode("G" + id);
+        train.setType("高铁");
+        // 没有商务座
+        train.setHighSeatCount(0);
+        train.setMidSeatCount(50);
+        train.setLowSeatCount(500);
+        return train;
+    }
+
+    private TimetableIndex.TrainStops createStops(long trainId, long... stationIds) {
+        int n = stationIds.length;
+        int[] times = new int[n];
+        int[] distance = new int[n];
+        for (int i = 0; i < n; i++) {
+            times[i] = 480 + i * 60;
+            distance[i] = i * 100;
+        }
+        return new TimetableIndex.TrainStops(trainId, stationIds, times, times, distance);
+    }
+
+    private SeatAvailabilityDTO query(List<Long> trainIds, String from, String to) {
+        Result<SeatAvailabilityDTO> result = trainService.getAvailability(trainIds, tomorrow.toString(), from, to);
+        assertTrue(result.isSuccess(), result.getMessage());
+        return result.getData();
+    }
+
+    @Test
+    @DisplayName("测试按经停站计算区段掩码，只返回有座位的座位类型")
+    public void testGetAvailability_SegmentMask() {
+        SeatAvailabilityDTO dto = query(Arrays.asList(1L, 3L), "济南西", "上海虹桥");
+        assertEquals(tomorrow.toString(), dto.getTravelDate());
+        assertEquals(List.of(1L), dto.getTrainIds());
+        assertEquals(List.of(List.of("一等座", "二等座")), dto.getSeatTypes());
+        // 第1站到第2站为区段1
+        assertArrayEquals(new int[]{2, 2}, dto.getRemaining().get(0));
+        verify(seatAllocationService).countAvailable(g1, day, "二等座", 0b10L);
+
+        // 未指定区间时按全程计算
+        dto = query(Arrays.asList(1L, 3L), null, null);
+        assertEquals(List.of(1L, 3L), dto.getTrainIds());
+        assertArrayEquals(new int[]{0b11, 0b11}, dto.getRemaining().get(0));
+        assertArrayEquals(new int[]{0b1, 0b1}, dto.getRemaining().get(1));
+        verify(timetableService, never()).findDirectTrains(any(), any());
+    }
+
+    @Test
+    @DisplayName("测试时刻表索引中没有的车次按始发站到终点站计算")
+    public void testGetAvailability_WithoutStops() {
+        when(timetableService.getTrainStops(1L)).thenReturn(null);
+
+        SeatAvailabilityDTO dto = query(List.of(1L), null, null);
+        assertEquals(List.of(1L), dto.getTrainIds());
+        assertArrayEquals(new int[]{0b1, 0b1}, dto.getRemaining().get(0));
+    }
+
+    @Test
+    @DisplayName("测试不经过区间或方向相反的车次不返回")
+    public void testGetAvailability_NotServingSegment() {
+        SeatAvailabilityDTO dto = query(Arrays.asList(3L, 2L, 1L), "北京南", "济南西");
+        assertEquals(List.of(1L), dto.getTrainIds());
+        assertEquals(1, dto.getSeatTypes().size());
+        assertEquals(1, dto.getRemaining().size());
+
+        dto = query(Arrays.asList(3L, 2L, 1L), "济南西", "北京南");
+        assertEquals(List.of(2L), dto.getTrainIds());
+        assertArrayEquals(new int[]{0b10, 0b10}, dto.getRemaining().get(0));
+    }
+
+    @Test
+    @DisplayName("测试不存在的车次被跳过，重复的车次只返回一次并保持请求顺序")
+    public void testGetAvailability_MissingTrain() {
+        when(trainRepository.findAllById(any())).thenReturn(Arrays.asList(g3, g1));
+
+        SeatAvailabilityDTO dto = query(Arrays.asList(3L, 99L, 1L, 3L), null, null);
+        assertEquals(List.of(3L, 1L), dto.getTrainIds());
+        assertEquals(2, dto.getSeatTypes().size());
+        assertEquals(2, dto.getRemaining().size());
+    }
+
+    @Test
+    @DisplayName("测试站点不存在时查询失败且不查询车次")
+    public void testGetAvailability_UnknownStation() {
+        Result<SeatAvailabilityDTO> result = trainService.getAvailability(List.of(1L), tomorrow.toString(), "北京南", "火星");
+        assertFalse(result.isSuccess());
+        assertEquals("站点不存在", result.getMessage());
+
+        // 只给出一端也视为站点不存在
+        result = trainService.getAvailability(List.of(1L), tomorrow.toString(), "北京南", null);
+        assertFalse(result.isSuccess());
+        verifyNoInteractions(trainRepository, seatAllocationService);
+    }
+
+    @Test
+    @DisplayName("测试车次数按去重后计算，超过上限时查询失败")
+    public void testGetAvailability_TrainLimit() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            ids.add(id);
+        }
+        ids.add(1L);
+        assertTrue(trainService.getAvailability(ids, tomorrow.toString(), null, null).isSuccess());
+
+        ids.add(101L);
+        Result<SeatAvailabilityDTO> result = trainService.getAvailability(ids, tomorrow.toString(), null, null);
+        assertFalse(result.isSuccess());
+        assertEquals("一次最多查询100个车次", result.getMessage());
+        verify(trainRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    @DisplayName("测试车次为空或日期格式错误时查询失败")
+    public void testGetAvailability_InvalidArguments() {
+        assertFalse(trainService.getAvailability(null, tomorrow.toString(), null, null).isSuccess());
+        assertFalse(trainService.getAvailability(List.of(), tomorrow.toString(), null, null).isSuccess());
+        assertFalse(trainService.getAvailability(List.of(1L), "2026/10/18", null, null).isSuccess());
+        verifyNoInteractions(trainRepository);
+    }
+}
@@ -0,0 +1,114 @@
+package com.mini12306.util;
+
+import com.mini12306.model.Money;
+import com.mini12306.model.Train;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FareTable 单元测试类
+ */
+public class FareTableTest {
+
+    // 高铁座位等级费率：商务座、一等座、二等座
+    private static final int[] RATES = {15000, 12000, 10000};
+
+    private Train createTrain(Long baseFareFen) {
+        Train train = new Train();
+        train.setId(1L);
+        train.setCode("G1");
+        train.setType("高铁");
+        train.setPrice(baseFareFen != null ? Money.fromFen(baseFareFen) : null);
+        return train;
+    }
+
+    private TimetableIndex.TrainStops createStops(int... distance) {
+        int n = distance.length;
+        long[] stationIds = new long[n];
+        int[] times = new int[n];
+        for (int i = 0; i < n; i++) {
+            stationIds[i] = i + 1;
+            times[i] = 480 + i * 60;
+        }
+        return new TimetableIndex.TrainStops(1L, stationIds, times, times, distance);
+    }
+
+    @Test
+    @DisplayName("测试全程票价按区间里程比例折算并四舍五入")
+    public void testBuild_ProrateBaseFare() {
+        // 全程300公里、100元
+        FareTable table = FareTable.build(createTrain(10000L), createStops(0, 100, 300), RATES, 50);
+
+        assertEquals(10000, table.getFare(0, 2, "二等座"));
+        // 100/300 * 10000 = 3333.33 -> 3333
+        assertEquals(3333, table.getFare(0, 1, "二等座"));
+        // 200/300 * 10000 = 6666.67 -> 6667
+        assertEquals(6667, table.getFare(1, 2, "二等座"));
+        // 等级费率：3333 * 1.5 = 4999.5 -> 5000，3333 * 1.2 = 3999.6 -> 4000
+        assertEquals(5000, table.getFare(0, 1, "商务座"));
+        assertEquals(4000, table.getFare(0, 1, "一等座"));
+    }
+
+    @Test
+    @DisplayName("测试未设置全程票价时按每公里票价计算")
+    public void testBuild_PerKilometer() {
+        FareTable table = FareTable.build(createTrain(null), createStops(0, 120, 300), RATES, 45);
+
+        assertEquals(-1, table.getBaseFare());
+        assertEquals(5400, table.getFare(0, 1, "二等座"));
+        assertEquals(8100, table.getFare(1, 2, "二等座"));
+        assertEquals(20250, table.getFare(0, 2, "商务座"));
+    }
+
+    @Test
+    @DisplayName("测试始发站缺少里程时按0公里计算")
+    public void testBuild_OriginMissingDistance() {
+        FareTable prorated = FareTable.build(createTrain(9000L), createStops(-1, 100, 300), RATES, 50);
+        assertEquals(3000, prorated.getFare(0, 1, "二等座"));
+
+        FareTable perKm = FareTable.build(createTrain(null), createStops(-1, 100, 300), RATES, 50);
+        assertEquals(5000, perKm.getFare(0, 1, "二等座"));
+    }
+
+    @Test
+    @DisplayName("测试中途上车站缺少里程时不从0公里起算")
+    public void testBuild_BoardingStopMissingDistance() {
+        FareTable prorated = FareTable.build(createTrain(9000L), createStops(0, -1, 200, 300), RATES, 50);
+        // 缺少里程时按全程票价，而不是按0到200公里折算为6000
+        assertEquals(9000, prorated.getFare(1, 2, "二等座"));
+        assertEquals(9000, prorated.getFare(1, 3, "二等座"));
+        assertEquals(9000, prorated.getFare(0, 1, "二等座"));
+        assertEquals(3000, prorated.getFare(2, 3, "二等座"));
+
+        FareTable perKm = FareTable.build(createTrain(null), createStops(0, -1, 200, 300), RATES, 50);
+        assertEquals(-1, perKm.getFare(1, 2, "二等座"));
+        assertEquals(-1, perKm.getFare(0, 1, "二等座"));
+        assertEquals(10000, perKm.getFare(0, 2, "二等座"));
+    }
+
+    @Test
+    @DisplayName("测试没有经停信息时只计算全程票价")
+    public void testBuild_WithoutStops() {
+        FareTable table = FareTable.build(createTrain(10000L), null, RATES, 50);
+        assertEquals(2, table.getStopCount());
+        assertEquals(10000, table.getFare(0, 1, "二等座"));
+        assertEquals(15000, table.getFare(0, 1, "商务座"));
+
+        FareTable unpriced = FareTable.build(createTrain(null), null, RATES, 50);
+        assertEquals(-1, unpriced.getFare(0, 1, "二等座"));
+    }
+
+    @Test
+    @DisplayName("测试越界区间和不支持的座位类型返回-1")
+    public void testGetFare_Invalid() {
+        FareTable table = FareTable.build(createTrain(10000L), createStops(0, 100, 300), RATES, 50);
+
+        assertEquals(-1, table.getFare(1, 1, "二等座"));
+        assertEquals(-1, table.getFare(2, 1, "二等座"));
+        assertEquals(-1, table.getFare(0, 3, "二等座"));
+        assertEquals(-1, table.getFare(0, 1, "硬卧"));
+        assertEquals(-1, table.seatClassOf("硬卧"));
+    }
+}
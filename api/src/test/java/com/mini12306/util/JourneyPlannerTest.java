@@ -0,0 +1,126 @@
+package com.mini12306.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JourneyPlanner 单元测试类
+ */
+public class JourneyPlannerTest {
+
+    // 站点：A出发、X换乘、B到达
+    private static final long A = 1L;
+    private static final long X = 2L;
+    private static final long B = 3L;
+
+    private static final int DAY = 24 * 60;
+
+    private static final JourneyPlanner.RunningCalendar EVERY_DAY = (trainId, dayOffset) -> true;
+
+    private TimetableIndex.TrainStops createStops(long trainId, long from, int depart, long to, int arrive) {
+        return new TimetableIndex.TrainStops(trainId, new long[]{from, to},
+                new int[]{depart, arrive}, new int[]{depart, arrive}, new int[]{0, 100});
+    }
+
+    /**
+     * 10次 A 08:00 → X 10:00；20次 X 10:10 → B 11:40；30次 X 10:30 → B 12:40
+     */
+    private TimetableIndex createIndex() {
+        TimetableIndex index = new TimetableIndex();
+        index.put(createStops(10L, A, 480, X, 600));
+        index.put(createStops(20L, X, 610, B, 700));
+        index.put(createStops(30L, X, 630, B, 760));
+        return index;
+    }
+
+    private List<JourneyPlanner.Journey> plan(TimetableIndex index, int departAfter, int minTransfer,
+                                              JourneyPlanner.RunningCalendar calendar) {
+        return JourneyPlanner.build(index).plan(Collections.singletonList(A), Collections.singletonList(B),
+                departAfter, 1, minTransfer, calendar);
+    }
+
+    @Test
+    @DisplayName("测试换乘间隔不足时改乘更晚的车次")
+    public void testPlan_MinTransferSkipsTightConnection() {
+        List<JourneyPlanner.Journey> journeys = plan(createIndex(), 0, 20, EVERY_DAY);
+
+        assertEquals(1, journeys.size());
+        JourneyPlanner.Journey journey = journeys.get(0);
+        assertEquals(1, journey.getTransfers());
+        assertEquals(10L, journey.getLegs().get(0).getTrainId());
+        assertEquals(30L, journey.getLegs().get(1).getTrainId());
+        assertEquals(X, journey.getLegs().get(1).getFromStationId());
+        assertEquals(630, journey.getLegs().get(1).getDepart());
+        assertEquals(760, journey.getArrive());
+    }
+
+    @Test
+    @DisplayName("测试换乘间隔恰好等于最短间隔时可以换乘")
+    public void testPlan_MinTransferInclusive() {
+        List<JourneyPlanner.Journey> journeys = plan(createIndex(), 0, 10, EVERY_DAY);
+
+        assertEquals(1, journeys.size());
+        assertEquals(20L, journeys.get(0).getLegs().get(1).getTrainId());
+        assertEquals(700, journeys.get(0).getArrive());
+    }
+
+    @Test
+    @DisplayName("测试首段上车不计换乘间隔")
+    public void testPlan_FirstLegIgnoresMinTransfer() {
+        List<JourneyPlanner.Journey> journeys = plan(createIndex(), 480, 60, EVERY_DAY);
+
+        assertEquals(1, journeys.size());
+        JourneyPlanner.Leg first = journeys.get(0).getLegs().get(0);
+        assertEquals(10L, first.getTrainId());
+        assertEquals(0, first.getDayOffset());
+        assertEquals(480, first.getDepart());
+        // 10:00到达后60分钟，只能赶上次日的车次
+        JourneyPlanner.Leg second = journeys.get(0).getLegs().get(1);
+        assertEquals(1, second.getDayOffset());
+        assertEquals(20L, second.getTrainId());
+        assertEquals(610 + DAY, second.getDepart());
+        assertEquals(700 + DAY, second.getArrive());
+    }
+
+    @Test
+    @DisplayName("测试换乘车次停运时顺延到开行日，超出范围时无方案")
+    public void testPlan_MinTransferWithCalendar() {
+        TimetableIndex index = new TimetableIndex();
+        index.put(createStops(10L, A, 480, X, 600));
+        index.put(createStops(20L, X, 610, B, 700));
+
+        // 赶不上当天的20次，次日停运，后天开行
+        List<JourneyPlanner.Journey> journeys = plan(index, 0, 20, (trainId, dayOffset) -> trainId != 20L || dayOffset != 1);
+        assertEquals(1, journeys.size());
+        assertEquals(2, journeys.get(0).getLegs().get(1).getDayOffset());
+        assertEquals(700 + 2 * DAY, journeys.get(0).getArrive());
+
+        // 只在当天开行时没有可换乘的班次
+        assertTrue(plan(index, 0, 20, (trainId, dayOffset) -> trainId != 20L || dayOffset == 0).isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试换乘间隔使换乘方案晚于直达时只保留直达")
+    public void testPlan_MinTransferAgainstDirect() {
+        TimetableIndex index = createIndex();
+        // 40次 A 08:00 → B 15:00 直达
+        index.put(createStops(40L, A, 480, B, 900));
+
+        List<JourneyPlanner.Journey> journeys = plan(index, 0, 20, EVERY_DAY);
+        assertEquals(2, journeys.size());
+        assertEquals(0, journeys.get(0).getTransfers());
+        assertEquals(900, journeys.get(0).getArrive());
+        assertEquals(1, journeys.get(1).getTransfers());
+        assertEquals(760, journeys.get(1).getArrive());
+
+        // 换乘需要200分钟时只能乘次日班次，比直达晚
+        journeys = plan(index, 0, 200, EVERY_DAY);
+        assertEquals(1, journeys.size());
+        assertEquals(40L, journeys.get(0).getLegs().get(0).getTrainId());
+    }
+}
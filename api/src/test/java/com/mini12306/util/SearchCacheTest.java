@@ -0,0 +1,157 @@
+package com.mini12306.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SearchCache 单元测试类
+ */
+public class SearchCacheTest {
+
+    @Test
+    @DisplayName("测试查询期间标签被失效时放弃写入")
+    public void testPut_RejectedAfterInvalidate() {
+        SearchCache<String, String> cache = new SearchCache<>(10, 60000);
+
+        long start = cache.begin();
+        // 查询数据库期间车次G1的数据发生变更
+        cache.invalidate("G1");
+        cache.put("北京-上海", "旧结果", Arrays.asList("G1", "北京"), start);
+
+        assertNull(cache.get("北京-上海"));
+        assertEquals(1L, cache.getStats().get("rejectedPuts"));
+
+        // 变更之后开始的查询可以写入
+        cache.put("北京-上海", "新结果", Arrays.asList("G1", "北京"), cache.begin());
+        assertEquals("新结果", cache.get("北京-上海"));
+    }
+
+    @Test
+    @DisplayName("测试其他标签的失效不影响写入")
+    public void testPut_UnrelatedInvalidate() {
+        SearchCache<String, String> cache = new SearchCache<>(10, 60000);
+
+        long start = cache.begin();
+        cache.invalidate("G2");
+        cache.put("北京-上海", "结果", Collections.singletonList("G1"), start);
+
+        assertEquals("结果", cache.get("北京-上海"));
+        assertEquals(0L, cache.getStats().get("rejectedPuts"));
+    }
+
+    @Test
+    @DisplayName("测试全部失效后查询开始前的结果不能写入")
+    public void testPut_RejectedAfterInvalidateAll() {
+        SearchCache<String, String> cache = new SearchCache<>(10, 60000);
+        cache.put("A", "a", Collections.singletonList("G1"), cache.begin());
+
+        long start = cache.begin();
+        cache.invalidateAll();
+        cache.put("B", "b", Collections.singletonList("G2"), start);
+
+        assertNull(cache.get("A"));
+        assertNull(cache.get("B"));
+
+        cache.put("B", "b", Collections.singletonList("G2"), cache.begin());
+        assertEquals("b", cache.get("B"));
+    }
+
+    @Test
+    @DisplayName("测试失效只移除带有该标签的条目")
+    public void testInvalidate_ByTag() {
+        SearchCache<String, String> cache = new SearchCache<>(10, 60000);
+        cache.put("A", "a", Arrays.asList("G1", "北京"), cache.begin());
+        cache.put("B", "b", Arrays.asList("G2", "北京"), cache.begin());
+        cache.put("C", "c", Collections.singletonList("G2"), cache.begin());
+
+        assertEquals(2, cache.invalidate("G2"));
+        assertEquals("a", cache.get("A"));
+        assertNull(cache.get("B"));
+        assertNull(cache.get("C"));
+
+        assertEquals(1, cache.invalidate("北京"));
+        assertNull(cache.get("A"));
+    }
+
+    @Test
+    @DisplayName("测试超过容量时淘汰最近最少使用的条目")
+    public void testPut_EvictLeastRecentlyUsed() {
+        SearchCache<String, String> cache = new SearchCache<>(2, 60000);
+        cache.put("A", "a", Collections.singletonList("G1"), cache.begin());
+        cache.put("B", "b", Collections.singletonList("G2"), cache.begin());
+        cache.get("A");
+        cache.put("C", "c", Collections.singletonList("G3"), cache.begin());
+
+        assertEquals("a", cache.get("A"));
+        assertNull(cache.get("B"));
+        assertEquals("c", cache.get("C"));
+        assertEquals(1L, cache.getStats().get("evictions"));
+        // 被淘汰条目的标签索引已清除
+        assertEquals(0, cache.invalidate("G2"));
+    }
+
+    @Test
+    @DisplayName("测试并发查询与失效交错时不写入旧结果")
+    public void testPut_ConcurrentInvalidate() throws Exception {
+        SearchCache<String, String> cache = new SearchCache<>(10, 60000);
+        CountDownLatch queried = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> search = executor.submit(() -> {
+                long start = cache.begin();
+                queried.countDown();
+                // 模拟查询数据库期间另一个线程提交了变更
+                invalidated.await(5, TimeUnit.SECONDS);
+                cache.put("北京-上海", "旧结果", Collections.singletonList("G1"), start);
+                return null;
+            });
+
+            assertTrue(queried.await(5, TimeUnit.SECONDS));
+            cache.invalidate("G1");
+            invalidated.countDown();
+            search.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertNull(cache.get("北京-上海"));
+        assertEquals(1L, cache.getStats().get("rejectedPuts"));
+    }
+
+    @Test
+    @DisplayName("测试失效记录不超过容量，淘汰的记录并入下限")
+    public void testInvalidate_PruneTags() {
+        SearchCache<String, String> cache = new SearchCache<>(2, 60000);
+
+        long start = cache.begin();
+        for (int i = 0; i < 100; i++) {
+            cache.invalidate("seat-" + i);
+        }
+        assertEquals(2, cache.getStats().get("invalidatedTags"));
+
+        // 记录已被淘汰的标签仍按下限拒绝旧查询
+        cache.put("A", "a", Collections.singletonList("seat-0"), start);
+        assertNull(cache.get("A"));
+        assertEquals(1L, cache.getStats().get("rejectedPuts"));
+
+        // 再次失效的标签排到最后，不会先于其他标签被淘汰
+        long middle = cache.begin();
+        cache.invalidate("seat-98");
+        cache.invalidate("G1");
+        cache.put("B", "b", Collections.singletonList("seat-99"), middle);
+        assertEquals("b", cache.get("B"));
+        cache.put("C", "c", Collections.singletonList("seat-98"), middle);
+        assertNull(cache.get("C"));
+    }
+}
@@ -0,0 +1,91 @@
+package com.mini12306.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SeatMap 单元测试类
+ */
+public class SeatMapTest {
+
+    // 四站线路的区段掩码：A→B、B→C、C→D
+    private static final long AB = 0b001;
+    private static final long BC = 0b010;
+    private static final long CD = 0b100;
+    private static final long AC = AB | BC;
+    private static final long AD = AB | BC | CD;
+
+    @Test
+    @DisplayName("测试分配整座空闲座位并统计余座")
+    public void testAllocate_FreeSeats() {
+        SeatMap seatMap = new SeatMap(3);
+
+        assertArrayEquals(new int[]{0, 1}, seatMap.allocate(2, 3, AD));
+        assertEquals(1, seatMap.countAvailable(AD));
+        assertEquals(1, seatMap.countAvailable(CD));
+
+        assertArrayEquals(new int[]{2}, seatMap.allocate(1, 3, AD));
+        assertNull(seatMap.allocate(1, 3, AB));
+        assertEquals(0, seatMap.countAvailable(AB));
+    }
+
+    @Test
+    @DisplayName("测试优先复用已部分占用且区段不冲突的座位")
+    public void testAllocate_ReusePartialSeat() {
+        SeatMap seatMap = new SeatMap(2);
+
+        assertArrayEquals(new int[]{0}, seatMap.allocate(1, 2, AC));
+        assertEquals(2, seatMap.countAvailable(CD));
+        assertArrayEquals(new int[]{0}, seatMap.allocate(1, 2, CD));
+        // 座位0已经全程占用，整座空闲的座位1仍留给全程乘客
+        assertEquals(1, seatMap.countAvailable(AD));
+        assertArrayEquals(new int[]{1}, seatMap.allocate(1, 2, AD));
+    }
+
+    @Test
+    @DisplayName("测试余座不足时不占用任何座位")
+    public void testAllocate_NotEnough() {
+        SeatMap seatMap = new SeatMap(2);
+        seatMap.allocate(1, 2, AB);
+
+        assertNull(seatMap.allocate(2, 2, AC));
+        assertEquals(1, seatMap.countAvailable(AC));
+        assertEquals(2, seatMap.countAvailable(CD));
+    }
+
+    @Test
+    @DisplayName("测试释放区段后座位重新可分配")
+    public void testRelease_SeatReusable() {
+        SeatMap seatMap = new SeatMap(2);
+        seatMap.allocate(2, 2, AD);
+        assertEquals(0, seatMap.countAvailable(BC));
+
+        seatMap.release(1, BC);
+        assertEquals(1, seatMap.countAvailable(BC));
+        assertEquals(0, seatMap.countAvailable(AC));
+        // 区间游标回退到释放的座位
+        assertArrayEquals(new int[]{1}, seatMap.allocate(1, 2, BC));
+
+        seatMap.release(0, AD);
+        assertEquals(1, seatMap.countAvailable(AD));
+        assertArrayEquals(new int[]{0}, seatMap.allocate(1, 2, AB));
+    }
+
+    @Test
+    @DisplayName("测试重建占用和列车扩容后的余座统计")
+    public void testMarkHeld_AndGrow() {
+        SeatMap seatMap = new SeatMap(2);
+        assertEquals(2, seatMap.countAvailable(AB));
+
+        assertTrue(seatMap.markHeld(0, AB));
+        assertFalse(seatMap.markHeld(0, AC));
+        assertTrue(seatMap.markHeld(3, CD));
+        assertEquals(3, seatMap.countAvailable(AB));
+        assertEquals(2, seatMap.countAvailable(AD));
+
+        assertArrayEquals(new int[]{0, 3, 1}, seatMap.allocate(3, 5, BC));
+        assertEquals(2, seatMap.countAvailable(BC));
+    }
+}
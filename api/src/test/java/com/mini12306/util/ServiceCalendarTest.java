@@ -0,0 +1,87 @@
+package com.mini12306.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ServiceCalendar 单元测试类
+ */
+public class ServiceCalendarTest {
+
+    private static final LocalDate START = LocalDate.of(2030, 2, 27);
+
+    @Test
+    @DisplayName("测试位图偏移与开行日期一一对应")
+    public void testIsRunning_Offsets() {
+        ServiceCalendar calendar = new ServiceCalendar(START, 5);
+        calendar.put(1L, Arrays.asList(START, START.plusDays(2)));
+
+        assertTrue(calendar.isRunning(1L, START));
+        assertFalse(calendar.isRunning(1L, START.plusDays(1)));
+        assertTrue(calendar.isRunning(1L, START.plusDays(2)));
+        assertFalse(calendar.isRunning(1L, START.plusDays(3)));
+    }
+
+    @Test
+    @DisplayName("测试跨月和闰年的日期偏移")
+    public void testIsRunning_MonthRollover() {
+        // 2030-02-27起的5天：2/27、2/28、3/1、3/2、3/3
+        ServiceCalendar calendar = new ServiceCalendar(START, 5);
+        calendar.put(1L, Collections.singletonList(LocalDate.of(2030, 3, 1)));
+
+        assertFalse(calendar.isRunning(1L, LocalDate.of(2030, 2, 28)));
+        assertTrue(calendar.isRunning(1L, LocalDate.of(2030, 3, 1)));
+
+        ServiceCalendar leap = new ServiceCalendar(LocalDate.of(2028, 2, 28), 3);
+        leap.put(1L, Collections.singletonList(LocalDate.of(2028, 3, 1)));
+        assertFalse(leap.isRunning(1L, LocalDate.of(2028, 2, 29)));
+        assertTrue(leap.isRunning(1L, LocalDate.of(2028, 3, 1)));
+    }
+
+    @Test
+    @DisplayName("测试覆盖范围的首尾边界")
+    public void testCovers_HorizonEdges() {
+        ServiceCalendar calendar = new ServiceCalendar(START, 5);
+
+        assertFalse(calendar.covers(START.minusDays(1)));
+        assertTrue(calendar.covers(START));
+        assertTrue(calendar.covers(START.plusDays(4)));
+        assertFalse(calendar.covers(START.plusDays(5)));
+    }
+
+    @Test
+    @DisplayName("测试范围外的开行日期被忽略")
+    public void testPut_IgnoreOutOfRange() {
+        ServiceCalendar calendar = new ServiceCalendar(START, 5);
+        calendar.put(1L, Arrays.asList(START.minusDays(1), START.plusDays(4), START.plusDays(5)));
+
+        assertTrue(calendar.isRunning(1L, START.plusDays(4)));
+        assertFalse(calendar.isRunning(1L, START.minusDays(1)));
+        assertFalse(calendar.isRunning(1L, START.plusDays(5)));
+    }
+
+    @Test
+    @DisplayName("测试未配置日程的车次每日开行，移除日程后恢复每日开行")
+    public void testIsRunning_Unscheduled() {
+        ServiceCalendar calendar = new ServiceCalendar(START, 5);
+        assertFalse(calendar.isScheduled(1L));
+        assertTrue(calendar.isRunning(1L, START.plusDays(1)));
+
+        calendar.put(1L, Collections.emptyList());
+        assertTrue(calendar.isScheduled(1L));
+        assertFalse(calendar.isRunning(1L, START.plusDays(1)));
+
+        calendar.put(1L, Collections.singletonList(START.plusDays(1)));
+        assertTrue(calendar.isRunning(1L, START.plusDays(1)));
+
+        calendar.remove(1L);
+        assertFalse(calendar.isScheduled(1L));
+        assertTrue(calendar.isRunning(1L, START.plusDays(3)));
+    }
+}
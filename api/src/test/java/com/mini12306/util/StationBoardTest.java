@@ -0,0 +1,100 @@
+package com.mini12306.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * StationBoard 单元测试类
+ */
+public class StationBoardTest {
+
+    private static final long A = 1L;
+    private static final long X = 2L;
+    private static final long B = 3L;
+
+    private StationBoard board;
+
+    /**
+     * 1次 A 07:00 → X 07:55/08:00 → B 09:00
+     * 2次 X 08:00 → B 10:00
+     * 3次 A 22:30 → X 次日00:20/00:30 → B 次日02:00
+     * 4次 X 23:59 → B 次日01:00
+     */
+    @BeforeEach
+    public void setup() {
+        TimetableIndex index = new TimetableIndex();
+        index.put(new TimetableIndex.TrainStops(1L, new long[]{A, X, B},
+                new int[]{420, 475, 540}, new int[]{420, 480, 540}, new int[]{0, 50, 120}));
+        index.put(new TimetableIndex.TrainStops(2L, new long[]{X, B},
+                new int[]{480, 600}, new int[]{480, 600}, new int[]{0, 70}));
+        index.put(new TimetableIndex.TrainStops(3L, new long[]{A, X, B},
+                new int[]{1350, 1460, 1560}, new int[]{1350, 1470, 1560}, new int[]{0, 50, 120}));
+        index.put(new TimetableIndex.TrainStops(4L, new long[]{X, B},
+                new int[]{1439, 1500}, new int[]{1439, 1500}, new int[]{0, 70}));
+        board = StationBoard.build(index);
+    }
+
+    private List<Long> trainIds(List<StationBoard.Event> events) {
+        List<Long> ids = new ArrayList<>();
+        for (StationBoard.Event event : events) {
+            ids.add(event.getTrainId());
+        }
+        return ids;
+    }
+
+    @Test
+    @DisplayName("测试时间段首尾都包含在内")
+    public void testQuery_InclusiveBounds() {
+        assertEquals(List.of(1L, 2L), trainIds(board.query(X, true, 480, 480, null, 10)));
+        assertEquals(List.of(1L, 2L), trainIds(board.query(X, true, 479, 480, null, 10)));
+        assertTrue(board.query(X, true, 481, 1438, null, 10).isEmpty());
+        assertEquals(List.of(4L), trainIds(board.query(X, true, 1439, 1439, null, 10)));
+    }
+
+    @Test
+    @DisplayName("测试跨天车次按当日时刻排列在一天开始")
+    public void testQuery_OvernightTrain() {
+        List<StationBoard.Event> events = board.query(X, true, 0, 30, null, 10);
+        assertEquals(1, events.size());
+        StationBoard.Event event = events.get(0);
+        assertEquals(3L, event.getTrainId());
+        assertEquals(1470, event.getTime());
+        assertEquals(30, event.getMinuteOfDay());
+        assertEquals(1, event.getDayOffset());
+        assertEquals(1, event.getStopIndex());
+
+        assertTrue(board.query(X, true, 0, 29, null, 10).isEmpty());
+        assertEquals(List.of(3L, 1L, 2L, 4L), trainIds(board.query(X, true, 0, 24 * 60 - 1, null, 10)));
+    }
+
+    @Test
+    @DisplayName("测试始发站没有到达、终点站没有出发")
+    public void testQuery_OriginAndTerminus() {
+        assertEquals(List.of(3L, 1L), trainIds(board.query(X, false, 0, 24 * 60 - 1, null, 10)));
+        assertEquals(475, board.query(X, false, 475, 475, null, 10).get(0).getTime());
+        assertTrue(board.query(B, true, 0, 24 * 60 - 1, null, 10).isEmpty());
+        assertTrue(board.query(A, false, 0, 24 * 60 - 1, null, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试被过滤的事件不占用返回条数")
+    public void testQuery_FilterAndLimit() {
+        assertEquals(List.of(3L, 1L), trainIds(board.query(X, true, 0, 24 * 60 - 1, null, 2)));
+        assertEquals(List.of(3L, 2L),
+                trainIds(board.query(X, true, 0, 24 * 60 - 1, event -> event.getTrainId() != 1L, 2)));
+    }
+
+    @Test
+    @DisplayName("测试无效时间段、条数或站点时返回空列表")
+    public void testQuery_Empty() {
+        assertTrue(board.query(X, true, 600, 500, null, 10).isEmpty());
+        assertTrue(board.query(X, true, 0, 24 * 60 - 1, null, 0).isEmpty());
+        assertTrue(board.query(99L, true, 0, 24 * 60 - 1, null, 10).isEmpty());
+    }
+}
@@ -0,0 +1,191 @@
+package com.mini12306.util;
+
+import com.mini12306.model.Train;
+import com.mini12306.model.TrainRoute;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Time;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TimetableIndex 单元测试类
+ */
+public class TimetableIndexTest {
+
+    private static final long A = 1L;
+    private static final long X = 2L;
+    private static final long B = 3L;
+    private static final long C = 4L;
+
+    private TimetableIndex.TrainStops createStops(long trainId, long... stationIds) {
+        int n = stationIds.length;
+        int[] times = new int[n];
+        int[] distance = new int[n];
+        for (int i = 0; i < n; i++) {
+            times[i] = 480 + i * 60;
+            distance[i] = i * 100;
+        }
+        return new TimetableIndex.TrainStops(trainId, stationIds, times, times, distance);
+    }
+
+    private TrainRoute createRoute(long stationId, String arrive, String depart, Integer distance) {
+        TrainRoute route = new TrainRoute();
+        route.setStationId(stationId);
+        route.setArriveTime(arrive != null ? Time.valueOf(arrive) : null);
+        route.setDepartTime(depart != null ? Time.valueOf(depart) : null);
+        route.setDistance(distance);
+        return route;
+    }
+
+    @Test
+    @DisplayName("测试直达查询只返回先经过出发站的车次")
+    public void testFindDirect_Direction() {
+        TimetableIndex index = new TimetableIndex();
+        index.put(createStops(3L, A, C));
+        index.put(createStops(1L, A, X, B));
+        index.put(createStops(2L, B, X, A));
+
+        List<TimetableIndex.StopMatch> matches = index.findDirect(A, B);
+        assertEquals(1, matches.size());
+        assertEquals(1L, matches.get(0).getTrainId());
+        assertEquals(0, matches.get(0).getFromIndex());
+        assertEquals(2, matches.get(0).getToIndex());
+
+        matches = index.findDirect(B, A);
+        assertEquals(1, matches.size());
+        assertEquals(2L, matches.get(0).getTrainId());
+
+        // 两个方向的车次都经过X，按列车ID排序返回
+        matches = index.findDirect(X, A);
+        assertEquals(1, matches.size());
+        assertEquals(2L, matches.get(0).getTrainId());
+        assertTrue(index.findDirect(C, A).isEmpty());
+        assertTrue(index.findDirect(A, 99L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试多次经过同一站时取最早上车和最晚下车")
+    public void testFindDirect_RepeatedStation() {
+        TimetableIndex index = new TimetableIndex();
+        TimetableIndex.TrainStops loop = createStops(5L, A, X, A, B, X);
+        index.put(loop);
+
+        List<TimetableIndex.StopMatch> matches = index.findDirect(A, X);
+        assertEquals(1, matches.size());
+        assertEquals(0, matches.get(0).getFromIndex());
+        assertEquals(4, matches.get(0).getToIndex());
+
+        assertEquals(0, loop.indexOf(A));
+        assertEquals(2, loop.lastIndexOf(A));
+        assertEquals(-1, loop.indexOf(C));
+    }
+
+    @Test
+    @DisplayName("测试替换和删除车次后站点索引同步更新")
+    public void testPutAndRemove() {
+        TimetableIndex index = new TimetableIndex();
+        index.put(createStops(1L, A, X, B));
+        index.put(createStops(2L, A, B));
+        long version = index.getVersion();
+
+        // 车次1改为不经停B
+        index.put(createStops(1L, A, C));
+        assertTrue(index.getVersion() > version);
+        assertEquals(1, index.findDirect(A, B).size());
+        assertEquals(2L, index.findDirect(A, B).get(0).getTrainId());
+        assertEquals(0, index.getStationEntries(X).length);
+        assertEquals(1, index.findDirect(A, C).size());
+
+        index.remove(2L);
+        assertTrue(index.findDirect(A, B).isEmpty());
+        assertEquals(0, index.getStationEntries(B).length);
+        assertNull(index.getTrain(2L));
+
+        long[] entries = index.getStationEntries(A);
+        assertEquals(1, entries.length);
+        assertEquals(1L, TimetableIndex.trainOf(entries[0]));
+        assertEquals(0, TimetableIndex.indexOf(entries[0]));
+    }
+
+    @Test
+    @DisplayName("测试乱序加入的车次在站点索引中按列车ID排序，删除不存在的车次不改变版本")
+    public void testStationEntries_Sorted() {
+        TimetableIndex index = new TimetableIndex();
+        index.put(createStops(9L, A, B));
+        index.put(createStops(2L, X, A, B));
+        index.put(createStops(5L, A, X, B));
+
+        long[] entries = index.getStationEntries(A);
+        assertEquals(3, entries.length);
+        assertEquals(2L, TimetableIndex.trainOf(entries[0]));
+        assertEquals(1, TimetableIndex.indexOf(entries[0]));
+        assertEquals(5L, TimetableIndex.trainOf(entries[1]));
+        assertEquals(9L, TimetableIndex.trainOf(entries[2]));
+        assertEquals(3, index.findDirect(A, B).size());
+
+        long version = index.getVersion();
+        index.remove(99L);
+        assertEquals(version, index.getVersion());
+    }
+
+    @Test
+    @DisplayName("测试整体加载会清除原有车次")
+    public void testReset() {
+        TimetableIndex index = new TimetableIndex();
+        index.put(createStops(1L, A, B));
+
+        index.reset(Arrays.asList(createStops(2L, B, A), createStops(3L, A, X)));
+        assertNull(index.getTrain(1L));
+        assertEquals(2, index.getTrains().size());
+        assertTrue(index.findDirect(A, B).isEmpty());
+        assertEquals(1, index.findDirect(B, A).size());
+    }
+
+    @Test
+    @DisplayName("测试按路线构建经停信息时跨午夜的时间继续累加")
+    public void testTrainStopsOf_CrossMidnight() {
+        Train train = new Train();
+        train.setId(7L);
+        List<TrainRoute> routes = Arrays.asList(
+                createRoute(A, null, "22:00:00", null),
+                createRoute(X, "23:50:00", "00:10:00", 150),
+                createRoute(B, "01:30:00", null, 260));
+
+        TimetableIndex.TrainStops stops = TimetableIndex.TrainStops.of(train, routes);
+        assertEquals(3, stops.size());
+        assertEquals(1320, stops.getArrive(0));
+        assertEquals(1320, stops.getDepart(0));
+        assertEquals(1430, stops.getArrive(1));
+        assertEquals(1450, stops.getDepart(1));
+        assertEquals(1530, stops.getArrive(2));
+        assertEquals(1530, stops.getDepart(2));
+        assertEquals(-1, stops.getDistance(0));
+        assertEquals(260, stops.getDistance(2));
+    }
+
+    @Test
+    @DisplayName("测试没有路线时按始发站和终点站构建")
+    public void testTrainStopsOf_WithoutRoutes() {
+        Train train = new Train();
+        train.setId(8L);
+        train.setStartStationId(A);
+        train.setEndStationId(B);
+        train.setStartTime("23:00");
+        train.setEndTime("01:00");
+
+        TimetableIndex.TrainStops stops = TimetableIndex.TrainStops.of(train, null);
+        assertEquals(2, stops.size());
+        assertEquals(1380, stops.getDepart(0));
+        assertEquals(1500, stops.getArrive(1));
+
+        train.setDuration(90);
+        assertEquals(1470, TimetableIndex.TrainStops.of(train, null).getArrive(1));
+
+        train.setEndStationId(null);
+        assertNull(TimetableIndex.TrainStops.of(train, null));
+    }
+}
@@ -50,11 +50,11 @@ export const trainAPI = {
     });
   },
   // 根据起始站和终点站查询列车
-  searchTrains(startStation, endStation) {
+  searchTrains(startStation, endStation, travelDate) {
     return request({
       url: '/train/search',
       method: 'get',
-      params: { startStation, endStation }
+      params: { startStation, endStation, travelDate }
     });
   },
   // 获取列车详情
@@ -129,6 +129,14 @@ export const orderAPI = {
       method: 'get'
     });
   },
+  // 分页查询用户的订单，cursor为上一页返回的nextCursor
+  listUserOrdersPage(cursor, size) {
+    return request({
+      url: '/order/page',
+      method: 'get',
+      params: { cursor, size }
+    });
+  },
   // 取消订单
   cancelOrder(orderNo) {
     return request({
@@ -166,6 +174,14 @@ export const orderAPI = {
       method: 'get',
       params: { startStation }
     });
+  },
+  // 按条件分页搜索订单，params: startStation, endStation, status, startDate, endDate, cursor, size
+  searchOrders(params) {
+    return request({
+      url: '/order/search/page',
+      method: 'get',
+      params
+    });
   }
 };
 